@@ -18,6 +18,7 @@
 package org.bboxdb.commons;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
 
 import org.bboxdb.commons.io.UnsafeMemoryHelper;
 
@@ -39,6 +40,21 @@ public class SystemInfo {
 		return Runtime.getRuntime().maxMemory();
 	}
 	
+	/**
+	 * Get the system load average of the last minute per CPU core 
+	 * (a negative value is returned if the load is not available)
+	 * @return
+	 */
+	public static double getSystemLoadPerCore() {
+		final double loadAverage = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+		
+		if(loadAverage < 0) {
+			return -1;
+		}
+		
+		return loadAverage / getCPUCores();
+	}
+	
 	/**
 	 * Get the total diskspace on the location
 	 * @param path
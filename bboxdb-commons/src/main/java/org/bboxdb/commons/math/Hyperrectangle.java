@@ -706,6 +706,38 @@ public class Hyperrectangle implements Comparable<Hyperrectangle> {
 		return volume;
 	}
 
+	/**
+	 * Get the minimal euclidean distance between this and another bounding box.
+	 * The distance is 0 when both boxes intersect or one of the boxes covers 
+	 * the full space.
+	 * @param otherBox
+	 * @return
+	 */
+	public double getMinDistance(final Hyperrectangle otherBox) {
+
+		if(getDimension() == 0 || otherBox.getDimension() == 0) {
+			return 0;
+		}
+
+		throwExceptionIfDimensionNotMatch(otherBox);
+
+		double squaredDistance = 0;
+
+		for(int d = 0; d < getDimension(); d++) {
+			double gap = 0;
+
+			if(otherBox.getCoordinateHigh(d) < getCoordinateLow(d)) {
+				gap = getCoordinateLow(d) - otherBox.getCoordinateHigh(d);
+			} else if(otherBox.getCoordinateLow(d) > getCoordinateHigh(d)) {
+				gap = otherBox.getCoordinateLow(d) - getCoordinateHigh(d);
+			}
+
+			squaredDistance = squaredDistance + (gap * gap);
+		}
+
+		return Math.sqrt(squaredDistance);
+	}
+
 	/**
 	 * Get the intersection of this and another bounding box
 	 * @param otherBox
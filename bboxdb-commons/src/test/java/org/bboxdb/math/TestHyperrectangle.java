@@ -654,4 +654,21 @@ public class TestHyperrectangle {
 		Assert.assertEquals(new Hyperrectangle(-5d, 15d, -55d, 55d, -105d, 15d), bb3.enlarge(5));
 	}
 
+	/**
+	 * Test the min distance function
+	 */
+	@Test(timeout=60000)
+	public void testMinDistance() {
+		final Hyperrectangle bb1 = new Hyperrectangle(0d, 1d, 0d, 1d);
+		final Hyperrectangle bb2 = new Hyperrectangle(4d, 5d, 5d, 6d);
+		final Hyperrectangle bb3 = new Hyperrectangle(0.5d, 3d, 0.5d, 3d);
+		final Hyperrectangle point = new Hyperrectangle(1d, 1d, 3d, 3d);
+
+		Assert.assertEquals(5.0, bb1.getMinDistance(bb2), 0.0001);
+		Assert.assertEquals(5.0, bb2.getMinDistance(bb1), 0.0001);
+		Assert.assertEquals(0.0, bb1.getMinDistance(bb3), 0.0001);
+		Assert.assertEquals(2.0, bb1.getMinDistance(point), 0.0001);
+		Assert.assertEquals(0.0, bb1.getMinDistance(Hyperrectangle.FULL_SPACE), 0.0001);
+	}
+
 }
@@ -27,6 +27,7 @@ import org.bboxdb.distribution.TupleStoreFlushZookeeperAdapter;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.BBoxDBInstanceManager;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.rebalance.RegionRebalanceService;
 import org.bboxdb.distribution.statistics.StatisticsUpdateService;
 import org.bboxdb.distribution.zookeeper.ZookeeperClient;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
@@ -86,6 +87,10 @@ public class BBoxDBMain {
 		final StatisticsUpdateService statisticsService = new StatisticsUpdateService(storageRegistry);
 		services.add(statisticsService);
 		
+		// The region rebalance service
+		final RegionRebalanceService rebalanceService = new RegionRebalanceService(storageRegistry);
+		services.add(rebalanceService);
+		
 		// The JMX service
 		final JMXService jmxService = new JMXService(this);
 		services.add(jmxService);
@@ -76,6 +76,26 @@ public class BBoxDBInstance implements Comparable<BBoxDBInstance> {
 	 * The state of the instance
 	 */
 	protected BBoxDBInstanceState state = BBoxDBInstanceState.FAILED;
+	
+	/**
+	 * The requests (reads and writes) per second, -1 if unknown
+	 */
+	protected double requestRate = -1;
+	
+	/**
+	 * The system load average per CPU core, -1 if unknown
+	 */
+	protected double cpuLoad = -1;
+	
+	/**
+	 * The memtables waiting to be flushed to disk, -1 if unknown
+	 */
+	protected int diskQueueDepth = -1;
+	
+	/**
+	 * The fraction of the memory that is used by unflushed memtables, -1 if unknown
+	 */
+	protected double memtablePressure = -1;
 
 	public BBoxDBInstance(final String connectionString, final String version, final BBoxDBInstanceState state) {
 		this(connectionString, state);
@@ -311,6 +331,70 @@ public class BBoxDBInstance implements Comparable<BBoxDBInstance> {
 		this.memory = memory;
 	}
 	
+	/**
+	 * Get the requests per second
+	 * @return
+	 */
+	public double getRequestRate() {
+		return requestRate;
+	}
+
+	/**
+	 * Set the requests per second
+	 * @param requestRate
+	 */
+	public void setRequestRate(final double requestRate) {
+		this.requestRate = requestRate;
+	}
+
+	/**
+	 * Get the system load average per CPU core
+	 * @return
+	 */
+	public double getCpuLoad() {
+		return cpuLoad;
+	}
+
+	/**
+	 * Set the system load average per CPU core
+	 * @param cpuLoad
+	 */
+	public void setCpuLoad(final double cpuLoad) {
+		this.cpuLoad = cpuLoad;
+	}
+
+	/**
+	 * Get the number of memtables waiting to be flushed
+	 * @return
+	 */
+	public int getDiskQueueDepth() {
+		return diskQueueDepth;
+	}
+
+	/**
+	 * Set the number of memtables waiting to be flushed
+	 * @param diskQueueDepth
+	 */
+	public void setDiskQueueDepth(final int diskQueueDepth) {
+		this.diskQueueDepth = diskQueueDepth;
+	}
+
+	/**
+	 * Get the fraction of the memory used by unflushed memtables
+	 * @return
+	 */
+	public double getMemtablePressure() {
+		return memtablePressure;
+	}
+
+	/**
+	 * Set the fraction of the memory used by unflushed memtables
+	 * @param memtablePressure
+	 */
+	public void setMemtablePressure(final double memtablePressure) {
+		this.memtablePressure = memtablePressure;
+	}
+	
 	/**
 	 * Add free space data
 	 * @param location
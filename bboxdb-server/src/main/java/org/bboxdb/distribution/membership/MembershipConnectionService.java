@@ -29,6 +29,7 @@ import java.util.function.BiConsumer;
 import org.bboxdb.misc.BBoxDBService;
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.tools.ReplicaReadPolicy;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +61,16 @@ public class MembershipConnectionService implements BBoxDBService {
 	 */
 	private short tuplesPerPage;
 
+	/**
+	 * The maximal amount of outstanding page requests per query
+	 */
+	private int maxPageCredits;
+	
+	/**
+	 * The read policy for replicated regions
+	 */
+	private volatile ReplicaReadPolicy replicaReadPolicy;
+
 	/**
 	 * The tuple store manager registry (used for gossip, between server<->server connections)
 	 */
@@ -86,6 +97,8 @@ public class MembershipConnectionService implements BBoxDBService {
 		this.knownInstances = new ConcurrentHashMap<>();
 		this.pagingEnabled = false;
 		this.tuplesPerPage = 0;
+		this.maxPageCredits = 8;
+		this.replicaReadPolicy = ReplicaReadPolicy.HEDGED;
 		this.blacklist = new HashSet<>();
 	}
 
@@ -225,6 +238,7 @@ public class MembershipConnectionService implements BBoxDBService {
 
 		client.setPagingEnabled(pagingEnabled);
 		client.setTuplesPerPage(tuplesPerPage);
+		client.setMaxPageCredits(maxPageCredits);
 		client.setTupleStoreManagerRegistry(tupleStoreManagerRegistry);
 
 		final boolean result = connection.connect();
@@ -324,6 +338,39 @@ public class MembershipConnectionService implements BBoxDBService {
 		serverConnections.values().forEach(c -> c.getBboxDBClient().setTuplesPerPage(tuplesPerPage));
 	}
 
+	/**
+	 * Get the maximal amount of outstanding page requests per query
+	 * @return
+	 */
+	public int getMaxPageCredits() {
+		return maxPageCredits;
+	}
+
+	/**
+	 * Set the maximal amount of outstanding page requests per query
+	 * @param maxPageCredits
+	 */
+	public void setMaxPageCredits(final int maxPageCredits) {
+		this.maxPageCredits = maxPageCredits;
+		serverConnections.values().forEach(c -> c.getBboxDBClient().setMaxPageCredits(maxPageCredits));
+	}
+
+	/**
+	 * Get the read policy for replicated regions
+	 * @return
+	 */
+	public ReplicaReadPolicy getReplicaReadPolicy() {
+		return replicaReadPolicy;
+	}
+
+	/**
+	 * Set the read policy for replicated regions
+	 * @param replicaReadPolicy
+	 */
+	public void setReplicaReadPolicy(final ReplicaReadPolicy replicaReadPolicy) {
+		this.replicaReadPolicy = replicaReadPolicy;
+	}
+
 	/**
 	 * Get the tuple store manager registry (used for gossip in keep alive)
 	 * @return
@@ -39,6 +39,7 @@ import org.bboxdb.misc.Const;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Longs;
 
 public class ZookeeperBBoxDBInstanceAdapter implements Watcher {
@@ -135,6 +136,9 @@ public class ZookeeperBBoxDBInstanceAdapter implements Watcher {
 			// Diskspace
 			readDiskSpaceForInstance(instance);
 			
+			// Load
+			readLoadForInstance(instance);
+			
 			return true;
 		});
 	
@@ -277,6 +281,46 @@ public class ZookeeperBBoxDBInstanceAdapter implements Watcher {
 	}
 	
 
+	/**
+	 * Read the live load metrics for the given instance. Metrics that are not 
+	 * published (e.g., by an older version) remain unknown (-1).
+	 * 
+	 * @param instance
+	 */
+	public void readLoadForInstance(final BBoxDBInstance instance) {
+		instance.setRequestRate(readLoadValue(pathHelper.getInstancesRequestRatePath(instance)));
+		instance.setCpuLoad(readLoadValue(pathHelper.getInstancesCpuLoadPath(instance)));
+		instance.setDiskQueueDepth((int) readLoadValue(pathHelper.getInstancesDiskQueuePath(instance)));
+		instance.setMemtablePressure(readLoadValue(pathHelper.getInstancesMemtablePressurePath(instance)));
+	}
+	
+	/**
+	 * Read a load value, -1 is returned if the value is unknown
+	 * @param path
+	 * @return
+	 */
+	private double readLoadValue(final String path) {
+		try {
+			if(! zookeeperClient.exists(path)) {
+				return -1;
+			}
+			
+			final String valueString = zookeeperClient.readPathAndReturnString(path);
+			final Double value = Doubles.tryParse(valueString);
+			
+			if(value == null) {
+				logger.error("Unable to parse {} as load value", valueString);
+				return -1;
+			}
+			
+			return value;
+		} catch (ZookeeperException | ZookeeperNotFoundException e) {
+			logger.debug("Unable to read load value for: {}", path);
+		}
+		
+		return -1;
+	}
+	
 	/**
 	 * Zookeeper watched event
 	 */
@@ -384,6 +428,30 @@ public class ZookeeperBBoxDBInstanceAdapter implements Watcher {
 		}
 	}
 
+	/**
+	 * Update the live load metrics (request rate, cpu load, disk queue, memtable pressure)
+	 * @param instance
+	 * @throws ZookeeperException
+	 */
+	public void updateNodeLoad(final BBoxDBInstance instance) throws ZookeeperException {
+		
+		final String requestRatePath = pathHelper.getInstancesRequestRatePath(instance);
+		zookeeperClient.replacePersistentNode(requestRatePath, 
+				Double.toString(instance.getRequestRate()).getBytes());
+		
+		final String cpuLoadPath = pathHelper.getInstancesCpuLoadPath(instance);
+		zookeeperClient.replacePersistentNode(cpuLoadPath, 
+				Double.toString(instance.getCpuLoad()).getBytes());
+		
+		final String diskQueuePath = pathHelper.getInstancesDiskQueuePath(instance);
+		zookeeperClient.replacePersistentNode(diskQueuePath, 
+				Integer.toString(instance.getDiskQueueDepth()).getBytes());
+		
+		final String memtablePressurePath = pathHelper.getInstancesMemtablePressurePath(instance);
+		zookeeperClient.replacePersistentNode(memtablePressurePath, 
+				Double.toString(instance.getMemtablePressure()).getBytes());
+	}
+
 	/**
 	 * Update the instance data
 	 * @param zookeeperClient
@@ -61,6 +61,41 @@ public class ZookeeperInstancePathHelper {
 		return getInstanceDetailsPath(distributedInstance) + "/memory";
 	}
 	
+	/**
+	 * Get the path of the load node
+	 */
+	public String getInstancesLoadPath(final BBoxDBInstance distributedInstance) {
+		return getInstanceDetailsPath(distributedInstance) + "/load";
+	}
+	
+	/**
+	 * Get the path of the request rate node
+	 */
+	public String getInstancesRequestRatePath(final BBoxDBInstance distributedInstance) {
+		return getInstancesLoadPath(distributedInstance) + "/requestrate";
+	}
+	
+	/**
+	 * Get the path of the cpu load node
+	 */
+	public String getInstancesCpuLoadPath(final BBoxDBInstance distributedInstance) {
+		return getInstancesLoadPath(distributedInstance) + "/cpuload";
+	}
+	
+	/**
+	 * Get the path of the disk queue node
+	 */
+	public String getInstancesDiskQueuePath(final BBoxDBInstance distributedInstance) {
+		return getInstancesLoadPath(distributedInstance) + "/diskqueue";
+	}
+	
+	/**
+	 * Get the path of the memtable pressure node
+	 */
+	public String getInstancesMemtablePressurePath(final BBoxDBInstance distributedInstance) {
+		return getInstancesLoadPath(distributedInstance) + "/memtablepressure";
+	}
+	
 	/**
 	 * Get the path of the diskspace node
 	 */
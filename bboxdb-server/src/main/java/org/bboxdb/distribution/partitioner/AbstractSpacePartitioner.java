@@ -23,6 +23,7 @@ import java.util.function.Predicate;
 import org.bboxdb.distribution.DistributionGroupConfigurationCache;
 import org.bboxdb.distribution.TupleStoreConfigurationCache;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.partitioner.regionsplit.StatisticsHelper;
 import org.bboxdb.distribution.placement.ResourceAllocationException;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.region.DistributionRegionCallback;
@@ -163,6 +164,10 @@ public abstract class AbstractSpacePartitioner implements SpacePartitioner{
 				firstRegionPath, zookeeperClient);
 
 		final List<BBoxDBInstance> blacklistSystems = regionToSplit.getSystems();
+		
+		// The request load of the region is assumed to be spread evenly over the children
+		final double expectedLoad = StatisticsHelper.getRequestRate(regionToSplit)
+				.orElse(0) / (double) numberOfChilden;
 
 		// For the remaining node, a new resource allocation is performed
 		for(int i = 1; i < numberOfChilden; i++) {
@@ -174,7 +179,7 @@ public abstract class AbstractSpacePartitioner implements SpacePartitioner{
 			final String fullname = region.getDistributionGroupName();
 			
 			SpacePartitionerHelper.allocateSystemsToRegion(path, fullname, 
-					blacklistSystems, zookeeperClient);
+					blacklistSystems, zookeeperClient, expectedLoad);
 		}
 	}
 
@@ -76,6 +76,27 @@ public class SpacePartitionerHelper {
 			final Collection<BBoxDBInstance> blacklist, 
 			final ZookeeperClient zookeeperClient) 
 					throws ZookeeperException, ResourceAllocationException, ZookeeperNotFoundException {
+		
+		allocateSystemsToRegion(regionPath, distributionGroupName, blacklist, zookeeperClient, 0);
+	}
+	
+	/**
+	 * Allocate the required amount of systems to the given region. The expected 
+	 * load (requests per second) of the region is passed to the placement strategy.
+	 * 
+	 * @param region
+	 * @param zookeeperClient
+	 * @param expectedLoad
+	 * @throws ZookeeperException
+	 * @throws ResourceAllocationException
+	 * @throws ZookeeperNotFoundException 
+	 */
+	public static void allocateSystemsToRegion(final String regionPath,
+			final String distributionGroupName,
+			final Collection<BBoxDBInstance> blacklist, 
+			final ZookeeperClient zookeeperClient,
+			final double expectedLoad) 
+					throws ZookeeperException, ResourceAllocationException, ZookeeperNotFoundException {
 				
 		final DistributionGroupConfiguration config = DistributionGroupConfigurationCache
 				.getInstance().getDistributionGroupConfiguration(distributionGroupName);
@@ -101,7 +122,8 @@ public class SpacePartitionerHelper {
 		blacklistedSystems.addAll(blacklist);
 				
 		for(short i = 0; i < replicationFactor; i++) {
-			final BBoxDBInstance instance = resourcePlacementStrategy.getInstancesForNewRessource(availableSystems, blacklistedSystems);
+			final BBoxDBInstance instance = resourcePlacementStrategy
+					.getInstancesForNewRessource(availableSystems, blacklistedSystems, expectedLoad);
 			allocationSystems.add(instance);
 			blacklistedSystems.add(instance);
 		}
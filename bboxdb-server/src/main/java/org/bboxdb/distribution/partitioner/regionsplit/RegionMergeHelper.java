@@ -33,6 +33,7 @@ import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.slf4j.Logger;
@@ -92,6 +93,11 @@ public class RegionMergeHelper {
 			return false;
 		}
 		
+		if(isRequestRateTooHighForMerge(sources)) {
+			logger.info("Request rate is too high, skip merge for {}", sourceIds);
+			return false;
+		}
+		
 		final OptionalDouble childRegionSize = getTotalRegionSize(sources);
 		
 		if(! childRegionSize.isPresent()) {
@@ -114,6 +120,30 @@ public class RegionMergeHelper {
 		} 
 	}
 
+	/**
+	 * Is the request rate of the merged region too high? The merged region 
+	 * needs to stay below the half of the split limit, otherwise it would be
+	 * split again directly.
+	 * 
+	 * @param sources
+	 * @return
+	 */
+	private static boolean isRequestRateTooHighForMerge(final List<DistributionRegion> sources) {
+		
+		final long maxRequestRate = BBoxDBConfigurationManager.getConfiguration().getRegionMaxRequestRate();
+		
+		if(maxRequestRate <= 0) {
+			return false;
+		}
+		
+		final long totalRequestRate = sources.stream()
+			.map(r -> StatisticsHelper.getRequestRate(r))
+			.mapToLong(r -> r.orElse(0))
+			.sum();
+		
+		return totalRequestRate > maxRequestRate / 2;
+	}
+
 	/**
 	 * Get a list with the region ids
 	 * @param sources
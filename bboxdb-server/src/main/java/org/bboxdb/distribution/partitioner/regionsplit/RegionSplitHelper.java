@@ -19,6 +19,7 @@ package org.bboxdb.distribution.partitioner.regionsplit;
 
 
 import java.util.OptionalDouble;
+import java.util.OptionalLong;
 
 import org.bboxdb.distribution.DistributionGroupConfigurationCache;
 import org.bboxdb.distribution.partitioner.DistributionRegionState;
@@ -27,6 +28,7 @@ import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.slf4j.Logger;
@@ -39,6 +41,11 @@ public class RegionSplitHelper {
 	 */
 	private final static Logger logger = LoggerFactory.getLogger(RegionSplitHelper.class);
 	
+	/**
+	 * The min amount of tuples for a split caused by the request rate
+	 */
+	private final static long MIN_TUPLES_FOR_LOAD_SPLIT = 1000;
+	
 	/**
 	 * Needs the region a split?
 	 * @param region
@@ -52,6 +59,10 @@ public class RegionSplitHelper {
 			return false;
 		}
 		
+		if(isRegionOverloaded(region)) {
+			return true;
+		}
+		
 		final OptionalDouble sizeOfRegionInMB = StatisticsHelper.getAndUpdateStatistics(region);
 
 		if(! sizeOfRegionInMB.isPresent()) {
@@ -66,6 +77,42 @@ public class RegionSplitHelper {
 		} 
 	}
 	
+	/**
+	 * Is the request rate of the region above the configured limit? Regions
+	 * with only a few tuples are not split, the split point can't be 
+	 * determined for them.
+	 * 
+	 * @param region
+	 * @return
+	 */
+	private static boolean isRegionOverloaded(final DistributionRegion region) {
+		
+		final long maxRequestRate = BBoxDBConfigurationManager.getConfiguration().getRegionMaxRequestRate();
+		
+		if(maxRequestRate <= 0) {
+			return false;
+		}
+		
+		final OptionalLong requestRate = StatisticsHelper.getRequestRate(region);
+		
+		if(! requestRate.isPresent() || requestRate.getAsLong() <= maxRequestRate) {
+			return false;
+		}
+		
+		final long tuples = StatisticsHelper.getTuples(region);
+		
+		if(tuples < MIN_TUPLES_FOR_LOAD_SPLIT) {
+			logger.info("Region {} is overloaded ({} requests/s) but has only {} tuples, not splitting", 
+					region.getIdentifier(), requestRate.getAsLong(), tuples);
+			return false;
+		}
+		
+		logger.info("Region {} is overloaded ({} requests/s / max {})", 
+				region.getIdentifier(), requestRate.getAsLong(), maxRequestRate);
+		
+		return true;
+	}
+	
 	/**
 	 * Get maximal size of a region
 	 * @return
@@ -19,7 +19,9 @@ package org.bboxdb.distribution.partitioner.regionsplit;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.partitioner.DistributionRegionState;
@@ -32,9 +34,7 @@ import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.storage.StorageManagerException;
-import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
-import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreUtil;
@@ -164,7 +164,12 @@ public class RegionSplitter {
 	
 
 	/**
-	 * Redistribute data after region split
+	 * Redistribute data after region split. The data is spread in two phases. In 
+	 * the first phase, the tuple stores are flushed to disk and the SSTables are 
+	 * spread while the tables still accept writes. In the second phase (the cut-over), 
+	 * the tables are set to read only and only the data that was written 
+	 * during the first phase is spread.
+	 * 
 	 * @param region
 	 */
 	private void redistributeDataSplit(final DistributionRegion source, 
@@ -172,6 +177,9 @@ public class RegionSplitter {
 		
 		final long regionId = source.getRegionId();
 		
+		// The spreaders of the tables, they know the already spread data
+		final Map<TupleStoreName, TupleStoreSpreader> spreaders = new HashMap<>();
+		
 		try {
 			logger.info("Redistributing all data for region: {}", regionId);
 						
@@ -180,6 +188,15 @@ public class RegionSplitter {
 			final List<TupleStoreName> localTables = TupleStoreUtil
 					.getAllTablesForDistributionGroupAndRegionId(registry, distributionGroupName, regionId);
 	
+			// Phase 1: Redistribute the persisted data, the tables are still writable
+			for(final TupleStoreName ssTableName : localTables) {
+				flushToDisk(ssTableName);
+				final TupleRedistributor tupleRedistributor = getTupleRedistributor(source, destination, ssTableName);
+				final TupleStoreManager ssTableManager = registry.getTupleStoreManager(ssTableName);
+				spreaders.put(ssTableName, new TupleStoreSpreader(ssTableManager, tupleRedistributor));
+				distributeData(ssTableName, spreaders.get(ssTableName), true);
+			}
+			
 			// Remove the local mapping, no new data is written to the region
 			final SpacePartitioner spacePartitioner = SpacePartitionerCache
 					.getInstance().getSpacePartitionerForGroupName(distributionGroupName);
@@ -190,11 +207,16 @@ public class RegionSplitter {
 			// from Zookeeper and the space partitioner removed this region as active
 			mapper.waitUntilMappingDisappears(regionId);
 			
-			// Redistribute data
+			// Phase 2: Cut-over, reject new writes and redistribute the remaining data
 			for(final TupleStoreName ssTableName : localTables) {
-				// Reject new writes and flush to disk
 				stopFlushToDisk(ssTableName);
-				distributeData(ssTableName, source, destination);	
+				final TupleStoreSpreader spreader = spreaders.get(ssTableName);
+				distributeData(ssTableName, spreader, false);
+				spreader.getTupleRedistributor().flush();
+				
+				logger.info("Final statistics for spread ({}): {}, skipped already spread tuples {}", 
+						ssTableName.getFullname(), spreader.getTupleRedistributor().getStatistics(), 
+						spreader.getSkippedTuples());
 			}
 
 		} catch (InterruptedException e) {
@@ -204,6 +226,8 @@ public class RegionSplitter {
 		} catch (Exception e) {
 			logger.error("Got exception when redistribute local data", e);
 			return;
+		} finally {
+			spreaders.values().forEach(s -> s.close());
 		}
 		
 		logger.info("Redistributing data for region: {} DONE", regionId);
@@ -212,24 +236,34 @@ public class RegionSplitter {
 	/**
 	 * Redistribute the given sstable
 	 * @param ssTableName
-	 * @param source 
-	 * @param destination 
+	 * @param spreader 
+	 * @param onlyPersistentData 
 	 * @throws StorageManagerException 
 	 */
-	private void distributeData(final TupleStoreName ssTableName, final DistributionRegion source,
-			final List<DistributionRegion> destination) 
-			throws BBoxDBException, StorageManagerException {
+	private void distributeData(final TupleStoreName ssTableName, final TupleStoreSpreader spreader, 
+			final boolean onlyPersistentData) throws BBoxDBException, StorageManagerException {
 		
-		logger.info("Redistributing table {}", ssTableName.getFullname());
-		
-		final TupleStoreManager ssTableManager = registry.getTupleStoreManager(ssTableName);
+		logger.info("Redistributing table {} (only persistent data: {})", 
+				ssTableName.getFullname(), onlyPersistentData);
 		
 		// Spread data
-		final TupleRedistributor tupleRedistributor = getTupleRedistributor(source, destination, ssTableName);
-		spreadTupleStores(ssTableManager, tupleRedistributor);			
+		spreader.spreadTupleStores(onlyPersistentData);
 		
 		logger.info("Redistributing table {} is DONE", ssTableName.getFullname());
 	}
+	
+	/**
+	 * Write the in memory data to disk, new data is still accepted
+	 * @param ssTableName
+	 * @throws StorageManagerException
+	 */
+	private void flushToDisk(final TupleStoreName ssTableName) throws StorageManagerException {
+		final TupleStoreManager ssTableManager = registry.getTupleStoreManager(ssTableName);
+		
+		if(! ssTableManager.flush()) {
+			logger.warn("Unable to flush {}, data is spread during cut-over", ssTableName.getFullname());
+		}
+	}
 
 	/**
 	 * Stop the to disk flushing
@@ -263,58 +297,4 @@ public class RegionSplitter {
 		
 		return tupleRedistributor;
 	}
-
-	/**
-	 * Spread a given tuple store onto new systems
-	 * @param region
-	 * @param sstableManager
-	 * @param ssTableManager
-	 * @param tupleRedistributor
-	 * @param onlyInMemoryData 
-	 * @throws StorageManagerException 
-	 */
-	private void spreadTupleStores(final TupleStoreManager ssTableManager, 
-			final TupleRedistributor tupleRedistributor) throws BBoxDBException {
-		
-		final List<ReadOnlyTupleStore> storages = new ArrayList<>();
-		
-		try {
-			final List<ReadOnlyTupleStore> aquiredStorages = ssTableManager.aquireStorage();
-			storages.addAll(aquiredStorages);
-			
-			final int totalSotrages = aquiredStorages.size();
-			
-			for(int i = 0; i < totalSotrages; i++) {
-				final ReadOnlyTupleStore storage = aquiredStorages.get(i);
-				logger.info("Spread tuple storage {} number {} of {}", 
-						storage.getInternalName(), i, totalSotrages - 1);
-						spreadStorage(tupleRedistributor, storage);
-			}
-
-			logger.info("Final statistics for spread ({}): {}", 
-					ssTableManager.getTupleStoreName().getFullname(),
-					tupleRedistributor.getStatistics());
-			
-		} catch (Exception e) {
-			throw new BBoxDBException(e);
-		} finally {
-			ssTableManager.releaseStorage(storages);
-		}
-	}
-
-	/**
-	 * Spread the tuple storage
-	 * @param tupleRedistributor
-	 * @param storage
-	 * @param distributeSuccessfully
-	 * @return
-	 * @throws Exception 
-	 */
-	private void spreadStorage(final TupleRedistributor tupleRedistributor,
-			final ReadOnlyTupleStore storage) throws Exception {
-		
-		for(final Tuple tuple : storage) {
-			tupleRedistributor.redistributeTuple(tuple);
-		}		
-	}
 }
@@ -18,6 +18,7 @@
 package org.bboxdb.distribution.partitioner.regionsplit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -25,7 +26,9 @@ import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreMetaData;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.reader.SSTableFacade;
 import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
@@ -91,43 +94,97 @@ public class SamplingHelper {
 	}
 
 	/**
-	 * Process the facades for the table and create samples
+	 * Process the facades for the table and create samples. The samples of SSTables 
+	 * are read from the metadata, the reservoir sample is created when the SSTable 
+	 * is written. Only the samples of in memory tuple stores (and old SSTables 
+	 * without samples) are created by reading tuples.
+	 * 
 	 * @param storages
-	 * @param splitDimension 
-	 * @param boundingBox 
-	 * @param floatIntervals 
 	 * @return 
 	 * @throws StorageManagerException 
 	 */
 	private static List<Hyperrectangle> processTupleStores(final List<ReadOnlyTupleStore> storages) 
 			throws StorageManagerException {
 		
-		final int samplesPerStorage = 100;
 		final List<Hyperrectangle> samples = new ArrayList<>();
 		
-		logger.debug("Fetching {} samples per storage", samplesPerStorage);
-		
 		for(final ReadOnlyTupleStore storage : storages) {
 			if(! storage.acquire() ) {
 				continue;
 			}
 			
-			final long numberOfTuples = storage.getNumberOfTuples();
-			final int sampleOffset = Math.max(10, (int) (numberOfTuples / samplesPerStorage));
-			
-			for (long position = 0; position < numberOfTuples; position = position + sampleOffset) {
-				final Tuple tuple = storage.getTupleAtPosition(position);							
-				final Hyperrectangle tupleBoundingBox = tuple.getBoundingBox();
-			
-				// Ignore tuples with an empty box (e.g. deleted tuples)
-				if(tupleBoundingBox == null || tupleBoundingBox.equals(Hyperrectangle.FULL_SPACE)) {
-					continue;
-				}
+			try {
+				final List<Hyperrectangle> metadataSamples = getSamplesFromMetadata(storage);
 				
-				samples.add(tupleBoundingBox);
+				if(! metadataSamples.isEmpty()) {
+					samples.addAll(metadataSamples);
+				} else {
+					samples.addAll(getSamplesFromTuples(storage));
+				}
+			} finally {
+				storage.release();
 			}
-	
-			storage.release();
+		}
+		
+		return samples;
+	}
+
+	/**
+	 * Get the samples from the metadata of the tuple store
+	 * @param storage
+	 * @return
+	 */
+	private static List<Hyperrectangle> getSamplesFromMetadata(final ReadOnlyTupleStore storage) {
+		
+		final List<Hyperrectangle> samples = new ArrayList<>();
+		
+		if(! (storage instanceof SSTableFacade)) {
+			return samples;
+		}
+		
+		final TupleStoreMetaData metaData = ((SSTableFacade) storage).getSsTableMetadata();
+		final double[] sampleData = metaData.getSampleData();
+		final int valuesPerSample = metaData.getDimensions() * 2;
+		
+		if(sampleData == null || valuesPerSample == 0) {
+			return samples;
+		}
+		
+		for(int pos = 0; pos + valuesPerSample <= sampleData.length; pos = pos + valuesPerSample) {
+			final double[] values = Arrays.copyOfRange(sampleData, pos, pos + valuesPerSample);
+			samples.add(new Hyperrectangle(values));
+		}
+		
+		return samples;
+	}
+
+	/**
+	 * Get the samples by reading every n-th tuple of the tuple store
+	 * @param storage
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	private static List<Hyperrectangle> getSamplesFromTuples(final ReadOnlyTupleStore storage) 
+			throws StorageManagerException {
+		
+		final int samplesPerStorage = 100;
+		final List<Hyperrectangle> samples = new ArrayList<>();
+		
+		logger.debug("Fetching {} samples from storage {}", samplesPerStorage, storage.getInternalName());
+			
+		final long numberOfTuples = storage.getNumberOfTuples();
+		final int sampleOffset = Math.max(10, (int) (numberOfTuples / samplesPerStorage));
+		
+		for (long position = 0; position < numberOfTuples; position = position + sampleOffset) {
+			final Tuple tuple = storage.getTupleAtPosition(position);							
+			final Hyperrectangle tupleBoundingBox = tuple.getBoundingBox();
+		
+			// Ignore tuples with an empty box (e.g. deleted tuples)
+			if(tupleBoundingBox == null || tupleBoundingBox.equals(Hyperrectangle.FULL_SPACE)) {
+				continue;
+			}
+			
+			samples.add(tupleBoundingBox);
 		}
 		
 		return samples;
@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalDouble;
+import java.util.OptionalLong;
 import java.util.Queue;
 
 import org.bboxdb.distribution.membership.BBoxDBInstance;
@@ -80,8 +81,9 @@ public class StatisticsHelper {
 			final OptionalDouble regionSize = statistics
 				.values()
 				.stream()
-				.mapToDouble(p -> p.get(ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE))
+				.map(p -> p.get(ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE))
 				.filter(Objects::nonNull)
+				.mapToDouble(s -> s)
 				.max();
 			
 			if(regionSize.isPresent()) {
@@ -96,6 +98,59 @@ public class StatisticsHelper {
 		} 
 	}
 
+	/**
+	 * Get the request rate (reads and writes per second) of the region. The 
+	 * rate of the busiest system is returned.
+	 * 
+	 * @param region
+	 * @return
+	 */
+	public static OptionalLong getRequestRate(final DistributionRegion region) {
+		
+		try {
+			final Map<BBoxDBInstance, Map<String, Long>> statistics 
+				= distributionGroupZookeeperAdapter.getRegionStatistics(region);
+			
+			return statistics
+				.values()
+				.stream()
+				.filter(p -> p.containsKey(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE))
+				.filter(p -> p.containsKey(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE))
+				.mapToLong(p -> p.get(ZookeeperNodeNames.NAME_STATISTICS_READ_RATE) 
+						+ p.get(ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE))
+				.max();
+		} catch (Exception e) {
+			logger.error("Got an exception while reading statistics", e);
+			return OptionalLong.empty();
+		} 
+	}
+	
+	/**
+	 * Get the max amount of tuples of the region on a system
+	 * 
+	 * @param region
+	 * @return
+	 */
+	public static long getTuples(final DistributionRegion region) {
+		
+		try {
+			final Map<BBoxDBInstance, Map<String, Long>> statistics 
+				= distributionGroupZookeeperAdapter.getRegionStatistics(region);
+			
+			return statistics
+				.values()
+				.stream()
+				.map(p -> p.get(ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES))
+				.filter(Objects::nonNull)
+				.mapToLong(s -> s)
+				.max()
+				.orElse(0);
+		} catch (Exception e) {
+			logger.error("Got an exception while reading statistics", e);
+			return 0;
+		} 
+	}
+
 	/**
 	 * Update the statistics 
 	 * 
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.partitioner.regionsplit;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bboxdb.distribution.partitioner.regionsplit.tuplesink.TupleRedistributor;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spreads the tuple stores of one table during a region split. The data is spread
+ * in multiple phases, between the phases the tuple stores can be replaced by a 
+ * compaction. So, the new tuple stores can contain data that is already spread. 
+ * 
+ * The spread tuple stores are kept acquired until the spreader is closed. A tuple 
+ * of a new tuple store is only spread, if it is not contained in a spread store.
+ */
+public class TupleStoreSpreader implements Closeable {
+	
+	/**
+	 * The tuple store manager of the table
+	 */
+	private final TupleStoreManager tupleStoreManager;
+
+	/**
+	 * The tuple redistributor
+	 */
+	private final TupleRedistributor tupleRedistributor;
+	
+	/**
+	 * The spread tuple stores (acquired until the spreader is closed)
+	 */
+	private final List<ReadOnlyTupleStore> spreadStorages;
+	
+	/**
+	 * The amount of spread tuples
+	 */
+	private long spreadTuples;
+	
+	/**
+	 * The amount of skipped tuples, they are already spread by an other store
+	 */
+	private long skippedTuples;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(TupleStoreSpreader.class);
+
+	public TupleStoreSpreader(final TupleStoreManager tupleStoreManager, 
+			final TupleRedistributor tupleRedistributor) {
+		
+		this.tupleStoreManager = tupleStoreManager;
+		this.tupleRedistributor = tupleRedistributor;
+		this.spreadStorages = new ArrayList<>();
+		this.spreadTuples = 0;
+		this.skippedTuples = 0;
+	}
+	
+	/**
+	 * Spread all tuple stores of the table that are not spread
+	 * @param onlyPersistentData
+	 * @throws BBoxDBException
+	 */
+	public void spreadTupleStores(final boolean onlyPersistentData) throws BBoxDBException {
+		
+		final List<ReadOnlyTupleStore> storagesToRelease = new ArrayList<>();
+		
+		try {
+			final List<ReadOnlyTupleStore> aquiredStorages = tupleStoreManager.aquireStorage();
+			storagesToRelease.addAll(aquiredStorages);
+			
+			final List<ReadOnlyTupleStore> storagesToSpread = new ArrayList<>();
+			
+			for(final ReadOnlyTupleStore storage : aquiredStorages) {
+				if(isStorageSpread(storage) || (onlyPersistentData && ! storage.isPersistent())) {
+					continue;
+				}
+				
+				storagesToSpread.add(storage);
+			}
+			
+			final int totalSotrages = storagesToSpread.size();
+			
+			for(int i = 0; i < totalSotrages; i++) {
+				final ReadOnlyTupleStore storage = storagesToSpread.get(i);
+				logger.info("Spread tuple storage {} number {} of {}", 
+						storage.getInternalName(), i, totalSotrages - 1);
+				spreadStorage(storage);
+				
+				// Keep the storage acquired, it is needed to detect the spread tuples
+				spreadStorages.add(storage);
+				storagesToRelease.remove(storage);
+			}
+			
+		} catch (Exception e) {
+			throw new BBoxDBException(e);
+		} finally {
+			tupleStoreManager.releaseStorage(storagesToRelease);
+		}
+	}
+	
+	/**
+	 * Is the tuple storage already spread
+	 * @param storage
+	 * @return
+	 */
+	private boolean isStorageSpread(final ReadOnlyTupleStore storage) {
+		return spreadStorages.stream()
+				.anyMatch(s -> s.getInternalName().equals(storage.getInternalName()));
+	}
+
+	/**
+	 * Spread the tuples of the storage that are not already spread
+	 * @param storage
+	 * @throws StorageManagerException 
+	 */
+	private void spreadStorage(final ReadOnlyTupleStore storage) throws StorageManagerException {
+		
+		for(final Tuple tuple : storage) {
+			if(isTupleSpread(tuple)) {
+				skippedTuples++;
+				continue;
+			}
+			
+			tupleRedistributor.redistributeTuple(tuple);
+			spreadTuples++;
+		}		
+	}
+	
+	/**
+	 * Is the tuple contained in a spread storage
+	 * @param tuple
+	 * @return
+	 * @throws StorageManagerException 
+	 */
+	private boolean isTupleSpread(final Tuple tuple) throws StorageManagerException {
+		
+		for(final ReadOnlyTupleStore storage : spreadStorages) {
+			for(final Tuple spreadTuple : storage.get(tuple.getKey())) {
+				if(spreadTuple.getVersionTimestamp() == tuple.getVersionTimestamp()) {
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Get the amount of spread tuples
+	 * @return
+	 */
+	public long getSpreadTuples() {
+		return spreadTuples;
+	}
+	
+	/**
+	 * Get the amount of skipped tuples
+	 * @return
+	 */
+	public long getSkippedTuples() {
+		return skippedTuples;
+	}
+	
+	/**
+	 * Get the tuple redistributor
+	 * @return
+	 */
+	public TupleRedistributor getTupleRedistributor() {
+		return tupleRedistributor;
+	}
+
+	/**
+	 * Release the spread tuple stores
+	 */
+	@Override
+	public void close() {
+		tupleStoreManager.releaseStorage(spreadStorages);
+		spreadStorages.clear();
+	}
+}
@@ -52,4 +52,12 @@ public abstract class AbstractTupleSink {
 	 * @throws StorageManagerException
 	 */
 	public abstract void sinkTuple(final Tuple tuple) throws StorageManagerException;
+	
+	/**
+	 * Wait until all sinked tuples are stored
+	 * @throws StorageManagerException
+	 */
+	public void flush() throws StorageManagerException {
+		// Default: Do nothing
+	}
 }
\ No newline at end of file
@@ -17,11 +17,20 @@
  *******************************************************************************/
 package org.bboxdb.distribution.partitioner.regionsplit.tuplesink;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
 
 public class NetworkTupleSink extends AbstractTupleSink {
 	
@@ -29,20 +38,190 @@ public class NetworkTupleSink extends AbstractTupleSink {
 	 * The connection to spread data too
 	 */
 	private final BBoxDBConnection connection;
+	
+	/**
+	 * The not acknowledged inserts, the oldest insert is the first element
+	 */
+	private final Deque<PendingInsert> pendingInserts;
+	
+	/**
+	 * The amount of retried inserts
+	 */
+	private long retriedTuples;
+	
+	/**
+	 * The stopwatch for the throughput
+	 */
+	private final Stopwatch stopwatch;
+	
+	/**
+	 * The max amount of not acknowledged inserts
+	 */
+	public final static int MAX_PENDING_INSERTS = 2048;
+	
+	/**
+	 * The amount of tuples that are send in one batch
+	 */
+	public final static int BATCH_SIZE = 256;
+	
+	/**
+	 * The max amount of retries per tuple
+	 */
+	public final static int MAX_RETRIES = 3;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(NetworkTupleSink.class);
 
 	public NetworkTupleSink(final TupleStoreName tablename, final BBoxDBConnection connection) {
 		super(tablename);
 		this.connection = connection;
+		this.pendingInserts = new ArrayDeque<>();
+		this.retriedTuples = 0;
+		this.stopwatch = Stopwatch.createUnstarted();
 	}
 
 	@Override
 	public void sinkTuple(final Tuple tuple) throws StorageManagerException {
 		sinkedTuples++;
 		
+		if(! stopwatch.isRunning()) {
+			stopwatch.start();
+		}
+		
+		// Wait until the window has space for the next insert
+		while(pendingInserts.size() >= MAX_PENDING_INSERTS) {
+			waitForOldestInsert();
+		}
+		
+		pendingInserts.add(new PendingInsert(tuple, insertTuple(tuple), 0));
+		
+		// The inserts are collected into one compression envelope
+		if(sinkedTuples % BATCH_SIZE == 0) {
+			connection.flushPendingCompressionPackages();
+		}
+	}
+	
+	/**
+	 * Wait until all pending inserts are acknowledged
+	 */
+	@Override
+	public void flush() throws StorageManagerException {
+		connection.flushPendingCompressionPackages();
+		
+		while(! pendingInserts.isEmpty()) {
+			waitForOldestInsert();
+		}
+		
+		logger.info("Send {} tuples to {} ({} tuples/s, {} retries)", sinkedTuples, 
+				connection.getConnectionName(), getTuplesPerSecond(), retriedTuples);
+	}
+	
+	/**
+	 * Get the throughput of the sink
+	 * @return
+	 */
+	public long getTuplesPerSecond() {
+		final long elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		
+		if(elapsedMillis == 0) {
+			return sinkedTuples;
+		}
+		
+		return sinkedTuples * 1000 / elapsedMillis;
+	}
+	
+	/**
+	 * Get the amount of retried inserts
+	 * @return
+	 */
+	public long getRetriedTuples() {
+		return retriedTuples;
+	}
+
+	/**
+	 * Insert the tuple
+	 * @param tuple
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	private EmptyResultFuture insertTuple(final Tuple tuple) throws StorageManagerException {
 		try {
-			connection.getBboxDBClient().insertTuple(tablename, tuple);
+			return connection.getBboxDBClient().insertTuple(tablename, tuple);
 		} catch (BBoxDBException e) {
 			throw new StorageManagerException(e);
 		}
 	}
+	
+	/**
+	 * Wait for the oldest pending insert. A failed insert is send again. 
+	 * @throws StorageManagerException
+	 */
+	private void waitForOldestInsert() throws StorageManagerException {
+		final PendingInsert pendingInsert = pendingInserts.removeFirst();
+		final EmptyResultFuture future = pendingInsert.getFuture();
+		
+		try {
+			future.waitForCompletion();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StorageManagerException(e);
+		}
+		
+		if(! future.isFailed()) {
+			return;
+		}
+		
+		final int retries = pendingInsert.getRetries();
+		
+		if(retries >= MAX_RETRIES) {
+			throw new StorageManagerException("Unable to send tuple to " + connection.getConnectionName() 
+				+ " after " + retries + " retries: " + future.getAllMessages());
+		}
+		
+		retriedTuples++;
+		final Tuple tuple = pendingInsert.getTuple();
+		pendingInserts.add(new PendingInsert(tuple, insertTuple(tuple), retries + 1));
+		connection.flushPendingCompressionPackages();
+	}
+	
+	/**
+	 * A not acknowledged insert
+	 */
+	private static class PendingInsert {
+		
+		/**
+		 * The tuple
+		 */
+		private final Tuple tuple;
+		
+		/**
+		 * The future of the insert
+		 */
+		private final EmptyResultFuture future;
+		
+		/**
+		 * The amount of retries
+		 */
+		private final int retries;
+
+		public PendingInsert(final Tuple tuple, final EmptyResultFuture future, final int retries) {
+			this.tuple = tuple;
+			this.future = future;
+			this.retries = retries;
+		}
+		
+		public Tuple getTuple() {
+			return tuple;
+		}
+		
+		public EmptyResultFuture getFuture() {
+			return future;
+		}
+		
+		public int getRetries() {
+			return retries;
+		}
+	}
 }
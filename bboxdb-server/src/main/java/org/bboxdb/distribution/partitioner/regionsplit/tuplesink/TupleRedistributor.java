@@ -187,6 +187,18 @@ public class TupleRedistributor {
 		}
 	}
 
+	/**
+	 * Wait until all redistributed tuples are stored by the sinks
+	 * @throws StorageManagerException
+	 */
+	public void flush() throws StorageManagerException {
+		for(final List<AbstractTupleSink> sinks : regionMap.values()) {
+			for(final AbstractTupleSink tupleSink : sinks) {
+				tupleSink.flush();
+			}
+		}
+	}
+
 	/**
 	 * Check if a tuple belongs to the given region
 	 * 
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.placement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.ZookeeperBBoxDBInstanceAdapter;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.storage.sstable.SSTableConst;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Multiset;
+
+public class LoadBasedPlacementStrategy extends AbstractUtilizationPlacementStrategy {
+	
+	/**
+	 * The weight of the request rate
+	 */
+	private final static double REQUEST_RATE_WEIGHT = 2.0;
+	
+	/**
+	 * The weight of the cpu load
+	 */
+	private final static double CPU_LOAD_WEIGHT = 1.0;
+	
+	/**
+	 * The weight of the disk queue
+	 */
+	private final static double DISK_QUEUE_WEIGHT = 1.0;
+	
+	/**
+	 * The weight of the memtable pressure
+	 */
+	private final static double MEMTABLE_PRESSURE_WEIGHT = 1.0;
+	
+	/**
+	 * The weight of the assigned regions per core
+	 */
+	private final static double REGIONS_WEIGHT = 0.5;
+	
+	/**
+	 * The load that is assumed for an unknown metric
+	 */
+	private final static double UNKNOWN_LOAD = 1.0;
+	
+	/**
+	 * The time a placed load is accounted until it is part of the published metrics
+	 */
+	private final static long PENDING_LOAD_TIMEOUT = 2 * SSTableConst.THREAD_STATISTICS_DELAY;
+	
+	/**
+	 * The load of the recently placed resources (instance, load)
+	 */
+	private final static Map<String, PendingLoad> pendingLoad = new ConcurrentHashMap<>();
+	
+	/**
+	 * The Logger
+	 */
+	protected final static Logger logger = LoggerFactory.getLogger(LoadBasedPlacementStrategy.class);
+	
+	public LoadBasedPlacementStrategy() {
+
+	}
+	
+	@Override
+	public BBoxDBInstance getInstancesForNewRessource(final List<BBoxDBInstance> systems, 
+			final Collection<BBoxDBInstance> blacklist) throws ResourceAllocationException {
+		
+		return getInstancesForNewRessource(systems, blacklist, 0);
+	}
+	
+	@Override
+	public BBoxDBInstance getInstancesForNewRessource(final List<BBoxDBInstance> systems, 
+			final Collection<BBoxDBInstance> blacklist, final double expectedLoad) 
+					throws ResourceAllocationException {
+		
+		if(systems.isEmpty()) {
+			throw new ResourceAllocationException("Unable to choose a system, list of systems is empty");
+		}
+		
+		final List<BBoxDBInstance> availableSystems = new ArrayList<>(systems);
+		availableSystems.removeAll(blacklist);
+		removeAllNonReadySystems(availableSystems);
+		
+		if(availableSystems.isEmpty()) {
+			throw new ResourceAllocationException("Unable to choose a system, all systems are blacklisted");
+		}
+		
+		try {
+			refreshNodeLoad(availableSystems);
+			final Multiset<BBoxDBInstance> systemUsage = calculateSystemUsage();
+			final BBoxDBInstance instance = getSystemWithLowestLoad(availableSystems, 
+					systemUsage, expectedLoad);
+			
+			addPendingLoad(instance, expectedLoad);
+			
+			return instance;
+		} catch (ZookeeperException | ZookeeperNotFoundException | BBoxDBException e) {
+			throw new ResourceAllocationException("Got an zookeeper exception while ressource allocation", e);
+		}		
+	}
+	
+	/**
+	 * Read the published load metrics of the systems
+	 * @param systems
+	 */
+	protected void refreshNodeLoad(final List<BBoxDBInstance> systems) {
+		final ZookeeperBBoxDBInstanceAdapter instanceAdapter 
+			= new ZookeeperBBoxDBInstanceAdapter(ZookeeperClientFactory.getZookeeperClient());
+		
+		for(final BBoxDBInstance system : systems) {
+			instanceAdapter.readLoadForInstance(system);
+		}
+	}
+	
+	/**
+	 * Get the system with the lowest load after the new resource is placed
+	 * @param availableSystems
+	 * @param systemUsage
+	 * @param expectedLoad
+	 * @return
+	 */
+	protected BBoxDBInstance getSystemWithLowestLoad(final List<BBoxDBInstance> availableSystems, 
+			final Multiset<BBoxDBInstance> systemUsage, final double expectedLoad) {
+		
+		// Request rates and regions are normalized by the busiest system
+		final double maxRequestRate = availableSystems.stream()
+				.mapToDouble(i -> getRequestRatePerCore(i, expectedLoad))
+				.max()
+				.orElse(0);
+		
+		final double maxRegions = availableSystems.stream()
+				.mapToDouble(i -> getRegionsPerCore(systemUsage, i))
+				.max()
+				.orElse(0);
+		
+		BBoxDBInstance bestInstance = null;
+		double bestLoad = Double.MAX_VALUE;
+		
+		for(final BBoxDBInstance instance : availableSystems) {
+			final double load = calculateLoadFactor(instance, systemUsage, expectedLoad, 
+					maxRequestRate, maxRegions);
+			
+			logger.debug("Load factor of {} is {}", instance.getStringValue(), load);
+			
+			if(load < bestLoad) {
+				bestLoad = load;
+				bestInstance = instance;
+			}
+		}
+		
+		return bestInstance;
+	}
+
+	/**
+	 * Calculate the load factor of the instance after the resource is placed. 
+	 * Lower values are better.
+	 * 
+	 * @param instance
+	 * @param systemUsage
+	 * @param expectedLoad
+	 * @param maxRequestRate
+	 * @param maxRegions
+	 * @return
+	 */
+	protected double calculateLoadFactor(final BBoxDBInstance instance, 
+			final Multiset<BBoxDBInstance> systemUsage, final double expectedLoad, 
+			final double maxRequestRate, final double maxRegions) {
+		
+		final double requestLoad = (instance.getRequestRate() < 0) ? UNKNOWN_LOAD 
+				: normalize(getRequestRatePerCore(instance, expectedLoad), maxRequestRate);
+		
+		final double cpuLoad = (instance.getCpuLoad() < 0) ? UNKNOWN_LOAD 
+				: instance.getCpuLoad();
+		
+		final int storages = Math.max(1, instance.getNumberOfStorages());
+		final double diskQueue = (instance.getDiskQueueDepth() < 0) ? UNKNOWN_LOAD 
+				: (double) instance.getDiskQueueDepth() 
+				/ (SSTableConst.MAX_UNFLUSHED_MEMTABLES_PER_TABLE * storages);
+		
+		final double memtablePressure = (instance.getMemtablePressure() < 0) ? UNKNOWN_LOAD 
+				: instance.getMemtablePressure();
+		
+		final double regions = normalize(getRegionsPerCore(systemUsage, instance), maxRegions);
+		
+		return REQUEST_RATE_WEIGHT * requestLoad 
+				+ CPU_LOAD_WEIGHT * cpuLoad 
+				+ DISK_QUEUE_WEIGHT * diskQueue
+				+ MEMTABLE_PRESSURE_WEIGHT * memtablePressure
+				+ REGIONS_WEIGHT * regions;
+	}
+	
+	/**
+	 * Get the request rate per core, including the recently placed and 
+	 * the expected load
+	 * 
+	 * @param instance
+	 * @param expectedLoad
+	 * @return
+	 */
+	private double getRequestRatePerCore(final BBoxDBInstance instance, final double expectedLoad) {
+		final double requestRate = Math.max(0, instance.getRequestRate()) 
+				+ getPendingLoad(instance) + expectedLoad;
+		
+		return requestRate / getCores(instance);
+	}
+	
+	/**
+	 * Get the regions per core
+	 * @param systemUsage
+	 * @param instance
+	 * @return
+	 */
+	private double getRegionsPerCore(final Multiset<BBoxDBInstance> systemUsage, 
+			final BBoxDBInstance instance) {
+		
+		return (systemUsage.count(instance) + 1) / (double) getCores(instance);
+	}
+	
+	/**
+	 * Get the cpu cores of the instance (at least one)
+	 * @param instance
+	 * @return
+	 */
+	private int getCores(final BBoxDBInstance instance) {
+		return Math.max(1, instance.getCpuCores());
+	}
+	
+	/**
+	 * Normalize the value by the max value
+	 * @param value
+	 * @param maxValue
+	 * @return
+	 */
+	private double normalize(final double value, final double maxValue) {
+		if(maxValue <= 0) {
+			return 0;
+		}
+		
+		return value / maxValue;
+	}
+	
+	/**
+	 * Add the load of a placed resource to the instance. The load is accounted 
+	 * until the instance has published new metrics.
+	 * 
+	 * @param instance
+	 * @param load
+	 */
+	private void addPendingLoad(final BBoxDBInstance instance, final double load) {
+		if(instance == null || load <= 0) {
+			return;
+		}
+		
+		pendingLoad.merge(instance.getStringValue(), new PendingLoad(load), 
+				(a, b) -> a.isExpired() ? b : new PendingLoad(a.load + b.load));
+	}
+	
+	/**
+	 * Get the load of the recently placed resources
+	 * @param instance
+	 * @return
+	 */
+	private double getPendingLoad(final BBoxDBInstance instance) {
+		final PendingLoad load = pendingLoad.get(instance.getStringValue());
+		
+		if(load == null) {
+			return 0;
+		}
+		
+		if(load.isExpired()) {
+			pendingLoad.remove(instance.getStringValue(), load);
+			return 0;
+		}
+		
+		return load.load;
+	}
+	
+	/**
+	 * Remove all pending loads
+	 */
+	public static void clearPendingLoad() {
+		pendingLoad.clear();
+	}
+
+	@Override
+	protected Predicate<? super BBoxDBInstance> getUnusableSystemsFilterPredicate() {
+		return i -> true;
+	}
+
+	@Override
+	protected double calculateUsageFactor(final Multiset<BBoxDBInstance> systemUsage,
+			final BBoxDBInstance distributedInstance) {
+		
+		return - calculateLoadFactor(distributedInstance, systemUsage, 0, 0, 0);
+	}
+	
+	/**
+	 * The load of recently placed resources
+	 */
+	private static class PendingLoad {
+		
+		/**
+		 * The requests per second
+		 */
+		private final double load;
+		
+		/**
+		 * The placement time
+		 */
+		private final long createdMillis = System.currentTimeMillis();
+		
+		public PendingLoad(final double load) {
+			this.load = load;
+		}
+		
+		/**
+		 * Is the load part of the published metrics
+		 * @return
+		 */
+		public boolean isExpired() {
+			return System.currentTimeMillis() - createdMillis > PENDING_LOAD_TIMEOUT;
+		}
+	}
+}
@@ -36,6 +36,22 @@ public abstract class ResourcePlacementStrategy {
 	public abstract BBoxDBInstance getInstancesForNewRessource(final List<BBoxDBInstance> systems, 
 			final Collection<BBoxDBInstance> blacklist) throws ResourceAllocationException;
 
+	/**
+	 * Get a set with distributed instances. These instances will be responsible for 
+	 * a new resource with the given expected load (requests per second). The systems 
+	 * from the blacklist are excluded. Strategies that are not load aware ignore the
+	 * expected load.
+	 * 
+	 * @return
+	 * @throws ResourceAllocationException 
+	 */
+	public BBoxDBInstance getInstancesForNewRessource(final List<BBoxDBInstance> systems, 
+			final Collection<BBoxDBInstance> blacklist, final double expectedLoad) 
+					throws ResourceAllocationException {
+		
+		return getInstancesForNewRessource(systems, blacklist);
+	}
+
 	/**
 	 * Get a set with distributed instances. These instances will be responsible for 
 	 * a new resource.
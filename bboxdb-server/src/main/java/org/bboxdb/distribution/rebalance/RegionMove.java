@@ -0,0 +1,77 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.rebalance;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.region.DistributionRegion;
+
+public class RegionMove {
+	
+	/**
+	 * The region to move
+	 */
+	private final DistributionRegion region;
+	
+	/**
+	 * The system that currently stores the region
+	 */
+	private final BBoxDBInstance source;
+	
+	/**
+	 * The system that should store the region
+	 */
+	private final BBoxDBInstance target;
+
+	public RegionMove(final DistributionRegion region, final BBoxDBInstance source, 
+			final BBoxDBInstance target) {
+		
+		this.region = region;
+		this.source = source;
+		this.target = target;
+	}
+
+	/**
+	 * Get the region to move
+	 * @return
+	 */
+	public DistributionRegion getRegion() {
+		return region;
+	}
+
+	/**
+	 * Get the source system
+	 * @return
+	 */
+	public BBoxDBInstance getSource() {
+		return source;
+	}
+
+	/**
+	 * Get the target system
+	 * @return
+	 */
+	public BBoxDBInstance getTarget() {
+		return target;
+	}
+
+	@Override
+	public String toString() {
+		return "RegionMove [region=" + region.getIdentifier() + ", source=" + source.getStringValue() 
+			+ ", target=" + target.getStringValue() + "]";
+	}
+}
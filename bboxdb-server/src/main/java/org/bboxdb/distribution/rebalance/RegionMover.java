@@ -0,0 +1,397 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.rebalance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
+import org.bboxdb.distribution.partitioner.regionsplit.tuplesink.AbstractTupleSink;
+import org.bboxdb.distribution.partitioner.regionsplit.tuplesink.NetworkTupleSink;
+import org.bboxdb.distribution.partitioner.regionsplit.tuplesink.TupleRedistributor;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionIdMapper;
+import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.distribution.zookeeper.ZookeeperNotFoundException;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+public class RegionMover {
+	
+	/**
+	 * The storage reference
+	 */
+	private final TupleStoreManagerRegistry registry;
+	
+	/**
+	 * The rate limiter for the send tuples, null if unlimited
+	 */
+	private final RateLimiter rateLimiter;
+	
+	/**
+	 * The region adapter
+	 */
+	private final DistributionRegionAdapter regionAdapter;
+	
+	/**
+	 * The max time to wait for a system change of a region
+	 */
+	private final static long MAX_WAIT_FOR_SYSTEM_CHANGE = TimeUnit.SECONDS.toMillis(30);
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(RegionMover.class);
+	
+	/**
+	 * The phases of a move, used to roll back a failed move
+	 */
+	private enum MovePhase {
+		
+		/**
+		 * Nothing is changed
+		 */
+		STARTED,
+		
+		/**
+		 * The target is registered as write only system
+		 */
+		TARGET_REGISTERED,
+		
+		/**
+		 * The target is readable and the local system is removed
+		 */
+		CUT_OVER,
+		
+		/**
+		 * The deletion of the local data is started
+		 */
+		LOCAL_DATA_DELETION;
+	}
+
+	public RegionMover(final TupleStoreManagerRegistry registry, final int maxTuplesPerSecond) {
+		this(registry, maxTuplesPerSecond, 
+				ZookeeperClientFactory.getZookeeperClient().getDistributionRegionAdapter());
+	}
+	
+	public RegionMover(final TupleStoreManagerRegistry registry, final int maxTuplesPerSecond, 
+			final DistributionRegionAdapter regionAdapter) {
+		
+		assert (registry != null) : "Unable to init, registry is null";
+		assert (regionAdapter != null) : "Unable to init, region adapter is null";
+		
+		this.registry = registry;
+		this.regionAdapter = regionAdapter;
+		this.rateLimiter = (maxTuplesPerSecond > 0) ? RateLimiter.create(maxTuplesPerSecond) : null;
+	}
+	
+	/**
+	 * Move the local replica of the region to the target system. 
+	 * 
+	 * The target is added as a write only system to the region first, so it receives 
+	 * all new writes but is not used for reads. Afterwards, the persisted data and then 
+	 * the remaining in memory data is send to the target while the local replica is 
+	 * still active. In the cut-over, the target becomes readable and the local system 
+	 * is removed from the region. At the end, the local data of the region is deleted.
+	 * 
+	 * @param move
+	 * @return 
+	 */
+	public boolean moveRegion(final RegionMove move) {
+		
+		final DistributionRegion region = move.getRegion();
+		final BBoxDBInstance source = move.getSource();
+		final BBoxDBInstance target = move.getTarget();
+		
+		final String regionPath = regionAdapter.getZookeeperPathForDistributionRegion(region);
+		
+		logger.info("Moving region {} from {} to {}", region.getIdentifier(), 
+				source.getStringValue(), target.getStringValue());
+		
+		MovePhase phase = MovePhase.STARTED;
+		
+		try {
+			if(! isRegionActive(region)) {
+				logger.info("Region {} is not active, stopping move", region.getIdentifier());
+				return false;
+			}
+			
+			// New writes are send to the target, reads are not
+			phase = MovePhase.TARGET_REGISTERED;
+			regionAdapter.addWriteOnlySystemToDistributionRegion(regionPath, target);
+			regionAdapter.addSystemToDistributionRegion(regionPath, target);
+			waitUntilSystemIsVisible(region, target);
+			
+			final String distributionGroupName = region.getDistributionGroupName();
+			final List<TupleStoreName> localTables = TupleStoreUtil
+					.getAllTablesForDistributionGroupAndRegionId(registry, distributionGroupName, 
+							region.getRegionId());
+			
+			final Set<String> sendStorages = new HashSet<>();
+			final Map<TupleStoreName, TupleRedistributor> redistributors = new HashMap<>();
+
+			// Phase 1: Send the persisted data
+			for(final TupleStoreName tupleStoreName : localTables) {
+				final TupleStoreManager tupleStoreManager = registry.getTupleStoreManager(tupleStoreName);
+				
+				if(! tupleStoreManager.flush()) {
+					logger.warn("Unable to flush {}, data is send in phase 2", 
+							tupleStoreName.getFullname());
+				}
+				
+				final TupleRedistributor redistributor = getTupleRedistributor(region, target, tupleStoreName);
+				redistributors.put(tupleStoreName, redistributor);
+				sendTupleStores(tupleStoreManager, redistributor, sendStorages, true);
+			}
+			
+			// Phase 2: Send the remaining data, newer writes are received by the target directly
+			for(final TupleStoreName tupleStoreName : localTables) {
+				final TupleStoreManager tupleStoreManager = registry.getTupleStoreManager(tupleStoreName);
+				final TupleRedistributor redistributor = redistributors.get(tupleStoreName);
+				sendTupleStores(tupleStoreManager, redistributor, sendStorages, false);
+				redistributor.flush();
+				
+				logger.info("Final statistics for move ({}): {}", 
+						tupleStoreName.getFullname(), redistributor.getStatistics());
+			}
+			
+			if(! isRegionActive(region)) {
+				throw new BBoxDBException("Region " + region.getIdentifier() + " is not longer active");
+			}
+
+			// Cut-over: The target is complete and readable, the local system is removed
+			phase = MovePhase.CUT_OVER;
+			regionAdapter.deleteWriteOnlySystemFromDistributionRegion(region, target);
+			regionAdapter.deleteSystemFromDistributionRegion(region, source);
+			waitUntilMappingDisappears(region);
+			regionAdapter.deleteRegionStatistics(region, source);
+			
+			phase = MovePhase.LOCAL_DATA_DELETION;
+			registry.deleteDataOfDistributionRegion(distributionGroupName, region.getRegionId());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			handleMoveFailed(regionPath, region, source, target, phase);
+			return false;
+		} catch (Exception e) {
+			logger.error("Got exception while moving region " + region.getIdentifier(), e);
+			handleMoveFailed(regionPath, region, source, target, phase);
+			return false;
+		}
+		
+		logger.info("Moving region {} from {} to {} is DONE", region.getIdentifier(), 
+				source.getStringValue(), target.getStringValue());
+		
+		return true;
+	}
+
+	/**
+	 * Handle a failed move. The target is removed from the region and after the cut-over, 
+	 * the local system is added again; the local data is still complete. When the 
+	 * deletion of the local data is started, the move can not be rolled back.
+	 * 
+	 * @param regionPath
+	 * @param region
+	 * @param source
+	 * @param target
+	 * @param phase
+	 */
+	private void handleMoveFailed(final String regionPath, final DistributionRegion region,
+			final BBoxDBInstance source, final BBoxDBInstance target, final MovePhase phase) {
+		
+		if(phase == MovePhase.STARTED) {
+			return;
+		}
+		
+		if(phase == MovePhase.LOCAL_DATA_DELETION) {
+			logger.error("Unable to roll back the move of region {}, the local data is deleted "
+					+ "and {} holds the region now", region.getIdentifier(), target.getStringValue());
+			return;
+		}
+		
+		try {
+			if(phase == MovePhase.CUT_OVER) {
+				regionAdapter.addSystemToDistributionRegion(regionPath, source);
+			}
+			
+			regionAdapter.deleteSystemFromDistributionRegion(region, target);
+			regionAdapter.deleteWriteOnlySystemFromDistributionRegion(region, target);
+		} catch (ZookeeperException e) {
+			logger.error("Got exception while resetting the systems of region " 
+					+ region.getIdentifier() + " your global index might be inconsistent now", e);
+		}
+	}
+	
+	/**
+	 * Is the region in the active state
+	 * @param region
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	private boolean isRegionActive(final DistributionRegion region) throws BBoxDBException {
+		
+		try {
+			final DistributionRegionState state = regionAdapter.getStateForDistributionRegion(region);
+			return state == DistributionRegionState.ACTIVE;
+		} catch (ZookeeperException | ZookeeperNotFoundException e) {
+			throw new BBoxDBException(e);
+		}
+	}
+	
+	/**
+	 * Wait until the new system of the region is visible in the local space partitioner
+	 * @param region
+	 * @param system
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 */
+	protected void waitUntilSystemIsVisible(final DistributionRegion region, final BBoxDBInstance system) 
+			throws InterruptedException, TimeoutException {
+		
+		final long waitUntil = System.currentTimeMillis() + MAX_WAIT_FOR_SYSTEM_CHANGE;
+		
+		while(! RegionRebalancePlanner.isSystemOfRegion(region, system)) {
+			if(System.currentTimeMillis() > waitUntil) {
+				throw new TimeoutException("System change of " + system.getStringValue() 
+					+ " is not visible in region " + region.getIdentifier());
+			}
+			
+			Thread.sleep(100);
+		}
+	}
+
+	/**
+	 * Wait until the mapping of the region disappears from the local space partitioner, 
+	 * afterwards no new writes for the region are accepted
+	 * @param region
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 * @throws BBoxDBException
+	 */
+	protected void waitUntilMappingDisappears(final DistributionRegion region) 
+			throws InterruptedException, TimeoutException, BBoxDBException {
+		
+		final SpacePartitioner spacePartitioner = SpacePartitionerCache
+				.getInstance().getSpacePartitionerForGroupName(region.getDistributionGroupName());
+		
+		final DistributionRegionIdMapper mapper = spacePartitioner.getDistributionRegionIdMapper();
+		mapper.waitUntilMappingDisappears(region.getRegionId());
+	}
+	
+	/**
+	 * Get the connection to the target system
+	 * @param target
+	 * @return
+	 */
+	protected BBoxDBConnection getConnectionForInstance(final BBoxDBInstance target) {
+		return MembershipConnectionService.getInstance().getConnectionForInstance(target);
+	}
+
+	/**
+	 * Get a new tuple redistributor, that sends the tuples only to the target
+	 * @param region
+	 * @param target
+	 * @param tupleStoreName
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	private TupleRedistributor getTupleRedistributor(final DistributionRegion region, 
+			final BBoxDBInstance target, final TupleStoreName tupleStoreName) 
+					throws StorageManagerException {
+		
+		final BBoxDBConnection connection = getConnectionForInstance(target);
+		
+		if(connection == null) {
+			throw new StorageManagerException("No connection to " + target.getStringValue() + " known");
+		}
+		
+		final TupleRedistributor tupleRedistributor = new TupleRedistributor(registry, tupleStoreName);
+		final List<AbstractTupleSink> sinks = Arrays.asList(new NetworkTupleSink(tupleStoreName, connection));
+		tupleRedistributor.registerRegion(region, sinks);
+		
+		return tupleRedistributor;
+	}
+	
+	/**
+	 * Send the tuple stores of the table to the target
+	 * @param tupleStoreManager
+	 * @param tupleRedistributor
+	 * @param sendStorages
+	 * @param onlyPersistentData
+	 * @throws BBoxDBException
+	 */
+	private void sendTupleStores(final TupleStoreManager tupleStoreManager, 
+			final TupleRedistributor tupleRedistributor, final Set<String> sendStorages, 
+			final boolean onlyPersistentData) throws BBoxDBException {
+		
+		final List<ReadOnlyTupleStore> storages = new ArrayList<>();
+		
+		try {
+			storages.addAll(tupleStoreManager.aquireStorage());
+			
+			for(final ReadOnlyTupleStore storage : storages) {
+				if(sendStorages.contains(storage.getInternalName())) {
+					continue;
+				}
+				
+				if(onlyPersistentData && ! storage.isPersistent()) {
+					continue;
+				}
+				
+				logger.info("Send tuple storage {}", storage.getInternalName());
+				
+				for(final Tuple tuple : storage) {
+					if(rateLimiter != null) {
+						rateLimiter.acquire();
+					}
+					
+					tupleRedistributor.redistributeTuple(tuple);
+				}
+				
+				sendStorages.add(storage.getInternalName());
+			}
+		} catch (Exception e) {
+			throw new BBoxDBException(e);
+		} finally {
+			tupleStoreManager.releaseStorage(storages);
+		}
+	}
+}
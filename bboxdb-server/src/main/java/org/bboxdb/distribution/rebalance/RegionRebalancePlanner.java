@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.rebalance;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.BBoxDBInstanceState;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
+import org.bboxdb.distribution.region.DistributionRegion;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+public class RegionRebalancePlanner {
+	
+	/**
+	 * The min difference of the active regions between the source and the target 
+	 * system. Smaller differences are not balanced, the regions would move back 
+	 * and forth.
+	 */
+	public final static int MIN_REGION_DIFFERENCE = 2;
+	
+	/**
+	 * Plan the next move of a local region replica. A replica is moved, when the 
+	 * local system stores more active regions than the average and a system exists
+	 * that stores at least MIN_REGION_DIFFERENCE regions less. The region with the 
+	 * lowest size is moved, to move the load with the least amount of data.
+	 * 
+	 * @param localInstance
+	 * @param regions - the regions of all distribution groups
+	 * @param systems - the known systems
+	 * @param regionSize - the size of a region
+	 * @return
+	 */
+	public static Optional<RegionMove> planMove(final BBoxDBInstance localInstance, 
+			final List<DistributionRegion> regions, final List<BBoxDBInstance> systems, 
+			final ToLongFunction<DistributionRegion> regionSize) {
+		
+		final List<DistributionRegion> activeRegions = regions.stream()
+				.filter(r -> r.getState() == DistributionRegionState.ACTIVE)
+				.collect(Collectors.toList());
+		
+		final List<BBoxDBInstance> readySystems = systems.stream()
+				.filter(s -> s.getState() == BBoxDBInstanceState.READY)
+				.collect(Collectors.toList());
+		
+		if(readySystems.isEmpty()) {
+			return Optional.empty();
+		}
+		
+		// The systems of the regions only contain the address, so the systems are compared by name
+		final Multiset<String> usage = HashMultiset.create();
+		activeRegions.forEach(r -> r.getSystems().forEach(s -> usage.add(s.getStringValue())));
+		
+		final int localRegions = usage.count(localInstance.getStringValue());
+		final double averageRegions = (double) usage.size() / readySystems.size();
+		
+		if(localRegions <= averageRegions) {
+			return Optional.empty();
+		}
+		
+		final List<DistributionRegion> localRegionsBySize = activeRegions.stream()
+				.filter(r -> isSystemOfRegion(r, localInstance))
+				.sorted(Comparator.comparingLong(regionSize))
+				.collect(Collectors.toList());
+		
+		for(final DistributionRegion region : localRegionsBySize) {
+			final Optional<BBoxDBInstance> target = readySystems.stream()
+					.filter(s -> ! isSystemOfRegion(region, s))
+					.min(Comparator.comparingInt(s -> usage.count(s.getStringValue())));
+			
+			if(! target.isPresent()) {
+				continue;
+			}
+			
+			if(localRegions - usage.count(target.get().getStringValue()) < MIN_REGION_DIFFERENCE) {
+				continue;
+			}
+			
+			return Optional.of(new RegionMove(region, localInstance, target.get()));
+		}
+		
+		return Optional.empty();
+	}
+	
+	/**
+	 * Is the system responsible for the region
+	 * @param region
+	 * @param system
+	 * @return
+	 */
+	public static boolean isSystemOfRegion(final DistributionRegion region, final BBoxDBInstance system) {
+		return region.getSystems().stream().anyMatch(s -> s.socketAddressEquals(system));
+	}
+}
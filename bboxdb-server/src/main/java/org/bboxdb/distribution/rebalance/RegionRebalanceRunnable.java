@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.rebalance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.BBoxDBInstanceManager;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
+import org.bboxdb.distribution.partitioner.regionsplit.StatisticsHelper;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.misc.BBoxDBConfiguration;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class RegionRebalanceRunnable extends ExceptionSafeRunnable {
+	
+	/**
+	 * The storage registry
+	 */
+	private final TupleStoreManagerRegistry storageRegistry;
+	
+	/**
+	 * The distribution group adapter
+	 */
+	private final DistributionGroupAdapter groupAdapter;
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(RegionRebalanceRunnable.class);
+	
+	public RegionRebalanceRunnable(final TupleStoreManagerRegistry storageRegistry) {
+		this.storageRegistry = storageRegistry;
+		this.groupAdapter = ZookeeperClientFactory.getZookeeperClient().getDistributionGroupAdapter();
+	}
+	
+	@Override
+	protected void beginHook() {
+		logger.info("Starting region rebalance thread");
+	}
+	
+	@Override
+	protected void endHook() {
+		logger.info("Region rebalance thread is done");
+	}
+
+	@Override
+	protected void runThread() {
+		final BBoxDBConfiguration configuration = BBoxDBConfigurationManager.getConfiguration();
+		final int rebalanceInterval = configuration.getRebalanceInterval();
+		
+		if(rebalanceInterval <= 0) {
+			logger.info("Region rebalancing is disabled");
+			return;
+		}
+		
+		try {
+			while(! Thread.currentThread().isInterrupted()) {
+				Thread.sleep(TimeUnit.SECONDS.toMillis(rebalanceInterval));
+				rebalanceRegions(configuration);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+	}
+
+	/**
+	 * Plan and perform the next move of a local region replica. At most one 
+	 * region is moved per interval.
+	 * 
+	 * @param configuration
+	 */
+	private void rebalanceRegions(final BBoxDBConfiguration configuration) {
+		
+		try {
+			final List<DistributionRegion> regions = getAllRegions();
+			final List<BBoxDBInstance> systems = BBoxDBInstanceManager.getInstance().getInstances();
+			final BBoxDBInstance localInstance = ZookeeperClientFactory.getLocalInstanceName();
+			
+			final Optional<RegionMove> move = RegionRebalancePlanner.planMove(localInstance, 
+					regions, systems, r -> StatisticsHelper.getTuples(r));
+			
+			if(! move.isPresent()) {
+				logger.debug("No region move is needed");
+				return;
+			}
+			
+			if(configuration.isRebalanceDryRun()) {
+				logger.info("Planned region move (dry run): {}", move.get());
+				return;
+			}
+			
+			final RegionMover regionMover = new RegionMover(storageRegistry, 
+					configuration.getRebalanceMaxTuplesPerSecond());
+			
+			regionMover.moveRegion(move.get());
+		} catch (Exception e) {
+			
+			if(Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			
+			logger.error("Got exception while rebalancing regions", e);
+		}
+	}
+
+	/**
+	 * Get the regions of all distribution groups
+	 * @return
+	 * @throws Exception
+	 */
+	private List<DistributionRegion> getAllRegions() throws Exception {
+		final List<DistributionRegion> regions = new ArrayList<>();
+		
+		final List<String> allDistributionGroups = groupAdapter.getDistributionGroups();
+		
+		for(final String distributionGroup : allDistributionGroups) {
+			final SpacePartitioner spacePartitioner = SpacePartitionerCache
+					.getInstance().getSpacePartitionerForGroupName(distributionGroup);
+			
+			final DistributionRegion rootNode = spacePartitioner.getRootNode();
+			
+			if(rootNode != null) {
+				regions.addAll(rootNode.getThisAndChildRegions());
+			}
+		}
+		
+		return regions;
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.rebalance;
+
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.misc.BBoxDBService;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+
+public class RegionRebalanceService implements BBoxDBService {
+
+	/**
+	 * The storage registry
+	 */
+	private final TupleStoreManagerRegistry storageRegistry;
+	
+	/**
+	 * The rebalance thread
+	 */
+	private Thread rebalanceThread;
+
+	public RegionRebalanceService(final TupleStoreManagerRegistry storageRegistry) {
+		this.storageRegistry = storageRegistry;
+	}
+
+	@Override
+	public void init() throws InterruptedException, BBoxDBException {
+		final RegionRebalanceRunnable runable = new RegionRebalanceRunnable(storageRegistry);
+		rebalanceThread = new Thread(runable);
+		rebalanceThread.setName("Region rebalance thread");
+		rebalanceThread.start();
+	}
+
+	@Override
+	public void shutdown() {
+		if(rebalanceThread != null) {
+			rebalanceThread.interrupt();
+		}
+		
+		rebalanceThread = null;
+	}
+
+	@Override
+	public String getServicename() {
+		return "Region rebalance service";
+	}
+
+}
@@ -21,8 +21,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
@@ -60,6 +62,12 @@ public class DistributionRegion {
 	 * The systems
 	 */
 	private Collection<BBoxDBInstance> systems;
+	
+	/**
+	 * The systems that receive writes but are not used for reads 
+	 * (e.g., the target of a region move)
+	 */
+	private Collection<BBoxDBInstance> writeOnlySystems;
 
 	/**
 	 * The id of the region
@@ -92,6 +100,7 @@ public class DistributionRegion {
 		this.parent = parent;
 		this.regionid = regionid;
 		this.systems = new ArrayList<>();
+		this.writeOnlySystems = new ArrayList<>();
 		this.children = new ConcurrentHashMap<>();
 	}
 
@@ -144,17 +153,49 @@ public class DistributionRegion {
 	 */
 	public List<DistributionRegion> getThisAndChildRegions(final Predicate<DistributionRegion> predicate) {
 		final List<DistributionRegion> result = new ArrayList<>();
-
+		collectRegions(null, predicate, result);
+		return result;
+	}
+	
+	/**
+	 * Get this and all children that intersect the bounding box and match the predicate. 
+	 * The children of a region are covered by the region, so subtrees that 
+	 * don't intersect the bounding box are not visited.
+	 * 
+	 * @param boundingBox
+	 * @param predicate
+	 * @return
+	 */
+	public List<DistributionRegion> getThisAndChildRegions(final Hyperrectangle boundingBox,
+			final Predicate<DistributionRegion> predicate) {
+		
+		final List<DistributionRegion> result = new ArrayList<>();
+		collectRegions(Objects.requireNonNull(boundingBox), predicate, result);
+		return result;
+	}
+	
+	/**
+	 * Add this and all children matching the bounding box (if not null) 
+	 * and the predicate to the result
+	 * 
+	 * @param boundingBox
+	 * @param predicate
+	 * @param result
+	 */
+	private void collectRegions(final Hyperrectangle boundingBox, 
+			final Predicate<DistributionRegion> predicate, final List<DistributionRegion> result) {
+		
+		if(boundingBox != null && ! converingBox.intersects(boundingBox)) {
+			return;
+		}
+		
 		if(predicate.test(this)) {
 			result.add(this);
 		}
 
-		final Collection<DistributionRegion> directChildren = children.values();
-		for(final DistributionRegion children : directChildren) {
-			result.addAll(children.getThisAndChildRegions(predicate));
+		for(final DistributionRegion child : children.values()) {
+			child.collectRegions(boundingBox, predicate, result);
 		}
-
-		return result;
 	}
 
 	/**
@@ -227,7 +268,7 @@ public class DistributionRegion {
 	public String toString() {
 		return "DistributionRegion [distributionGroupName=" + distributionGroupName
 				+ ", converingBox=" + converingBox.toCompactString() + ", state=" + state
-				+ ", systems=" + systems + ", nameprefix=" + regionid + "]";
+				+ ", systems=" + systems + ", writeOnlySystems=" + writeOnlySystems + ", nameprefix=" + regionid + "]";
 	}
 
 	/**
@@ -367,6 +408,34 @@ public class DistributionRegion {
 		return new ArrayList<>(systems);
 	}
 
+	/**
+	 * Get all systems that can be used to read the data of this DistributionRegion
+	 * @return
+	 */
+	public List<BBoxDBInstance> getReadSystems() {
+		final Collection<BBoxDBInstance> writeOnly = writeOnlySystems;
+		
+		return systems.stream()
+				.filter(s -> ! writeOnly.contains(s))
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Set the systems that receive the writes of this DistributionRegion 
+	 * but are not used for reads
+	 * @param newWriteOnlySystems
+	 */
+	public void setWriteOnlySystems(final Collection<BBoxDBInstance> newWriteOnlySystems) {
+		
+		if(newWriteOnlySystems == null) {
+			this.writeOnlySystems = new ArrayList<>();
+			return;
+		}
+		
+		// Replace systems atomically
+		this.writeOnlySystems = new ArrayList<>(newWriteOnlySystems);
+	}
+
 	/**
 	 * Add a system to this DistributionRegion
 	 * @param system
@@ -85,7 +85,48 @@ public class DistributionRegionHelper {
 			final DistributionRegion rootRegion,
 			final Hyperrectangle boundingBox) {
 
-		return rootRegion.getThisAndChildRegions((d) -> d.getConveringBox().intersects(boundingBox));
+		return rootRegion.getThisAndChildRegions(boundingBox, (d) -> true);
+	}
+
+	/**
+	 * Remove the regions that receive the data of a running split or merge. During
+	 * a split the source region (SPLITTING) still contains all data, during a merge 
+	 * the source regions (MERGING) still contain all data. Reading the source and 
+	 * the destination regions would return the redistributed data twice.
+	 * 
+	 * Tuples that are written during the redistribution are only stored in the
+	 * destination regions and are not contained in the result.
+	 * 
+	 * @param regions
+	 * @return
+	 */
+	public static List<DistributionRegion> removeRedistributionDestinations(
+			final List<DistributionRegion> regions) {
+		
+		final List<Hyperrectangle> splittingBoxes = regions.stream()
+				.filter(r -> r.getState() == DistributionRegionState.SPLITTING)
+				.map(r -> r.getConveringBox())
+				.collect(Collectors.toList());
+		
+		final List<Hyperrectangle> mergingBoxes = regions.stream()
+				.filter(r -> r.getState() == DistributionRegionState.MERGING)
+				.map(r -> r.getConveringBox())
+				.collect(Collectors.toList());
+		
+		final Predicate<DistributionRegion> isRedistributionDestination = (r) -> {
+			if(r.getState() != DistributionRegionState.REDISTRIBUTION_ACTIVE) {
+				return false;
+			}
+			
+			final Hyperrectangle box = r.getConveringBox();
+			
+			return splittingBoxes.stream().anyMatch(b -> b.isCovering(box))
+					|| mergingBoxes.stream().anyMatch(b -> box.isCovering(b));
+		};
+		
+		return regions.stream()
+				.filter(isRedistributionDestination.negate())
+				.collect(Collectors.toList());
 	}
 
 	/**
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.region;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+import org.bboxdb.storage.sstable.spatialindex.rtree.RTreeBuilder;
+
+/**
+ * An immutable snapshot of the local region mappings. Small snapshots and 
+ * snapshots with unbounded regions are scanned linearly, all other 
+ * snapshots are searched with an R-tree.
+ */
+class DistributionRegionIdIndex {
+
+	/**
+	 * The region ids
+	 */
+	private final long[] regionIds;
+	
+	/**
+	 * The bounding boxes of the regions
+	 */
+	private final Hyperrectangle[] boundingBoxes;
+	
+	/**
+	 * The spatial index (null if the entries are scanned linearly)
+	 */
+	private final RTreeBuilder spatialIndex;
+	
+	/**
+	 * The version of the mappings this snapshot is built from
+	 */
+	private final long version;
+	
+	/**
+	 * Below this number of regions, the entries are scanned linearly
+	 */
+	public final static int MIN_INDEXED_REGIONS = 32;
+
+	public DistributionRegionIdIndex(final Map<Long, Hyperrectangle> regions, final long version) {
+		this.version = version;
+		
+		final int size = regions.size();
+		final long[] ids = new long[size];
+		final Hyperrectangle[] boxes = new Hyperrectangle[size];
+		
+		int pos = 0;
+		boolean indexable = true;
+		
+		for(final Map.Entry<Long, Hyperrectangle> entry : regions.entrySet()) {
+			
+			// The map has grown since the size was determined
+			if(pos == size) {
+				break;
+			}
+			
+			ids[pos] = entry.getKey();
+			boxes[pos] = entry.getValue();
+			indexable = indexable && isIndexable(boxes[pos]);
+			pos++;
+		}
+		
+		this.regionIds = ids;
+		this.boundingBoxes = boxes;
+		this.spatialIndex = (indexable && pos >= MIN_INDEXED_REGIONS) ? buildIndex(pos) : null;
+	}
+
+	/**
+	 * Build the R-tree for the first entries
+	 * @param entries
+	 * @return
+	 */
+	private RTreeBuilder buildIndex(final int entries) {
+		final RTreeBuilder builder = new RTreeBuilder();
+		
+		for(int i = 0; i < entries; i++) {
+			builder.insert(new SpatialIndexEntry(boundingBoxes[i], i));
+		}
+		
+		return builder;
+	}
+	
+	/**
+	 * Can the bounding box be stored in the R-tree? The split heuristics of the 
+	 * tree are based on volumes, unbounded boxes would produce NaN values.
+	 * 
+	 * @param boundingBox
+	 * @return
+	 */
+	private static boolean isIndexable(final Hyperrectangle boundingBox) {
+		
+		if(boundingBox == null || boundingBox == Hyperrectangle.FULL_SPACE 
+				|| boundingBox.getDimension() == 0) {
+			return false;
+		}
+		
+		for(int d = 0; d < boundingBox.getDimension(); d++) {
+			if(Double.isInfinite(boundingBox.getCoordinateLow(d)) 
+					|| Double.isInfinite(boundingBox.getCoordinateHigh(d))) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Get the region ids that are intersected by the bounding box
+	 * @param boundingBox
+	 * @return
+	 */
+	public Set<Long> getRegionIdsForRegion(final Hyperrectangle boundingBox) {
+		final Set<Long> result = new HashSet<>();
+		
+		if(spatialIndex != null && boundingBox != Hyperrectangle.FULL_SPACE) {
+			final List<? extends SpatialIndexEntry> entries 
+				= spatialIndex.getEntriesForRegion(boundingBox);
+			
+			for(final SpatialIndexEntry entry : entries) {
+				result.add(regionIds[entry.getValue()]);
+			}
+			
+			return result;
+		}
+		
+		for(int i = 0; i < regionIds.length; i++) {
+			if(boundingBoxes[i] != null && boundingBoxes[i].intersects(boundingBox)) {
+				result.add(regionIds[i]);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Is the spatial index used
+	 * @return
+	 */
+	public boolean isIndexed() {
+		return spatialIndex != null;
+	}
+	
+	/**
+	 * Get the version of the mappings
+	 * @return
+	 */
+	public long getVersion() {
+		return version;
+	}
+}
@@ -25,6 +25,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -53,6 +54,16 @@ public class DistributionRegionIdMapper {
 	 */
 	private final Object MUTEX;
 	
+	/**
+	 * The version of the mappings, increased on every change
+	 */
+	private final AtomicLong mappingVersion;
+	
+	/**
+	 * The snapshot of the mappings used for region lookups
+	 */
+	private volatile DistributionRegionIdIndex regionIndex;
+	
 	/**
 	 * The Logger
 	 */
@@ -62,17 +73,36 @@ public class DistributionRegionIdMapper {
 		this.distributionGroup = distributionGroup;
 		this.regions = new ConcurrentHashMap<>();
 		this.MUTEX = new Object();
+		this.mappingVersion = new AtomicLong(0);
+		this.regionIndex = new DistributionRegionIdIndex(regions, 0);
 	}
 	
 	/**
 	 * Search the region ids that are overlapped by the bounding box
 	 */
 	public Set<Long> getRegionIdsForRegion(final Hyperrectangle region) {
-		return regions.entrySet()
-			.stream()
-			.filter(e -> e.getValue().intersects(region))
-			.map(e -> e.getKey())
-			.collect(Collectors.toSet());
+		return getRegionIndex().getRegionIdsForRegion(region);
+	}
+	
+	/**
+	 * Get the snapshot of the mappings, the snapshot is rebuilt 
+	 * after the mappings have changed
+	 * 
+	 * @return
+	 */
+	private DistributionRegionIdIndex getRegionIndex() {
+		final DistributionRegionIdIndex index = regionIndex;
+		final long version = mappingVersion.get();
+		
+		if(index.getVersion() == version) {
+			return index;
+		}
+		
+		// Mappings changed during the build are detected by the next lookup
+		final DistributionRegionIdIndex newIndex = new DistributionRegionIdIndex(regions, version);
+		regionIndex = newIndex;
+		
+		return newIndex;
 	}
 	
 	/**
@@ -163,6 +193,7 @@ public class DistributionRegionIdMapper {
 		logger.info("Add local mapping for: {} / {}", regionId, distributionGroup);
 		
 		regions.put(regionId, boundingBox);
+		mappingVersion.incrementAndGet();
 			
 		synchronized (MUTEX) {
 			MUTEX.notifyAll();
@@ -179,6 +210,7 @@ public class DistributionRegionIdMapper {
 		
 		final boolean removed = regions.containsKey(regionId);
 		regions.remove(regionId);
+		mappingVersion.incrementAndGet();
 		
 		if(removed) {
 			logger.info("Mapping for region id {} / {} removed", regionId, distributionGroup);
@@ -198,6 +230,7 @@ public class DistributionRegionIdMapper {
 		logger.info("Clear all local mappings in {}", distributionGroup);
 		
 		regions.clear();
+		mappingVersion.incrementAndGet();
 		
 		synchronized (MUTEX) {
 			MUTEX.notifyAll();
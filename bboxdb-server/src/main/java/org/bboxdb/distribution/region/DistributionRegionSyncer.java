@@ -245,6 +245,11 @@ public class DistributionRegionSyncer implements Watcher {
 				final Collection<BBoxDBInstance> systemsForDistributionRegion
 					= distributionRegionAdapter.getSystemsForDistributionRegion(region);
 
+				// Read after the systems, a system is marked as write only before it is added
+				final Collection<BBoxDBInstance> writeOnlySystems
+					= distributionRegionAdapter.getWriteOnlySystemsForDistributionRegion(region);
+
+				region.setWriteOnlySystems(writeOnlySystems);
 				region.setSystems(systemsForDistributionRegion);
 
 				final int regionId = distributionGroupAdapter.getRegionIdForPath(nodePath);
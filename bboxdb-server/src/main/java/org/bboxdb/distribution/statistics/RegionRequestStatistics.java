@@ -0,0 +1,250 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.statistics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bboxdb.storage.entity.TupleStoreName;
+
+public class RegionRequestStatistics {
+	
+	/**
+	 * The request counters of the local regions
+	 */
+	private final static Map<String, RequestCounter> requestCounter = new ConcurrentHashMap<>();
+	
+	/**
+	 * The request counter of all regions of the node
+	 */
+	private final static RequestCounter nodeRequestCounter = new RequestCounter();
+
+	/**
+	 * Record a read request on a local region
+	 * @param tupleStoreName
+	 * @param durationNanos
+	 */
+	public static void recordRead(final TupleStoreName tupleStoreName, final long durationNanos) {
+		nodeRequestCounter.readRequests.increment();
+		
+		final RequestCounter counter = getRequestCounter(tupleStoreName);
+		
+		if(counter == null) {
+			return;
+		}
+		
+		counter.readRequests.increment();
+		counter.latencyNanos.add(durationNanos);
+	}
+	
+	/**
+	 * Record a write request on a local region
+	 * @param tupleStoreName
+	 * @param durationNanos
+	 */
+	public static void recordWrite(final TupleStoreName tupleStoreName, final long durationNanos) {
+		nodeRequestCounter.writeRequests.increment();
+		
+		final RequestCounter counter = getRequestCounter(tupleStoreName);
+		
+		if(counter == null) {
+			return;
+		}
+		
+		counter.writeRequests.increment();
+		counter.latencyNanos.add(durationNanos);
+	}
+	
+	/**
+	 * Get the request rates of the region since the last call and reset the counter
+	 * @param distributionGroup
+	 * @param regionId
+	 * @return
+	 */
+	public static RequestRate getAndResetRequestRate(final String distributionGroup, final long regionId) {
+		final String key = getKey(distributionGroup, regionId);
+		final RequestCounter counter = requestCounter.computeIfAbsent(key, (k) -> new RequestCounter());
+		
+		return counter.getAndReset();
+	}
+	
+	/**
+	 * Get the request rates of all regions of the node since the last call and 
+	 * reset the counter
+	 * @return
+	 */
+	public static RequestRate getAndResetNodeRequestRate() {
+		return nodeRequestCounter.getAndReset();
+	}
+	
+	/**
+	 * Remove all counters
+	 */
+	public static void clear() {
+		requestCounter.clear();
+		nodeRequestCounter.getAndReset();
+	}
+	
+	/**
+	 * Get the counter for the region of the tuple store
+	 * @param tupleStoreName
+	 * @return
+	 */
+	private static RequestCounter getRequestCounter(final TupleStoreName tupleStoreName) {
+		if(! tupleStoreName.getRegionId().isPresent()) {
+			return null;
+		}
+		
+		final String key = getKey(tupleStoreName.getDistributionGroup(), 
+				tupleStoreName.getRegionId().getAsLong());
+		
+		return requestCounter.computeIfAbsent(key, (k) -> new RequestCounter());
+	}
+	
+	/**
+	 * Get the key for the region
+	 * @param distributionGroup
+	 * @param regionId
+	 * @return
+	 */
+	private static String getKey(final String distributionGroup, final long regionId) {
+		return distributionGroup + "_" + regionId;
+	}
+	
+	/**
+	 * The request counter of a region
+	 */
+	private static class RequestCounter {
+		
+		/**
+		 * The read requests
+		 */
+		private final LongAdder readRequests = new LongAdder();
+		
+		/**
+		 * The write requests
+		 */
+		private final LongAdder writeRequests = new LongAdder();
+		
+		/**
+		 * The total latency of all requests
+		 */
+		private final LongAdder latencyNanos = new LongAdder();
+		
+		/**
+		 * The time of the last reset
+		 */
+		private long lastResetMillis = System.currentTimeMillis();
+		
+		/**
+		 * Calculate the request rates since the last reset and reset the counter. The 
+		 * adders are reset in place, so concurrent increments are counted in this or 
+		 * in the next period.
+		 * 
+		 * @return
+		 */
+		private synchronized RequestRate getAndReset() {
+			final long nowMillis = System.currentTimeMillis();
+			final long elapsedMillis = Math.max(1, nowMillis - lastResetMillis);
+			lastResetMillis = nowMillis;
+			
+			final long reads = readRequests.sumThenReset();
+			final long writes = writeRequests.sumThenReset();
+			final long latency = latencyNanos.sumThenReset();
+			final long requests = reads + writes;
+			
+			final long readsPerSecond = reads * 1000 / elapsedMillis;
+			final long writesPerSecond = writes * 1000 / elapsedMillis;
+			
+			final long latencyMicros = requests == 0 ? 0 
+					: TimeUnit.NANOSECONDS.toMicros(latency / requests);
+			
+			return new RequestRate(reads, writes, readsPerSecond, writesPerSecond, latencyMicros);
+		}
+	}
+	
+	/**
+	 * The request rates of a region
+	 */
+	public static class RequestRate {
+		
+		/**
+		 * The read requests of the period
+		 */
+		private final long readRequests;
+		
+		/**
+		 * The write requests of the period
+		 */
+		private final long writeRequests;
+		
+		/**
+		 * The read requests per second
+		 */
+		private final long readsPerSecond;
+		
+		/**
+		 * The write requests per second
+		 */
+		private final long writesPerSecond;
+		
+		/**
+		 * The mean latency of the requests in microseconds
+		 */
+		private final long latencyMicros;
+
+		public RequestRate(final long readRequests, final long writeRequests, 
+				final long readsPerSecond, final long writesPerSecond, final long latencyMicros) {
+			
+			this.readRequests = readRequests;
+			this.writeRequests = writeRequests;
+			this.readsPerSecond = readsPerSecond;
+			this.writesPerSecond = writesPerSecond;
+			this.latencyMicros = latencyMicros;
+		}
+
+		public long getReadRequests() {
+			return readRequests;
+		}
+
+		public long getWriteRequests() {
+			return writeRequests;
+		}
+
+		public long getReadsPerSecond() {
+			return readsPerSecond;
+		}
+
+		public long getWritesPerSecond() {
+			return writesPerSecond;
+		}
+
+		public long getLatencyMicros() {
+			return latencyMicros;
+		}
+
+		@Override
+		public String toString() {
+			return "RequestRate [readRequests=" + readRequests + ", writeRequests=" + writeRequests 
+					+ ", readsPerSecond=" + readsPerSecond + ", writesPerSecond=" + writesPerSecond
+					+ ", latencyMicros=" + latencyMicros + "]";
+		}
+	}
+}
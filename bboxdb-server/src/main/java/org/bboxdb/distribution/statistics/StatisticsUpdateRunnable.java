@@ -18,8 +18,13 @@
 package org.bboxdb.distribution.statistics;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.bboxdb.commons.SystemInfo;
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
@@ -29,6 +34,7 @@ import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.region.DistributionRegionHelper;
 import org.bboxdb.distribution.region.DistributionRegionIdMapper;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics.RequestRate;
 import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
 import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClient;
@@ -37,6 +43,7 @@ import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.sstable.SSTableConst;
+import org.bboxdb.storage.tuplestore.DiskStorage;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreUtil;
 import org.slf4j.Logger;
@@ -64,10 +71,26 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 	 */
 	private final DistributionRegionAdapter regionAdapter;
 	
+	/**
+	 * The last published statistics per region
+	 */
+	private final Map<String, PublishedStatistics> publishedStatistics;
+	
+	/**
+	 * The relative change of a value that triggers a new publication
+	 */
+	private final static double PUBLISH_CHANGE_THRESHOLD = 0.05;
+	
+	/**
+	 * The max age of published statistics
+	 */
+	private final static long PUBLISH_MAX_AGE = 10 * SSTableConst.THREAD_STATISTICS_DELAY;
+	
 	public StatisticsUpdateRunnable(final TupleStoreManagerRegistry storageRegistry) {
 		this.storageRegistry = storageRegistry;
 		this.groupAdapter = ZookeeperClientFactory.getZookeeperClient().getDistributionGroupAdapter();
 		this.regionAdapter = ZookeeperClientFactory.getZookeeperClient().getDistributionRegionAdapter();
+		this.publishedStatistics = new HashMap<>();
 	}
 	
 	@Override
@@ -95,7 +118,7 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 	}
 	
 	/**
-	 * Update the local node stats (diskspace, memory)
+	 * Update the local node stats (diskspace, memory, load)
 	 * @throws ZookeeperException 
 	 */
 	private void updateNodeStats() {
@@ -110,6 +133,9 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 				= new ZookeeperBBoxDBInstanceAdapter(zookeeperClient);
 
 			zookeeperBBoxDBInstanceAdapter.updateNodeInfo(instance);
+			
+			updateNodeLoad(instance);
+			zookeeperBBoxDBInstanceAdapter.updateNodeLoad(instance);
 		} catch (ZookeeperException e) {
 			
 			if(Thread.currentThread().isInterrupted()) {
@@ -121,11 +147,40 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 	}
 	
 	/**
-	 * Update the statistics of the region
+	 * Collect the live load metrics of the local node
+	 * @param instance
+	 */
+	private void updateNodeLoad(final BBoxDBInstance instance) {
+		final RequestRate requestRate = RegionRequestStatistics.getAndResetNodeRequestRate();
+		instance.setRequestRate(requestRate.getReadsPerSecond() + requestRate.getWritesPerSecond());
+		
+		instance.setCpuLoad(SystemInfo.getSystemLoadPerCore());
+		
+		final List<DiskStorage> storages = storageRegistry.getAllStorages();
+		
+		final int diskQueueDepth = storages.stream()
+				.mapToInt(s -> s.getFlushQueueSize())
+				.sum();
+		
+		instance.setDiskQueueDepth(diskQueueDepth);
+		
+		final long unflushedBytes = storages.stream()
+				.mapToLong(s -> s.getFlushQueueBytes())
+				.sum();
+		
+		instance.setMemtablePressure((double) unflushedBytes / SystemInfo.getAvailableMemory());
+	}
+	
+	/**
+	 * Update the statistics of the region. Only the changed statistics are 
+	 * collected and written in one batch to zookeeper.
 	 */
 	private void updateRegionStatistics() {
 		
 		try {
+			final Map<String, byte[]> changedNodes = new HashMap<>();
+			final Set<String> seenRegions = new HashSet<>();
+			
 			final List<String> allDistributionGroups = groupAdapter.getDistributionGroups();
 			for(final String distributionGroup : allDistributionGroups) {
 				
@@ -137,9 +192,17 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 				final Collection<Long> allIds = regionIdMapper.getRegionIdsForRegion(Hyperrectangle.FULL_SPACE);
 				
 				for(final long id : allIds) {
-					updateRegionStatistics(distributionGroup, id);
+					seenRegions.add(getRegionKey(distributionGroup, id));
+					updateRegionStatistics(distributionGroup, id, changedNodes);
 				}
 			}
+			
+			publishedStatistics.keySet().retainAll(seenRegions);
+			
+			if(! changedNodes.isEmpty()) {
+				logger.debug("Writing {} changed statistics nodes", changedNodes.size());
+				ZookeeperClientFactory.getZookeeperClient().replacePersistentNodes(changedNodes);
+			}
 
 		} catch (Exception e) {
 			
@@ -147,6 +210,9 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 				return;
 			}
 			
+			// Publish all values in the next run
+			publishedStatistics.clear();
+			
 			logger.error("Got exception while updating statistics", e);
 		}
 	}
@@ -156,11 +222,13 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 	 * 
 	 * @param distributionGroup
 	 * @param regionId
+	 * @param changedNodes 
 	 * @throws ZookeeperException 
 	 * @throws StorageManagerException 
 	 * @throws InterruptedException 
 	 */
-	private void updateRegionStatistics(final String distributionGroup, final long regionId) 
+	private void updateRegionStatistics(final String distributionGroup, final long regionId, 
+			final Map<String, byte[]> changedNodes) 
 			throws BBoxDBException, ZookeeperException, StorageManagerException, InterruptedException {
 		
 		final SpacePartitioner spacePartitioner = SpacePartitionerCache.getInstance()
@@ -179,10 +247,123 @@ public class StatisticsUpdateRunnable extends ExceptionSafeRunnable {
 		
 		final long totalSizeInMb = totalSize / (1024 * 1024);
 		
-		logger.debug("Updating region statistics: {} / {}. Size in MB: {} / Tuples: {}", 
-				distributionGroup, regionId, totalSizeInMb, totalTuples);
-										
-		regionAdapter.updateRegionStatistics(regionToSplit, ZookeeperClientFactory.getLocalInstanceName(), 
-				totalSizeInMb, totalTuples);
+		// Always read the request rate, the counter is reset on read
+		final RequestRate requestRate = RegionRequestStatistics.getAndResetRequestRate(distributionGroup, regionId);
+		
+		final String regionKey = getRegionKey(distributionGroup, regionId);
+		final PublishedStatistics lastPublished = publishedStatistics.get(regionKey);
+		
+		final PublishedStatistics statistics = new PublishedStatistics(totalSizeInMb, totalTuples, 
+				requestRate.getReadsPerSecond(), requestRate.getWritesPerSecond(), 
+				requestRate.getLatencyMicros());
+		
+		if(! statistics.isPublishNeeded(lastPublished)) {
+			return;
+		}
+		
+		logger.debug("Updating region statistics: {} / {}. Size in MB: {} / Tuples: {} / {}", 
+				distributionGroup, regionId, totalSizeInMb, totalTuples, requestRate);
+		
+		final BBoxDBInstance localInstance = ZookeeperClientFactory.getLocalInstanceName();
+		
+		changedNodes.putAll(regionAdapter.getRegionStatisticsNodes(regionToSplit, localInstance, 
+				totalSizeInMb, totalTuples));
+		
+		changedNodes.putAll(regionAdapter.getRegionRequestStatisticsNodes(regionToSplit, localInstance, 
+				requestRate.getReadsPerSecond(), requestRate.getWritesPerSecond(), 
+				requestRate.getLatencyMicros()));
+		
+		publishedStatistics.put(regionKey, statistics);
+	}
+	
+	/**
+	 * Get the key for the region
+	 * @param distributionGroup
+	 * @param regionId
+	 * @return
+	 */
+	private static String getRegionKey(final String distributionGroup, final long regionId) {
+		return distributionGroup + "_" + regionId;
+	}
+	
+	/**
+	 * Is the relative change between the two values above the threshold
+	 * @param oldValue
+	 * @param newValue
+	 * @return
+	 */
+	private static boolean isChanged(final long oldValue, final long newValue) {
+		if(oldValue == newValue) {
+			return false;
+		}
+		
+		final long base = Math.max(Math.abs(oldValue), 1);
+		
+		return (double) Math.abs(newValue - oldValue) / base > PUBLISH_CHANGE_THRESHOLD;
+	}
+	
+	private static class PublishedStatistics {
+		
+		/**
+		 * The size in MB
+		 */
+		private final long size;
+		
+		/**
+		 * The amount of tuples
+		 */
+		private final long tuples;
+		
+		/**
+		 * The read rate
+		 */
+		private final long readRate;
+		
+		/**
+		 * The write rate
+		 */
+		private final long writeRate;
+		
+		/**
+		 * The latency
+		 */
+		private final long latencyMicros;
+		
+		/**
+		 * The publish time
+		 */
+		private final long publishTime;
+
+		public PublishedStatistics(final long size, final long tuples, final long readRate, 
+				final long writeRate, final long latencyMicros) {
+			
+			this.size = size;
+			this.tuples = tuples;
+			this.readRate = readRate;
+			this.writeRate = writeRate;
+			this.latencyMicros = latencyMicros;
+			this.publishTime = System.currentTimeMillis();
+		}
+		
+		/**
+		 * Needs this statistics to be published
+		 * @param lastPublished
+		 * @return
+		 */
+		public boolean isPublishNeeded(final PublishedStatistics lastPublished) {
+			if(lastPublished == null) {
+				return true;
+			}
+			
+			if(publishTime - lastPublished.publishTime > PUBLISH_MAX_AGE) {
+				return true;
+			}
+			
+			return isChanged(lastPublished.size, size)
+					|| isChanged(lastPublished.tuples, tuples)
+					|| isChanged(lastPublished.readRate, readRate)
+					|| isChanged(lastPublished.writeRate, writeRate)
+					|| isChanged(lastPublished.latencyMicros, latencyMicros);
+		}
 	}
 }
@@ -17,6 +17,8 @@
  *******************************************************************************/
 package org.bboxdb.distribution.zookeeper;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +45,16 @@ public class DistributionRegionAdapter {
 	 */
 	private ZookeeperClient zookeeperClient;
 	
+	/**
+	 * The names of the region statistics
+	 */
+	private final static List<String> STATISTICS_NAMES = Arrays.asList(
+			ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE, 
+			ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES,
+			ZookeeperNodeNames.NAME_STATISTICS_READ_RATE,
+			ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE,
+			ZookeeperNodeNames.NAME_STATISTICS_LATENCY);
+	
 	/**
 	 * The logger
 	 */
@@ -375,6 +387,85 @@ public class DistributionRegionAdapter {
 		NodeMutationHelper.markNodeMutationAsComplete(zookeeperClient, regionPath);
 	}
 	
+	/**
+	 * Get the write only systems for the distribution region. These systems receive 
+	 * the writes of the region but are not used for reads.
+	 * 
+	 * @param region
+	 * @return
+	 * @throws ZookeeperException
+	 */
+	public Collection<BBoxDBInstance> getWriteOnlySystemsForDistributionRegion(
+			final DistributionRegion region) throws ZookeeperException {
+		
+		final String path = getZookeeperPathForDistributionRegion(region) 
+				+ "/" + ZookeeperNodeNames.NAME_WRITE_ONLY_SYSTEMS;
+		
+		try {
+			final List<String> children = zookeeperClient.getChildren(path);
+			
+			return children.stream()
+				.map(c -> new BBoxDBInstance(c))
+				.collect(Collectors.toList());
+		} catch (ZookeeperNotFoundException e) {
+			// No system of the region was marked as write only
+			return new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Mark a system of the distribution region as write only
+	 * @param regionPath
+	 * @param system
+	 * @throws ZookeeperException
+	 */
+	public void addWriteOnlySystemToDistributionRegion(final String regionPath, 
+			final BBoxDBInstance system) throws ZookeeperException {
+		
+		if(system == null) {
+			throw new IllegalArgumentException("Unable to add system with value null");
+		}
+		
+		final String instancePath = regionPath + "/" + ZookeeperNodeNames.NAME_WRITE_ONLY_SYSTEMS 
+				+ "/" + system.getStringValue();
+		
+		logger.debug("Register write only system: {}", instancePath);
+		
+		zookeeperClient.replacePersistentNode(instancePath, "".getBytes());
+		
+		NodeMutationHelper.markNodeMutationAsComplete(zookeeperClient, regionPath);
+	}
+	
+	/**
+	 * Remove the write only mark of a system of the distribution region
+	 * @param region
+	 * @param system
+	 * @return
+	 * @throws ZookeeperException
+	 */
+	public boolean deleteWriteOnlySystemFromDistributionRegion(final DistributionRegion region, 
+			final BBoxDBInstance system) throws ZookeeperException {
+		
+		if(system == null) {
+			throw new IllegalArgumentException("Unable to delete system with value null");
+		}
+		
+		final String regionPath = getZookeeperPathForDistributionRegion(region);
+		
+		final String path = regionPath + "/" + ZookeeperNodeNames.NAME_WRITE_ONLY_SYSTEMS 
+				+ "/" + system.getStringValue();
+		
+		if(! zookeeperClient.exists(path)) {
+			return false;
+		}
+		
+		zookeeperClient.deleteNodesRecursive(path);
+		
+		NodeMutationHelper.markNodeMutationAsComplete(zookeeperClient, regionPath);
+		
+		return true;
+	}
+	
 	/**
 	 * Set the checkpoint for the distribution region and system
 	 * @param region
@@ -481,16 +572,84 @@ public class DistributionRegionAdapter {
 		
 		logger.debug("Update region statistics for {} / {}", region.getDistributionGroupName(), system);
 	
-		final String path = getZookeeperPathForDistributionRegion(region) 
-				+ "/" + ZookeeperNodeNames.NAME_STATISTICS + "/" + system.getStringValue();
+		zookeeperClient.replacePersistentNodes(getRegionStatisticsNodes(region, system, size, tuple));
+	}
+	
+	/**
+	 * Get the statistics nodes and the values of the region
+	 * @param region
+	 * @param system
+	 * @param size
+	 * @param tuple
+	 * @return
+	 */
+	public Map<String, byte[]> getRegionStatisticsNodes(final DistributionRegion region, 
+			final BBoxDBInstance system, final long size, final long tuple) {
+		
+		final String path = getStatisticsPath(region, system);
 		
-		zookeeperClient.createDirectoryStructureRecursive(path);
+		final Map<String, byte[]> nodes = new HashMap<>();
+		nodes.put(path + "/" + ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE, Long.toString(size).getBytes());
+		nodes.put(path + "/" + ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES, Long.toString(tuple).getBytes());
+		
+		return nodes;
+	}
+	
+	/**
+	 * Update the request statistics of the region
+	 * @param region
+	 * @param system
+	 * @param readRate
+	 * @param writeRate
+	 * @param latencyMicros
+	 * @throws ZookeeperException
+	 */
+	public void updateRegionRequestStatistics(final DistributionRegion region, 
+			final BBoxDBInstance system, final long readRate, final long writeRate, 
+			final long latencyMicros) throws ZookeeperException {
 		
-		final String sizePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE;
-		zookeeperClient.replacePersistentNode(sizePath, Long.toString(size).getBytes());
+		if(system == null) {
+			throw new IllegalArgumentException("Unable to add system with value null");
+		}
 		
-		final String tuplePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES;
-		zookeeperClient.replacePersistentNode(tuplePath, Long.toString(tuple).getBytes());
+		logger.debug("Update region request statistics for {} / {}", region.getDistributionGroupName(), system);
+	
+		zookeeperClient.replacePersistentNodes(getRegionRequestStatisticsNodes(region, system, 
+				readRate, writeRate, latencyMicros));
+	}
+	
+	/**
+	 * Get the request statistics nodes and the values of the region
+	 * @param region
+	 * @param system
+	 * @param readRate
+	 * @param writeRate
+	 * @param latencyMicros
+	 * @return
+	 */
+	public Map<String, byte[]> getRegionRequestStatisticsNodes(final DistributionRegion region, 
+			final BBoxDBInstance system, final long readRate, final long writeRate, 
+			final long latencyMicros) {
+		
+		final String path = getStatisticsPath(region, system);
+		
+		final Map<String, byte[]> nodes = new HashMap<>();
+		nodes.put(path + "/" + ZookeeperNodeNames.NAME_STATISTICS_READ_RATE, Long.toString(readRate).getBytes());
+		nodes.put(path + "/" + ZookeeperNodeNames.NAME_STATISTICS_WRITE_RATE, Long.toString(writeRate).getBytes());
+		nodes.put(path + "/" + ZookeeperNodeNames.NAME_STATISTICS_LATENCY, Long.toString(latencyMicros).getBytes());
+		
+		return nodes;
+	}
+	
+	/**
+	 * Get the statistics path of the system for the region
+	 * @param region
+	 * @param system
+	 * @return
+	 */
+	private String getStatisticsPath(final DistributionRegion region, final BBoxDBInstance system) {
+		return getZookeeperPathForDistributionRegion(region) 
+				+ "/" + ZookeeperNodeNames.NAME_STATISTICS + "/" + system.getStringValue();
 	}
 	
 	/**
@@ -535,18 +694,14 @@ public class DistributionRegionAdapter {
 			final Map<String, Long> systemMap = new HashMap<>();
 			
 			try {
-				final String sizePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE;
-				if(zookeeperClient.exists(sizePath)) {
-					final String sizeString = zookeeperClient.readPathAndReturnString(sizePath);
-					final long size = MathUtil.tryParseLong(sizeString, () -> "Unable to parse " + sizeString);
-					systemMap.put(ZookeeperNodeNames.NAME_STATISTICS_TOTAL_SIZE, size);
-				}
-				
-				final String tuplePath = path + "/" + ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES;
-				if(zookeeperClient.exists(tuplePath)) {
-					final String tuplesString = zookeeperClient.readPathAndReturnString(tuplePath);
-					final long tuples = MathUtil.tryParseLong(tuplesString, () -> "Unable to parse " + tuplesString);
-					systemMap.put(ZookeeperNodeNames.NAME_STATISTICS_TOTAL_TUPLES, tuples);
+				for(final String statisticsName : STATISTICS_NAMES) {
+					final String valuePath = path + "/" + statisticsName;
+					
+					if(zookeeperClient.exists(valuePath)) {
+						final String valueString = zookeeperClient.readPathAndReturnString(valuePath);
+						final long value = MathUtil.tryParseLong(valueString, () -> "Unable to parse " + valueString);
+						systemMap.put(statisticsName, value);
+					}
 				}
 				
 				result.put(new BBoxDBInstance(system), systemMap);
@@ -574,6 +729,23 @@ public class DistributionRegionAdapter {
 		zookeeperClient.deleteNodesRecursive(statisticsPath);
 	}
 	
+	/**
+	 * Delete the statistics of the given system for a region
+	 * @param region
+	 * @param system
+	 * @throws ZookeeperException
+	 */
+	public void deleteRegionStatistics(final DistributionRegion region, final BBoxDBInstance system) 
+			throws ZookeeperException {
+		
+		logger.debug("Delete statistics for {} / {}", region.getDistributionGroupName(), system);
+		
+		final String statisticsPath = getZookeeperPathForDistributionRegion(region) 
+				+ "/" + ZookeeperNodeNames.NAME_STATISTICS + "/" + system.getStringValue();
+		
+		zookeeperClient.deleteNodesRecursive(statisticsPath);
+	}
+	
 	/**
 	 * Allocate the given list of systems to a region
 	 * @param region
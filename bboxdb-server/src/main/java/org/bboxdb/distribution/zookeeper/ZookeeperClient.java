@@ -19,6 +19,7 @@ package org.bboxdb.distribution.zookeeper;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -27,6 +28,7 @@ import java.util.stream.Collectors;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.KeeperException.Code;
+import org.apache.zookeeper.Op;
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooDefs;
@@ -40,6 +42,8 @@ import org.bboxdb.misc.BBoxDBService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Lists;
+
 public class ZookeeperClient implements BBoxDBService, AcquirableResource {
 
 	/**
@@ -71,6 +75,11 @@ public class ZookeeperClient implements BBoxDBService, AcquirableResource {
 	 * The connect timeout in seconds
 	 */
 	private final static int ZOOKEEPER_CONNECT_TIMEOUT_IN_SEC = 5;
+	
+	/**
+	 * The max amount of operations in one zookeeper request
+	 */
+	private final static int MAX_BATCH_OPERATIONS = 500;
 
 	/**
 	 * The logger
@@ -566,6 +575,40 @@ public class ZookeeperClient implements BBoxDBService, AcquirableResource {
 		}
 	}
 	
+	/**
+	 * Replace the data of multiple persistent nodes. The data of the existing nodes 
+	 * is written in batches of MAX_BATCH_OPERATIONS operations, each batch is one 
+	 * request to zookeeper. When a node of a batch does not exist, the nodes of 
+	 * the batch are replaced one by one.
+	 * 
+	 * @param nodes
+	 * @throws ZookeeperException
+	 */
+	public void replacePersistentNodes(final Map<String, byte[]> nodes) throws ZookeeperException {
+		
+		final List<Op> operations = nodes.entrySet()
+				.stream()
+				.map(e -> Op.setData(e.getKey(), e.getValue(), -1))
+				.collect(Collectors.toList());
+		
+		for(final List<Op> batch : Lists.partition(operations, MAX_BATCH_OPERATIONS)) {
+			try {
+				zookeeper.multi(batch);
+			} catch (KeeperException e) {
+				if(e.code() != Code.NONODE) {
+					throw new ZookeeperException(e);
+				}
+				
+				for(final Op operation : batch) {
+					replacePersistentNode(operation.getPath(), nodes.get(operation.getPath()));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ZookeeperException(e);
+			}
+		}
+	}
+	
 	/**
 	 * Replace the ephemeral node
 	 * @param path
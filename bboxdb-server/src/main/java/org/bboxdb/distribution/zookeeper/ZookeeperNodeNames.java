@@ -64,6 +64,11 @@ public class ZookeeperNodeNames {
 	 */
 	public final static String NAME_SYSTEMS = "systems";
 	
+	/**
+	 * Name of the write only systems node
+	 */
+	public final static String NAME_WRITE_ONLY_SYSTEMS = "writeonly";
+	
 	/**
 	 * Name of the systems node
 	 */
@@ -84,6 +89,21 @@ public class ZookeeperNodeNames {
 	 */
 	public final static String NAME_STATISTICS_TOTAL_SIZE = "total_size";
 	
+	/**
+	 * Name of the statistics read requests per second node
+	 */
+	public final static String NAME_STATISTICS_READ_RATE = "read_rate";
+	
+	/**
+	 * Name of the statistics write requests per second node
+	 */
+	public final static String NAME_STATISTICS_WRITE_RATE = "write_rate";
+	
+	/**
+	 * Name of the statistics mean request latency (in microseconds) node
+	 */
+	public final static String NAME_STATISTICS_LATENCY = "latency";
+	
 	/**
 	 * Name of the region state node
 	 */
@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.bboxdb.commons.NetworkInterfaceHelper;
+import org.bboxdb.commons.SystemInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,6 +79,39 @@ public class BBoxDBConfiguration {
 	 */
 	private int networkConnectionThreads = 25;
 	
+	/**
+	 * The max amount of in flight requests per client connection
+	 */
+	private int networkMaxInFlightCalls = 4096;
+	
+	/**
+	 * The amount of threads to execute the region queries of this node
+	 */
+	private int queryThreads = SystemInfo.getCPUCores();
+	
+	/**
+	 * The max amount of requests per second on a region. Busier regions 
+	 * are split, regardless of their size. A value of 0 disables the check.
+	 */
+	private long regionMaxRequestRate = 0;
+	
+	/**
+	 * The interval (in seconds) to check if local region replicas should be 
+	 * moved to less utilized systems. A value of 0 disables the rebalancing.
+	 */
+	private int rebalanceInterval = 0;
+	
+	/**
+	 * Only log the planned region moves, don't move the regions
+	 */
+	private boolean rebalanceDryRun = false;
+	
+	/**
+	 * The max amount of tuples per second that are send while a region 
+	 * is moved. A value of 0 disables the limit.
+	 */
+	private int rebalanceMaxTuplesPerSecond = 10000;
+	
 	/**
 	 * The name of the cluster
 	 */
@@ -148,6 +182,54 @@ public class BBoxDBConfiguration {
 		this.networkConnectionThreads = networkConnectionThreads;
 	}
 
+	public int getNetworkMaxInFlightCalls() {
+		return networkMaxInFlightCalls;
+	}
+
+	public void setNetworkMaxInFlightCalls(final int networkMaxInFlightCalls) {
+		this.networkMaxInFlightCalls = networkMaxInFlightCalls;
+	}
+
+	public int getQueryThreads() {
+		return queryThreads;
+	}
+
+	public void setQueryThreads(final int queryThreads) {
+		this.queryThreads = queryThreads;
+	}
+
+	public long getRegionMaxRequestRate() {
+		return regionMaxRequestRate;
+	}
+
+	public void setRegionMaxRequestRate(final long regionMaxRequestRate) {
+		this.regionMaxRequestRate = regionMaxRequestRate;
+	}
+
+	public int getRebalanceInterval() {
+		return rebalanceInterval;
+	}
+
+	public void setRebalanceInterval(final int rebalanceInterval) {
+		this.rebalanceInterval = rebalanceInterval;
+	}
+
+	public boolean isRebalanceDryRun() {
+		return rebalanceDryRun;
+	}
+
+	public void setRebalanceDryRun(final boolean rebalanceDryRun) {
+		this.rebalanceDryRun = rebalanceDryRun;
+	}
+
+	public int getRebalanceMaxTuplesPerSecond() {
+		return rebalanceMaxTuplesPerSecond;
+	}
+
+	public void setRebalanceMaxTuplesPerSecond(final int rebalanceMaxTuplesPerSecond) {
+		this.rebalanceMaxTuplesPerSecond = rebalanceMaxTuplesPerSecond;
+	}
+
 	public String getClustername() {
 		return clustername;
 	}
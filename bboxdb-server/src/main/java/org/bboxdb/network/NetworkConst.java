@@ -22,7 +22,22 @@ public class NetworkConst {
 	/**
 	 * The version of the network protocol
 	 */
-	public static final byte PROTOCOL_VERSION = 0x01;
+	public static final byte PROTOCOL_VERSION = 0x02;
+	
+	/**
+	 * The first version of the network protocol
+	 */
+	public static final byte PROTOCOL_VERSION_1 = 0x01;
+	
+	/**
+	 * The first protocol version that negotiates the in flight calls in the handshake
+	 */
+	public static final byte PROTOCOL_VERSION_IN_FLIGHT_CALLS = 0x02;
+	
+	/**
+	 * The in flight calls of a peer that does not announce a limit in the handshake
+	 */
+	public static final short DEFAULT_MAX_IN_FLIGHT_CALLS = 1000;
 	
 	/**
 	 * Value of an unused byte
@@ -129,6 +144,26 @@ public class NetworkConst {
 	 */
 	public static final byte REQUEST_QUERY_JOIN = 0x07;
 	
+	/**
+	 * Query type nearest neighbor
+	 */
+	public static final byte REQUEST_QUERY_NEAREST = 0x08;
+	
+	/**
+	 * Query type aggregation
+	 */
+	public static final byte REQUEST_QUERY_AGGREGATION = 0x09;
+
+	/**
+	 * Query flag paging
+	 */
+	public static final byte QUERY_FLAG_PAGING = 0x01;
+
+	/**
+	 * Query flag exact geometry refinement
+	 */
+	public static final byte QUERY_FLAG_GEOMETRY_REFINEMENT = 0x02;
+
 	/**
 	 * Response type hello
 	 */
@@ -183,6 +218,11 @@ public class NetworkConst {
 	 * Compression envelope request
 	 */
 	public static final short RESPONSE_TYPE_COMPRESSION = 0x10;
+	
+	/**
+	 * Tuple page response (multiple tuples in a compact encoding)
+	 */
+	public static final short RESPONSE_TYPE_TUPLE_PAGE = 0x11;
 
 	
 	/**
@@ -190,6 +230,21 @@ public class NetworkConst {
 	 */
 	public final static byte COMPRESSION_TYPE_GZIP = 0x00;
 	
+	/**
+	 * The lz4 compression type
+	 */
+	public final static byte COMPRESSION_TYPE_LZ4 = 0x01;
+	
+	/**
+	 * The zstandard compression type
+	 */
+	public final static byte COMPRESSION_TYPE_ZSTD = 0x02;
+	
+
+	/**
+	 * The max size of an uncompressed package (256 MB)
+	 */
+	public final static int MAX_UNCOMPRESSED_PACKAGE_SIZE = 256 * 1024 * 1024;
 
 	/**
 	 * The thread wakeup time (100 ms) to flush the pending compression packages
@@ -17,39 +17,33 @@
  *******************************************************************************/
 package org.bboxdb.network;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.zip.GZIPInputStream;
+import java.nio.ByteBuffer;
 
+import org.bboxdb.network.compression.CompressionCodec;
+import org.bboxdb.network.compression.CompressionCodecFactory;
 import org.bboxdb.network.packages.PackageEncodeException;
 
 public class NetworkHelper {
 
 	/**
-	 * Uncompress the data in the byte array
+	 * Uncompress the remaining data of the byte buffer. The result is 
+	 * stored in a buffer of the codec and is only valid until the next 
+	 * uncompress call of the current thread.
+	 * 
 	 * @param compressionType 
 	 * @param compressedBytes
 	 * @return
 	 * @throws PackageEncodeException
 	 */
-	public static byte[] uncompressBytes(final byte compressionType, 
-			final byte[] compressedBytes) throws PackageEncodeException {
+	public static ByteBuffer uncompressBytes(final byte compressionType, 
+			final ByteBuffer compressedBytes) throws PackageEncodeException {
+		
+		final CompressionCodec codec = CompressionCodecFactory.getCodec(compressionType);
 		
 		try {
-			final ByteArrayInputStream bais = new ByteArrayInputStream(compressedBytes);
-			final GZIPInputStream inputStream = new GZIPInputStream(bais);
-			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-			final byte[] buffer = new byte[10240];
-			for (int length = 0; (length = inputStream.read(buffer)) > 0; ) {
-				baos.write(buffer, 0, length);
-			}
-
-			inputStream.close();
-			baos.close();
-			
-			return baos.toByteArray();
+			final int offset = compressedBytes.arrayOffset() + compressedBytes.position();
+			return codec.uncompress(compressedBytes.array(), offset, compressedBytes.remaining());
 		} catch (IOException e) {
 			throw new PackageEncodeException(e);
 		}
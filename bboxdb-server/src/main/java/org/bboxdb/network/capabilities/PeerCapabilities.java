@@ -19,6 +19,8 @@ package org.bboxdb.network.capabilities;
 
 import java.nio.ByteBuffer;
 
+import org.bboxdb.network.NetworkConst;
+
 public class PeerCapabilities {
 
 	protected final ByteBuffer capabilities;
@@ -28,6 +30,21 @@ public class PeerCapabilities {
 	 */
 	public final static short CAPABILITY_COMPRESSION_GZIP = 0;
 	
+	/**
+	 * The lz4 compression flag
+	 */
+	public final static short CAPABILITY_COMPRESSION_LZ4 = 1;
+	
+	/**
+	 * The zstandard compression flag
+	 */
+	public final static short CAPABILITY_COMPRESSION_ZSTD = 2;
+	
+	/**
+	 * The compact tuple page encoding
+	 */
+	public final static short CAPABILITY_TUPLE_PAGE_ENCODING = 3;
+	
 	/**
 	 * The readonly flag
 	 */
@@ -83,6 +100,123 @@ public class PeerCapabilities {
 		clearBit(CAPABILITY_COMPRESSION_GZIP);
 	}
 
+	/**
+	 * Is the lz4 compression bit set?
+	 * 
+	 * @return
+	 */
+	public boolean hasLZ4Compression() {
+		return getBit(CAPABILITY_COMPRESSION_LZ4);
+	}
+
+	/**
+	 * Set the lz4 compression bit
+	 */
+	public void setLZ4Compression() {
+		setBit(CAPABILITY_COMPRESSION_LZ4);
+	}
+
+	/**
+	 * Clear the lz4 compression bit
+	 */
+	public void clearLZ4Compression() {
+		clearBit(CAPABILITY_COMPRESSION_LZ4);
+	}
+	
+	/**
+	 * Is the zstandard compression bit set?
+	 * 
+	 * @return
+	 */
+	public boolean hasZstdCompression() {
+		return getBit(CAPABILITY_COMPRESSION_ZSTD);
+	}
+
+	/**
+	 * Set the zstandard compression bit
+	 */
+	public void setZstdCompression() {
+		setBit(CAPABILITY_COMPRESSION_ZSTD);
+	}
+
+	/**
+	 * Clear the zstandard compression bit
+	 */
+	public void clearZstdCompression() {
+		clearBit(CAPABILITY_COMPRESSION_ZSTD);
+	}
+	
+	/**
+	 * Is the tuple page encoding bit set?
+	 * 
+	 * @return
+	 */
+	public boolean hasTuplePageEncoding() {
+		return getBit(CAPABILITY_TUPLE_PAGE_ENCODING);
+	}
+
+	/**
+	 * Set the tuple page encoding bit
+	 */
+	public void setTuplePageEncoding() {
+		setBit(CAPABILITY_TUPLE_PAGE_ENCODING);
+	}
+
+	/**
+	 * Clear the tuple page encoding bit
+	 */
+	public void clearTuplePageEncoding() {
+		clearBit(CAPABILITY_TUPLE_PAGE_ENCODING);
+	}
+	
+	/**
+	 * Is any compression method supported?
+	 * 
+	 * @return
+	 */
+	public boolean hasCompression() {
+		return hasLZ4Compression() || hasZstdCompression() || hasGZipCompression();
+	}
+	
+	/**
+	 * Get the preferred compression type. The fast codecs are preferred over gzip, 
+	 * since the CPU costs of gzip are often higher than the savings on 
+	 * fast networks.
+	 * 
+	 * @return
+	 */
+	public byte getPreferredCompressionType() {
+		if(hasLZ4Compression()) {
+			return NetworkConst.COMPRESSION_TYPE_LZ4;
+		}
+		
+		if(hasZstdCompression()) {
+			return NetworkConst.COMPRESSION_TYPE_ZSTD;
+		}
+		
+		if(hasGZipCompression()) {
+			return NetworkConst.COMPRESSION_TYPE_GZIP;
+		}
+		
+		throw new IllegalStateException("No compression method supported: " + this);
+	}
+
+	/**
+	 * Get the capabilities that are supported by both peers
+	 * 
+	 * @param otherCapabilities
+	 * @return
+	 */
+	public PeerCapabilities intersect(final PeerCapabilities otherCapabilities) {
+		final byte[] bytes = new byte[CAPABILITY_BYTES];
+		
+		for(int i = 0; i < CAPABILITY_BYTES; i++) {
+			bytes[i] = (byte) (capabilities.get(i) & otherCapabilities.capabilities.get(i));
+		}
+		
+		return new PeerCapabilities(bytes);
+	}
+
 	/**
 	 * Set the bit
 	 * 
@@ -22,12 +22,16 @@ import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.AggregationResultFuture;
 import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.client.future.JoinedTupleListFuture;
+import org.bboxdb.network.client.future.NearestTupleListFuture;
 import org.bboxdb.network.client.future.TupleListFuture;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.queryprocessor.aggregation.AggregationType;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterDefinition;
 
 public interface BBoxDB extends Closeable {
 	
@@ -139,6 +143,31 @@ public interface BBoxDB extends Closeable {
 	public TupleListFuture queryRectangle(final String table,
 			final Hyperrectangle boundingBox) throws BBoxDBException;
 	
+	/**
+	 * Execute a hyperrectangle query on the given table. The user defined filter 
+	 * is executed on the server.
+	 * @param table
+	 * @param boundingBox
+	 * @param userDefinedFilter
+	 * @return
+	 */
+	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox, 
+			final UserDefinedFilterDefinition userDefinedFilter) throws BBoxDBException;
+	
+	/**
+	 * Execute a hyperrectangle query on the given table. The user defined filter 
+	 * is executed on the server. When the geometry refinement is enabled, the server 
+	 * removes the tuples whose GeoJSON geometry does not intersect the bounding box.
+	 * @param table
+	 * @param boundingBox
+	 * @param userDefinedFilter
+	 * @param geometryRefinement
+	 * @return
+	 */
+	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox, 
+			final UserDefinedFilterDefinition userDefinedFilter, final boolean geometryRefinement) 
+					throws BBoxDBException;
+	
 	/**
 	 * Execute a continuous bounding box query on the given table
 	 * @param table
@@ -181,6 +210,44 @@ public interface BBoxDB extends Closeable {
 	 */
 	public JoinedTupleListFuture queryJoin(final List<String> tableNames, final Hyperrectangle boundingBox) throws BBoxDBException;
 	
+	/**
+	 * Execute a join. When the geometry refinement is enabled, the server removes 
+	 * the results whose GeoJSON geometries do not intersect.
+	 * @param tableNames
+	 * @param boundingBox
+	 * @param geometryRefinement
+	 * @return
+	 */
+	public JoinedTupleListFuture queryJoin(final List<String> tableNames, final Hyperrectangle boundingBox, 
+			final boolean geometryRefinement) throws BBoxDBException;
+	
+	/**
+	 * Query the given table for the k nearest tuples of the point
+	 * @param table
+	 * @param point - the query point, given as a degenerated hyperrectangle
+	 * @param maxTuples
+	 * @return
+	 */
+	public NearestTupleListFuture queryNearest(final String table, final Hyperrectangle point, 
+			final int maxTuples) throws BBoxDBException;
+	
+	/**
+	 * Aggregate the tuples of the given table inside of the bounding box. The tuples are 
+	 * aggregated by the servers, only the partial aggregates are transferred.
+	 * 
+	 * While a region is split or merged, the data of the source regions is aggregated. 
+	 * Tuples that are written during the redistribution are not contained in the result.
+	 * A grid count is limited to Aggregator.MAX_GRID_CELLS cells.
+	 * 
+	 * @param table
+	 * @param boundingBox
+	 * @param aggregationType
+	 * @param parameter - the cell size (grid count) or the bucket width in microseconds (time histogram)
+	 * @return
+	 */
+	public AggregationResultFuture queryAggregation(final String table, final Hyperrectangle boundingBox, 
+			final AggregationType aggregationType, final double parameter) throws BBoxDBException;
+	
 	/**
 	 * Is the client connected?
 	 * @return
@@ -217,4 +284,18 @@ public interface BBoxDB extends Closeable {
 	 */
 	public void setTuplesPerPage(final short tuplesPerPage);
 
+	/**
+	 * Get the maximal amount of outstanding page requests per query
+	 * @return
+	 */
+	public int getMaxPageCredits();
+
+	/**
+	 * Set the maximal amount of outstanding page requests per query. The server
+	 * sends the next pages without an additional round trip as long as 
+	 * credits are available (1 = no streaming)
+	 * @param maxPageCredits
+	 */
+	public void setMaxPageCredits(final int maxPageCredits);
+
 }
\ No newline at end of file
@@ -29,9 +29,11 @@ import org.bboxdb.commons.MicroSecondTimestampProvider;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.TupleStoreConfigurationCache;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.AggregationResultFuture;
 import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.client.future.FutureRetryPolicy;
 import org.bboxdb.network.client.future.JoinedTupleListFuture;
+import org.bboxdb.network.client.future.NearestTupleListFuture;
 import org.bboxdb.network.client.future.NetworkOperationFuture;
 import org.bboxdb.network.client.future.NetworkOperationFutureImpl;
 import org.bboxdb.network.client.future.OperationFuture;
@@ -46,12 +48,14 @@ import org.bboxdb.network.packages.request.InsertTupleRequest;
 import org.bboxdb.network.packages.request.KeepAliveRequest;
 import org.bboxdb.network.packages.request.LockTupleRequest;
 import org.bboxdb.network.packages.request.NextPageRequest;
+import org.bboxdb.network.packages.request.QueryAggregationRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleContinuousRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleTimeRequest;
 import org.bboxdb.network.packages.request.QueryInsertTimeRequest;
 import org.bboxdb.network.packages.request.QueryJoinRequest;
 import org.bboxdb.network.packages.request.QueryKeyRequest;
+import org.bboxdb.network.packages.request.QueryNearestRequest;
 import org.bboxdb.network.packages.request.QueryVersionTimeRequest;
 import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.storage.entity.DeletedTuple;
@@ -59,6 +63,9 @@ import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.aggregation.AggregationType;
+import org.bboxdb.storage.queryprocessor.aggregation.Aggregator;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterDefinition;
 import org.bboxdb.storage.sstable.duplicateresolver.DoNothingDuplicateResolver;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 
@@ -79,6 +86,11 @@ public class BBoxDBClient implements BBoxDB {
 	 */
 	private short tuplesPerPage;
 
+	/**
+	 * The maximal amount of outstanding page requests per query (1 = no streaming)
+	 */
+	private int maxPageCredits;
+
 	/**
 	 * The tuple store manager registry (used for gossip)
 	 */
@@ -88,6 +100,7 @@ public class BBoxDBClient implements BBoxDB {
 		this.connection = Objects.requireNonNull(connection);
 		this.pagingEnabled = true;
 		this.tuplesPerPage = 50;
+		this.maxPageCredits = 8;
 	}
 
 	/* (non-Javadoc)
@@ -346,11 +359,33 @@ public class BBoxDBClient implements BBoxDB {
 	 */
 	@Override
 	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox) {
+		return queryRectangle(table, boundingBox, UserDefinedFilterDefinition.NONE);
+	}
+	
+	/**
+	 * Execute a bounding box query with a user defined filter on the given table
+	 */
+	@Override
+	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox, 
+			final UserDefinedFilterDefinition userDefinedFilter) {
+		
+		return queryRectangle(table, boundingBox, userDefinedFilter, false);
+	}
+	
+	/**
+	 * Execute a bounding box query with a user defined filter and an optional 
+	 * geometry refinement on the given table
+	 */
+	@Override
+	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox, 
+			final UserDefinedFilterDefinition userDefinedFilter, final boolean geometryRefinement) {
+		
 		final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
 				table, boundingBox, false, connection.getServerAddress());
 
 		final Supplier<List<NetworkOperationFuture>> future
-			= getQueryBoundingBoxFuture(table, boundingBox, routingHeader);
+			= getQueryBoundingBoxFuture(table, boundingBox, userDefinedFilter, geometryRefinement, 
+					routingHeader);
 
 		return new TupleListFuture(future, new DoNothingDuplicateResolver(), table);
 	}
@@ -359,17 +394,20 @@ public class BBoxDBClient implements BBoxDB {
 	 *
 	 * @param table
 	 * @param boundingBox
+	 * @param userDefinedFilter
+	 * @param geometryRefinement
 	 * @param routingHeader
 	 * @return
 	 */
 	public Supplier<List<NetworkOperationFuture>> getQueryBoundingBoxFuture(final String table,
-			final Hyperrectangle boundingBox, RoutingHeader routingHeader) {
+			final Hyperrectangle boundingBox, final UserDefinedFilterDefinition userDefinedFilter, 
+			final boolean geometryRefinement, final RoutingHeader routingHeader) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
 			final short nextSequenceNumber = connection.getNextSequenceNumber();
 
-			return new QueryHyperrectangleRequest(nextSequenceNumber,
-					routingHeader, table, boundingBox, pagingEnabled, tuplesPerPage);
+			return new QueryHyperrectangleRequest(nextSequenceNumber, routingHeader, table, 
+					boundingBox, userDefinedFilter, geometryRefinement, pagingEnabled, tuplesPerPage);
 		};
 
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
@@ -514,11 +552,21 @@ public class BBoxDBClient implements BBoxDB {
 	 */
 	@Override
 	public JoinedTupleListFuture queryJoin(final List<String> tableNames, final Hyperrectangle boundingBox) {
+		return queryJoin(tableNames, boundingBox, false);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#queryJoin
+	 */
+	@Override
+	public JoinedTupleListFuture queryJoin(final List<String> tableNames, final Hyperrectangle boundingBox, 
+			final boolean geometryRefinement) {
+		
 		final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
 				tableNames.get(0), boundingBox, true, connection.getServerAddress());
 
 		final Supplier<List<NetworkOperationFuture>> future
-			= getJoinFuture(tableNames, boundingBox, routingHeader);
+			= getJoinFuture(tableNames, boundingBox, geometryRefinement, routingHeader);
 
 		return new JoinedTupleListFuture(future);
 	}
@@ -526,11 +574,12 @@ public class BBoxDBClient implements BBoxDB {
 	/**
 	 * @param tableNames
 	 * @param boundingBox
+	 * @param geometryRefinement
 	 * @param routingHeader2
 	 * @return
 	 */
 	public Supplier<List<NetworkOperationFuture>> getJoinFuture(final List<String> tableNames, final Hyperrectangle boundingBox,
-			final RoutingHeader routingHeader) {
+			final boolean geometryRefinement, final RoutingHeader routingHeader) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
 
@@ -542,7 +591,91 @@ public class BBoxDBClient implements BBoxDB {
 			final short nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new QueryJoinRequest(nextSequenceNumber,
-					routingHeader, tupleStoreNames, boundingBox, pagingEnabled, tuplesPerPage);
+					routingHeader, tupleStoreNames, boundingBox, geometryRefinement, pagingEnabled, tuplesPerPage);
+		};
+
+		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#queryNearest
+	 */
+	@Override
+	public NearestTupleListFuture queryNearest(final String table, final Hyperrectangle point, 
+			final int maxTuples) {
+		
+		final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
+				table, Hyperrectangle.FULL_SPACE, true, connection.getServerAddress());
+
+		final Supplier<List<NetworkOperationFuture>> future
+			= getQueryNearestFuture(table, point, maxTuples, routingHeader);
+
+		return new NearestTupleListFuture(future, point, maxTuples);
+	}
+
+	/**
+	 * @param table
+	 * @param point
+	 * @param maxTuples
+	 * @param routingHeader
+	 * @return
+	 */
+	public Supplier<List<NetworkOperationFuture>> getQueryNearestFuture(final String table, 
+			final Hyperrectangle point, final int maxTuples, final RoutingHeader routingHeader) {
+
+		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
+			final short nextSequenceNumber = connection.getNextSequenceNumber();
+
+			return new QueryNearestRequest(nextSequenceNumber, routingHeader, table, 
+					point, maxTuples);
+		};
+
+		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#queryAggregation
+	 */
+	@Override
+	public AggregationResultFuture queryAggregation(final String table, final Hyperrectangle boundingBox,
+			final AggregationType aggregationType, final double parameter) throws BBoxDBException {
+		
+		if(aggregationType == AggregationType.GRID_COUNT && boundingBox.getDimension() == 0) {
+			throw new BBoxDBException("A grid count needs a bounding box with at least one dimension");
+		}
+		
+		if(aggregationType == AggregationType.GRID_COUNT 
+				&& Aggregator.getAmountOfGridCells(boundingBox, parameter) > Aggregator.MAX_GRID_CELLS) {
+			throw new BBoxDBException("The grid count has more than " + Aggregator.MAX_GRID_CELLS 
+					+ " cells, please use a larger cell size");
+		}
+		
+		final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
+				table, boundingBox, true, connection.getServerAddress());
+
+		final Supplier<List<NetworkOperationFuture>> future
+			= getQueryAggregationFuture(table, boundingBox, aggregationType, parameter, routingHeader);
+
+		return new AggregationResultFuture(future, aggregationType, boundingBox, parameter);
+	}
+
+	/**
+	 * @param table
+	 * @param boundingBox
+	 * @param aggregationType
+	 * @param parameter
+	 * @param routingHeader
+	 * @return
+	 */
+	public Supplier<List<NetworkOperationFuture>> getQueryAggregationFuture(final String table, 
+			final Hyperrectangle boundingBox, final AggregationType aggregationType, 
+			final double parameter, final RoutingHeader routingHeader) {
+
+		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
+			final short nextSequenceNumber = connection.getNextSequenceNumber();
+
+			return new QueryAggregationRequest(nextSequenceNumber, routingHeader, table, 
+					boundingBox, aggregationType, parameter);
 		};
 
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
@@ -673,6 +806,26 @@ public class BBoxDBClient implements BBoxDB {
 		this.tuplesPerPage = tuplesPerPage;
 	}
 
+	/**
+	 * Get the maximal amount of outstanding page requests per query
+	 * @return
+	 */
+	public int getMaxPageCredits() {
+		return maxPageCredits;
+	}
+
+	/**
+	 * Set the maximal amount of outstanding page requests per query
+	 * @param maxPageCredits
+	 */
+	public void setMaxPageCredits(final int maxPageCredits) {
+		if(maxPageCredits < 1) {
+			throw new IllegalArgumentException("Max page credits needs to be >= 1: " + maxPageCredits);
+		}
+		
+		this.maxPageCredits = maxPageCredits;
+	}
+
 	@Override
 	public boolean connect() {
 		return connection.connect();
@@ -17,10 +17,16 @@
  *******************************************************************************/
 package org.bboxdb.network.client;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.commons.MicroSecondTimestampProvider;
@@ -37,18 +43,25 @@ import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.region.DistributionRegionHelper;
 import org.bboxdb.distribution.zookeeper.ZookeeperClient;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.AggregationResultFuture;
 import org.bboxdb.network.client.future.EmptyResultFuture;
 import org.bboxdb.network.client.future.FutureRetryPolicy;
 import org.bboxdb.network.client.future.JoinedTupleListFuture;
+import org.bboxdb.network.client.future.NearestTupleListFuture;
 import org.bboxdb.network.client.future.NetworkOperationFuture;
 import org.bboxdb.network.client.future.TupleListFuture;
 import org.bboxdb.network.client.tools.AbtractClusterFutureBuilder;
 import org.bboxdb.network.client.tools.ClusterOperationType;
+import org.bboxdb.network.client.tools.ReplicaReadPolicy;
 import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.routing.RoutingHopHelper;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.queryprocessor.aggregation.AggregationType;
+import org.bboxdb.storage.queryprocessor.aggregation.Aggregator;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterDefinition;
 import org.bboxdb.storage.sstable.duplicateresolver.DoNothingDuplicateResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -184,7 +197,7 @@ public class BBoxDBCluster implements BBoxDB {
 		final DeletedTuple tuple = new DeletedTuple(key, timestamp);
 		
 		final AbtractClusterFutureBuilder builder = new AbtractClusterFutureBuilder(
-				ClusterOperationType.WRITE_TO_NODES, table, Hyperrectangle.FULL_SPACE) {
+				ClusterOperationType.WRITE_TO_NODES, table, boundingBox) {
 
 			@Override
 			protected Supplier<List<NetworkOperationFuture>> buildFuture(final BBoxDBConnection connection,
@@ -269,13 +282,27 @@ public class BBoxDBCluster implements BBoxDB {
 
 	@Override
 	public TupleListFuture queryKey(final String table, final String key) throws BBoxDBException {
+		return queryKey(table, key, Hyperrectangle.FULL_SPACE);
+	}
+	
+	/**
+	 * Query the key, only the regions that intersect the bounding box are contacted
+	 * 
+	 * @param table
+	 * @param key
+	 * @param boundingBox - the bounding box of the tuple, or the full space if unknown
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	public TupleListFuture queryKey(final String table, final String key, 
+			final Hyperrectangle boundingBox) throws BBoxDBException {
 
 		if(logger.isDebugEnabled()) {
-			logger.debug("Query by for key {} in table {}", key, table);
+			logger.debug("Query by for key {} in table {} (bounding box {})", key, table, boundingBox);
 		}
 		
 		final AbtractClusterFutureBuilder builder = new AbtractClusterFutureBuilder(
-				ClusterOperationType.READ_FROM_NODES, table, Hyperrectangle.FULL_SPACE) {
+				ClusterOperationType.READ_FROM_NODES, table, boundingBox) {
 
 			@Override
 			protected Supplier<List<NetworkOperationFuture>> buildFuture(final BBoxDBConnection connection,
@@ -293,9 +320,23 @@ public class BBoxDBCluster implements BBoxDB {
 
 	@Override
 	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox) throws BBoxDBException {
+		return queryRectangle(table, boundingBox, UserDefinedFilterDefinition.NONE);
+	}
+	
+	@Override
+	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox, 
+			final UserDefinedFilterDefinition userDefinedFilter) throws BBoxDBException {
+		return queryRectangle(table, boundingBox, userDefinedFilter, false);
+	}
+	
+	@Override
+	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox, 
+			final UserDefinedFilterDefinition userDefinedFilter, final boolean geometryRefinement) 
+					throws BBoxDBException {
 
 		if(logger.isDebugEnabled()) {
-			logger.debug("Query by for bounding box {} in table {}", boundingBox, table);
+			logger.debug("Query by for bounding box {} in table {} (filter {}, refinement {})", 
+					boundingBox, table, userDefinedFilter, geometryRefinement);
 		}
 		
 		final AbtractClusterFutureBuilder builder = new AbtractClusterFutureBuilder(
@@ -306,7 +347,7 @@ public class BBoxDBCluster implements BBoxDB {
 					final RoutingHeader routingHeader) {
 				
 				return connection.getBboxDBClient().getQueryBoundingBoxFuture(table, boundingBox, 
-						routingHeader);
+						userDefinedFilter, geometryRefinement, routingHeader);
 			}	
 		};
 
@@ -334,7 +375,7 @@ public class BBoxDBCluster implements BBoxDB {
 
 		final DistributionRegion region = regions.get(0);
 
-		final BBoxDBInstance firstSystem = region.getSystems().get(0);
+		final BBoxDBInstance firstSystem = region.getReadSystems().get(0);
 		final BBoxDBConnection connection = membershipConnectionService.getConnectionForInstance(firstSystem);
 
 		return connection.getBboxDBClient().queryRectangleContinuous(table, boundingBox);
@@ -421,6 +462,16 @@ public class BBoxDBCluster implements BBoxDB {
 	@Override
 	public JoinedTupleListFuture queryJoin(final List<String> tableNames, final Hyperrectangle boundingBox) 
 			throws BBoxDBException {
+		
+		return queryJoin(tableNames, boundingBox, false);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#queryJoin
+	 */
+	@Override
+	public JoinedTupleListFuture queryJoin(final List<String> tableNames, final Hyperrectangle boundingBox, 
+			final boolean geometryRefinement) throws BBoxDBException {
 
 		if(membershipConnectionService.getNumberOfConnections() == 0) {
 			throw new BBoxDBException("queryJoin called, but connection list is empty");
@@ -439,13 +490,183 @@ public class BBoxDBCluster implements BBoxDB {
 			protected Supplier<List<NetworkOperationFuture>> buildFuture(final BBoxDBConnection connection,
 					final RoutingHeader routingHeader) {
 				
-				return connection.getBboxDBClient().getJoinFuture(tableNames, boundingBox, routingHeader);
+				return connection.getBboxDBClient().getJoinFuture(tableNames, boundingBox, 
+						geometryRefinement, routingHeader);
 			}	
 		};
 
 		return new JoinedTupleListFuture(builder.getSupplier());
 	}
 
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#queryNearest
+	 */
+	@Override
+	public NearestTupleListFuture queryNearest(final String table, final Hyperrectangle point, 
+			final int maxTuples) throws BBoxDBException {
+		
+		if(membershipConnectionService.getNumberOfConnections() == 0) {
+			throw new BBoxDBException("queryNearest called, but connection list is empty");
+		}
+
+		if(logger.isDebugEnabled()) {
+			logger.debug("Query for the {} nearest tuples of {} in table {}", maxTuples, point, table);
+		}
+		
+		final DistributionRegion rootNode = SpacePartitionerHelper.getRootNode(table);
+		
+		final List<DistributionRegion> regions = RoutingHopHelper.getRegionsForPredicate(
+				rootNode, Hyperrectangle.FULL_SPACE, DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ);
+		
+		regions.sort(Comparator.comparingDouble(r -> r.getConveringBox().getMinDistance(point)));
+		
+		// Round 1: Query the system of the nearest region to get an upper bound for the distance
+		final Set<String> queriedSystems = new HashSet<>();
+		final List<Tuple> knownTuples = new ArrayList<>();
+		
+		final BBoxDBInstance firstSystem = regions.stream()
+			.map(r -> getReadableSystem(r, queriedSystems))
+			.filter(Objects::nonNull)
+			.findFirst()
+			.orElseThrow(() -> new BBoxDBException("Unable to find a system for table " + table));
+		
+		final NearestTupleListFuture firstRoundFuture = membershipConnectionService
+				.getConnectionForInstance(firstSystem)
+				.getBboxDBClient()
+				.queryNearest(table, point, maxTuples);
+		
+		try {
+			firstRoundFuture.waitForCompletion();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BBoxDBException(e);
+		}
+		
+		if(firstRoundFuture.isFailed()) {
+			throw new BBoxDBException("Nearest neighbor query failed: " + firstRoundFuture.getAllMessages());
+		}
+		
+		firstRoundFuture.forEach(t -> knownTuples.add(t));
+		queriedSystems.add(firstSystem.getStringValue());
+		
+		// Round 2: Query all remaining regions that can contain a nearer tuple
+		final double maxDistance = knownTuples.size() < maxTuples ? Double.MAX_VALUE 
+				: firstRoundFuture.getDistance(knownTuples.get(knownTuples.size() - 1));
+		
+		final List<BBoxDBInstance> secondRoundSystems = new ArrayList<>();
+		
+		for(final DistributionRegion region : regions) {
+			if(region.getConveringBox().getMinDistance(point) > maxDistance) {
+				break;
+			}
+			
+			final boolean regionQueried = region.getReadSystems().stream()
+					.anyMatch(s -> queriedSystems.contains(s.getStringValue()));
+			
+			if(regionQueried) {
+				continue;
+			}
+			
+			final BBoxDBInstance system = getReadableSystem(region, queriedSystems);
+			
+			if(system == null) {
+				logger.warn("Unable to find a readable system for region {}", region.getIdentifier());
+				continue;
+			}
+			
+			queriedSystems.add(system.getStringValue());
+			secondRoundSystems.add(system);
+		}
+		
+		final Supplier<List<NetworkOperationFuture>> supplier = () -> {
+			final List<NetworkOperationFuture> futures = new ArrayList<>();
+			
+			for(final BBoxDBInstance system : secondRoundSystems) {
+				final BBoxDBConnection connection = membershipConnectionService
+						.getConnectionForInstance(system);
+				
+				final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
+						table, Hyperrectangle.FULL_SPACE, true, connection.getServerAddress());
+				
+				futures.addAll(connection.getBboxDBClient().getQueryNearestFuture(table, point, 
+						maxTuples, routingHeader).get());
+			}
+			
+			return futures;
+		};
+		
+		return new NearestTupleListFuture(supplier, point, maxTuples, knownTuples);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#queryAggregation
+	 */
+	@Override
+	public AggregationResultFuture queryAggregation(final String table, final Hyperrectangle boundingBox,
+			final AggregationType aggregationType, final double parameter) throws BBoxDBException {
+		
+		if(membershipConnectionService.getNumberOfConnections() == 0) {
+			throw new BBoxDBException("queryAggregation called, but connection list is empty");
+		}
+		
+		if(aggregationType == AggregationType.GRID_COUNT && boundingBox.getDimension() == 0) {
+			throw new BBoxDBException("A grid count needs a bounding box with at least one dimension");
+		}
+		
+		if(aggregationType == AggregationType.GRID_COUNT 
+				&& Aggregator.getAmountOfGridCells(boundingBox, parameter) > Aggregator.MAX_GRID_CELLS) {
+			throw new BBoxDBException("The grid count has more than " + Aggregator.MAX_GRID_CELLS 
+					+ " cells, please use a larger cell size");
+		}
+
+		if(logger.isDebugEnabled()) {
+			logger.debug("Query aggregation {} for bounding box {} in table {}", aggregationType, 
+					boundingBox, table);
+		}
+		
+		// One replica per region is read, the server only aggregates the regions of the routing hop
+		final AbtractClusterFutureBuilder builder = new AbtractClusterFutureBuilder(
+				ClusterOperationType.READ_FROM_NODES_HA_IF_REPLICATED, table, boundingBox) {
+
+			@Override
+			protected Supplier<List<NetworkOperationFuture>> buildFuture(final BBoxDBConnection connection,
+					final RoutingHeader routingHeader) {
+				
+				return connection.getBboxDBClient().getQueryAggregationFuture(table, boundingBox, 
+						aggregationType, parameter, routingHeader);
+			}
+			
+			@Override
+			protected List<DistributionRegion> filterReadRegions(final List<DistributionRegion> regions) {
+				// Count the redistributed data of a running split or merge only once
+				return DistributionRegionHelper.removeRedistributionDestinations(regions);
+			}
+		};
+
+		return new AggregationResultFuture(builder.getSupplier(), aggregationType, boundingBox, parameter);
+	}
+	
+	/**
+	 * Get a reachable system of the region. Systems that are already queried are preferred, 
+	 * since they answer for all of their local regions.
+	 * 
+	 * @param region
+	 * @param queriedSystems
+	 * @return
+	 */
+	private BBoxDBInstance getReadableSystem(final DistributionRegion region, 
+			final Set<String> queriedSystems) {
+		
+		final List<BBoxDBInstance> systems = region.getReadSystems().stream()
+				.filter(s -> membershipConnectionService.getConnectionForInstance(s) != null)
+				.collect(Collectors.toList());
+		
+		return systems.stream()
+				.filter(s -> queriedSystems.contains(s.getStringValue()))
+				.findFirst()
+				.orElse(systems.isEmpty() ? null : systems.get(0));
+	}
+
 	@Override
 	public boolean isConnected() {
 		return (membershipConnectionService.getNumberOfConnections() > 0);
@@ -483,6 +704,38 @@ public class BBoxDBCluster implements BBoxDB {
 		membershipConnectionService.setTuplesPerPage(tuplesPerPage);
 	}
 
+	/**
+	 * Get the maximal amount of outstanding page requests per query
+	 * @return
+	 */
+	public int getMaxPageCredits() {
+		return membershipConnectionService.getMaxPageCredits();
+	}
+
+	/**
+	 * Set the maximal amount of outstanding page requests per query
+	 * @param maxPageCredits
+	 */
+	public void setMaxPageCredits(final int maxPageCredits) {
+		membershipConnectionService.setMaxPageCredits(maxPageCredits);
+	}
+
+	/**
+	 * Get the read policy for replicated regions
+	 * @return
+	 */
+	public ReplicaReadPolicy getReplicaReadPolicy() {
+		return membershipConnectionService.getReplicaReadPolicy();
+	}
+
+	/**
+	 * Set the read policy for replicated regions
+	 * @param replicaReadPolicy
+	 */
+	public void setReplicaReadPolicy(final ReplicaReadPolicy replicaReadPolicy) {
+		membershipConnectionService.setReplicaReadPolicy(replicaReadPolicy);
+	}
+
 	@Override
 	public int getInFlightCalls() {
 		return membershipConnectionService
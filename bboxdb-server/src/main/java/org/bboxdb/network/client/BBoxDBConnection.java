@@ -35,6 +35,7 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bboxdb.commons.CloseableHelper;
 import org.bboxdb.commons.NetworkInterfaceHelper;
@@ -44,6 +45,7 @@ import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
 import org.bboxdb.network.capabilities.PeerCapabilities;
+import org.bboxdb.network.client.future.FutureRetryPolicy;
 import org.bboxdb.network.client.future.HelloFuture;
 import org.bboxdb.network.client.future.NetworkOperationFuture;
 import org.bboxdb.network.client.future.NetworkOperationFutureImpl;
@@ -58,6 +60,7 @@ import org.bboxdb.network.client.response.PageEndHandler;
 import org.bboxdb.network.client.response.ServerResponseHandler;
 import org.bboxdb.network.client.response.SuccessHandler;
 import org.bboxdb.network.client.response.TupleHandler;
+import org.bboxdb.network.client.response.TuplePageHandler;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.CompressionEnvelopeRequest;
@@ -98,7 +101,17 @@ public class BBoxDBConnection {
 	/**
 	 * The pending calls
 	 */
-	private final Map<Short, NetworkOperationFutureImpl> pendingCalls;
+	private final PendingCallTable<NetworkOperationFutureImpl> pendingCalls;
+	
+	/**
+	 * The monitor for threads that are waiting for completed calls
+	 */
+	private final Object pendingCallsMonitor = new Object();
+	
+	/**
+	 * The number of threads waiting on the pending calls monitor
+	 */
+	private final AtomicInteger pendingCallsWaiter = new AtomicInteger(0);
 
 	/**
 	 * The result buffer
@@ -146,16 +159,26 @@ public class BBoxDBConnection {
 	private final ServiceState connectionState;
 
 	/**
-	 * The maximum amount of in flight requests. Needs to be lower than Short.MAX_VALUE to
+	 * The default amount of in flight requests, that is requested in the handshake
+	 */
+	public final static short MAX_IN_FLIGHT_CALLS = 4096;
+	
+	/**
+	 * The upper limit of in flight requests. Needs to be lower than Short.MAX_VALUE to
 	 * prevent two in flight requests with the same id.
 	 */
-	public final static short MAX_IN_FLIGHT_CALLS = 1000;
+	public final static short IN_FLIGHT_CALLS_LIMIT = 16384;
 
 	/**
 	 * The number of in flight requests
 	 * @return
 	 */
 	private volatile short maxInFlightCalls = MAX_IN_FLIGHT_CALLS;
+	
+	/**
+	 * The number of in flight requests that are accepted by the server
+	 */
+	private volatile short negotiatedInFlightCalls = IN_FLIGHT_CALLS_LIMIT;
 
 	/**
 	 * The capabilities of the connection
@@ -217,8 +240,12 @@ public class BBoxDBConnection {
 		this.sequenceNumberGenerator = new SequenceNumberGenerator();
 		this.connectionState = new ServiceState();
 
-		// Default: Enable gzip compression
+		// Default: Offer all compression methods, the preferred method 
+		// of the negotiated capabilities is used
 		this.clientCapabilities.setGZipCompression();
+		this.clientCapabilities.setLZ4Compression();
+		this.clientCapabilities.setZstdCompression();
+		this.clientCapabilities.setTuplePageEncoding();
 
 		// No concurrent access
 		this.serverResponseHandler = new HashMap<>();
@@ -228,7 +255,7 @@ public class BBoxDBConnection {
 
 		// Concurrent access
 		this.resultBuffer = new ConcurrentHashMap<>();
-		this.pendingCalls = new ConcurrentHashMap<>();
+		this.pendingCalls = new PendingCallTable<>();
 
 		initResponseHandler();
 	}
@@ -247,6 +274,7 @@ public class BBoxDBConnection {
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_PAGE_END, new PageEndHandler());
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_JOINED_TUPLE, new JoinedTupleHandler());
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_TUPLE_LOCK_SUCCESS, new LockedTupleHandler());
+		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_TUPLE_PAGE, new TuplePageHandler());
 	}
 
 	/* (non-Javadoc)
@@ -265,31 +293,7 @@ public class BBoxDBConnection {
 			connectionState.dipatchToStarting();
 			connectionState.registerCallback((c) -> { if(c.isInFailedState() ) { killPendingCalls(); } });
 
-			final Retryer<Socket> socketRetryer = new Retryer<>(10, 200, TimeUnit.MILLISECONDS, () -> {
-				return new Socket(serverAddress.getAddress(), serverAddress.getPort());
-			});
-
-			if(! socketRetryer.execute()) {
-				throw socketRetryer.getLastException();
-			}
-
-			clientSocket = socketRetryer.getResult();
-
-			inputStream = new BufferedInputStream(clientSocket.getInputStream());
-			outputStream = new BufferedOutputStream(clientSocket.getOutputStream());
-
-			synchronized (pendingCalls) {
-				pendingCalls.clear();
-			}
-
-			getResultBuffer().clear();
-
-			// Start up the response reader
-			serverResponseReader = new ServerResponseReader(this);
-			serverResponseReaderThread = new Thread(serverResponseReader);
-			serverResponseReaderThread.setName("Server response reader for " + getConnectionName());
-			serverResponseReaderThread.start();
-
+			openSocket();
 			runHandshake();
 		} catch (Exception e) {
 			logger.error("Got an exception while connecting to server", e);
@@ -301,6 +305,35 @@ public class BBoxDBConnection {
 		return true;
 	}
 
+	/**
+	 * Open the socket to the server and start the response reader
+	 * @throws Exception
+	 */
+	private void openSocket() throws Exception {
+		final Retryer<Socket> socketRetryer = new Retryer<>(10, 200, TimeUnit.MILLISECONDS, () -> {
+			return new Socket(serverAddress.getAddress(), serverAddress.getPort());
+		});
+
+		if(! socketRetryer.execute()) {
+			throw socketRetryer.getLastException();
+		}
+
+		clientSocket = socketRetryer.getResult();
+
+		inputStream = new BufferedInputStream(clientSocket.getInputStream());
+		outputStream = new BufferedOutputStream(clientSocket.getOutputStream());
+
+		pendingCalls.removeAll();
+
+		getResultBuffer().clear();
+
+		// Start up the response reader
+		serverResponseReader = new ServerResponseReader(this);
+		serverResponseReaderThread = new Thread(serverResponseReader);
+		serverResponseReaderThread.setName("Server response reader for " + getConnectionName());
+		serverResponseReaderThread.start();
+	}
+
 	/**
 	 * Close the socket
 	 */
@@ -341,20 +374,36 @@ public class BBoxDBConnection {
 		clientCapabilities.freeze();
 
 
-		final NetworkOperationFutureImpl operationFuture = new NetworkOperationFutureImpl(this, () -> {
-			return new HelloRequest(getNextSequenceNumber(),
-					NetworkConst.PROTOCOL_VERSION, clientCapabilities);
-		});
-
-		final HelloFuture helloFuture = new HelloFuture(() -> Arrays.asList(operationFuture));
-		helloFuture.waitForCompletion();
+		// Servers with protocol version 1 reject the hello request of the current 
+		// version (the in flight calls are unknown) and close the connection. 
+		// Reconnect and retry the handshake with version 1.
+		HelloFuture helloFuture = sendHelloRequest(NetworkConst.PROTOCOL_VERSION, 
+				FutureRetryPolicy.RETRY_POLICY_NONE);
+		
+		if(helloFuture.isFailed()) {
+			logger.info("Handshake with {} in protocol version {} failed, retry with version {}", 
+					getConnectionName(), NetworkConst.PROTOCOL_VERSION, NetworkConst.PROTOCOL_VERSION_1);
+			
+			closeSocket();
+			serverResponseReaderThread.join();
+			openSocket();
+			
+			helloFuture = sendHelloRequest(NetworkConst.PROTOCOL_VERSION_1, 
+					FutureRetryPolicy.RETRY_POLICY_ALL_FUTURES);
+		}
 
-		if(operationFuture.isFailed()) {
+		if(helloFuture.isFailed()) {
 			throw new Exception("Got an error during handshake");
 		}
 
 		final HelloResponse helloResponse = helloFuture.get(0);
-		connectionCapabilities = helloResponse.getPeerCapabilities();
+		
+		// Don't trust the server to only send supported capabilities
+		connectionCapabilities = helloResponse.getPeerCapabilities().intersect(clientCapabilities);
+		
+		// The server might accept less in flight calls than requested
+		negotiatedInFlightCalls = (short) Math.min(IN_FLIGHT_CALLS_LIMIT, helloResponse.getMaxInFlightCalls());
+		maxInFlightCalls = (short) Math.min(maxInFlightCalls, negotiatedInFlightCalls);
 
 		connectionState.dispatchToRunning();
 		logger.debug("Handshaking with {} done", getConnectionName());
@@ -370,6 +419,28 @@ public class BBoxDBConnection {
 		mainteinanceThread.start();
 	}
 
+	/**
+	 * Send the hello request and wait for the response
+	 * @param protocolVersion
+	 * @param retryPolicy
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private HelloFuture sendHelloRequest(final int protocolVersion, 
+			final FutureRetryPolicy retryPolicy) throws InterruptedException {
+		
+		final NetworkOperationFutureImpl operationFuture = new NetworkOperationFutureImpl(this, () -> {
+			return new HelloRequest(getNextSequenceNumber(),
+					protocolVersion, clientCapabilities, maxInFlightCalls);
+		});
+
+		final HelloFuture helloFuture = new HelloFuture(() -> Arrays.asList(operationFuture), 
+				retryPolicy);
+		helloFuture.waitForCompletion();
+		
+		return helloFuture;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.BBoxDB#disconnect()
 	 */
@@ -403,7 +474,22 @@ public class BBoxDBConnection {
 		final Stopwatch stopwatch = Stopwatch.createStarted();
 
 		// Wait for all pending calls to settle
-		synchronized (pendingCalls) {
+		pendingCallsWaiter.incrementAndGet();
+		
+		try {
+			waitForPendingCallsToSettle(shutdownTimeMillis, stopwatch);
+		} finally {
+			pendingCallsWaiter.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Wait until all pending calls are settled or the timeout is reached
+	 * @param shutdownTimeMillis
+	 * @param stopwatch
+	 */
+	private void waitForPendingCallsToSettle(final long shutdownTimeMillis, final Stopwatch stopwatch) {
+		synchronized (pendingCallsMonitor) {
 
 			while(getInFlightCalls() > 0) {
 				final long timeLeft = shutdownTimeMillis - stopwatch.elapsed(TimeUnit.MILLISECONDS);
@@ -425,7 +511,7 @@ public class BBoxDBConnection {
 				try {
 					// Recheck connection state all 5 seconds
 					final long maxWaitTime = Math.min(timeLeft, TimeUnit.SECONDS.toMillis(5));
-					pendingCalls.wait(maxWaitTime);
+					pendingCallsMonitor.wait(maxWaitTime);
 				} catch (InterruptedException e) {
 					logger.debug("Got an InterruptedException during pending calls wait.");
 					Thread.currentThread().interrupt();
@@ -443,22 +529,18 @@ public class BBoxDBConnection {
 	 * Kill all pending requests
 	 */
 	private void killPendingCalls() {
-		synchronized (pendingCalls) {
-			if(pendingCalls.isEmpty()) {
-				return;
-			}
-			
-			logger.warn("Socket is closed unexpected, killing pending calls: " + pendingCalls.size());
-
-			for(final short requestId : pendingCalls.keySet()) {
-				final NetworkOperationFuture future = pendingCalls.get(requestId);
+		final List<NetworkOperationFutureImpl> killedCalls = pendingCalls.removeAll();
+		
+		if(! killedCalls.isEmpty()) {
+			logger.warn("Socket is closed unexpected, killing pending calls: " + killedCalls.size());
+	
+			for(final NetworkOperationFuture future : killedCalls) {
 				future.setFailedState();
 				future.fireCompleteEvent();
 			}
-
-			pendingCalls.clear();
-			pendingCalls.notifyAll();
 		}
+		
+		notifyPendingCallsWaiter();
 	}
 
 	/**
@@ -505,9 +587,7 @@ public class BBoxDBConnection {
 	 * @see org.bboxdb.network.client.BBoxDB#getInFlightCalls()
 	 */
 	public int getInFlightCalls() {
-		synchronized (pendingCalls) {
-			return pendingCalls.size();
-		}
+		return pendingCalls.size();
 	}
 
 	/* (non-Javadoc)
@@ -521,7 +601,7 @@ public class BBoxDBConnection {
 	 * @see org.bboxdb.network.client.BBoxDB#setMaxInFlightCalls(short)
 	 */
 	public void setMaxInFlightCalls(short maxInFlightCalls) {
-		this.maxInFlightCalls = (short) Math.min(maxInFlightCalls, MAX_IN_FLIGHT_CALLS);
+		this.maxInFlightCalls = (short) Math.min(maxInFlightCalls, negotiatedInFlightCalls);
 	}
 
 	/**
@@ -542,7 +622,7 @@ public class BBoxDBConnection {
 			return;
 		}
 
-		if(connectionCapabilities.hasGZipCompression()) {
+		if(connectionCapabilities.hasCompression()) {
 			writePackageWithCompression(requestPackage, future);
 		} else {
 			writePackageUncompressed(requestPackage, future);
@@ -641,8 +721,10 @@ public class BBoxDBConnection {
 			logger.debug("Chunk size is: {}", packagesToWrite.size());
 		}
 
+		final byte compressionType = connectionCapabilities.getPreferredCompressionType();
+		
 		final NetworkRequestPackage compressionEnvelopeRequest
-			= new CompressionEnvelopeRequest(NetworkConst.COMPRESSION_TYPE_GZIP, packagesToWrite);
+			= new CompressionEnvelopeRequest(compressionType, packagesToWrite);
 
 		try {
 			writePackageToSocket(compressionEnvelopeRequest);
@@ -673,37 +755,86 @@ public class BBoxDBConnection {
 	}
 
 	/**
-	 * Register a new package callback
+	 * Register a new package callback. When the sequence number is still used by 
+	 * an older call, we wait for the slot. If the slot is not released in time, 
+	 * the future is failed and the package must not be send.
+	 * 
 	 * @param requestPackage
 	 * @param future
-	 * @return
+	 * @return true if the callback is registered
 	 */
-	public short registerPackageCallback(final NetworkRequestPackage requestPackage,
+	public boolean registerPackageCallback(final NetworkRequestPackage requestPackage,
 			final NetworkOperationFutureImpl future) {
 
 		final short sequenceNumber = requestPackage.getSequenceNumber();
 
-		synchronized (pendingCalls) {
-			assert (! pendingCalls.containsKey(sequenceNumber))
-				: "Old call exists: " + pendingCalls.get(sequenceNumber);
+		if(! pendingCalls.put(sequenceNumber, future)) {
+			if(! waitForPendingCallSlot(sequenceNumber, future)) {
+				final String message = "Sequence number " + sequenceNumber 
+						+ " is still used by: " + pendingCalls.get(sequenceNumber);
+				
+				logger.error(message);
+				future.setMessage(message);
+				future.setFailedState();
+				future.fireCompleteEvent();
+				return false;
+			}
+		}
 
-			pendingCalls.put(sequenceNumber, future);
+		// Ensure that not more then maxInFlightCalls are active
+		if(pendingCalls.size() > maxInFlightCalls) {
+			pendingCallsWaiter.incrementAndGet();
+			
+			try {
+				synchronized (pendingCallsMonitor) {
+					while(pendingCalls.size() > maxInFlightCalls) {
+						pendingCallsMonitor.wait();
+					}
+				}
+			} catch(InterruptedException e) {
+				logger.warn("Got an exception while waiting for pending requests", e);
+				Thread.currentThread().interrupt();
+			} finally {
+				pendingCallsWaiter.decrementAndGet();
+			}
 		}
 
+		return true;
+	}
+	
+	/**
+	 * Wait until the slot of the sequence number is released and register the future
+	 * @param sequenceNumber
+	 * @param future
+	 * @return true if the future is registered, false on timeout
+	 */
+	private boolean waitForPendingCallSlot(final short sequenceNumber, 
+			final NetworkOperationFutureImpl future) {
+		
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		pendingCallsWaiter.incrementAndGet();
+		
 		try {
-			synchronized (pendingCalls) {
-				// Ensure that not more then maxInFlightCalls are active
-				while(pendingCalls.size() > maxInFlightCalls) {
-					pendingCalls.wait();
+			synchronized (pendingCallsMonitor) {
+				while(! pendingCalls.put(sequenceNumber, future)) {
+					final long timeLeft = DEFAULT_TIMEOUT_MILLIS - stopwatch.elapsed(TimeUnit.MILLISECONDS);
+					
+					if(timeLeft <= 0 || ! isConnected()) {
+						return false;
+					}
+					
+					pendingCallsMonitor.wait(timeLeft);
 				}
 			}
-
+			
+			return true;
 		} catch(InterruptedException e) {
-			logger.warn("Got an exception while waiting for pending requests", e);
+			logger.warn("Got an exception while waiting for sequence number " + sequenceNumber, e);
 			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			pendingCallsWaiter.decrementAndGet();
 		}
-
-		return sequenceNumber;
 	}
 
 	/**
@@ -717,9 +848,7 @@ public class BBoxDBConnection {
 
 		NetworkOperationFuture future = null;
 
-		synchronized (pendingCalls) {
-			future = pendingCalls.get(Short.valueOf(sequenceNumber));
-		}
+		future = pendingCalls.get(sequenceNumber);
 
 		if(! serverResponseHandler.containsKey(packageType)) {
 			logger.error("Unknown respose package type: {}", packageType);
@@ -747,10 +876,22 @@ public class BBoxDBConnection {
 	 * @param sequenceNumber
 	 */
 	private void removeFutureAndReleaseSequencenumber(final short sequenceNumber) {
-		synchronized (pendingCalls) {
-			sequenceNumberGenerator.releaseNumber(sequenceNumber);
-			pendingCalls.remove(Short.valueOf(sequenceNumber));
-			pendingCalls.notifyAll();
+		sequenceNumberGenerator.releaseNumber(sequenceNumber);
+		pendingCalls.remove(sequenceNumber);
+		notifyPendingCallsWaiter();
+	}
+	
+	/**
+	 * Notify the threads that are waiting for completed calls. The monitor 
+	 * is only acquired when a thread is waiting.
+	 */
+	private void notifyPendingCallsWaiter() {
+		if(pendingCallsWaiter.get() == 0) {
+			return;
+		}
+		
+		synchronized (pendingCallsMonitor) {
+			pendingCallsMonitor.notifyAll();
 		}
 	}
 
@@ -784,7 +925,7 @@ public class BBoxDBConnection {
 	}
 
 	/**
-	 * Get the capabilities (e.g. gzip compression) of the client
+	 * Get the negotiated capabilities (e.g. compression) of the connection
 	 */
 	public PeerCapabilities getConnectionCapabilities() {
 		return connectionCapabilities;
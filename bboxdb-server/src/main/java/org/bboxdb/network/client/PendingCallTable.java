@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free table for the pending calls of a connection. The 
+ * calls are stored in an array that is indexed by the sequence number.
+ */
+public class PendingCallTable<T> {
+
+	/**
+	 * The capacity of the table (one slot for each sequence number)
+	 */
+	public final static int CAPACITY = 1 << 16;
+	
+	/**
+	 * The pending calls
+	 */
+	private final AtomicReferenceArray<T> calls;
+	
+	/**
+	 * The number of pending calls
+	 */
+	private final AtomicInteger size;
+	
+	public PendingCallTable() {
+		this.calls = new AtomicReferenceArray<>(CAPACITY);
+		this.size = new AtomicInteger(0);
+	}
+	
+	/**
+	 * Get the slot for the sequence number
+	 * @param sequenceNumber
+	 * @return
+	 */
+	private static int getSlot(final short sequenceNumber) {
+		return sequenceNumber & (CAPACITY - 1);
+	}
+	
+	/**
+	 * Register a pending call
+	 * @param sequenceNumber
+	 * @param call
+	 * @return false if a call with this sequence number is already pending
+	 */
+	public boolean put(final short sequenceNumber, final T call) {
+		final boolean result = calls.compareAndSet(getSlot(sequenceNumber), null, call);
+		
+		if(result) {
+			size.incrementAndGet();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Get the pending call for the sequence number
+	 * @param sequenceNumber
+	 * @return
+	 */
+	public T get(final short sequenceNumber) {
+		return calls.get(getSlot(sequenceNumber));
+	}
+	
+	/**
+	 * Remove the pending call for the sequence number
+	 * @param sequenceNumber
+	 * @return the removed call or null
+	 */
+	public T remove(final short sequenceNumber) {
+		final T call = calls.getAndSet(getSlot(sequenceNumber), null);
+		
+		if(call != null) {
+			size.decrementAndGet();
+		}
+		
+		return call;
+	}
+	
+	/**
+	 * Remove all pending calls
+	 * @return the removed calls
+	 */
+	public List<T> removeAll() {
+		final List<T> result = new ArrayList<>();
+		
+		for(int slot = 0; slot < CAPACITY && size.get() > 0; slot++) {
+			final T call = calls.getAndSet(slot, null);
+			
+			if(call != null) {
+				size.decrementAndGet();
+				result.add(call);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * The number of pending calls
+	 * @return
+	 */
+	public int size() {
+		return size.get();
+	}
+	
+	/**
+	 * Are calls pending?
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "PendingCallTable [size=" + size() + "]";
+	}
+}
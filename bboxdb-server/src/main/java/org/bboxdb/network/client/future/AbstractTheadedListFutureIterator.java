@@ -17,6 +17,8 @@
  *******************************************************************************/
 package org.bboxdb.network.client.future;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
@@ -37,7 +39,7 @@ public abstract class AbstractTheadedListFutureIterator<T extends PagedTransfera
 	/**
 	 * The size of the transfer queue
 	 */
-	protected final static int QUEUE_SIZE = 25;
+	protected final static int QUEUE_SIZE = 250;
 	
 	/**
 	 * The transfer queue
@@ -153,37 +155,60 @@ public abstract class AbstractTheadedListFutureIterator<T extends PagedTransfera
 				final short queryRequestId = abstractLisFuture.getRequestId(resultId);
 				final BBoxDBClient bbBoxDBClient = bboxdbConnection.getBboxDBClient();
 				
-				AbstractListFuture<T> nextPage = null;
-				do {
-					 nextPage = (AbstractListFuture<T>) bbBoxDBClient.getNextPage(queryRequestId);
-
-					 nextPage.waitForCompletion();
+				// The next page requests are send as credits to the server. The server 
+				// sends one page per credit without waiting for a further round trip
+				final PageCreditWindow creditWindow = new PageCreditWindow(bbBoxDBClient.getMaxPageCredits());
+				final Deque<AbstractListFuture<T>> outstandingPages = new ArrayDeque<>();
+				
+				while(true) {
+					while(outstandingPages.size() < creditWindow.getWindowSize()) {
+						outstandingPages.add((AbstractListFuture<T>) bbBoxDBClient.getNextPage(queryRequestId));
+					}
+					
+					final AbstractListFuture<T> nextPage = outstandingPages.poll();
+					final boolean waitedForPage = ! nextPage.isDone();
+					
+					nextPage.waitForCompletion();
 
-					 if(nextPage.isFailed()) {
-						 logger.error("Requesting next page failed! Query result is incomplete: {}", nextPage.getAllMessages());
-						 return;
-					 }
+					if(nextPage.isFailed()) {
+						logger.error("Requesting next page failed! Query result is incomplete: {}", nextPage.getAllMessages());
+						return;
+					}
 
-					 // Query is send to one server, so the number of
-					 // result objects should be 1
-					 if(nextPage.getNumberOfResultObjets() != 1) {
-						 logger.error("Got a non expected number of result objects {}", nextPage.getNumberOfResultObjets());
-					 }
+					// Query is send to one server, so the number of
+					// result objects should be 1
+					if(nextPage.getNumberOfResultObjets() != 1) {
+						logger.error("Got a non expected number of result objects {}", nextPage.getNumberOfResultObjets());
+					}
 
-					 addTupleListToQueue(nextPage.get(0));
-					 
-				} while(! nextPage.isCompleteResult(0));
+					final boolean consumerBlocked = addTupleListToQueue(nextPage.get(0));
+					
+					// The surplus credits are answered by the server with empty pages
+					if(nextPage.isCompleteResult(0)) {
+						return;
+					}
+					
+					creditWindow.pageConsumed(waitedForPage, consumerBlocked);
+				}
 			}
 
 			/**
 			 * Add the tuple list into the queue
 			 * @param tupleList
+			 * @return the queue was full and we had to wait for the consumer
 			 * @throws InterruptedException
 			 */
-			protected void addTupleListToQueue(final List<T> tupleList) throws InterruptedException {
+			protected boolean addTupleListToQueue(final List<T> tupleList) throws InterruptedException {
+				boolean consumerBlocked = false;
+				
 				for(final T element : tupleList) {
-					tupleQueue.put(element);
+					if(! tupleQueue.offer(element)) {
+						consumerBlocked = true;
+						tupleQueue.put(element);
+					}
 				}
+				
+				return consumerBlocked;
 			}
 
 			/**
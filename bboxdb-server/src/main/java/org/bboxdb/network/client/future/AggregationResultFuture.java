@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.future;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.queryprocessor.aggregation.AggregationType;
+import org.bboxdb.storage.queryprocessor.aggregation.Aggregator;
+
+public class AggregationResultFuture extends AbstractListFuture<Tuple> {
+
+	/**
+	 * The aggregation type
+	 */
+	private final AggregationType aggregationType;
+	
+	/**
+	 * The query box
+	 */
+	private final Hyperrectangle queryBox;
+	
+	/**
+	 * The parameter of the aggregation
+	 */
+	private final double parameter;
+
+	public AggregationResultFuture(final Supplier<List<NetworkOperationFuture>> futures, 
+			final AggregationType aggregationType, final Hyperrectangle queryBox, final double parameter) {
+		
+		super(futures);
+		
+		this.aggregationType = aggregationType;
+		this.queryBox = queryBox;
+		this.parameter = parameter;
+	}
+
+	/**
+	 * The result is not paged, so the simple iterator is used
+	 * @return
+	 */
+	@Override
+	protected Iterator<Tuple> createThreadedIterator() {
+		return createSimpleIterator();
+	}
+
+	/**
+	 * Returns the merged partial aggregates of all regions
+	 * @return
+	 */
+	@Override
+	protected Iterator<Tuple> createSimpleIterator() {
+		return getAggregator().getPartialAggregates().iterator();
+	}
+	
+	/**
+	 * Get the aggregator with the merged partial aggregates of all regions
+	 * @return
+	 */
+	public Aggregator getAggregator() {
+		if(! isDone() ) {
+			throw new IllegalStateException("Future is not done, unable to merge the aggregates");
+		}
+		
+		final Aggregator aggregator = new Aggregator(aggregationType, queryBox, parameter);
+		
+		for(final Tuple partialAggregate : getListWithAllResults()) {
+			aggregator.addPartialAggregate(partialAggregate);
+		}
+		
+		return aggregator;
+	}
+}
@@ -27,5 +27,10 @@ public class HelloFuture extends OperationFutureImpl<HelloResponse> {
 	public HelloFuture(final Supplier<List<NetworkOperationFuture>> futures) {
 		super(futures);
 	}
+	
+	public HelloFuture(final Supplier<List<NetworkOperationFuture>> futures, 
+			final FutureRetryPolicy retryPolicy) {
+		super(futures, retryPolicy);
+	}
 
 }
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.future;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.Tuple;
+
+public class NearestTupleListFuture extends AbstractListFuture<Tuple> {
+
+	/**
+	 * The query point
+	 */
+	private final Hyperrectangle queryPoint;
+	
+	/**
+	 * The number of nearest tuples
+	 */
+	private final int maxTuples;
+	
+	/**
+	 * The tuples that are already known from a previous query round
+	 */
+	private final List<Tuple> knownTuples;
+
+	public NearestTupleListFuture(final Supplier<List<NetworkOperationFuture>> futures, 
+			final Hyperrectangle queryPoint, final int maxTuples) {
+		
+		this(futures, queryPoint, maxTuples, new ArrayList<>());
+	}
+	
+	public NearestTupleListFuture(final Supplier<List<NetworkOperationFuture>> futures, 
+			final Hyperrectangle queryPoint, final int maxTuples, final List<Tuple> knownTuples) {
+		
+		super(futures);
+		
+		this.queryPoint = queryPoint;
+		this.maxTuples = maxTuples;
+		this.knownTuples = knownTuples;
+	}
+
+	/**
+	 * The result is not paged, so the simple iterator is used
+	 * @return
+	 */
+	@Override
+	protected Iterator<Tuple> createThreadedIterator() {
+		return createSimpleIterator();
+	}
+
+	/**
+	 * Merge the top-k results of all servers. A tuple can be returned 
+	 * by multiple servers (e.g., replicates), only the newest version is kept.
+	 * 
+	 * @return
+	 */
+	@Override
+	protected Iterator<Tuple> createSimpleIterator() {
+		return getNearestTuples(getListWithAllResults()).iterator();
+	}
+	
+	/**
+	 * Get the nearest tuples of the given and the already known tuples
+	 * @param tuples
+	 * @return
+	 */
+	public List<Tuple> getNearestTuples(final List<Tuple> tuples) {
+		final Map<String, Tuple> newestTuples = new HashMap<>();
+		
+		final List<Tuple> allTuples = new ArrayList<>(knownTuples);
+		allTuples.addAll(tuples);
+		
+		for(final Tuple tuple : allTuples) {
+			final Tuple knownTuple = newestTuples.get(tuple.getKey());
+			
+			if(knownTuple == null || knownTuple.getVersionTimestamp() < tuple.getVersionTimestamp()) {
+				newestTuples.put(tuple.getKey(), tuple);
+			}
+		}
+		
+		final List<Tuple> result = new ArrayList<>(newestTuples.values());
+		result.sort(Comparator.comparingDouble(t -> getDistance(t)));
+		
+		if(result.size() > maxTuples) {
+			return new ArrayList<>(result.subList(0, maxTuples));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Get the distance of the tuple to the query point
+	 * @param tuple
+	 * @return
+	 */
+	public double getDistance(final Tuple tuple) {
+		return tuple.getBoundingBox().getMinDistance(queryPoint);
+	}
+}
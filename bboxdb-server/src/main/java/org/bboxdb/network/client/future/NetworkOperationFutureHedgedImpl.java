@@ -0,0 +1,531 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.future;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.tools.ReplicaLatencyStatistics;
+import org.bboxdb.network.packages.NetworkRequestPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NetworkOperationFutureHedgedImpl implements NetworkOperationFuture {
+	
+	/**
+	 * The futures, ordered by the preference of the replicate
+	 */
+	private final List<NetworkOperationFuture> futures;
+	
+	/**
+	 * The executed futures
+	 */
+	private final List<NetworkOperationFuture> executedFutures;
+	
+	/**
+	 * The execution start time of the futures
+	 */
+	private final Map<NetworkOperationFuture, Long> startTimes;
+	
+	/**
+	 * The position of the next future to execute
+	 */
+	private int nextFuture = 0;
+	
+	/**
+	 * The amount of failed futures
+	 */
+	private int failedFutures = 0;
+	
+	/**
+	 * The execution generation (used to skip outdated hedge tasks)
+	 */
+	private int generation = 0;
+	
+	/**
+	 * The first completed future
+	 */
+	private volatile NetworkOperationFuture completeFuture = null;
+	
+	/**
+	 * The last failed future
+	 */
+	private volatile NetworkOperationFuture lastFailedFuture = null;
+
+	/**
+	 * The original error callback
+	 */
+	private FutureErrorCallback errorCallback;
+
+	/**
+	 * The original success callback
+	 */
+	private Consumer<NetworkOperationFuture> successCallback;
+	
+	/**
+	 * The latency statistics
+	 */
+	private final ReplicaLatencyStatistics latencyStatistics;
+	
+	/**
+	 * The scheduler for the hedged requests
+	 */
+	private final static ScheduledExecutorService scheduler;
+	
+	/**
+	 * The executor that sends the failover and hedged requests. The send 
+	 * method might block (e.g., too many in flight calls), so the requests 
+	 * are not send from the scheduler or the network threads.
+	 */
+	private final static ExecutorService sender;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(NetworkOperationFutureHedgedImpl.class);
+
+	static {
+		scheduler = Executors.newScheduledThreadPool(1, r -> {
+			final Thread thread = new Thread(r, "Hedged request scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		sender = Executors.newCachedThreadPool(r -> {
+			final Thread thread = new Thread(r, "Hedged request sender");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	public NetworkOperationFutureHedgedImpl(final List<NetworkOperationFuture> futures) {
+		this.futures = futures;
+		this.executedFutures = new ArrayList<>();
+		this.startTimes = new HashMap<>();
+		this.latencyStatistics = ReplicaLatencyStatistics.getInstance();
+		
+		this.futures.forEach(f -> f.setErrorCallback(this::handleErrorCallback));
+		this.futures.forEach(f -> f.setSuccessCallback(this::handleSuccessCallback));
+	}
+	
+	/**
+	 * Handle the error of a replicate. The next replicate is contacted 
+	 * immediately. The error is passed to the original callback when
+	 * all replicates have failed. The callback gets this future, so a 
+	 * retry executes the hedged request again.
+	 * 
+	 * @param future
+	 * @return
+	 */
+	public boolean handleErrorCallback(final NetworkOperationFuture future) {
+		
+		synchronized (this) {
+			if(completeFuture != null) {
+				// Ignore error
+				return false;
+			}
+			
+			failedFutures++;
+			lastFailedFuture = future;
+			
+			if(nextFuture < futures.size()) {
+				logger.debug("Replicate failed, contacting next replicate {}", 
+						future.getMessageWithConnectionName());
+				
+				// Don't send the request from the network thread of the failed connection
+				sender.execute(() -> executeNextFuture());
+				return true;
+			}
+			
+			if(executedFutures.size() > failedFutures) {
+				// Wait for the other replicates
+				return true;
+			}
+		}
+		
+		if(errorCallback != null) {
+			return errorCallback.handleError(this);
+		}
+		
+		return false;
+	}
+
+	/**
+	 * Handle the success of a replicate, cancel the other operations
+	 * @param future
+	 */
+	public void handleSuccessCallback(final NetworkOperationFuture future) {
+		
+		final List<NetworkOperationFuture> futuresToCancel = new ArrayList<>();
+		
+		synchronized (this) {
+			if(completeFuture != null) {
+				return;
+			}
+			
+			completeFuture = future;
+			
+			final long now = System.nanoTime();
+			
+			for(final NetworkOperationFuture executedFuture : executedFutures) {
+				final long latency = TimeUnit.NANOSECONDS.toMillis(now - startTimes.get(executedFuture));
+
+				if(executedFuture == future) {
+					if(! future.isFailed()) {
+						latencyStatistics.addLatency(getServerAddress(future), latency);
+					}
+				} else if(! executedFuture.isDone()) {
+					// The elapsed time is a lower bound for the latency of the slower replicate
+					latencyStatistics.addLatency(getServerAddress(executedFuture), latency);
+					futuresToCancel.add(executedFuture);
+				}
+			}
+		}
+		
+		// Cancel all other operations
+		for(final NetworkOperationFuture futureToCancel : futuresToCancel) {
+			final BBoxDBConnection connection = futureToCancel.getConnection();
+			
+			if(connection == null || futureToCancel.getTransmittedPackage() == null) {
+				continue;
+			}
+			
+			connection.getBboxDBClient().cancelRequest(futureToCancel.getRequestId());
+		}
+		
+		if(successCallback != null) {
+			successCallback.accept(this);
+		}
+	}
+	
+	/**
+	 * Get the server address of the future
+	 * @param future
+	 * @return
+	 */
+	private static InetSocketAddress getServerAddress(final NetworkOperationFuture future) {
+		final BBoxDBConnection connection = future.getConnection();
+		
+		if(connection == null) {
+			return null;
+		}
+		
+		return connection.getServerAddress();
+	}
+	
+	/**
+	 * Execute the next future
+	 * @return 
+	 */
+	private boolean executeNextFuture() {
+		
+		NetworkOperationFuture future = null;
+		
+		synchronized (this) {
+			if(completeFuture != null || nextFuture >= futures.size()) {
+				return false;
+			}
+			
+			future = futures.get(nextFuture);
+			nextFuture++;
+			
+			executedFutures.add(future);
+			startTimes.put(future, System.nanoTime());
+		}
+		
+		// Don't hold the lock, the send method might wait for the response
+		// of other requests
+		future.execute();
+		
+		return true;
+	}
+	
+	/**
+	 * Contact the next replicate, when the operation is not complete
+	 * @param executionGeneration
+	 */
+	private void hedgeRequest(final int executionGeneration) {
+		
+		synchronized (this) {
+			if(executionGeneration != generation || executedFutures.size() != 1) {
+				return;
+			}
+		}
+		
+		if(executeNextFuture()) {
+			logger.debug("Sending hedged request, first replicate is slow");
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#isDone()
+	 */
+	@Override
+	public boolean isDone() {
+		return completeFuture != null;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#execute()
+	 */
+	@Override
+	public void execute() {
+		
+		final int executionGeneration;
+		
+		synchronized (this) {
+			completeFuture = null;
+			lastFailedFuture = null;
+			nextFuture = 0;
+			failedFutures = 0;
+			generation++;
+			executionGeneration = generation;
+			executedFutures.clear();
+			startTimes.clear();
+		}
+		
+		if(! executeNextFuture()) {
+			return;
+		}
+		
+		if(futures.size() > 1) {
+			final long hedgeDelay = latencyStatistics.getHedgeDelay(getServerAddress(futures.get(0)));
+			scheduler.schedule(() -> sender.execute(() -> hedgeRequest(executionGeneration)), 
+					hedgeDelay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#get()
+	 */
+	@Override
+	public Object get() throws InterruptedException {
+		 return getReadyFuture().get();
+	}
+
+	/**
+	 * @return
+	 */
+	private NetworkOperationFuture getReadyFuture() {
+		
+		if(completeFuture == null) {
+			throw new IllegalStateException("No future is ready");
+		}
+		
+		return completeFuture;
+	}
+	
+	/**
+	 * Get the complete future or the last failed future, when no
+	 * future is complete
+	 * @return
+	 */
+	private NetworkOperationFuture getCompleteOrFailedFuture() {
+		final NetworkOperationFuture future = completeFuture;
+		
+		if(future != null) {
+			return future;
+		}
+		
+		return lastFailedFuture;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#get(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public Object get(final long timeout, final TimeUnit unit) 
+			throws InterruptedException, TimeoutException {
+		
+		 return getReadyFuture().get(timeout, unit);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getRequestId()
+	 */
+	@Override
+	public short getRequestId() {
+		 return getReadyFuture().getRequestId();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setOperationResult(java.lang.Object)
+	 */
+	@Override
+	public void setOperationResult(final Object result) {
+		throw new IllegalArgumentException("Unable to set result on hedged future");
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#isFailed()
+	 */
+	@Override
+	public boolean isFailed() {
+		final NetworkOperationFuture future = completeFuture;
+		
+		if(future == null) {
+			return false;
+		}
+		
+		return future.isFailed();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setFailedState()
+	 */
+	@Override
+	public void setFailedState() {
+		futures.forEach(f -> f.setFailedState());
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#fireCompleteEvent()
+	 */
+	@Override
+	public void fireCompleteEvent() {
+		throw new IllegalArgumentException("Unable to fireCompleteEvent on hedged future");
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getMessage()
+	 */
+	@Override
+	public String getMessage() {
+		final NetworkOperationFuture future = getCompleteOrFailedFuture();
+		
+		if(future == null) {
+			return null;
+		}
+		
+		return future.getMessage();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setMessage(java.lang.String)
+	 */
+	@Override
+	public void setMessage(final String message) {
+		throw new IllegalArgumentException("Unable to setMessage on hedged future");
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#isCompleteResult()
+	 */
+	@Override
+	public boolean isCompleteResult() {
+		return getReadyFuture().isCompleteResult();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setCompleteResult(boolean)
+	 */
+	@Override
+	public void setCompleteResult(final boolean complete) {
+		throw new IllegalArgumentException("Unable to setCompleteResult on hedged future");
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getCompletionTime(java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public long getCompletionTime(final TimeUnit timeUnit) {
+		return getReadyFuture().getCompletionTime(timeUnit);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getConnection()
+	 */
+	@Override
+	public BBoxDBConnection getConnection() {
+		final NetworkOperationFuture future = completeFuture;
+		
+		// No replicate has answered (e.g., all replicates have failed)
+		if(future == null) {
+			return null;
+		}
+		
+		return future.getConnection();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getTransmittedPackage()
+	 */
+	@Override
+	public NetworkRequestPackage getTransmittedPackage() {
+		final NetworkOperationFuture future = completeFuture;
+		
+		// No replicate has answered (e.g., all replicates have failed)
+		if(future == null) {
+			return null;
+		}
+		
+		return future.getTransmittedPackage();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getMessageWithConnectionName()
+	 */
+	@Override
+	public String getMessageWithConnectionName() {
+		final NetworkOperationFuture future = getCompleteOrFailedFuture();
+		
+		if(future == null) {
+			return null;
+		}
+		
+		return future.getMessageWithConnectionName();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setErrorCallback(org.bboxdb.network.client.future.FutureErrorCallback)
+	 */
+	@Override
+	public void setErrorCallback(final FutureErrorCallback errorCallback) {
+		this.errorCallback = errorCallback;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#setSuccessCallback(java.util.function.Consumer)
+	 */
+	@Override
+	public void setSuccessCallback(final Consumer<NetworkOperationFuture> successCallback) {
+		this.successCallback = successCallback;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getExecutions()
+	 */
+	@Override
+	public int getExecutions() {
+		return futures.stream()
+				.mapToInt(NetworkOperationFuture::getExecutions)
+				.max()
+				.orElse(0);
+	}
+
+}
@@ -141,7 +141,11 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 			this.requestId = lastTransmittedPackage.getSequenceNumber();
 		}
 		
-		connection.registerPackageCallback(lastTransmittedPackage, this);
+		// The future is failed when the callback could not be registered
+		if(! connection.registerPackageCallback(lastTransmittedPackage, this)) {
+			return;
+		}
+		
 		connection.sendPackageToServer(lastTransmittedPackage, this);
 	}
 	
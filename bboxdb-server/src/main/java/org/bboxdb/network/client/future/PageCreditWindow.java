@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.future;
+
+public class PageCreditWindow {
+
+	/**
+	 * The maximal amount of outstanding page requests
+	 */
+	private final int maxCredits;
+	
+	/**
+	 * The current amount of outstanding page requests
+	 */
+	private int windowSize;
+	
+	public PageCreditWindow(final int maxCredits) {
+		if(maxCredits < 1) {
+			throw new IllegalArgumentException("The max credits needs to be >= 1: " + maxCredits);
+		}
+		
+		this.maxCredits = maxCredits;
+		this.windowSize = 1;
+	}
+	
+	/**
+	 * Adapt the window size after a page is consumed. 
+	 * 
+	 * When the consumer has waited for the page, the pages are not 
+	 * requested fast enough and the window is doubled. When the consumer 
+	 * could not keep up with the received tuples, the window is decreased by one.
+	 * 
+	 * @param waitedForPage - the page was not received when it was needed
+	 * @param consumerBlocked - the transfer queue of the consumer was full
+	 */
+	public void pageConsumed(final boolean waitedForPage, final boolean consumerBlocked) {
+		if(consumerBlocked) {
+			windowSize = Math.max(1, windowSize - 1);
+		} else if(waitedForPage) {
+			windowSize = Math.min(maxCredits, windowSize * 2);
+		}
+	}
+	
+	/**
+	 * Get the current window size
+	 * @return
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+	
+	/**
+	 * Get the max credits
+	 * @return
+	 */
+	public int getMaxCredits() {
+		return maxCredits;
+	}
+
+	@Override
+	public String toString() {
+		return "PageCreditWindow [maxCredits=" + maxCredits + ", windowSize=" + windowSize + "]";
+	}
+}
@@ -22,17 +22,10 @@ import java.util.List;
 import java.util.function.Supplier;
 
 import org.bboxdb.commons.DuplicateResolver;
-import org.bboxdb.distribution.zookeeper.ZookeeperException;
-import org.bboxdb.misc.BBoxDBException;
-import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.BBoxDBConnection;
-import org.bboxdb.network.client.RoutingHeaderHelper;
-import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.util.EntityDuplicateTracker;
 import org.bboxdb.storage.util.TupleHelper;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class TupleListFuture extends AbstractListFuture<Tuple> {
 
@@ -41,15 +34,15 @@ public class TupleListFuture extends AbstractListFuture<Tuple> {
 	 */
 	private final DuplicateResolver<Tuple> duplicateResolver;
 
-	/**
-	 * The Logger
-	 */
-	private final static Logger logger = LoggerFactory.getLogger(TupleListFuture.class);
-
 	/**
 	 * The tablename for the read operation
 	 */
 	private final String tablename;
+	
+	/**
+	 * Execute the read repair asynchronously
+	 */
+	private boolean asyncReadRepair;
 
 	public TupleListFuture(final Supplier<List<NetworkOperationFuture>> futures,
 			final DuplicateResolver<Tuple> duplicateResolver, final String tablename) {
@@ -58,6 +51,7 @@ public class TupleListFuture extends AbstractListFuture<Tuple> {
 
 		this.duplicateResolver = duplicateResolver;
 		this.tablename = tablename;
+		this.asyncReadRepair = true;
 	}
 
 	/**
@@ -110,57 +104,42 @@ public class TupleListFuture extends AbstractListFuture<Tuple> {
 			return;
 		}
 
+		final TupleReadRepair readRepair = new TupleReadRepair(tablename, allTuples);
+		
 		try {
 			for(int resultId = 0; resultId < getNumberOfResultObjets(); resultId++) {
-				performReadRepairForResult(allTuples, resultId);
+				final BBoxDBConnection bboxDBConnection = getConnection(resultId);
+
+				// Unable to perform read repair when the connection is not known
+				if(bboxDBConnection != null) {
+					readRepair.addReplicaResult(bboxDBConnection, get(resultId));
+				}
 			}
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 			return;
-		} catch (BBoxDBException | ZookeeperException e) {
-			logger.error("Got exception during read repair", e);
+		}
+		
+		if(asyncReadRepair) {
+			readRepair.executeAsync();
+		} else {
+			readRepair.run();
 		}
 	}
 
 	/**
-	 * Perform read repair for the given result
-	 *
-	 * @param allTuples
-	 * @param resultId
-	 * @throws InterruptedException
-	 * @throws BBoxDBException
-	 * @throws ZookeeperException
+	 * Is the read repair executed asynchronously
+	 * @return
 	 */
-	private void performReadRepairForResult(final List<Tuple> allTuples, int resultId)
-			throws InterruptedException, BBoxDBException, ZookeeperException {
-
-		final List<Tuple> tupleResult = get(resultId);
-
-		final BBoxDBConnection bboxDBConnection = getConnection(resultId);
-
-		if(bboxDBConnection == null) {
-			// Unable to perform read repair when the connection is not known
-			return;
-		}
-
-		for(final Tuple tuple : allTuples) {
-			final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystem(
-					tablename, tuple.getBoundingBox(), true, bboxDBConnection.getServerAddress(), true);
-
-			// System is not responsible for the tuple
-			if(routingHeader.getHopCount() == 0) {
-				return;
-			}
-
-			if(! tupleResult.contains(tuple)) {
-
-				logger.info("Tuple {} is not contained in result {} from server {}, "
-						+ "performing read repair", tuple, tupleResult,
-						bboxDBConnection.getConnectionName());
+	public boolean isAsyncReadRepair() {
+		return asyncReadRepair;
+	}
 
-				final BBoxDBClient bboxDBClient = bboxDBConnection.getBboxDBClient();
-				bboxDBClient.insertTuple(tablename, tuple, routingHeader);
-			}
-		}
+	/**
+	 * Execute the read repair asynchronously
+	 * @param asyncReadRepair
+	 */
+	public void setAsyncReadRepair(final boolean asyncReadRepair) {
+		this.asyncReadRepair = asyncReadRepair;
 	}
 }
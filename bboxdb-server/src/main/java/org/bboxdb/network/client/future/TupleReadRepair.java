@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.future;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.BBoxDBClient;
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.RoutingHeaderHelper;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.storage.entity.EntityIdentifier;
+import org.bboxdb.storage.entity.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TupleReadRepair extends ExceptionSafeRunnable {
+	
+	/**
+	 * The table name
+	 */
+	private final String tablename;
+	
+	/**
+	 * The resolved tuples (the most recent version of each tuple)
+	 */
+	private final List<Tuple> resolvedTuples;
+	
+	/**
+	 * The connections of the replicas
+	 */
+	private final List<BBoxDBConnection> replicaConnections;
+	
+	/**
+	 * The results of the replicas
+	 */
+	private final List<List<Tuple>> replicaResults;
+	
+	/**
+	 * The executor for the asynchronous read repair. Threads are created 
+	 * on demand and don't block the shutdown of the JVM.
+	 */
+	private final static ExecutorService READ_REPAIR_EXECUTOR = new ThreadPoolExecutor(0, 2, 
+			30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(100), (r) -> {
+				final Thread thread = new Thread(r, "Read repair");
+				thread.setDaemon(true);
+				return thread;
+			}, new ThreadPoolExecutor.CallerRunsPolicy());
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(TupleReadRepair.class);
+
+	public TupleReadRepair(final String tablename, final List<Tuple> resolvedTuples) {
+		this.tablename = tablename;
+		this.resolvedTuples = new ArrayList<>(resolvedTuples);
+		this.replicaConnections = new ArrayList<>();
+		this.replicaResults = new ArrayList<>();
+	}
+	
+	/**
+	 * Add the result of a replica
+	 * @param connection
+	 * @param replicaResult
+	 */
+	public void addReplicaResult(final BBoxDBConnection connection, final List<Tuple> replicaResult) {
+		replicaConnections.add(connection);
+		replicaResults.add(replicaResult);
+	}
+	
+	/**
+	 * Execute the read repair in the read repair executor
+	 */
+	public void executeAsync() {
+		READ_REPAIR_EXECUTOR.submit(this);
+	}
+
+	@Override
+	protected void runThread() throws Exception {
+		try {
+			for(int i = 0; i < replicaConnections.size(); i++) {
+				final List<Tuple> missingTuples = getMissingTuples(resolvedTuples, replicaResults.get(i));
+				
+				if(! missingTuples.isEmpty()) {
+					repairReplica(replicaConnections.get(i), missingTuples);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (BBoxDBException | ZookeeperException e) {
+			logger.error("Got exception during read repair", e);
+		}
+	}
+
+	/**
+	 * Get the tuples that are not contained (with the same key and version)
+	 * in the replica result
+	 * 
+	 * @param resolvedTuples
+	 * @param replicaResult
+	 * @return
+	 */
+	public static List<Tuple> getMissingTuples(final List<Tuple> resolvedTuples, 
+			final List<Tuple> replicaResult) {
+		
+		final Set<EntityIdentifier> replicaEntities = new HashSet<>(replicaResult.size() * 2);
+		
+		for(final Tuple tuple : replicaResult) {
+			replicaEntities.add(tuple.getEntityIdentifier());
+		}
+		
+		final List<Tuple> missingTuples = new ArrayList<>();
+		
+		for(final Tuple tuple : resolvedTuples) {
+			if(! replicaEntities.contains(tuple.getEntityIdentifier())) {
+				missingTuples.add(tuple);
+			}
+		}
+		
+		return missingTuples;
+	}
+	
+	/**
+	 * Write the missing tuples to the replica. All inserts are send before 
+	 * the results are awaited.
+	 * 
+	 * @param connection
+	 * @param missingTuples
+	 * @throws BBoxDBException
+	 * @throws ZookeeperException
+	 * @throws InterruptedException
+	 */
+	private void repairReplica(final BBoxDBConnection connection, final List<Tuple> missingTuples) 
+			throws ZookeeperException, BBoxDBException, InterruptedException {
+		
+		logger.info("{} tuples are not contained in the result from server {}, performing read repair", 
+				missingTuples.size(), connection.getConnectionName());
+		
+		final BBoxDBClient bboxDBClient = connection.getBboxDBClient();
+		final List<EmptyResultFuture> repairFutures = new ArrayList<>(missingTuples.size());
+		
+		for(final Tuple tuple : missingTuples) {
+			final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystem(
+					tablename, tuple.getBoundingBox(), true, connection.getServerAddress(), true);
+
+			// System is not responsible for the tuple
+			if(routingHeader.getHopCount() == 0) {
+				continue;
+			}
+			
+			repairFutures.add(bboxDBClient.insertTuple(tablename, tuple, routingHeader));
+		}
+		
+		for(final EmptyResultFuture future : repairFutures) {
+			future.waitForCompletion();
+			
+			if(future.isFailed()) {
+				logger.warn("Read repair on {} failed: {}", connection.getConnectionName(), 
+						future.getAllMessages());
+			}
+		}
+	}
+}
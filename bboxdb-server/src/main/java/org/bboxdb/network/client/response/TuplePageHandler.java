@@ -0,0 +1,87 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.response;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.NetworkOperationFuture;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.response.TuplePageResponse;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.PagedTransferableEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TuplePageHandler implements ServerResponseHandler {
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(TuplePageHandler.class);
+
+	/**
+	 * Handle a page of tuples as result
+	 * @return 
+	 */
+	@Override
+	public boolean handleServerResult(final BBoxDBConnection bBoxDBConnection, 
+			final ByteBuffer encodedPackage, final NetworkOperationFuture future)
+			throws PackageEncodeException {
+		
+		if(logger.isDebugEnabled()) {
+			logger.debug("Handle tuple page package");
+		}
+		
+		final TuplePageResponse tuplePageResponse = TuplePageResponse.decodePackage(encodedPackage);
+		final short sequenceNumber = tuplePageResponse.getSequenceNumber();
+		
+		// Single tuples are delivered as tuples, like in the tuple handler
+		final List<PagedTransferableEntity> entities = new ArrayList<>();
+		
+		for(final JoinedTuple joinedTuple : tuplePageResponse.getJoinedTuples()) {
+			if(joinedTuple.getNumberOfTuples() == 1) {
+				entities.add(joinedTuple.getTuple(0));
+			} else {
+				entities.add(joinedTuple);
+			}
+		}
+		
+		// Tuples are part of a multi tuple result
+		final Map<Short, List<PagedTransferableEntity>> resultBuffer = bBoxDBConnection.getResultBuffer();
+		
+		if(resultBuffer.containsKey(sequenceNumber)) {
+			resultBuffer.get(sequenceNumber).addAll(entities);
+			
+			// The removal of the future depends, if this is a one
+			// tuple result or a multiple tuple result
+			return false;
+		}
+		
+		if(future != null) {
+			future.setOperationResult(entities);
+			future.fireCompleteEvent();
+		}
+		
+		return true;
+	}
+
+}
@@ -17,9 +17,14 @@
  *******************************************************************************/
 package org.bboxdb.network.client.tools;
 
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -31,6 +36,7 @@ import org.bboxdb.distribution.region.DistributionRegionHelper;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.client.BBoxDBConnection;
 import org.bboxdb.network.client.future.NetworkOperationFuture;
+import org.bboxdb.network.client.future.NetworkOperationFutureHedgedImpl;
 import org.bboxdb.network.client.future.NetworkOperationFutureMultiImpl;
 import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.network.routing.RoutingHop;
@@ -95,17 +101,20 @@ public abstract class AbtractClusterFutureBuilder {
 			
 			final List<NetworkOperationFuture> futures = new ArrayList<>();
 
-			final List<DistributionRegion> regions = RoutingHopHelper.getRegionsForPredicate(
-					distributionRegion, boundingBox, DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ);
+			final List<DistributionRegion> regions = filterReadRegions(RoutingHopHelper.getRegionsForPredicate(
+					distributionRegion, boundingBox, DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ));
 						
 			if(regions.isEmpty()) {
 				logger.error("Got empty hop list by bbox {} read {}", boundingBox, clusterOperationType);
 			}
 
+			final ReplicaReadPolicy readPolicy = membershipConnectionService.getReplicaReadPolicy();
+			
 			for(final DistributionRegion region : regions) {
 				final List<NetworkOperationFuture> futuresPerReplicate = new ArrayList<>();
+				final List<BBoxDBInstance> instances = getReadableInstances(region, readPolicy);
 
-				for(final BBoxDBInstance instance : region.getSystems()) {
+				for(final BBoxDBInstance instance : instances) {
 					final BBoxDBConnection connection
 						= membershipConnectionService.getConnectionForInstance(instance);
 					
@@ -122,11 +131,13 @@ public abstract class AbtractClusterFutureBuilder {
 					futuresPerReplicate.addAll(future.get());
 				}
 				
-				// Only one future of the list needs to be successful
-				final NetworkOperationFutureMultiImpl future = new NetworkOperationFutureMultiImpl(
-						futuresPerReplicate);
-				
-				futures.add(future);
+				if(readPolicy == ReplicaReadPolicy.HEDGED) {
+					// Only the fastest replicate is contacted, the other ones on errors or slow responses
+					futures.add(new NetworkOperationFutureHedgedImpl(futuresPerReplicate));
+				} else {
+					// Only one future of the list needs to be successful
+					futures.add(new NetworkOperationFutureMultiImpl(futuresPerReplicate));
+				}
 			}
 
 			return futures;
@@ -135,6 +146,49 @@ public abstract class AbtractClusterFutureBuilder {
 		return supplier;
 	}
 
+	/**
+	 * Get the reachable replicates of the region. For hedged reads, the 
+	 * replicates are ordered by the observed latency.
+	 * 
+	 * @param region
+	 * @param readPolicy
+	 * @return
+	 */
+	private List<BBoxDBInstance> getReadableInstances(final DistributionRegion region, 
+			final ReplicaReadPolicy readPolicy) {
+		
+		final List<BBoxDBInstance> instances = new ArrayList<>();
+		
+		// The latency is recorded for the address of the connection, which 
+		// can differ from the instance address (e.g., for loopback addresses)
+		final Map<BBoxDBInstance, InetSocketAddress> serverAddresses = new HashMap<>();
+		
+		for(final BBoxDBInstance instance : region.getReadSystems()) {
+			final BBoxDBConnection connection
+				= membershipConnectionService.getConnectionForInstance(instance);
+			
+			// Node is down
+			if(connection == null) {
+				continue;
+			}
+			
+			instances.add(instance);
+			serverAddresses.put(instance, connection.getServerAddress());
+		}
+		
+		if(readPolicy == ReplicaReadPolicy.HEDGED) {
+			final ReplicaLatencyStatistics latencyStatistics = ReplicaLatencyStatistics.getInstance();
+			
+			// Spread the load between replicates with the same latency
+			Collections.shuffle(instances);
+			
+			instances.sort(Comparator.comparingDouble(
+					i -> latencyStatistics.getExpectedLatency(serverAddresses.get(i))));
+		}
+		
+		return instances;
+	}
+
 	/**
 	 * Get the unreplicated supplier
 	 * All operations needs to be successful
@@ -179,6 +233,15 @@ public abstract class AbtractClusterFutureBuilder {
 	protected abstract Supplier<List<NetworkOperationFuture>> buildFuture(
 			final BBoxDBConnection connection, final RoutingHeader routingHeader);
 	
+	/**
+	 * Filter the regions that are read by a replicated read operation 
+	 * @param regions
+	 * @return
+	 */
+	protected List<DistributionRegion> filterReadRegions(final List<DistributionRegion> regions) {
+		return regions;
+	}
+	
 	/**
 	 * Get the hop for the operation
 	 * @return
@@ -20,6 +20,7 @@ package org.bboxdb.network.client.tools;
 import java.util.List;
 import java.util.Optional;
 
+import org.bboxdb.commons.MicroSecondTimestampProvider;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
 import org.bboxdb.distribution.zookeeper.TupleStoreAdapter;
@@ -36,6 +37,7 @@ import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.util.TupleHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +70,11 @@ public class IndexedTupleUpdateHelper {
 	 * The max number of retries
 	 */
 	public final static int TOTAL_RETRIES = 10;
+	
+	/**
+	 * The version of the placeholder entry for keys without an index entry
+	 */
+	private final static long NO_INDEX_ENTRY_VERSION = -1;
 
 	/**
 	 * The Logger
@@ -117,6 +124,116 @@ public class IndexedTupleUpdateHelper {
 		}
 	}
 
+	/**
+	 * Query the key. The bounding box of the tuple is read from the index, so 
+	 * only the regions that contain the tuple are contacted. If the key is not 
+	 * indexed, all regions of the table are queried.
+	 * 
+	 * The index is only maintained by this class, so all updates of the table
+	 * needs to be performed by this helper.
+	 * 
+	 * @param table
+	 * @param key
+	 * @return
+	 * @throws BBoxDBException
+	 * @throws InterruptedException
+	 */
+	public TupleListFuture queryKey(final String table, final String key) 
+			throws BBoxDBException, InterruptedException {
+		
+		final String indexTableName = convertTablenameToIndexTablename(table);
+		final Hyperrectangle boundingBox = getIndexedBoundingBox(indexTableName, key);
+		
+		return cluster.queryKey(table, key, boundingBox);
+	}
+	
+	/**
+	 * Get the indexed bounding box for the key, or the full space when the 
+	 * key is not indexed
+	 * 
+	 * @param indexTableName
+	 * @param key
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private Hyperrectangle getIndexedBoundingBox(final String indexTableName, final String key) 
+			throws InterruptedException {
+		
+		try {
+			final Optional<Tuple> indexEntry = getOldIndexEntry(indexTableName, key);
+			
+			if(! indexEntry.isPresent()) {
+				return Hyperrectangle.FULL_SPACE;
+			}
+			
+			final byte[] boundingBoxData = indexEntry.get().getDataBytes();
+			return new Hyperrectangle(new String(boundingBoxData));
+		} catch (BBoxDBException e) {
+			// The index table is unknown
+			logger.debug("Unable to read index entry for key {} in {}", key, indexTableName, e);
+			return Hyperrectangle.FULL_SPACE;
+		}
+	}
+	
+	/**
+	 * Delete the tuple. The deletion is only send to the regions that 
+	 * contain the tuple, afterwards the index entry is removed. If the key 
+	 * is not indexed, the deletion is send to all regions of the table.
+	 * 
+	 * @param table
+	 * @param key
+	 * @return
+	 * @throws BBoxDBException
+	 * @throws InterruptedException
+	 */
+	public EmptyResultFuture deleteTuple(final String table, final String key) 
+			throws BBoxDBException, InterruptedException {
+		
+		try {
+			final String indexTableName = createMissingTables(table);
+			
+			final Hyperrectangle oldBoundingBox = getBoundingBoxForDeletion(indexTableName, key);
+			
+			final long deletionTimestamp = MicroSecondTimestampProvider.getNewTimestamp();
+			final EmptyResultFuture deleteFuture = cluster.deleteTuple(
+					table, key, deletionTimestamp, oldBoundingBox);
+			futureStore.put(deleteFuture);
+			
+			// Remove index entry (and index locks)
+			final EmptyResultFuture deleteIndexFuture = cluster.deleteTuple(
+					indexTableName, key, deletionTimestamp, getBoundingBoxForKey(key));
+			futureStore.put(deleteIndexFuture);
+			
+			return deleteFuture;
+		} catch (ZookeeperException | ZookeeperNotFoundException e) {
+			throw new BBoxDBException(e);
+		}
+	}
+
+	/**
+	 * Get the bounding box for the deletion of the key. The index entry is locked 
+	 * when it exists. Without an index entry (e.g., the key is already deleted) 
+	 * there is nothing to lock and the full space is returned.
+	 * 
+	 * @param indexTableName
+	 * @param key
+	 * @return
+	 * @throws BBoxDBException
+	 * @throws InterruptedException
+	 */
+	private Hyperrectangle getBoundingBoxForDeletion(final String indexTableName, final String key) 
+			throws BBoxDBException, InterruptedException {
+		
+		final Optional<Tuple> indexEntry = getOldIndexEntry(indexTableName, key);
+		
+		if(! indexEntry.isPresent() || Hyperrectangle.FULL_SPACE.equals(indexEntry.get().getBoundingBox())) {
+			logger.debug("Key {} is not indexed in {}, deleting in all regions", key, indexTableName);
+			return Hyperrectangle.FULL_SPACE;
+		}
+		
+		return tryToGetIndexEntry(indexTableName, key);
+	}
+
 	/**
 	 * Update the bounding box index
 	 * @param tuple
@@ -158,7 +275,7 @@ public class IndexedTupleUpdateHelper {
 
 		final String indexTableName = createMissingTables(table);
 
-		return tryToGetIndexEntry(indexTableName, tuple);
+		return tryToGetIndexEntry(indexTableName, tuple.getKey());
 	}
 
 	/**
@@ -209,30 +326,48 @@ public class IndexedTupleUpdateHelper {
 					.filter(t -> t.getKey().equals(key))
 					.findAny();
 
-			if(indexEntry.isPresent()) {
-				return indexEntry;
-			} else {
-				final Hyperrectangle fullSpace = Hyperrectangle.FULL_SPACE;
-				final String fullSpaceString = fullSpace.toCompactString();
-				return Optional.of(new Tuple(key, fullSpace, fullSpaceString.getBytes(), -1));
+			if(! indexEntry.isPresent()) {
+				return Optional.of(getMissingIndexEntry(key, NO_INDEX_ENTRY_VERSION));
+			}
+
+			// The index entry is deleted, use the version of the deletion to
+			// be able to lock the key in the index table
+			if(TupleHelper.isDeletedTuple(indexEntry.get())) {
+				return Optional.of(getMissingIndexEntry(key, indexEntry.get().getVersionTimestamp()));
 			}
+
+			return indexEntry;
 		}
 	}
 
+	/**
+	 * Get the placeholder for a key without an index entry, the full space
+	 * is used as bounding box
+	 *
+	 * @param key
+	 * @param version
+	 * @return
+	 */
+	private Tuple getMissingIndexEntry(final String key, final long version) {
+		final Hyperrectangle fullSpace = Hyperrectangle.FULL_SPACE;
+		final String fullSpaceString = fullSpace.toCompactString();
+		return new Tuple(key, fullSpace, fullSpaceString.getBytes(), version);
+	}
+
 	/**
 	 * Try to get the index entry
-	 * @param tuple
 	 * @param indexTableName
+	 * @param key
 	 * @return
 	 * @throws BBoxDBException
 	 * @throws InterruptedException
 	 */
-	private Hyperrectangle tryToGetIndexEntry(final String indexTableName, final Tuple tuple)
+	private Hyperrectangle tryToGetIndexEntry(final String indexTableName, final String key)
 			throws BBoxDBException, InterruptedException {
 
 		for(int i = 0; i < TOTAL_RETRIES; i++) {
 
-			final Optional<Tuple> oldIndexEntryOpt = getOldIndexEntry(indexTableName, tuple.getKey());
+			final Optional<Tuple> oldIndexEntryOpt = getOldIndexEntry(indexTableName, key);
 
 			if(! oldIndexEntryOpt.isPresent()) {
 				Thread.sleep(100);
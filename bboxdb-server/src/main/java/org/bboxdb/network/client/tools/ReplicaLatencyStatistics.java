@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.tools;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ReplicaLatencyStatistics {
+
+	/**
+	 * The latency samples per server
+	 */
+	private final Map<InetSocketAddress, LatencySamples> latencies;
+	
+	/**
+	 * The instance
+	 */
+	private static ReplicaLatencyStatistics instance;
+	
+	/**
+	 * The amount of samples per server
+	 */
+	public final static int SAMPLES_PER_SERVER = 64;
+	
+	/**
+	 * The needed amount of samples for a percentile based hedge delay
+	 */
+	public final static int MIN_SAMPLES = 8;
+	
+	/**
+	 * The percentile of the latency after that a second replicate is contacted
+	 */
+	public final static double HEDGE_PERCENTILE = 0.95;
+	
+	/**
+	 * The hedge delay if not enough samples are available
+	 */
+	public final static long DEFAULT_HEDGE_DELAY_MS = 100;
+	
+	/**
+	 * The min hedge delay
+	 */
+	public final static long MIN_HEDGE_DELAY_MS = 5;
+	
+	/**
+	 * The max hedge delay
+	 */
+	public final static long MAX_HEDGE_DELAY_MS = 1000;
+	
+	static {
+		instance = new ReplicaLatencyStatistics();
+	}
+	
+	private ReplicaLatencyStatistics() {
+		// private singleton constructor
+		latencies = new ConcurrentHashMap<>();
+	}
+	
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+	
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static ReplicaLatencyStatistics getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * Add a latency sample for the given server
+	 * @param serverAddress
+	 * @param latencyMs
+	 */
+	public void addLatency(final InetSocketAddress serverAddress, final long latencyMs) {
+		
+		if(serverAddress == null) {
+			return;
+		}
+		
+		latencies.computeIfAbsent(serverAddress, (s) -> new LatencySamples()).addSample(latencyMs);
+	}
+	
+	/**
+	 * Get the expected latency for the given server. Servers without samples get
+	 * a latency of 0, so they are contacted first and samples are collected.
+	 * 
+	 * @param serverAddress
+	 * @return
+	 */
+	public double getExpectedLatency(final InetSocketAddress serverAddress) {
+		final LatencySamples samples = getSamples(serverAddress);
+		
+		if(samples == null) {
+			return 0;
+		}
+		
+		return samples.getAverage();
+	}
+	
+	/**
+	 * Get the delay after that a second replicate is contacted
+	 * @param serverAddress
+	 * @return
+	 */
+	public long getHedgeDelay(final InetSocketAddress serverAddress) {
+		final LatencySamples samples = getSamples(serverAddress);
+		
+		if(samples == null) {
+			return DEFAULT_HEDGE_DELAY_MS;
+		}
+		
+		final long percentile = samples.getPercentile(HEDGE_PERCENTILE);
+		
+		if(percentile < 0) {
+			return DEFAULT_HEDGE_DELAY_MS;
+		}
+		
+		return Math.min(MAX_HEDGE_DELAY_MS, Math.max(MIN_HEDGE_DELAY_MS, percentile));
+	}
+	
+	/**
+	 * Remove all samples
+	 */
+	public void clear() {
+		latencies.clear();
+	}
+	
+	/**
+	 * Get the samples for the server
+	 * @param serverAddress
+	 * @return
+	 */
+	private LatencySamples getSamples(final InetSocketAddress serverAddress) {
+		if(serverAddress == null) {
+			return null;
+		}
+		
+		return latencies.get(serverAddress);
+	}
+	
+	static class LatencySamples {
+		
+		/**
+		 * The samples (ring buffer)
+		 */
+		private final long[] samples = new long[SAMPLES_PER_SERVER];
+		
+		/**
+		 * The total amount of added samples
+		 */
+		private long addedSamples = 0;
+		
+		/**
+		 * Add a new sample
+		 * @param latencyMs
+		 */
+		public synchronized void addSample(final long latencyMs) {
+			samples[(int) (addedSamples % samples.length)] = latencyMs;
+			addedSamples++;
+		}
+		
+		/**
+		 * Get the amount of stored samples
+		 * @return
+		 */
+		private int getStoredSamples() {
+			return (int) Math.min(addedSamples, samples.length);
+		}
+		
+		/**
+		 * Get the average latency
+		 * @return
+		 */
+		public synchronized double getAverage() {
+			final int storedSamples = getStoredSamples();
+			
+			if(storedSamples == 0) {
+				return 0;
+			}
+			
+			return Arrays.stream(samples, 0, storedSamples).average().getAsDouble();
+		}
+		
+		/**
+		 * Get the percentile of the latency or -1 if not enough samples are available
+		 * @param percentile
+		 * @return
+		 */
+		public synchronized long getPercentile(final double percentile) {
+			final int storedSamples = getStoredSamples();
+			
+			if(storedSamples < MIN_SAMPLES) {
+				return -1;
+			}
+			
+			final long[] sortedSamples = Arrays.copyOf(samples, storedSamples);
+			Arrays.sort(sortedSamples);
+			
+			final int position = (int) Math.ceil(percentile * storedSamples) - 1;
+			return sortedSamples[Math.max(0, Math.min(storedSamples - 1, position))];
+		}
+	}
+}
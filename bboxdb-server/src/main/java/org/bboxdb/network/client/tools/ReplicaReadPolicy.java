@@ -0,0 +1,32 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.client.tools;
+
+public enum ReplicaReadPolicy {
+	
+	/**
+	 * Send the read operation to all replicates, the first answer is used
+	 */
+	ALL_REPLICATES,
+	
+	/**
+	 * Send the read operation to the replicate with the lowest observed latency. 
+	 * A second replicate is contacted, when the first one is slower than usual.
+	 */
+	HEDGED;
+}
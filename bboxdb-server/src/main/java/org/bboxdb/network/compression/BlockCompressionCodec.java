@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.MalformedInputException;
+
+public class BlockCompressionCodec implements CompressionCodec {
+
+	/**
+	 * The compression type
+	 */
+	private final byte compressionType;
+	
+	/**
+	 * The compressor
+	 */
+	private final Compressor compressor;
+	
+	/**
+	 * The decompressor
+	 */
+	private final Decompressor decompressor;
+	
+	/**
+	 * The data to compress
+	 */
+	private final ReusableByteArrayOutputStream encodeBuffer 
+		= new ReusableByteArrayOutputStream(CompressionCodecFactory.INITIAL_BUFFER_SIZE);
+	
+	/**
+	 * The compressed data
+	 */
+	private final ReusableByteArrayOutputStream compressedBuffer 
+		= new ReusableByteArrayOutputStream(CompressionCodecFactory.INITIAL_BUFFER_SIZE);
+	
+	/**
+	 * The uncompressed data
+	 */
+	private final ReusableByteArrayOutputStream uncompressedBuffer 
+		= new ReusableByteArrayOutputStream(CompressionCodecFactory.INITIAL_BUFFER_SIZE);
+	
+	/**
+	 * The size of the length prefix
+	 */
+	private final static int LENGTH_PREFIX_BYTES = 4;
+	
+	public BlockCompressionCodec(final byte compressionType, final Compressor compressor, 
+			final Decompressor decompressor) {
+		
+		this.compressionType = compressionType;
+		this.compressor = compressor;
+		this.decompressor = decompressor;
+	}
+	
+	@Override
+	public byte getCompressionType() {
+		return compressionType;
+	}
+
+	@Override
+	public ReusableByteArrayOutputStream getEncodeBuffer() {
+		encodeBuffer.resetAndTrim();
+		return encodeBuffer;
+	}
+	
+	/**
+	 * Encoded format: [uncompressed length (4 bytes)][compressed block]
+	 */
+	@Override
+	public ByteBuffer compress(final byte[] input, final int length) throws IOException {
+		compressedBuffer.resetAndTrim();
+		
+		final int maxLength = compressor.maxCompressedLength(length);
+		compressedBuffer.ensureCapacity(LENGTH_PREFIX_BYTES + maxLength);
+		
+		final byte[] output = compressedBuffer.getBuffer();
+		final ByteBuffer prefix = ByteBuffer.wrap(output, 0, LENGTH_PREFIX_BYTES);
+		prefix.order(Const.APPLICATION_BYTE_ORDER);
+		prefix.putInt(length);
+		
+		final int compressedLength = compressor.compress(input, 0, length, 
+				output, LENGTH_PREFIX_BYTES, maxLength);
+		
+		compressedBuffer.setSize(LENGTH_PREFIX_BYTES + compressedLength);
+		
+		return compressedBuffer.toByteBuffer();
+	}
+
+	@Override
+	public ByteBuffer uncompress(final byte[] input, final int offset, final int length) 
+			throws IOException {
+		
+		if(length < LENGTH_PREFIX_BYTES) {
+			throw new IOException("Compressed block is too short: " + length);
+		}
+		
+		final ByteBuffer prefix = ByteBuffer.wrap(input, offset, LENGTH_PREFIX_BYTES);
+		prefix.order(Const.APPLICATION_BYTE_ORDER);
+		final int uncompressedLength = prefix.getInt();
+		
+		// Don't allocate buffers for corrupt or hostile length values
+		if(uncompressedLength < 0 || uncompressedLength > NetworkConst.MAX_UNCOMPRESSED_PACKAGE_SIZE) {
+			throw new IOException("Invalid uncompressed length: " + uncompressedLength);
+		}
+		
+		uncompressedBuffer.resetAndTrim();
+		uncompressedBuffer.ensureCapacity(uncompressedLength);
+		
+		try {
+			final int readBytes = decompressor.decompress(input, offset + LENGTH_PREFIX_BYTES, 
+					length - LENGTH_PREFIX_BYTES, uncompressedBuffer.getBuffer(), 0, uncompressedLength);
+			
+			if(readBytes != uncompressedLength) {
+				throw new IOException("Expected " + uncompressedLength + " bytes, but got " + readBytes);
+			}
+		} catch (MalformedInputException e) {
+			throw new IOException(e);
+		}
+		
+		uncompressedBuffer.setSize(uncompressedLength);
+		
+		return uncompressedBuffer.toByteBuffer();
+	}
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface CompressionCodec {
+
+	/**
+	 * The compression type of the codec (see NetworkConst.COMPRESSION_TYPE_*)
+	 * @return
+	 */
+	public byte getCompressionType();
+	
+	/**
+	 * Get the (reset) buffer for the data that should be compressed. The buffer 
+	 * is reused by the next compression call.
+	 * 
+	 * @return
+	 */
+	public ReusableByteArrayOutputStream getEncodeBuffer();
+	
+	/**
+	 * Compress the given bytes. The returned buffer is owned by the codec
+	 * and is only valid until the next call of this method.
+	 * 
+	 * @param input
+	 * @param length
+	 * @return
+	 * @throws IOException
+	 */
+	public ByteBuffer compress(final byte[] input, final int length) throws IOException;
+	
+	/**
+	 * Uncompress the given bytes. The returned buffer is owned by the codec
+	 * and is only valid until the next call of this method.
+	 * 
+	 * @param input
+	 * @param offset
+	 * @param length
+	 * @return
+	 * @throws IOException
+	 */
+	public ByteBuffer uncompress(final byte[] input, final int offset, final int length) 
+			throws IOException;
+	
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.packages.PackageEncodeException;
+
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+
+public class CompressionCodecFactory {
+	
+	/**
+	 * The initial size of the codec buffers
+	 */
+	public final static int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The codecs are not thread safe (they reuse their buffers), 
+	 * so each thread gets its own instances
+	 */
+	private final static ThreadLocal<CompressionCodec> GZIP_CODEC 
+		= ThreadLocal.withInitial(() -> new GZipCompressionCodec());
+	
+	private final static ThreadLocal<CompressionCodec> LZ4_CODEC 
+		= ThreadLocal.withInitial(() -> new BlockCompressionCodec(NetworkConst.COMPRESSION_TYPE_LZ4, 
+				new Lz4Compressor(), new Lz4Decompressor()));
+	
+	private final static ThreadLocal<CompressionCodec> ZSTD_CODEC 
+		= ThreadLocal.withInitial(() -> new BlockCompressionCodec(NetworkConst.COMPRESSION_TYPE_ZSTD, 
+				new ZstdCompressor(), new ZstdDecompressor()));
+	
+	/**
+	 * Get the codec for the given compression type (bound to the calling thread)
+	 * 
+	 * @param compressionType
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	public static CompressionCodec getCodec(final byte compressionType) 
+			throws PackageEncodeException {
+		
+		switch (compressionType) {
+			case NetworkConst.COMPRESSION_TYPE_GZIP:
+				return GZIP_CODEC.get();
+			case NetworkConst.COMPRESSION_TYPE_LZ4:
+				return LZ4_CODEC.get();
+			case NetworkConst.COMPRESSION_TYPE_ZSTD:
+				return ZSTD_CODEC.get();
+			default:
+				throw new PackageEncodeException("Unknown compression type: " + compressionType);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bboxdb.network.NetworkConst;
+
+public class GZipCompressionCodec implements CompressionCodec {
+
+	/**
+	 * The data to compress
+	 */
+	private final ReusableByteArrayOutputStream encodeBuffer 
+		= new ReusableByteArrayOutputStream(CompressionCodecFactory.INITIAL_BUFFER_SIZE);
+	
+	/**
+	 * The compressed data
+	 */
+	private final ReusableByteArrayOutputStream compressedBuffer 
+		= new ReusableByteArrayOutputStream(CompressionCodecFactory.INITIAL_BUFFER_SIZE);
+	
+	/**
+	 * The uncompressed data
+	 */
+	private final ReusableByteArrayOutputStream uncompressedBuffer 
+		= new ReusableByteArrayOutputStream(CompressionCodecFactory.INITIAL_BUFFER_SIZE);
+	
+	/**
+	 * The read buffer
+	 */
+	private final byte[] readBuffer = new byte[10240];
+	
+	@Override
+	public byte getCompressionType() {
+		return NetworkConst.COMPRESSION_TYPE_GZIP;
+	}
+	
+	@Override
+	public ReusableByteArrayOutputStream getEncodeBuffer() {
+		encodeBuffer.resetAndTrim();
+		return encodeBuffer;
+	}
+
+	@Override
+	public ByteBuffer compress(final byte[] input, final int length) throws IOException {
+		compressedBuffer.resetAndTrim();
+		
+		try (final OutputStream os = new GZIPOutputStream(compressedBuffer)) {
+			os.write(input, 0, length);
+		}
+		
+		return compressedBuffer.toByteBuffer();
+	}
+
+	@Override
+	public ByteBuffer uncompress(final byte[] input, final int offset, final int length) 
+			throws IOException {
+		
+		uncompressedBuffer.resetAndTrim();
+		
+		final ByteArrayInputStream bais = new ByteArrayInputStream(input, offset, length);
+		
+		try (final InputStream inputStream = new GZIPInputStream(bais)) {
+			for (int read = 0; (read = inputStream.read(readBuffer)) > 0; ) {
+				uncompressedBuffer.write(readBuffer, 0, read);
+			}
+		}
+		
+		return uncompressedBuffer.toByteBuffer();
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+public class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+	
+	/**
+	 * Buffers larger than this size are not kept for the next usage
+	 */
+	public final static int MAX_RETAINED_SIZE = 16 * 1024 * 1024;
+	
+	/**
+	 * The initial size of the buffer
+	 */
+	private final int initialSize;
+
+	public ReusableByteArrayOutputStream(final int initialSize) {
+		super(initialSize);
+		this.initialSize = initialSize;
+	}
+	
+	/**
+	 * Reset the stream and release oversized buffers
+	 */
+	public void resetAndTrim() {
+		reset();
+		
+		if(buf.length > MAX_RETAINED_SIZE) {
+			buf = new byte[initialSize];
+		}
+	}
+	
+	/**
+	 * Ensure that the buffer can hold the given amount of bytes
+	 * @param size
+	 */
+	public void ensureCapacity(final int size) {
+		if(buf.length < size) {
+			final byte[] newBuffer = new byte[size];
+			System.arraycopy(buf, 0, newBuffer, 0, count);
+			buf = newBuffer;
+		}
+	}
+	
+	/**
+	 * Set the amount of valid bytes (after the buffer was written directly)
+	 * @param size
+	 */
+	public void setSize(final int size) {
+		if(size > buf.length) {
+			throw new IllegalArgumentException("Size " + size + " is larger than buffer " + buf.length);
+		}
+		
+		count = size;
+	}
+	
+	/**
+	 * Get the internal buffer without copying it
+	 * @return
+	 */
+	public byte[] getBuffer() {
+		return buf;
+	}
+	
+	/**
+	 * Get the valid bytes of the stream as byte buffer (without copying)
+	 * @return
+	 */
+	public ByteBuffer toByteBuffer() {
+		return ByteBuffer.wrap(buf, 0, count);
+	}
+}
@@ -0,0 +1,394 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.packages;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.util.TupleHelper;
+
+/**
+ * Encodes a page of (joined) tuples in a compact columnar format:
+ * 
+ * - A dictionary of all table names of the page
+ * - The number of tuples per entry
+ * - The table (dictionary index), flags, key and version timestamp 
+ *   (zigzag delta to the previous tuple) column 
+ * - The dimension column and the packed bounding box column (points are stored 
+ *   with one coordinate per dimension)
+ * - The data column
+ * 
+ * Lengths, indices and deltas are written as variable length integers.
+ */
+public class NetworkTuplePageEncoderDecoder {
+	
+	/**
+	 * The tuple is deleted
+	 */
+	private final static byte FLAG_DELETED = 0x01;
+	
+	/**
+	 * The bounding box of the tuple is a point
+	 */
+	private final static byte FLAG_POINT = 0x02;
+
+	/**
+	 * Encode the given tuples
+	 * 
+	 * @param joinedTuples
+	 * @return
+	 * @throws IOException
+	 */
+	public static byte[] encode(final List<JoinedTuple> joinedTuples) throws IOException {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final DataOutputStream dos = new DataOutputStream(bos);
+		
+		// Table dictionary
+		final Map<String, Integer> tableDictionary = new HashMap<>();
+		final List<String> tables = new ArrayList<>();
+		final List<Tuple> tuples = new ArrayList<>();
+		final List<Integer> tableIds = new ArrayList<>();
+		
+		for(final JoinedTuple joinedTuple : joinedTuples) {
+			for(int i = 0; i < joinedTuple.getNumberOfTuples(); i++) {
+				final String table = joinedTuple.getTupleStoreName(i);
+				
+				Integer tableId = tableDictionary.get(table);
+				
+				if(tableId == null) {
+					tableId = tables.size();
+					tableDictionary.put(table, tableId);
+					tables.add(table);
+				}
+				
+				tuples.add(joinedTuple.getTuple(i));
+				tableIds.add(tableId);
+			}
+		}
+		
+		writeVarInt(dos, tables.size());
+		for(final String table : tables) {
+			writeBytes(dos, table.getBytes());
+		}
+		
+		// Entries
+		writeVarInt(dos, joinedTuples.size());
+		for(final JoinedTuple joinedTuple : joinedTuples) {
+			writeVarInt(dos, joinedTuple.getNumberOfTuples());
+		}
+		
+		for(final int tableId : tableIds) {
+			writeVarInt(dos, tableId);
+		}
+		
+		final byte[] flags = new byte[tuples.size()];
+		for(int i = 0; i < tuples.size(); i++) {
+			flags[i] = getFlags(tuples.get(i));
+		}
+		dos.write(flags);
+		
+		for(final Tuple tuple : tuples) {
+			writeBytes(dos, tuple.getKey().getBytes());
+		}
+		
+		long lastTimestamp = 0;
+		for(final Tuple tuple : tuples) {
+			final long timestamp = tuple.getVersionTimestamp();
+			writeVarLong(dos, zigZagEncode(timestamp - lastTimestamp));
+			lastTimestamp = timestamp;
+		}
+		
+		// Bounding boxes
+		for(int i = 0; i < tuples.size(); i++) {
+			if((flags[i] & FLAG_DELETED) == 0) {
+				writeVarInt(dos, tuples.get(i).getBoundingBox().getDimension());
+			}
+		}
+		
+		for(int i = 0; i < tuples.size(); i++) {
+			if((flags[i] & FLAG_DELETED) != 0) {
+				continue;
+			}
+			
+			final double[] values = tuples.get(i).getBoundingBox().toDoubleArray();
+			final int step = ((flags[i] & FLAG_POINT) != 0) ? 2 : 1;
+			
+			for(int pos = 0; pos < values.length; pos = pos + step) {
+				dos.writeDouble(values[pos]);
+			}
+		}
+		
+		// Data
+		for(int i = 0; i < tuples.size(); i++) {
+			if((flags[i] & FLAG_DELETED) == 0) {
+				writeBytes(dos, tuples.get(i).getDataBytes());
+			}
+		}
+
+		dos.close();
+		
+		return bos.toByteArray();
+	}
+	
+	/**
+	 * Decode the tuples
+	 * 
+	 * @param encodedPackage
+	 * @return
+	 */
+	public static List<JoinedTuple> decode(final ByteBuffer encodedPackage) {
+		
+		final int numberOfTables = readVarInt(encodedPackage);
+		final List<String> tables = new ArrayList<>(numberOfTables);
+		
+		for(int i = 0; i < numberOfTables; i++) {
+			tables.add(new String(readBytes(encodedPackage)));
+		}
+		
+		final int numberOfEntries = readVarInt(encodedPackage);
+		final int[] entrySizes = new int[numberOfEntries];
+		int numberOfTuples = 0;
+		
+		for(int i = 0; i < numberOfEntries; i++) {
+			entrySizes[i] = readVarInt(encodedPackage);
+			numberOfTuples = numberOfTuples + entrySizes[i];
+		}
+		
+		final int[] tableIds = new int[numberOfTuples];
+		for(int i = 0; i < numberOfTuples; i++) {
+			tableIds[i] = readVarInt(encodedPackage);
+		}
+		
+		final byte[] flags = new byte[numberOfTuples];
+		encodedPackage.get(flags);
+		
+		final String[] keys = new String[numberOfTuples];
+		for(int i = 0; i < numberOfTuples; i++) {
+			keys[i] = new String(readBytes(encodedPackage));
+		}
+		
+		final long[] timestamps = new long[numberOfTuples];
+		long lastTimestamp = 0;
+		for(int i = 0; i < numberOfTuples; i++) {
+			lastTimestamp = lastTimestamp + zigZagDecode(readVarLong(encodedPackage));
+			timestamps[i] = lastTimestamp;
+		}
+		
+		// Bounding boxes
+		final int[] dimensions = new int[numberOfTuples];
+		for(int i = 0; i < numberOfTuples; i++) {
+			if((flags[i] & FLAG_DELETED) == 0) {
+				dimensions[i] = readVarInt(encodedPackage);
+			}
+		}
+		
+		final Hyperrectangle[] boundingBoxes = new Hyperrectangle[numberOfTuples];
+		for(int i = 0; i < numberOfTuples; i++) {
+			if((flags[i] & FLAG_DELETED) == 0) {
+				boundingBoxes[i] = readBoundingBox(encodedPackage, dimensions[i], 
+						(flags[i] & FLAG_POINT) != 0);
+			}
+		}
+		
+		// Data and tuples
+		final List<JoinedTuple> result = new ArrayList<>(numberOfEntries);
+		int tupleNumber = 0;
+		
+		for(int entry = 0; entry < numberOfEntries; entry++) {
+			final List<Tuple> tuples = new ArrayList<>(entrySizes[entry]);
+			final List<String> tupleStoreNames = new ArrayList<>(entrySizes[entry]);
+			
+			for(int i = 0; i < entrySizes[entry]; i++) {
+				if((flags[tupleNumber] & FLAG_DELETED) != 0) {
+					tuples.add(new DeletedTuple(keys[tupleNumber], timestamps[tupleNumber]));
+				} else {
+					final byte[] data = readBytes(encodedPackage);
+					tuples.add(new Tuple(keys[tupleNumber], boundingBoxes[tupleNumber], 
+							data, timestamps[tupleNumber]));
+				}
+				
+				tupleStoreNames.add(tables.get(tableIds[tupleNumber]));
+				tupleNumber++;
+			}
+			
+			result.add(new JoinedTuple(tuples, tupleStoreNames));
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Read the packed bounding box
+	 * @param encodedPackage
+	 * @param dimension
+	 * @param point
+	 * @return
+	 */
+	private static Hyperrectangle readBoundingBox(final ByteBuffer encodedPackage, 
+			final int dimension, final boolean point) {
+		
+		if(dimension == 0) {
+			return Hyperrectangle.FULL_SPACE;
+		}
+		
+		final double[] values = new double[dimension * 2];
+		
+		for(int pos = 0; pos < values.length; pos = pos + 2) {
+			values[pos] = encodedPackage.getDouble();
+			
+			if(point) {
+				values[pos + 1] = values[pos];
+			} else {
+				values[pos + 1] = encodedPackage.getDouble();
+			}
+		}
+		
+		return new Hyperrectangle(values);
+	}
+	
+	/**
+	 * Get the flags for the given tuple
+	 * @param tuple
+	 * @return
+	 */
+	private static byte getFlags(final Tuple tuple) {
+		
+		if(tuple instanceof DeletedTuple || TupleHelper.isDeletedTuple(tuple)) {
+			return FLAG_DELETED;
+		}
+		
+		final double[] values = tuple.getBoundingBox().toDoubleArray();
+		
+		if(values.length == 0) {
+			return 0;
+		}
+		
+		for(int pos = 0; pos < values.length; pos = pos + 2) {
+			if(Double.doubleToLongBits(values[pos]) != Double.doubleToLongBits(values[pos + 1])) {
+				return 0;
+			}
+		}
+		
+		return FLAG_POINT;
+	}
+	
+	/**
+	 * Write a length prefixed byte array
+	 * @param dos
+	 * @param bytes
+	 * @throws IOException
+	 */
+	private static void writeBytes(final DataOutputStream dos, final byte[] bytes) throws IOException {
+		writeVarInt(dos, bytes.length);
+		dos.write(bytes);
+	}
+	
+	/**
+	 * Read a length prefixed byte array
+	 * @param encodedPackage
+	 * @return
+	 */
+	private static byte[] readBytes(final ByteBuffer encodedPackage) {
+		final byte[] bytes = new byte[readVarInt(encodedPackage)];
+		encodedPackage.get(bytes);
+		return bytes;
+	}
+	
+	/**
+	 * Write a variable length integer
+	 * @param dos
+	 * @param value
+	 * @throws IOException
+	 */
+	private static void writeVarInt(final DataOutputStream dos, final int value) throws IOException {
+		writeVarLong(dos, value & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Read a variable length integer
+	 * @param encodedPackage
+	 * @return
+	 */
+	private static int readVarInt(final ByteBuffer encodedPackage) {
+		return (int) readVarLong(encodedPackage);
+	}
+	
+	/**
+	 * Write a variable length long (7 bits per byte)
+	 * @param dos
+	 * @param value
+	 * @throws IOException
+	 */
+	private static void writeVarLong(final DataOutputStream dos, final long value) throws IOException {
+		long remaining = value;
+		
+		while((remaining & ~0x7FL) != 0) {
+			dos.writeByte((int) ((remaining & 0x7F) | 0x80));
+			remaining = remaining >>> 7;
+		}
+		
+		dos.writeByte((int) remaining);
+	}
+	
+	/**
+	 * Read a variable length long
+	 * @param encodedPackage
+	 * @return
+	 */
+	private static long readVarLong(final ByteBuffer encodedPackage) {
+		long result = 0;
+		int shift = 0;
+		byte readByte;
+		
+		do {
+			readByte = encodedPackage.get();
+			result = result | ((long) (readByte & 0x7F) << shift);
+			shift = shift + 7;
+		} while((readByte & 0x80) != 0);
+		
+		return result;
+	}
+	
+	/**
+	 * Zigzag encode the value (small negative values are mapped to small positive values)
+	 * @param value
+	 * @return
+	 */
+	private static long zigZagEncode(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+	
+	/**
+	 * Zigzag decode the value
+	 * @param value
+	 * @return
+	 */
+	private static long zigZagDecode(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
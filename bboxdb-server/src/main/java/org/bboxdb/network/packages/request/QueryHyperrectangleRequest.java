@@ -29,6 +29,7 @@ import org.bboxdb.network.packages.NetworkQueryRequestPackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterDefinition;
 
 public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 
@@ -51,15 +52,43 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	 * The max tuples per page
 	 */
 	protected final short tuplesPerPage;
+	
+	/**
+	 * The user defined filter
+	 */
+	protected final UserDefinedFilterDefinition userDefinedFilter;
+	
+	/**
+	 * Refine the results with the exact geometry
+	 */
+	protected final boolean geometryRefinement;
 
 	public QueryHyperrectangleRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
 			final String table,  final Hyperrectangle box, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
+		this(sequenceNumber, routingHeader, table, box, UserDefinedFilterDefinition.NONE, 
+				pagingEnabled, tuplesPerPage);
+	}
+	
+	public QueryHyperrectangleRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
+			final String table,  final Hyperrectangle box, final UserDefinedFilterDefinition userDefinedFilter, 
+			final boolean pagingEnabled, final short tuplesPerPage) {
+		
+		this(sequenceNumber, routingHeader, table, box, userDefinedFilter, false, 
+				pagingEnabled, tuplesPerPage);
+	}
+	
+	public QueryHyperrectangleRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
+			final String table,  final Hyperrectangle box, final UserDefinedFilterDefinition userDefinedFilter, 
+			final boolean geometryRefinement, final boolean pagingEnabled, final short tuplesPerPage) {
+		
 		super(sequenceNumber, routingHeader);
 		
 		this.table = new TupleStoreName(table);
 		this.box = box;
+		this.userDefinedFilter = userDefinedFilter;
+		this.geometryRefinement = geometryRefinement;
 		this.pagingEnabled = pagingEnabled;
 		this.tuplesPerPage = tuplesPerPage;
 	}
@@ -70,26 +99,45 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 		try {
 			final byte[] tableBytes = table.getFullnameBytes();
 			final byte[] bboxBytes = box.toByteArray();
+			final byte[] filterClassBytes = userDefinedFilter.getUserDefinedFilterClass().getBytes();
+			final byte[] filterValueBytes = userDefinedFilter.getUserDefinedFilterValue();
 			
 			final ByteBuffer bb = ByteBuffer.allocate(12);
 			bb.order(Const.APPLICATION_BYTE_ORDER);
 			
 			bb.put(getQueryType());
 			
+			byte flags = 0;
+			
 			if(pagingEnabled) {
-				bb.put((byte) 1);
-			} else {
-				bb.put((byte) 0);
+				flags |= NetworkConst.QUERY_FLAG_PAGING;
+			}
+			
+			if(geometryRefinement) {
+				flags |= NetworkConst.QUERY_FLAG_GEOMETRY_REFINEMENT;
 			}
 			
+			bb.put(flags);
+			
 			bb.putShort(tuplesPerPage);
 			
 			bb.putShort((short) tableBytes.length);
-			bb.put(NetworkConst.UNUSED_BYTE);
-			bb.put(NetworkConst.UNUSED_BYTE);
+			bb.putShort((short) filterClassBytes.length);
 			bb.putInt((int) bboxBytes.length);
 			
-			final long bodyLength = bb.capacity() + tableBytes.length + bboxBytes.length;
+			// The filter section is optional, requests without a filter 
+			// keep the layout of protocol version 1
+			final ByteBuffer filterValueLengthBytes = ByteBuffer.allocate(4);
+			filterValueLengthBytes.order(Const.APPLICATION_BYTE_ORDER);
+			filterValueLengthBytes.putInt((int) filterValueBytes.length);
+			
+			final boolean hasFilter = filterClassBytes.length > 0;
+			final long filterSectionLength = hasFilter ? filterClassBytes.length 
+					+ filterValueLengthBytes.capacity() + filterValueBytes.length : 0;
+			
+			final long bodyLength = bb.capacity() + tableBytes.length + bboxBytes.length
+					+ filterSectionLength;
+			
 			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
 
 			// Write body
@@ -97,6 +145,12 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 			outputStream.write(tableBytes);
 			outputStream.write(bboxBytes);
 			
+			if(hasFilter) {
+				outputStream.write(filterClassBytes);
+				outputStream.write(filterValueLengthBytes.array());
+				outputStream.write(filterValueBytes);
+			}
+			
 			return headerLength + bodyLength;
 		} catch (IOException e) {
 			throw new PackageEncodeException("Got exception while converting package into bytes", e);
@@ -126,18 +180,13 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	    	throw new PackageEncodeException("Wrong query type: " + queryType + " required type is: " + NetworkConst.REQUEST_QUERY_BBOX);
 	    }
 	    
-	    boolean pagingEnabled = false;
-	    if(encodedPackage.get() != 0) {
-	    	pagingEnabled = true;
-	    }
+	    final byte flags = encodedPackage.get();
+	    final boolean pagingEnabled = (flags & NetworkConst.QUERY_FLAG_PAGING) != 0;
+	    final boolean geometryRefinement = (flags & NetworkConst.QUERY_FLAG_GEOMETRY_REFINEMENT) != 0;
 	    
 	    final short tuplesPerPage = encodedPackage.getShort();
 		final short tableLength = encodedPackage.getShort();
-		
-	    // 2 unused bytes
-	    encodedPackage.get();
-	    encodedPackage.get();
-		
+		final short filterClassLength = encodedPackage.getShort();
 	    final int bboxLength = encodedPackage.getInt();
 
 		final byte[] tableBytes = new byte[tableLength];
@@ -148,6 +197,21 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 		encodedPackage.get(bboxBytes, 0, bboxBytes.length);
 		final Hyperrectangle boundingBox = Hyperrectangle.fromByteArray(bboxBytes);
 		
+		UserDefinedFilterDefinition userDefinedFilter = UserDefinedFilterDefinition.NONE;
+		
+		// Optional filter section (the filter class length was unused in protocol version 1)
+		if(filterClassLength > 0) {
+			final byte[] filterClassBytes = new byte[filterClassLength];
+			encodedPackage.get(filterClassBytes, 0, filterClassBytes.length);
+			
+			final int filterValueLength = encodedPackage.getInt();
+			final byte[] filterValueBytes = new byte[filterValueLength];
+			encodedPackage.get(filterValueBytes, 0, filterValueBytes.length);
+			
+			userDefinedFilter = new UserDefinedFilterDefinition(new String(filterClassBytes), 
+					filterValueBytes);
+		}
+		
 		if(encodedPackage.remaining() != 0) {
 			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
 		}
@@ -155,7 +219,7 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 		final RoutingHeader routingHeader = NetworkPackageDecoder.getRoutingHeaderFromRequestPackage(encodedPackage);
 
 		return new QueryHyperrectangleRequest(sequenceNumber, routingHeader, table, boundingBox, 
-				pagingEnabled, tuplesPerPage);
+				userDefinedFilter, geometryRefinement, pagingEnabled, tuplesPerPage);
 	}
 
 	@Override
@@ -176,6 +240,14 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 		return box;
 	}
 	
+	public UserDefinedFilterDefinition getUserDefinedFilter() {
+		return userDefinedFilter;
+	}
+	
+	public boolean isGeometryRefinement() {
+		return geometryRefinement;
+	}
+	
 	public short getTuplesPerPage() {
 		return tuplesPerPage;
 	}
@@ -186,8 +258,8 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 
 	@Override
 	public String toString() {
-		return "QueryHyperrectangleRequest [table=" + table + ", box=" + box + ", pagingEnabled=" + pagingEnabled
-				+ ", tuplesPerPage=" + tuplesPerPage + "]";
+		return "QueryHyperrectangleRequest [table=" + table + ", box=" + box + ", userDefinedFilter=" 
+				+ userDefinedFilter + ", geometryRefinement=" + geometryRefinement + ", pagingEnabled=" + pagingEnabled + ", tuplesPerPage=" + tuplesPerPage + "]";
 	}
 
 }
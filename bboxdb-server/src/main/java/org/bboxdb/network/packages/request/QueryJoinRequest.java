@@ -55,15 +55,28 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 	 * The max tuples per page
 	 */
 	protected final short tuplesPerPage;
+	
+	/**
+	 * Refine the results with the exact geometry
+	 */
+	protected final boolean geometryRefinement;
 
 	public QueryJoinRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
 			final List<TupleStoreName> tables, final Hyperrectangle box, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
+		this(sequenceNumber, routingHeader, tables, box, false, pagingEnabled, tuplesPerPage);
+	}
+	
+	public QueryJoinRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
+			final List<TupleStoreName> tables, final Hyperrectangle box, final boolean geometryRefinement, 
+			final boolean pagingEnabled, final short tuplesPerPage) {
+		
 		super(sequenceNumber, routingHeader);
 		
 		this.tables = tables;
 		this.box = box;
+		this.geometryRefinement = geometryRefinement;
 		this.pagingEnabled = pagingEnabled;
 		this.tuplesPerPage = tuplesPerPage;
 	}
@@ -79,12 +92,18 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 			
 			bb.put(getQueryType());
 			
+			byte flags = 0;
+			
 			if(pagingEnabled) {
-				bb.put((byte) 1);
-			} else {
-				bb.put((byte) 0);
+				flags |= NetworkConst.QUERY_FLAG_PAGING;
+			}
+			
+			if(geometryRefinement) {
+				flags |= NetworkConst.QUERY_FLAG_GEOMETRY_REFINEMENT;
 			}
 			
+			bb.put(flags);
+			
 			bb.putShort(tuplesPerPage);
 			
 			bb.putInt(tables.size());
@@ -137,10 +156,9 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 	    		throw new PackageEncodeException("Wrong query type: " + queryType + " required type is: " + NetworkConst.REQUEST_QUERY_JOIN);
 	    }
 	    
-	    boolean pagingEnabled = false;
-	    if(encodedPackage.get() != 0) {
-	    		pagingEnabled = true;
-	    }
+	    final byte flags = encodedPackage.get();
+	    final boolean pagingEnabled = (flags & NetworkConst.QUERY_FLAG_PAGING) != 0;
+	    final boolean geometryRefinement = (flags & NetworkConst.QUERY_FLAG_GEOMETRY_REFINEMENT) != 0;
 	    
 	    final short tuplesPerPage = encodedPackage.getShort();	    
 		final int numberOfTables = encodedPackage.getInt();
@@ -167,7 +185,7 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 		final RoutingHeader routingHeader = NetworkPackageDecoder.getRoutingHeaderFromRequestPackage(encodedPackage);
 
 		return new QueryJoinRequest(sequenceNumber, routingHeader, tableNames, boundingBox, 
-				pagingEnabled, tuplesPerPage);
+				geometryRefinement, pagingEnabled, tuplesPerPage);
 	}
 
 	@Override
@@ -189,6 +207,10 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 		return tables;
 	}
 
+	public boolean isGeometryRefinement() {
+		return geometryRefinement;
+	}
+
 	public short getTuplesPerPage() {
 		return tuplesPerPage;
 	}
@@ -199,7 +221,8 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 
 	@Override
 	public String toString() {
-		return "QueryJoinRequest [tables=" + tables + ", box=" + box + ", pagingEnabled=" + pagingEnabled
+		return "QueryJoinRequest [tables=" + tables + ", box=" + box + ", geometryRefinement=" + geometryRefinement 
+				+ ", pagingEnabled=" + pagingEnabled
 				+ ", tuplesPerPage=" + tuplesPerPage + "]";
 	}
 }
@@ -18,18 +18,19 @@
 package org.bboxdb.network.packages.response;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
 
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkHelper;
 import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.compression.CompressionCodec;
+import org.bboxdb.network.compression.CompressionCodecFactory;
+import org.bboxdb.network.compression.ReusableByteArrayOutputStream;
 import org.bboxdb.network.packages.NetworkResponsePackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 
@@ -63,20 +64,15 @@ public class CompressionEnvelopeResponse extends NetworkResponsePackage {
 	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
 
 		try {
-			if(compressionType != NetworkConst.COMPRESSION_TYPE_GZIP) {
-				throw new PackageEncodeException("Unknown compression method: " + compressionType);
-			}
-			
-			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			final OutputStream os = new GZIPOutputStream(baos);
+			final CompressionCodec codec = CompressionCodecFactory.getCodec(compressionType);
+			final ReusableByteArrayOutputStream os = codec.getEncodeBuffer();
 			
 			// Write packages
 			for(final NetworkResponsePackage networkResponsePackage : networkResponsePackages) {
 				networkResponsePackage.writeToOutputStream(os);
 			}
 			
-			os.close();
-			final byte[] compressedBytes = baos.toByteArray();
+			final ByteBuffer compressedBytes = codec.compress(os.getBuffer(), os.size());
 			
 			// Header
 			final ByteBuffer bb = ByteBuffer.allocate(4);
@@ -85,14 +81,14 @@ public class CompressionEnvelopeResponse extends NetworkResponsePackage {
 			bb.putShort((short) networkResponsePackages.size());
 			
 			// Body length
-			final long bodyLength = bb.capacity() + compressedBytes.length;
+			final long bodyLength = bb.capacity() + compressedBytes.limit();
 
 			// Write body length
 			final long headerLength = appendResponsePackageHeader(bodyLength, outputStream);
 			
 			// Write body
 			outputStream.write(bb.array());
-			outputStream.write(compressedBytes);
+			outputStream.write(compressedBytes.array(), 0, compressedBytes.limit());
 			
 			return headerLength + bodyLength;
 		} catch (IOException e) {
@@ -118,20 +114,16 @@ public class CompressionEnvelopeResponse extends NetworkResponsePackage {
 		
 		final byte compressionType = encodedPackage.get();
 		
-		if(compressionType != NetworkConst.COMPRESSION_TYPE_GZIP) {
-			throw new PackageEncodeException("Unknown compression type: " + compressionType);
-		}
-
 		// Skip 3 bytes - Header
 		encodedPackage.getShort();
 		encodedPackage.get();
 		
-		final byte[] compressedBytes = new byte[encodedPackage.remaining()];
-		encodedPackage.get(compressedBytes, 0, encodedPackage.remaining());
-		
-		final byte[] uncompressedBytes = NetworkHelper.uncompressBytes(compressionType, compressedBytes);
+		// The uncompressed bytes are owned by the codec of this thread and 
+		// have to be consumed before the next envelope is decoded
+		final ByteBuffer uncompressedBytes = NetworkHelper.uncompressBytes(compressionType, encodedPackage);
 		
-		final ByteArrayInputStream bis = new ByteArrayInputStream(uncompressedBytes);
+		final ByteArrayInputStream bis = new ByteArrayInputStream(uncompressedBytes.array(), 
+				0, uncompressedBytes.limit());
 		
 		return bis;
 	}
@@ -39,12 +39,24 @@ public class HelloResponse extends NetworkResponsePackage {
 	 */
 	protected final PeerCapabilities peerCapabilities;
 	
+	/**
+	 * The max amount of in flight calls (requested by the client, accepted by the server)
+	 */
+	protected final int maxInFlightCalls;
 	
-	public HelloResponse(final short sequenceNumber, final int protocolVersion, final PeerCapabilities peerCapabilities) {
+	public HelloResponse(final short sequenceNumber, final int protocolVersion, 
+			final PeerCapabilities peerCapabilities) {
+		
+		this(sequenceNumber, protocolVersion, peerCapabilities, NetworkConst.DEFAULT_MAX_IN_FLIGHT_CALLS);
+	}
+	
+	public HelloResponse(final short sequenceNumber, final int protocolVersion, 
+			final PeerCapabilities peerCapabilities, final int maxInFlightCalls) {
 		super(sequenceNumber);
 
 		this.protocolVersion = protocolVersion;
 		this.peerCapabilities = peerCapabilities;
+		this.maxInFlightCalls = maxInFlightCalls;
 	}
 	
 	@Override
@@ -54,13 +66,19 @@ public class HelloResponse extends NetworkResponsePackage {
 			final ByteBuffer bb = DataEncoderHelper.intToByteBuffer(protocolVersion);
 			final byte[] peerCapabilitiesBytes = peerCapabilities.toByteArray();
 			
+			// Peers with protocol version 1 can't decode the in flight calls
+			final byte[] inFlightBytes = hasInFlightCalls(protocolVersion) 
+					? DataEncoderHelper.intToByteBuffer(maxInFlightCalls).array() : new byte[0];
+			
 			// Body length
-			final long bodyLength = bb.capacity() + peerCapabilitiesBytes.length;
+			final long bodyLength = bb.capacity() + peerCapabilitiesBytes.length 
+					+ inFlightBytes.length;
 			final long headerLength = appendResponsePackageHeader(bodyLength, outputStream);
 
 			// Write body
 			outputStream.write(bb.array());
 			outputStream.write(peerCapabilitiesBytes);
+			outputStream.write(inFlightBytes);
 			
 			return headerLength + bodyLength;
 		} catch (Exception e) {
@@ -87,6 +105,17 @@ public class HelloResponse extends NetworkResponsePackage {
 		final int protocolVersion = encodedPackage.getInt();
 		final byte[] capabilityBytes = new byte[PeerCapabilities.CAPABILITY_BYTES];
 		encodedPackage.get(capabilityBytes, 0, capabilityBytes.length);
+		
+		// Peers with protocol version 1 don't send the in flight calls
+		int maxInFlightCalls = NetworkConst.DEFAULT_MAX_IN_FLIGHT_CALLS;
+		if(hasInFlightCalls(protocolVersion)) {
+			if(encodedPackage.remaining() < 4) {
+				throw new PackageEncodeException("In flight calls are missing for protocol version: " 
+						+ protocolVersion);
+			}
+			
+			maxInFlightCalls = encodedPackage.getInt();
+		}
 
 		if(encodedPackage.remaining() != 0) {
 			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
@@ -95,7 +124,7 @@ public class HelloResponse extends NetworkResponsePackage {
 		final PeerCapabilities peerCapabilities = new PeerCapabilities(capabilityBytes);
 		peerCapabilities.freeze();
 		
-		return new HelloResponse(requestId, protocolVersion, peerCapabilities);
+		return new HelloResponse(requestId, protocolVersion, peerCapabilities, maxInFlightCalls);
 	}
 	
 	/**
@@ -105,6 +134,31 @@ public class HelloResponse extends NetworkResponsePackage {
 	public PeerCapabilities getPeerCapabilities() {
 		return peerCapabilities;
 	}
+	
+	/**
+	 * Does the protocol version contain the in flight calls
+	 * @param protocolVersion
+	 * @return
+	 */
+	private static boolean hasInFlightCalls(final int protocolVersion) {
+		return protocolVersion >= NetworkConst.PROTOCOL_VERSION_IN_FLIGHT_CALLS;
+	}
+	
+	/**
+	 * Get the protocol version
+	 * @return
+	 */
+	public int getProtocolVersion() {
+		return protocolVersion;
+	}
+	
+	/**
+	 * Get the max amount of in flight calls
+	 * @return
+	 */
+	public int getMaxInFlightCalls() {
+		return maxInFlightCalls;
+	}
 
 	@Override
 	public byte getPackageType() {
@@ -119,6 +173,7 @@ public class HelloResponse extends NetworkResponsePackage {
 				* result
 				+ ((peerCapabilities == null) ? 0 : peerCapabilities.hashCode());
 		result = prime * result + protocolVersion;
+		result = prime * result + maxInFlightCalls;
 		return result;
 	}
 
@@ -138,6 +193,8 @@ public class HelloResponse extends NetworkResponsePackage {
 			return false;
 		if (protocolVersion != other.protocolVersion)
 			return false;
+		if (maxInFlightCalls != other.maxInFlightCalls)
+			return false;
 		return true;
 	}
 
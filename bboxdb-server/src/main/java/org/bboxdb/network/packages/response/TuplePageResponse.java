@@ -0,0 +1,96 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.packages.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.packages.NetworkResponsePackage;
+import org.bboxdb.network.packages.NetworkTuplePageEncoderDecoder;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.storage.entity.JoinedTuple;
+
+public class TuplePageResponse extends NetworkResponsePackage {
+	
+	/**
+	 * The tuples of the page
+	 */
+	private final List<JoinedTuple> joinedTuples;
+
+	public TuplePageResponse(final short sequenceNumber, final List<JoinedTuple> joinedTuples) {
+		super(sequenceNumber);
+		this.joinedTuples = joinedTuples;
+	}
+	
+	@Override
+	public byte getPackageType() {
+		return NetworkConst.RESPONSE_TYPE_TUPLE_PAGE;
+	}
+
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+		
+		try {
+			final byte[] encodedBytes = NetworkTuplePageEncoderDecoder.encode(joinedTuples);
+			final long headerLength = appendResponsePackageHeader(encodedBytes.length, outputStream);
+			outputStream.write(encodedBytes);
+			
+			return headerLength + encodedBytes.length;
+		} catch (IOException e) {
+			throw new PackageEncodeException("Got exception while converting package into bytes", e);
+		}	
+	}
+	
+	/**
+	 * Decode the encoded package into a object
+	 * 
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException 
+	 */
+	public static TuplePageResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {		
+		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+
+		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(encodedPackage, NetworkConst.RESPONSE_TYPE_TUPLE_PAGE);
+
+		if(decodeResult == false) {
+			throw new PackageEncodeException("Unable to decode package");
+		}
+		
+		final List<JoinedTuple> joinedTuples = NetworkTuplePageEncoderDecoder.decode(encodedPackage);
+		
+		if(encodedPackage.remaining() != 0) {
+			throw new PackageEncodeException("Some bytes are left after encoding: " + encodedPackage.remaining());
+		}
+		
+		return new TuplePageResponse(requestId, joinedTuples);
+	}
+
+	public List<JoinedTuple> getJoinedTuples() {
+		return joinedTuples;
+	}
+
+	@Override
+	public String toString() {
+		return "TuplePageResponse [joinedTuples=" + joinedTuples.size() + "]";
+	}
+}
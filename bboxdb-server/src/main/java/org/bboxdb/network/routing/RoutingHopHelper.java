@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -53,8 +54,9 @@ public class RoutingHopHelper {
 
 		final List<BBoxDBInstance> instances = MembershipConnectionService.getInstance().getAllInstances();
 
+		// Write only systems (e.g., the target of a region move) are not read
 		return getHopListForPredicateAndBox(rootRegion, boundingBox, instances,
-				DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ);
+				DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ, DistributionRegion::getReadSystems);
 	}
 
 	/**
@@ -82,11 +84,31 @@ public class RoutingHopHelper {
 			final DistributionRegion rootRegion, final Hyperrectangle boundingBox,
 			final List<BBoxDBInstance> knownInstances,
 			final Predicate<DistributionRegionState> statePredicate) {
+		
+		return getHopListForPredicateAndBox(rootRegion, boundingBox, knownInstances, 
+				statePredicate, DistributionRegion::getSystems);
+	}
+	
+	/**
+	 * Get a routing list for the given predicate and the given systems of the regions
+	 *
+	 * @param rootRegion
+	 * @param boundingBox
+	 * @param systems
+	 * @param statePredicate
+	 * @param systemsOfRegion
+	 * @return
+	 */
+	public static List<RoutingHop> getHopListForPredicateAndBox(
+			final DistributionRegion rootRegion, final Hyperrectangle boundingBox,
+			final List<BBoxDBInstance> knownInstances,
+			final Predicate<DistributionRegionState> statePredicate, 
+			final Function<DistributionRegion, List<BBoxDBInstance>> systemsOfRegion) {
 
 		final List<DistributionRegion> regions = getRegionsForPredicate(rootRegion, boundingBox, 
 				statePredicate);
 
-		final Map<InetSocketAddress, RoutingHop> hops = mergeHops(regions);
+		final Map<InetSocketAddress, RoutingHop> hops = mergeHops(regions, systemsOfRegion);
 
 		return removeUnavailableHops(knownInstances, hops);
 	}
@@ -102,24 +124,25 @@ public class RoutingHopHelper {
 	public static List<DistributionRegion> getRegionsForPredicate(final DistributionRegion rootRegion,
 			final Hyperrectangle boundingBox, final Predicate<DistributionRegionState> statePredicate) {
 		
-		final Predicate<DistributionRegion> predicate = (d) -> {
-			return statePredicate.test(d.getState()) && d.getConveringBox().intersects(boundingBox);
-		};
+		final Predicate<DistributionRegion> predicate = (d) -> statePredicate.test(d.getState());
 
-		return rootRegion.getThisAndChildRegions(predicate);
+		return rootRegion.getThisAndChildRegions(boundingBox, predicate);
 	}
 
 	/**
 	 * Merge hops per node
 	 * 
 	 * @param regions
+	 * @param systemsOfRegion
 	 * @return
 	 */
-	private static Map<InetSocketAddress, RoutingHop> mergeHops(final List<DistributionRegion> regions) {
+	private static Map<InetSocketAddress, RoutingHop> mergeHops(final List<DistributionRegion> regions, 
+			final Function<DistributionRegion, List<BBoxDBInstance>> systemsOfRegion) {
+		
 		final Map<InetSocketAddress, RoutingHop> hops = new HashMap<>();
 
 		for(final DistributionRegion region : regions) {
-			for(final BBoxDBInstance system : region.getSystems()) {
+			for(final BBoxDBInstance system : systemsOfRegion.apply(region)) {
 
 				hops.computeIfAbsent(system.getInetSocketAddress(), 
 						(i) -> new RoutingHop(system, new ArrayList<Long>()))
@@ -29,6 +29,11 @@ public class ErrorMessages {
 	 */
 	public final static String ERROR_EXCEPTION = "Got an exception during query processing, check server logs";
 
+	/**
+	 * The aggregation grid is too large
+	 */
+	public final static String ERROR_AGGREGATION_GRID_TOO_LARGE = "The aggregation grid has too many cells";
+
 	/**
 	 * Distribution group already exists
 	 */
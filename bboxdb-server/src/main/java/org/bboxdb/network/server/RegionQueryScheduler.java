@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.server;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.bboxdb.network.server.RegionQueryTask.ResultBatch;
+
+/**
+ * Schedules the region tasks of one query. Up to the given parallelism, region 
+ * tasks are running at the same time. The result batches are consumed by the 
+ * thread that sends the pages of the query, the scheduler can be closed 
+ * by other threads (e.g., when the query is canceled by the client).
+ */
+public class RegionQueryScheduler implements Closeable {
+	
+	/**
+	 * The executor for the region tasks
+	 */
+	private final ExecutorService executor;
+	
+	/**
+	 * The max amount of running region tasks
+	 */
+	private final int parallelism;
+
+	/**
+	 * The region tasks that are not started yet (guarded by this)
+	 */
+	private final List<RegionQueryTask> pendingTasks;
+	
+	/**
+	 * The started region tasks (guarded by this)
+	 */
+	private final List<RegionQueryTask> runningTasks;
+	
+	/**
+	 * The result batches of the running region tasks
+	 */
+	private final BlockingQueue<ResultBatch> resultQueue;
+	
+	/**
+	 * Is the scheduler closed
+	 */
+	private volatile boolean closed;
+	
+	/**
+	 * The batch that wakes up the consumer when the scheduler is closed
+	 */
+	private final static ResultBatch CLOSE_MARKER = new ResultBatch(null, Collections.emptyList(), true);
+
+	public RegionQueryScheduler(final ExecutorService executor, final int parallelism) {
+		this.executor = executor;
+		this.parallelism = parallelism;
+		this.pendingTasks = new ArrayList<>();
+		this.runningTasks = new ArrayList<>();
+		this.resultQueue = new LinkedBlockingQueue<>();
+		this.closed = false;
+	}
+	
+	/**
+	 * Get the queue for the result batches of the tasks
+	 * @return
+	 */
+	public BlockingQueue<ResultBatch> getResultQueue() {
+		return resultQueue;
+	}
+	
+	/**
+	 * Add a new region task, the tasks are started in the order of the calls
+	 * @param task
+	 */
+	public synchronized void addTask(final RegionQueryTask task) {
+		if(closed) {
+			return;
+		}
+		
+		pendingTasks.add(task);
+	}
+	
+	/**
+	 * Submit pending region tasks until the parallelism is reached
+	 */
+	private synchronized void startPendingTasks() {
+		while(! closed && runningTasks.size() < parallelism && ! pendingTasks.isEmpty()) {
+			final RegionQueryTask task = pendingTasks.remove(0);
+			runningTasks.add(task);
+			executor.submit(task);
+		}
+	}
+	
+	/**
+	 * Wait for the next result batch of the running region tasks
+	 * @return the batch or null, if no more batches are available
+	 * @throws InterruptedException 
+	 */
+	public ResultBatch takeNextBatch() throws InterruptedException {
+		synchronized (this) {
+			startPendingTasks();
+			
+			if(closed || runningTasks.isEmpty()) {
+				return null;
+			}
+		}
+		
+		final ResultBatch batch = resultQueue.take();
+		
+		if(batch == CLOSE_MARKER) {
+			return null;
+		}
+		
+		return batch;
+	}
+	
+	/**
+	 * The batch is consumed, read the next batch of the region or
+	 * start the next region
+	 * @param batch
+	 */
+	public synchronized void finishBatch(final ResultBatch batch) {
+		
+		if(closed) {
+			return;
+		}
+		
+		final RegionQueryTask task = batch.getTask();
+		
+		if(batch.isLastBatch()) {
+			runningTasks.remove(task);
+			startPendingTasks();
+		} else {
+			executor.submit(task);
+		}
+	}
+	
+	/**
+	 * Are all region tasks done
+	 * @return
+	 */
+	public synchronized boolean isDone() {
+		return closed || (runningTasks.isEmpty() && pendingTasks.isEmpty());
+	}
+	
+	/**
+	 * Is the scheduler closed
+	 * @return
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Close the region tasks and wake up the consumer
+	 */
+	@Override
+	public void close() {
+		final List<RegionQueryTask> tasksToClose;
+		
+		synchronized (this) {
+			if(closed) {
+				return;
+			}
+			
+			closed = true;
+			tasksToClose = new ArrayList<>(runningTasks);
+			runningTasks.clear();
+			pendingTasks.clear();
+		}
+		
+		// Closing waits for the active batch of the task, 
+		// so don't block the other methods
+		tasksToClose.forEach(t -> t.close());
+		
+		resultQueue.clear();
+		resultQueue.add(CLOSE_MARKER);
+	}
+}
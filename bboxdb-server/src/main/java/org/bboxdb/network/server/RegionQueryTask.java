@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+import org.bboxdb.commons.CloseableHelper;
+import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.OperatorTreeBuilder;
+import org.bboxdb.storage.queryprocessor.operator.Operator;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the operator tree of one local region. Every run reads one batch 
+ * of tuples and hands it to the result queue, the task is scheduled again 
+ * by the consumer of the batch. So, no executor thread is blocked by a 
+ * query that waits for the next page request.
+ */
+public class RegionQueryTask extends ExceptionSafeRunnable {
+
+	/**
+	 * The operator tree builder
+	 */
+	private final OperatorTreeBuilder operatorTreeBuilder;
+	
+	/**
+	 * The storage registry
+	 */
+	private final TupleStoreManagerRegistry storageRegistry;
+	
+	/**
+	 * The local tables of the region (one per request table)
+	 */
+	private final List<TupleStoreName> localTables;
+	
+	/**
+	 * The queue for the result batches
+	 */
+	private final Queue<ResultBatch> resultQueue;
+	
+	/**
+	 * The max amount of tuples per batch
+	 */
+	private final int batchSize;
+	
+	/**
+	 * The operator
+	 */
+	private Operator operator;
+	
+	/**
+	 * The iterator of the operator
+	 */
+	private Iterator<JoinedTuple> operatorIterator;
+	
+	/**
+	 * Is the task closed
+	 */
+	private boolean closed;
+	
+	/**
+	 * Is the last batch created
+	 */
+	private boolean done;
+	
+	/**
+	 * The time spent for reading the tuples
+	 */
+	private long readTimeNanos;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(RegionQueryTask.class);
+
+	public RegionQueryTask(final OperatorTreeBuilder operatorTreeBuilder, 
+			final TupleStoreManagerRegistry storageRegistry, final List<TupleStoreName> localTables, 
+			final Queue<ResultBatch> resultQueue, final int batchSize) {
+		
+		this.operatorTreeBuilder = operatorTreeBuilder;
+		this.storageRegistry = storageRegistry;
+		this.localTables = localTables;
+		this.resultQueue = resultQueue;
+		this.batchSize = batchSize;
+		this.closed = false;
+		this.done = false;
+		this.readTimeNanos = 0;
+	}
+
+	@Override
+	protected void runThread() throws Exception {
+		synchronized (this) {
+			if(closed || done) {
+				return;
+			}
+			
+			final long startTime = System.nanoTime();
+			
+			if(operator == null) {
+				final List<TupleStoreManager> storageManagers = new ArrayList<>();
+				
+				for(final TupleStoreName tupleStoreName : localTables) {
+					storageManagers.add(QueryHelper.getTupleStoreManager(storageRegistry, tupleStoreName));
+				}
+				
+				operator = operatorTreeBuilder.buildOperatorTree(storageManagers);
+				operatorIterator = operator.iterator();
+			}
+			
+			final List<JoinedTuple> tuples = new ArrayList<>();
+			
+			while(tuples.size() < batchSize && operatorIterator.hasNext()) {
+				tuples.add(operatorIterator.next());
+			}
+			
+			done = ! operatorIterator.hasNext();
+			readTimeNanos = readTimeNanos + (System.nanoTime() - startTime);
+			
+			if(done) {
+				closeOperatorNE();
+				
+				// All tables of the task belong to the same region
+				RegionRequestStatistics.recordRead(localTables.get(0), readTimeNanos);
+			}
+			
+			resultQueue.add(new ResultBatch(this, tuples, done));
+		}
+	}
+	
+	@Override
+	protected void afterExceptionHook() {
+		synchronized (this) {
+			logger.warn("Got exception while fetching tuples from {}", localTables);
+			closeOperatorNE();
+			
+			if(! done && ! closed) {
+				done = true;
+				resultQueue.add(new ResultBatch(this, Collections.emptyList(), true));
+			}
+		}
+	}
+	
+	/**
+	 * Close the task
+	 */
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			closeOperatorNE();
+		}
+	}
+	
+	/**
+	 * Close the operator
+	 */
+	private void closeOperatorNE() {
+		CloseableHelper.closeWithoutException(operator, 
+				(e) -> logger.warn("Got an exception while closing operator", e)); 
+		
+		operator = null;
+		operatorIterator = null;
+	}
+	
+	/**
+	 * A batch of result tuples of a region
+	 */
+	public static class ResultBatch {
+		
+		/**
+		 * The task that has created the batch
+		 */
+		private final RegionQueryTask task;
+		
+		/**
+		 * The tuples
+		 */
+		private final List<JoinedTuple> tuples;
+		
+		/**
+		 * Is this the last batch of the task
+		 */
+		private final boolean lastBatch;
+		
+		/**
+		 * The position of the next tuple
+		 */
+		private int position;
+
+		public ResultBatch(final RegionQueryTask task, final List<JoinedTuple> tuples, 
+				final boolean lastBatch) {
+			
+			this.task = task;
+			this.tuples = tuples;
+			this.lastBatch = lastBatch;
+			this.position = 0;
+		}
+		
+		/**
+		 * Are more tuples available
+		 * @return
+		 */
+		public boolean hasNext() {
+			return position < tuples.size();
+		}
+		
+		/**
+		 * Get the next tuple
+		 * @return
+		 */
+		public JoinedTuple next() {
+			return tuples.get(position++);
+		}
+		
+		/**
+		 * Get the task of the batch
+		 * @return
+		 */
+		public RegionQueryTask getTask() {
+			return task;
+		}
+		
+		/**
+		 * Is this the last batch of the task
+		 * @return
+		 */
+		public boolean isLastBatch() {
+			return lastBatch;
+		}
+	}
+}
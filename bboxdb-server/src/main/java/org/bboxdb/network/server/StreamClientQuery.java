@@ -20,28 +20,35 @@ package org.bboxdb.network.server;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 
-import org.bboxdb.commons.CloseableHelper;
+import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionHelper;
 import org.bboxdb.distribution.region.DistributionRegionIdMapper;
-import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.response.MultipleTupleEndResponse;
 import org.bboxdb.network.packages.response.MultipleTupleStartResponse;
 import org.bboxdb.network.packages.response.PageEndResponse;
+import org.bboxdb.network.server.RegionQueryTask.ResultBatch;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
-import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.JoinedTuple;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.queryprocessor.OperatorTreeBuilder;
 import org.bboxdb.storage.queryprocessor.operator.Operator;
-import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.queryprocessor.operator.ReferencePointFilterOperator;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,14 +61,14 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	protected final OperatorTreeBuilder operatorTreeBuilder;
 	
 	/**
-	 * The active operator
+	 * The scheduler for the region tasks
 	 */
-	protected Operator activeOperator;
-
+	protected final RegionQueryScheduler regionScheduler;
+	
 	/**
-	 * The current iterator
+	 * The batch that is currently send (only accessed by the page worker)
 	 */
-	protected Iterator<JoinedTuple> activeOperatorIterator;
+	protected ResultBatch activeBatch;
 	
 	/**
 	 * Page the result
@@ -98,6 +105,51 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	 */
 	private final List<TupleStoreName> requestTables;
 	
+	/**
+	 * The bounding box of the query, used to select the local tables
+	 */
+	private final Hyperrectangle queryBox;
+	
+	/**
+	 * The operator that is applied on the duplicate free result of each region
+	 */
+	private final UnaryOperator<Operator> resultOperatorBuilder;
+	
+	/**
+	 * The regions to query, all local regions are queried if empty
+	 */
+	private final Collection<Long> queryRegionIds;
+	
+	/**
+	 * Emit the results only in the region that contains their reference point
+	 */
+	private final boolean filterByReferencePoint;
+	
+	/**
+	 * The max amount of tuples that are encoded in one tuple page package
+	 */
+	private final static int MAX_TUPLES_PER_PACKAGE = 512;
+	
+	/**
+	 * The executor for the region tasks. Every query runs up to the
+	 * max pool size regions in parallel, the regions of all queries 
+	 * share the threads of the executor.
+	 */
+	private final static ThreadPoolExecutor QUERY_EXECUTOR;
+	
+	static {
+		final int queryThreads = Math.max(1, BBoxDBConfigurationManager.getConfiguration().getQueryThreads());
+		
+		QUERY_EXECUTOR = new ThreadPoolExecutor(queryThreads, queryThreads, 
+				30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (r) -> {
+					final Thread thread = new Thread(r, "Region query");
+					thread.setDaemon(true);
+					return thread;
+				});
+		
+		QUERY_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+	
 	/**
 	 * The Logger
 	 */
@@ -106,6 +158,36 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, final boolean pageResult,
 			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler, 
 			final short querySequence, final List<TupleStoreName> requestTables) {
+		
+		this(operatorTreeBuilder, pageResult, tuplesPerPage, clientConnectionHandler, querySequence, 
+				requestTables, Hyperrectangle.FULL_SPACE);
+	}
+
+	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, final boolean pageResult,
+			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler, 
+			final short querySequence, final List<TupleStoreName> requestTables, 
+			final Hyperrectangle queryBox) {
+		
+		this(operatorTreeBuilder, UnaryOperator.identity(), pageResult, tuplesPerPage, 
+				clientConnectionHandler, querySequence, requestTables, queryBox, new ArrayList<>());
+	}
+
+	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, 
+			final UnaryOperator<Operator> resultOperatorBuilder, final boolean pageResult,
+			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler, 
+			final short querySequence, final List<TupleStoreName> requestTables, 
+			final Hyperrectangle queryBox, final Collection<Long> queryRegionIds) {
+		
+		this(operatorTreeBuilder, resultOperatorBuilder, pageResult, tuplesPerPage, clientConnectionHandler, 
+				querySequence, requestTables, queryBox, queryRegionIds, true);
+	}
+	
+	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, 
+			final UnaryOperator<Operator> resultOperatorBuilder, final boolean pageResult,
+			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler, 
+			final short querySequence, final List<TupleStoreName> requestTables, 
+			final Hyperrectangle queryBox, final Collection<Long> queryRegionIds, 
+			final boolean filterByReferencePoint) {
 
 		this.operatorTreeBuilder = operatorTreeBuilder;
 		this.pageResult = pageResult;
@@ -113,9 +195,16 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 		this.clientConnectionHandler = clientConnectionHandler;
 		this.querySequence = querySequence;
 		this.requestTables = requestTables;
+		this.queryBox = queryBox;
+		this.resultOperatorBuilder = resultOperatorBuilder;
+		this.queryRegionIds = queryRegionIds;
+		this.filterByReferencePoint = filterByReferencePoint;
 		this.localTables = new HashMap<TupleStoreName, List<TupleStoreName>>();
+		this.regionScheduler = new RegionQueryScheduler(QUERY_EXECUTOR, QUERY_EXECUTOR.getMaximumPoolSize());
+		this.activeBatch = null;
 
 		determineLocalTables(requestTables);
+		createRegionTasks();
 		
 		this.totalSendTuples = 0;
 	}
@@ -134,7 +223,7 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 				
 				final DistributionRegionIdMapper regionIdMapper = spacePartitioner.getDistributionRegionIdMapper();
 			
-				final List<TupleStoreName> localTablesForTable = regionIdMapper.getAllLocalTables(requestTable);
+				final List<TupleStoreName> localTablesForTable = getLocalTables(regionIdMapper, requestTable);
 				localTablesForTable.sort((c1, c2) -> c1.compareTo(c2));
 				localTables.put(requestTable, localTablesForTable);
 			}
@@ -156,22 +245,122 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	}
 	
 	/**
-	 * Get the number of tables to process
+	 * Get the local tables for the request table. Only the tables of the regions 
+	 * that are intersected by the query box need to be read. When query regions
+	 * are given, only the tables of these regions are read.
+	 * 
+	 * @param regionIdMapper
+	 * @param requestTable
 	 * @return
 	 */
-	private int getNumberOfTablesToProcess() {
-		return localTables.get(requestTables.get(0)).size();
+	private List<TupleStoreName> getLocalTables(final DistributionRegionIdMapper regionIdMapper, 
+			final TupleStoreName requestTable) {
+		
+		if(! queryRegionIds.isEmpty()) {
+			final Set<Long> regionIds = (queryBox == null || queryBox == Hyperrectangle.FULL_SPACE) 
+					? regionIdMapper.getAllRegionIds() : regionIdMapper.getRegionIdsForRegion(queryBox);
+			
+			regionIds.retainAll(queryRegionIds);
+			
+			return regionIdMapper.convertRegionIdToTableNames(requestTable, regionIds);
+		}
+		
+		if(queryBox == null || queryBox == Hyperrectangle.FULL_SPACE) {
+			return regionIdMapper.getAllLocalTables(requestTable);
+		}
+		
+		return regionIdMapper.getLocalTablesForRegion(queryBox, requestTable);
 	}
-
+	
+	/**
+	 * Create the pending region tasks. The n-th local table of every
+	 * request table belongs to the same region.
+	 */
+	private void createRegionTasks() {
+		
+		if(localTables.size() != requestTables.size()) {
+			return;
+		}
+		
+		final TupleStoreManagerRegistry storageRegistry = clientConnectionHandler
+				.getStorageRegistry();
+		
+		final int regions = localTables.get(requestTables.get(0)).size();
+		
+		for(int i = 0; i < regions; i++) {
+			final List<TupleStoreName> regionTables = new ArrayList<>();
+			
+			for(final TupleStoreName tupleStoreName : requestTables) {
+				regionTables.add(localTables.get(tupleStoreName).get(i));
+			}
+			
+			final OperatorTreeBuilder regionOperatorTreeBuilder 
+				= getRegionOperatorTreeBuilder(regionTables.get(0));
+			
+			final OperatorTreeBuilder resultOperatorTreeBuilder = (storageManager) 
+				-> resultOperatorBuilder.apply(regionOperatorTreeBuilder.buildOperatorTree(storageManager));
+			
+			final RegionQueryTask task = new RegionQueryTask(resultOperatorTreeBuilder, 
+					storageRegistry, regionTables, regionScheduler.getResultQueue(), MAX_TUPLES_PER_PACKAGE);
+			
+			regionScheduler.addTask(task);
+		}
+	}
+	
 	/**
-	 * Close the iterator
+	 * Get the operator tree builder for the region of the table. The results 
+	 * are only emitted by the region that contains the reference point of the 
+	 * result, so results of tuples that are stored in multiple regions are 
+	 * not send multiple times. Without the reference point filter, the duplicates
+	 * have to be removed by the client.
+	 * 
+	 * @param tupleStoreName
+	 * @return
 	 */
-	protected void closeIteratorNE() {
-		CloseableHelper.closeWithoutException(activeOperator, 
-				(e) -> logger.warn("Got an exception while closing operator", e)); 
+	private OperatorTreeBuilder getRegionOperatorTreeBuilder(final TupleStoreName tupleStoreName) {
 		
-		activeOperator = null;
-		activeOperatorIterator = null;
+		if(! filterByReferencePoint || ! tupleStoreName.getRegionId().isPresent()) {
+			return operatorTreeBuilder;
+		}
+		
+		try {
+			final SpacePartitioner spacePartitioner = SpacePartitionerCache.getInstance()
+					.getSpacePartitionerForGroupName(tupleStoreName.getDistributionGroup());
+			
+			final DistributionRegion region = DistributionRegionHelper.getDistributionRegionForNamePrefix(
+					spacePartitioner.getRootNode(), tupleStoreName.getRegionId().getAsLong());
+			
+			if(region == null) {
+				return operatorTreeBuilder;
+			}
+			
+			final Hyperrectangle regionBox = region.getConveringBox();
+			
+			return (storageManager) -> new ReferencePointFilterOperator(
+					operatorTreeBuilder.buildOperatorTree(storageManager), regionBox, queryBox);
+			
+		} catch (BBoxDBException e) {
+			logger.error("Unable to read region for {}", tupleStoreName, e);
+			return operatorTreeBuilder;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return operatorTreeBuilder;
+		}
+	}
+	
+	/**
+	 * Wait for the next result batch of the running region tasks
+	 * @return the batch or null, if no more batches are available
+	 */
+	private ResultBatch takeNextBatch() {
+		try {
+			return regionScheduler.takeNextBatch();
+		} catch (InterruptedException e) {
+			logger.warn("Interrupted while waiting for the next result batch of query {}", querySequence);
+			Thread.currentThread().interrupt();
+			regionScheduler.close();
+			return null;
+		}
 	}
 	
 	/* (non-Javadoc)
@@ -183,94 +372,66 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 		long sendTuplesInThisPage = 0;
 		clientConnectionHandler.writeResultPackage(new MultipleTupleStartResponse(packageSequence));
 		
+		// The tuples are send in batches with the compact page encoding
+		final List<JoinedTuple> pendingTuples = new ArrayList<>();
+		
 		while(! isDataExhausted()) {
 			
-			if(activeOperatorIterator == null) {
-				setupNewIterator();
+			if(activeBatch == null) {
+				activeBatch = takeNextBatch();
 			}
 			
-			// Unable to set up a new iterator
-			if(activeOperatorIterator == null) {
+			// No more batches available
+			if(activeBatch == null) {
 				break;
 			}
 			
-			while(activeOperatorIterator.hasNext()) {
+			while(activeBatch.hasNext()) {
 				// Handle page end
 				if(pageResult == true && sendTuplesInThisPage >= tuplesPerPage) {
+					clientConnectionHandler.writeResultTuples(packageSequence, pendingTuples);
 					clientConnectionHandler.writeResultPackage(new PageEndResponse(packageSequence));
 					clientConnectionHandler.flushPendingCompressionPackages();
 					return;
 				}
 				
 				// Send next tuple
-				final JoinedTuple tuple = activeOperatorIterator.next();
-								
-				clientConnectionHandler.writeResultTuple(packageSequence, tuple);
+				final JoinedTuple tuple = activeBatch.next();
+				pendingTuples.add(tuple);
+				
+				if(pendingTuples.size() >= MAX_TUPLES_PER_PACKAGE) {
+					clientConnectionHandler.writeResultTuples(packageSequence, pendingTuples);
+					pendingTuples.clear();
+				}
+				
 				totalSendTuples++;
 				sendTuplesInThisPage++;
 			}
 			
-			closeIteratorNE();
+			regionScheduler.finishBatch(activeBatch);
+			activeBatch = null;
 		}
 		
 		// All tuples are send
+		clientConnectionHandler.writeResultTuples(packageSequence, pendingTuples);
 		clientConnectionHandler.writeResultPackage(new MultipleTupleEndResponse(packageSequence));	
 		clientConnectionHandler.flushPendingCompressionPackages();
 	}
 
 	/**
-	 * Is the data if the iterator exhausted?
+	 * Is the data of all regions exhausted?
 	 * @return
 	 */
 	protected boolean isDataExhausted() {
-		if(getNumberOfTablesToProcess() > 0) {
-			return false;
-		}
-		
-		if(activeOperatorIterator != null && activeOperatorIterator.hasNext()) {
-			return false;
-		}
-		
-		return true;
-	}
-
-	/**
-	 * Setup a new iterator with the next local table
-	 */
-	protected boolean setupNewIterator() {
-		if(activeOperatorIterator != null && ! activeOperatorIterator.hasNext()) {
-			logger.warn("setupNewIterator() called, but old iterator is not exhaustet. Ignoring call");
-			return false;
+		if(regionScheduler.isClosed()) {
+			return true;
 		}
 		
-		if(getNumberOfTablesToProcess() == 0) {
-			logger.warn("setupNewIterator() called, but localTables are empty");
+		if(activeBatch != null) {
 			return false;
 		}
 		
-		try {
-			final List<TupleStoreManager> storageManagers = new ArrayList<>();
-			
-			final TupleStoreManagerRegistry storageRegistry = clientConnectionHandler
-					.getStorageRegistry();
-			
-			for(final TupleStoreName tupleStoreName : requestTables) {
-				final TupleStoreName sstableName = localTables.get(tupleStoreName).remove(0);
-				
-				final TupleStoreManager storageManager 
-					= QueryHelper.getTupleStoreManager(storageRegistry, sstableName);
-
-				storageManagers.add(storageManager);
-			}
-			
-			activeOperator = operatorTreeBuilder.buildOperatorTree(storageManagers);
-			activeOperatorIterator = activeOperator.iterator();
-			return true;
-		} catch (StorageManagerException | ZookeeperException e) {
-			logger.warn("Got exception while fetching tuples", e);
-		}
-		
-		return false;
+		return regionScheduler.isDone();
 	}
 	
 	/* (non-Javadoc)
@@ -278,7 +439,7 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	 */
 	@Override
 	public boolean isQueryDone() {
-		return (activeOperatorIterator == null && getNumberOfTablesToProcess() == 0);
+		return isDataExhausted();
 	}
 
 	/* (non-Javadoc)
@@ -287,7 +448,7 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	@Override
 	public void close() {
 		logger.debug("Closing query {} (send {} result tuples)", querySequence, totalSendTuples);
-		closeIteratorNE();
+		regionScheduler.close();
 	}
 
 	/* (non-Javadoc)
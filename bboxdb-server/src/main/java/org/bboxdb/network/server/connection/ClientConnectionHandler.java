@@ -23,10 +23,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 
@@ -43,18 +49,23 @@ import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.response.CompressionEnvelopeResponse;
 import org.bboxdb.network.packages.response.ErrorResponse;
 import org.bboxdb.network.packages.response.JoinedTupleResponse;
+import org.bboxdb.network.packages.response.MultipleTupleEndResponse;
+import org.bboxdb.network.packages.response.MultipleTupleStartResponse;
+import org.bboxdb.network.packages.response.TuplePageResponse;
 import org.bboxdb.network.packages.response.TupleResponse;
 import org.bboxdb.network.routing.PackageRouter;
 import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.network.routing.RoutingHeaderParser;
 import org.bboxdb.network.server.ClientQuery;
 import org.bboxdb.network.server.ErrorMessages;
+import org.bboxdb.network.server.connection.handler.query.HandleAggregationQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleBoundingBoxQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleBoundingBoxTimeQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleContinuousBoundingBoxQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleInsertTimeQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleJoinQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleKeyQuery;
+import org.bboxdb.network.server.connection.handler.query.HandleNearestQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleVersionTimeQuery;
 import org.bboxdb.network.server.connection.handler.query.QueryHandler;
 import org.bboxdb.network.server.connection.handler.request.CancelRequestHandler;
@@ -108,12 +119,37 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 */
 	private PeerCapabilities connectionCapabilities = new PeerCapabilities();
 	
+	/**
+	 * The capabilities supported by this server
+	 */
+	private final static PeerCapabilities SERVER_CAPABILITIES = new PeerCapabilities();
+	
+	static {
+		SERVER_CAPABILITIES.setGZipCompression();
+		SERVER_CAPABILITIES.setLZ4Compression();
+		SERVER_CAPABILITIES.setZstdCompression();
+		SERVER_CAPABILITIES.setTuplePageEncoding();
+		SERVER_CAPABILITIES.freeze();
+	}
+	
 	/**
 	 * The open query iterators, i.e., the queries that are not finished and waiting
 	 * to send the next page
 	 */
 	private final Map<Short, ClientQuery> activeQueries;
 	
+	/**
+	 * The page credits (package sequences of the next page requests) per 
+	 * query. A query with an entry in this map has a running page worker
+	 */
+	private final Map<Short, Queue<Short>> pendingPageCredits;
+	
+	/**
+	 * The recently finished queries. Page credits that are received after the 
+	 * query is finished are answered with an empty and complete result
+	 */
+	private final Set<Short> finishedQueries;
+	
 	/**
 	 * The thread pool
 	 */
@@ -139,6 +175,11 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 */
 	private final static int MAX_RUNNING_QUERIES = 25;
 	
+	/**
+	 * Number of finished queries that are remembered for surplus page credits
+	 */
+	private final static int MAX_FINISHED_QUERIES = 1024;
+	
 	/**
 	 * The request handlers
 	 */
@@ -221,7 +262,19 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		}
 		
 		// The active queries
-		this.activeQueries = new HashMap<>();
+		this.activeQueries = new ConcurrentHashMap<>();
+		
+		// The page credits and the finished queries
+		this.pendingPageCredits = new HashMap<>();
+		this.finishedQueries = Collections.newSetFromMap(new LinkedHashMap<Short, Boolean>() {
+			
+			private static final long serialVersionUID = -3925720472417405386L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Short, Boolean> eldest) {
+				return size() > MAX_FINISHED_QUERIES;
+			}
+		});
 		
 		// Create a thread pool that blocks after submitting more than MAX_PENDING_REQUESTS
 		this.threadPool = ExecutorUtil.getBoundThreadPoolExecutor(25, MAX_PENDING_REQUESTS);
@@ -286,8 +339,10 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 				logger.debug("Chunk size is: {}", packagesToWrite.size());
 			}
 			
+			final byte compressionType = connectionCapabilities.getPreferredCompressionType();
+			
 			final NetworkResponsePackage compressionEnvelopeRequest 
-				= new CompressionEnvelopeResponse(NetworkConst.COMPRESSION_TYPE_GZIP, packagesToWrite);
+				= new CompressionEnvelopeResponse(compressionType, packagesToWrite);
 			
 			try {
 				writePackageToSocket(compressionEnvelopeRequest);
@@ -306,7 +361,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	public synchronized void writeResultPackage(final NetworkResponsePackage responsePackage) 
 			throws IOException, PackageEncodeException {
 		
-		if(connectionCapabilities.hasGZipCompression()) {
+		if(connectionCapabilities.hasCompression()) {
 			boolean uncompressedQueueFull = false;
 			
 			synchronized (pendingCompressionPackages) {
@@ -476,6 +531,36 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		
 	}
 
+	/**
+	 * Send multiple result tuples to the client. When the client supports the 
+	 * compact page encoding, the tuples are send in one tuple page package.
+	 * 
+	 * When compression is active, the page package is queued and encoded later
+	 * by the maintenance thread. Therefore, the tuples are copied and the caller
+	 * is free to reuse the list.
+	 * 
+	 * @param packageSequence
+	 * @param joinedTuples
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	public void writeResultTuples(final short packageSequence, final List<JoinedTuple> joinedTuples) 
+			throws IOException, PackageEncodeException {
+		
+		if(joinedTuples.isEmpty()) {
+			return;
+		}
+		
+		if(connectionCapabilities.hasTuplePageEncoding()) {
+			writeResultPackage(new TuplePageResponse(packageSequence, new ArrayList<>(joinedTuples)));
+			return;
+		}
+		
+		for(final JoinedTuple joinedTuple : joinedTuples) {
+			writeResultTuple(packageSequence, joinedTuple);
+		}
+	}
+
 	/**
 	 * Handle query package
 	 * @param bb
@@ -585,6 +670,8 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_BBOX_AND_TIME, new HandleBoundingBoxTimeQuery());
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_CONTINUOUS_BBOX, new HandleContinuousBoundingBoxQuery());
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_JOIN, new HandleJoinQuery());
+		queryHandlerList.put(NetworkConst.REQUEST_QUERY_NEAREST, new HandleNearestQuery());
+		queryHandlerList.put(NetworkConst.REQUEST_QUERY_AGGREGATION, new HandleAggregationQuery());
 	}
 
 	/**
@@ -596,51 +683,141 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 */
 	public void sendNextResultsForQuery(final short packageSequence, final short querySequence) 
 			throws IOException, PackageEncodeException {
+		
+		synchronized (pendingPageCredits) {
+			if(! getActiveQueries().containsKey(querySequence)) {
+				
+				if(finishedQueries.contains(querySequence)) {
+					logger.debug("Got surplus page credit {} for finished query {}", 
+							packageSequence, querySequence);
+					sendEmptyFinalPage(packageSequence);
+					return;
+				}
+				
+				logger.error("Unable to resume query {} - package {} - not found", querySequence, packageSequence);
+				writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_QUERY_NOT_FOUND));
+				return;
+			}
 			
-		if(! getActiveQueries().containsKey(querySequence)) {
-			logger.error("Unable to resume query {} - package {} - not found", querySequence, packageSequence);
-			writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_QUERY_NOT_FOUND));
-			return;
+			// A page worker is already running for this query, the worker 
+			// will process the credit after the already requested pages are send
+			final Queue<Short> pendingCredits = pendingPageCredits.get(querySequence);
+			
+			if(pendingCredits != null) {
+				pendingCredits.add(packageSequence);
+				return;
+			}
+			
+			if(threadPool.isShutdown()) {
+				logger.warn("Thread pool is shutting down, don't execute query: {}", querySequence);
+				writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));
+				return;
+			}
+			
+			final Queue<Short> newCredits = new ArrayDeque<>();
+			newCredits.add(packageSequence);
+			pendingPageCredits.put(querySequence, newCredits);
 		}
+
+		// Submit the page worker to our pool
+		getThreadPool().submit(new PageWorker(querySequence));
+	}
+	
+	/**
+	 * Send a empty and complete result for the given package sequence
+	 * 
+	 * @param packageSequence
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void sendEmptyFinalPage(final short packageSequence) 
+			throws IOException, PackageEncodeException {
 		
-		final Runnable queryRunable = new ExceptionSafeRunnable() {
+		writeResultPackage(new MultipleTupleStartResponse(packageSequence));
+		writeResultPackage(new MultipleTupleEndResponse(packageSequence));
+	}
+	
+	/**
+	 * The page worker sends one page for each credit of the query. As long as 
+	 * the client has outstanding credits, the pages are send without waiting for
+	 * a further round trip. The credits of one query are processed in order by
+	 * one worker.
+	 */
+	private class PageWorker extends ExceptionSafeRunnable {
+		
+		/**
+		 * The query sequence
+		 */
+		private final short querySequence;
+		
+		/**
+		 * The package sequence of the currently processed credit
+		 */
+		private short packageSequence;
 
-			@Override
-			protected void runThread() throws IOException, PackageEncodeException {
+		public PageWorker(final short querySequence) {
+			this.querySequence = querySequence;
+		}
+
+		@Override
+		protected void runThread() throws IOException, PackageEncodeException {
+			
+			while(true) {
+				synchronized (pendingPageCredits) {
+					final Short nextCredit = pendingPageCredits.get(querySequence).poll();
+					
+					if(nextCredit == null) {
+						pendingPageCredits.remove(querySequence);
+						return;
+					}
+					
+					packageSequence = nextCredit;
+				}
+				
 				final ClientQuery clientQuery = getActiveQueries().get(querySequence);
 				
+				// Query was finished or canceled
 				if(clientQuery == null) {
-					logger.error("Unable to resume query {}, not found", querySequence);
-					return;
+					sendEmptyFinalPage(packageSequence);
+					continue;
 				}
 				
 				clientQuery.fetchAndSendNextTuples(packageSequence);
 				
 				if(clientQuery.isQueryDone()) {
-					logger.info("Query {} is done with {} tuples, removing iterator ", 
+					logger.info("Query {} is done with {} tuples, removing iterator ", 
 							querySequence,
 							clientQuery.getTotalSendTuples());
 					clientQuery.close();
-					getActiveQueries().remove(querySequence);
+					
+					synchronized (pendingPageCredits) {
+						getActiveQueries().remove(querySequence);
+						finishedQueries.add(querySequence);
+					}
 				}
 			}
+		}
+		
+		@Override
+		protected void afterExceptionHook() {
+			final List<Short> failedCredits = new ArrayList<>();
+			failedCredits.add(packageSequence);
 			
-			@Override
-			protected void afterExceptionHook() {
+			synchronized (pendingPageCredits) {
+				final Queue<Short> pendingCredits = pendingPageCredits.remove(querySequence);
+				
+				if(pendingCredits != null) {
+					failedCredits.addAll(pendingCredits);
+				}
+			}
+			
+			for(final short failedCredit : failedCredits) {
 				try {
-					writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));
+					writeResultPackage(new ErrorResponse(failedCredit, ErrorMessages.ERROR_EXCEPTION));
 				} catch (IOException | PackageEncodeException e) {
 					logger.error("Unable to send result package", e);
 				}
 			}
-		};
-
-		// Submit the runnable to our pool
-		if(threadPool.isShutdown()) {
-			logger.warn("Thread pool is shutting down, don't execute query: {}", querySequence);
-			writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));
-		} else {
-			getThreadPool().submit(queryRunable);
 		}
 	}
 	
@@ -652,6 +829,14 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		return connectionCapabilities;
 	}
 
+	/**
+	 * Get the capabilities supported by this server
+	 * @return
+	 */
+	public PeerCapabilities getServerCapabilities() {
+		return SERVER_CAPABILITIES;
+	}
+
 	/**
 	 * Set the connection Capabilities
 	 * @return
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.server.connection.handler.query;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.QueryAggregationRequest;
+import org.bboxdb.network.packages.response.ErrorResponse;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.server.ErrorMessages;
+import org.bboxdb.network.server.QueryHelper;
+import org.bboxdb.network.server.StreamClientQuery;
+import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.OperatorTreeBuilder;
+import org.bboxdb.storage.queryprocessor.aggregation.AggregationType;
+import org.bboxdb.storage.queryprocessor.aggregation.Aggregator;
+import org.bboxdb.storage.queryprocessor.operator.AggregationOperator;
+import org.bboxdb.storage.queryprocessor.operator.FullTablescanOperator;
+import org.bboxdb.storage.queryprocessor.operator.Operator;
+import org.bboxdb.storage.queryprocessor.operator.SpatialIndexReadOperator;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HandleAggregationQuery implements QueryHandler {
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(HandleAggregationQuery.class);
+	
+
+	@Override
+	/**
+	 * Handle a aggregation query
+	 */
+	public void handleQuery(final ByteBuffer encodedPackage, 
+			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+					throws IOException, PackageEncodeException {
+		
+		try {
+			if(clientConnectionHandler.getActiveQueries().containsKey(packageSequence)) {
+				logger.error("Query sequence {} is already known, please close old query first", packageSequence);
+				return;
+			}
+			
+			final QueryAggregationRequest queryRequest = QueryAggregationRequest.decodeTuple(encodedPackage);
+			final TupleStoreName requestTable = queryRequest.getTable();
+			final Hyperrectangle boundingBox = queryRequest.getBoundingBox();
+			
+			if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
+				return;
+			}
+			
+			if(queryRequest.getAggregationType() == AggregationType.GRID_COUNT 
+					&& Aggregator.getAmountOfGridCells(boundingBox, queryRequest.getParameter()) 
+						> Aggregator.MAX_GRID_CELLS) {
+				
+				logger.warn("Rejecting grid count for {} with cell size {}", boundingBox, 
+						queryRequest.getParameter());
+				
+				clientConnectionHandler.writeResultPackage(new ErrorResponse(packageSequence, 
+						ErrorMessages.ERROR_AGGREGATION_GRID_TOO_LARGE));
+				return;
+			}
+			
+			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
+				
+				@Override
+				public Operator buildOperatorTree(final List<TupleStoreManager> storageManager) {
+					
+					if(storageManager.size() != 1) {
+						throw new IllegalArgumentException("This operator tree needs 1 storage manager");
+					}
+					
+					if(boundingBox == Hyperrectangle.FULL_SPACE) {
+						return new FullTablescanOperator(storageManager.get(0));
+					}
+					
+					return new SpatialIndexReadOperator(storageManager.get(0), boundingBox);
+				}
+			};
+			
+			// The tuples are aggregated after the duplicates of the regions are removed
+			final StreamClientQuery clientQuery = new StreamClientQuery(operatorTreeBuilder, 
+					(operator) -> new AggregationOperator(operator, 
+							new Aggregator(queryRequest.getAggregationType(), boundingBox, queryRequest.getParameter()), 
+							requestTable.getFullnameWithoutPrefix()), 
+					false, (short) 0, clientConnectionHandler, packageSequence, Arrays.asList(requestTable), 
+					boundingBox, getQueryRegions(queryRequest.getRoutingHeader()));
+			
+			clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
+			clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
+		} catch (PackageEncodeException e) {
+			logger.warn("Got exception while decoding package", e);
+			clientConnectionHandler.writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));	
+		}		
+	}
+
+	/**
+	 * Get the regions of the routing header. Each partial aggregate has to be 
+	 * counted exactly once, so only the regions that are assigned to this 
+	 * system are aggregated.
+	 * 
+	 * @param routingHeader
+	 * @return
+	 */
+	private List<Long> getQueryRegions(final RoutingHeader routingHeader) {
+		
+		if(! routingHeader.isRoutedPackage() || routingHeader.getRoutingList().isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		return routingHeader.getRoutingHop().getDistributionRegions();
+	}
+}
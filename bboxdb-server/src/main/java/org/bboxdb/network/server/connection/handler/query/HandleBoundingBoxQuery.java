@@ -32,8 +32,13 @@ import org.bboxdb.network.server.StreamClientQuery;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.queryprocessor.OperatorTreeBuilder;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilter;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterDefinition;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterFactory;
+import org.bboxdb.storage.queryprocessor.operator.GeometryRefinementOperator;
 import org.bboxdb.storage.queryprocessor.operator.Operator;
 import org.bboxdb.storage.queryprocessor.operator.SpatialIndexReadOperator;
+import org.bboxdb.storage.queryprocessor.operator.UserDefinedFilterOperator;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +72,9 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 				return;
 			}
 			
+			final UserDefinedFilterDefinition filterDefinition = queryRequest.getUserDefinedFilter();
+			final UserDefinedFilter userDefinedFilter = getUserDefinedFilter(filterDefinition);
+			
 			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
 				
 				@Override
@@ -77,20 +85,49 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 					}
 					
 					final Hyperrectangle boundingBox = queryRequest.getBoundingBox();
-					final SpatialIndexReadOperator operator = new SpatialIndexReadOperator(storageManager.get(0), boundingBox);
+					Operator operator = new SpatialIndexReadOperator(storageManager.get(0), boundingBox);
+					
+					// Filter the tuples before they are paged and send to the client
+					if(userDefinedFilter != null) {
+						operator = new UserDefinedFilterOperator(userDefinedFilter, 
+								filterDefinition.getUserDefinedFilterValue(), operator);
+					}
+					
+					// Remove the false positives of the bounding box based index
+					if(queryRequest.isGeometryRefinement()) {
+						operator = new GeometryRefinementOperator(operator, boundingBox);
+					}
 					
 					return operator;
 				}
 			};
 						
 			final StreamClientQuery clientQuery = new StreamClientQuery(operatorTreeBuilder, queryRequest.isPagingEnabled(), 
-					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, Arrays.asList(requestTable));
+					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, Arrays.asList(requestTable), 
+					queryRequest.getBoundingBox());
 			
 			clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
 			clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
 		} catch (PackageEncodeException e) {
 			logger.warn("Got exception while decoding package", e);
 			clientConnectionHandler.writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));	
-		}		
+		} catch (IllegalArgumentException e) {
+			logger.warn("Unable to create the user defined filter", e);
+			clientConnectionHandler.writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));	
+		}
+	}
+
+	/**
+	 * Get the user defined filter of the query
+	 * @param filterDefinition
+	 * @return the filter or null, if no filter is defined
+	 */
+	private UserDefinedFilter getUserDefinedFilter(final UserDefinedFilterDefinition filterDefinition) {
+		
+		if(! filterDefinition.isFilterDefined()) {
+			return null;
+		}
+		
+		return UserDefinedFilterFactory.getInstance(filterDefinition.getUserDefinedFilterClass());
 	}
 }
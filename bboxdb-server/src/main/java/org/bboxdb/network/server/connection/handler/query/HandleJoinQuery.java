@@ -31,9 +31,9 @@ import org.bboxdb.network.server.StreamClientQuery;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.queryprocessor.OperatorTreeBuilder;
-import org.bboxdb.storage.queryprocessor.operator.IndexedSpatialJoinOperator;
+import org.bboxdb.storage.queryprocessor.SpatialJoinPlanner;
+import org.bboxdb.storage.queryprocessor.operator.GeometryRefinementOperator;
 import org.bboxdb.storage.queryprocessor.operator.Operator;
-import org.bboxdb.storage.queryprocessor.operator.SpatialIndexReadOperator;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,13 +79,11 @@ public class HandleJoinQuery implements QueryHandler {
 						throw new IllegalArgumentException("This operator tree needs more than one storage manager");
 					}
 					
-					Operator operator1 = new SpatialIndexReadOperator(storageManager.get(0), boundingBox);
-					SpatialIndexReadOperator indexReader = new SpatialIndexReadOperator(storageManager.get(1));
-					operator1 = new IndexedSpatialJoinOperator(operator1, indexReader);
+					Operator operator1 = SpatialJoinPlanner.buildJoinOperatorTree(storageManager, boundingBox);
 					
-					for(int i = 3; i < storageManager.size(); i++) {
-						indexReader = new SpatialIndexReadOperator(storageManager.get(i));
-						operator1 = new IndexedSpatialJoinOperator(operator1, indexReader);
+					// Remove the false positives of the bounding box based join
+					if(queryRequest.isGeometryRefinement()) {
+						operator1 = new GeometryRefinementOperator(operator1, boundingBox);
 					}
 					
 					return operator1;
@@ -93,7 +91,8 @@ public class HandleJoinQuery implements QueryHandler {
 			};
 					
 			final StreamClientQuery clientQuery = new StreamClientQuery(operatorTreeBuilder, queryRequest.isPagingEnabled(), 
-					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, requestTables);
+					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, requestTables, 
+					boundingBox);
 			
 			clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
 			clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
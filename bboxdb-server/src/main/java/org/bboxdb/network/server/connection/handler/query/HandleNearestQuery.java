@@ -0,0 +1,103 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.server.connection.handler.query;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.QueryNearestRequest;
+import org.bboxdb.network.packages.response.ErrorResponse;
+import org.bboxdb.network.server.ErrorMessages;
+import org.bboxdb.network.server.QueryHelper;
+import org.bboxdb.network.server.StreamClientQuery;
+import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.OperatorTreeBuilder;
+import org.bboxdb.storage.queryprocessor.operator.NearestNeighborOperator;
+import org.bboxdb.storage.queryprocessor.operator.Operator;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HandleNearestQuery implements QueryHandler {
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(HandleNearestQuery.class);
+	
+
+	@Override
+	/**
+	 * Handle a nearest neighbor query
+	 */
+	public void handleQuery(final ByteBuffer encodedPackage, 
+			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+					throws IOException, PackageEncodeException {
+		
+		try {
+			if(clientConnectionHandler.getActiveQueries().containsKey(packageSequence)) {
+				logger.error("Query sequence {} is already known, please close old query first", packageSequence);
+				return;
+			}
+			
+			final QueryNearestRequest queryRequest = QueryNearestRequest.decodeTuple(encodedPackage);
+			final TupleStoreName requestTable = queryRequest.getTable();
+			
+			if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
+				return;
+			}
+			
+			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
+				
+				@Override
+				public Operator buildOperatorTree(final List<TupleStoreManager> storageManager) {
+					
+					if(storageManager.size() != 1) {
+						throw new IllegalArgumentException("This operator tree needs 1 storage manager");
+					}
+					
+					return new NearestNeighborOperator(storageManager.get(0), 
+							queryRequest.getBoundingBox(), queryRequest.getMaxTuples());
+				}
+			};
+			
+			// The nearest tuples can be stored in any local region, so all regions are 
+			// read. The result is not paged, the client merges the top-k of all regions.
+			// Every region returns its complete top-k, also the tuples that are stored in 
+			// multiple regions. The reference point filter would drop these tuples from 
+			// all but one region, which can be pruned by the client. The client removes 
+			// the duplicates by key.
+			final StreamClientQuery clientQuery = new StreamClientQuery(operatorTreeBuilder, 
+					UnaryOperator.identity(), false, (short) 0, clientConnectionHandler, packageSequence, 
+					Arrays.asList(requestTable), Hyperrectangle.FULL_SPACE, new ArrayList<>(), false);
+			
+			clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
+			clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
+		} catch (PackageEncodeException e) {
+			logger.warn("Got exception while decoding package", e);
+			clientConnectionHandler.writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));	
+		}		
+	}
+}
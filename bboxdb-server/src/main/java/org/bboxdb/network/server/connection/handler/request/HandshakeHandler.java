@@ -20,7 +20,9 @@ package org.bboxdb.network.server.connection.handler.request;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.capabilities.PeerCapabilities;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.HelloRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -48,10 +50,24 @@ public class HandshakeHandler implements RequestHandler {
 		
 		try {	
 			final HelloRequest heloRequest = HelloRequest.decodeRequest(encodedPackage);
-			clientConnectionHandler.setConnectionCapabilities(heloRequest.getPeerCapabilities());
+			
+			// Only use the capabilities that are supported by both peers
+			final PeerCapabilities connectionCapabilities = heloRequest.getPeerCapabilities()
+					.intersect(clientConnectionHandler.getServerCapabilities());
+			
+			clientConnectionHandler.setConnectionCapabilities(connectionCapabilities);
 
+			// Accept the requested in flight calls up to the configured limit
+			final int maxInFlightCalls = Math.min(heloRequest.getMaxInFlightCalls(), 
+					BBoxDBConfigurationManager.getConfiguration().getNetworkMaxInFlightCalls());
+			
+			// Answer old clients with their own protocol version
+			final int protocolVersion = Math.min(heloRequest.getProtocolVersion(), 
+					NetworkConst.PROTOCOL_VERSION);
+			
 			final HelloResponse responsePackage = new HelloResponse(packageSequence, 
-					NetworkConst.PROTOCOL_VERSION, clientConnectionHandler.getConnectionCapabilities());
+					protocolVersion, clientConnectionHandler.getConnectionCapabilities(), 
+					maxInFlightCalls);
 			
 			clientConnectionHandler.writeResultPackage(responsePackage);
 
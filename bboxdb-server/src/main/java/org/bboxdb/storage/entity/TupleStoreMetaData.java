@@ -62,6 +62,11 @@ public class TupleStoreMetaData {
 	 */
 	protected int dimensions;
 	
+	/**
+	 * The bounding box samples of the tuples (one box after another)
+	 */
+	protected double[] sampleData = {};
+	
 	/**
 	 * The logger
 	 */
@@ -77,12 +82,20 @@ public class TupleStoreMetaData {
 	public TupleStoreMetaData(final long tuples, final long oldestTuple, final long newestTuple, 
 			final long newestTupleInsertedTimstamp, final double[] boundingBoxData) {
 		
+		this(tuples, oldestTuple, newestTuple, newestTupleInsertedTimstamp, boundingBoxData, new double[] {});
+	}
+	
+	public TupleStoreMetaData(final long tuples, final long oldestTuple, final long newestTuple, 
+			final long newestTupleInsertedTimstamp, final double[] boundingBoxData, 
+			final double[] sampleData) {
+		
 		this.tuples = tuples;
 		this.oldestTupleVersionTimestamp = oldestTuple;
 		this.newestTupleVersionTimestamp = newestTuple;
 		this.newestTupleInsertedTimstamp = newestTupleInsertedTimstamp;
 		this.boundingBoxData = boundingBoxData;
 		this.dimensions = boundingBoxData.length / 2;
+		this.sampleData = sampleData;
 	}
 	
 	/**
@@ -124,6 +137,7 @@ public class TupleStoreMetaData {
 	    data.put("newestTupleInsertedTimstamp", newestTupleInsertedTimstamp);
 		data.put("dimensions", dimensions);
 	    data.put("boundingBoxData", boundingBoxData);
+	    data.put("sampleData", sampleData);
 		return data;
 	}
 	
@@ -199,6 +213,14 @@ public class TupleStoreMetaData {
 		this.dimensions = dimensions;
 	}
 
+	public double[] getSampleData() {
+		return sampleData;
+	}
+
+	public void setSampleData(final double[] sampleData) {
+		this.sampleData = sampleData;
+	}
+
 	public long getTuples() {
 		return tuples;
 	}
@@ -216,6 +238,7 @@ public class TupleStoreMetaData {
 		result = prime * result + (int) (newestTupleInsertedTimstamp ^ (newestTupleInsertedTimstamp >>> 32));
 		result = prime * result + (int) (newestTupleVersionTimestamp ^ (newestTupleVersionTimestamp >>> 32));
 		result = prime * result + (int) (oldestTupleVersionTimestamp ^ (oldestTupleVersionTimestamp >>> 32));
+		result = prime * result + Arrays.hashCode(sampleData);
 		result = prime * result + (int) (tuples ^ (tuples >>> 32));
 		return result;
 	}
@@ -239,6 +262,8 @@ public class TupleStoreMetaData {
 			return false;
 		if (oldestTupleVersionTimestamp != other.oldestTupleVersionTimestamp)
 			return false;
+		if (!Arrays.equals(sampleData, other.sampleData))
+			return false;
 		if (tuples != other.tuples)
 			return false;
 		return true;
@@ -249,7 +274,7 @@ public class TupleStoreMetaData {
 		return "SStableMetaData [tuples=" + tuples + ", oldestTupleVersionTimestamp=" + oldestTupleVersionTimestamp
 				+ ", newestTupleVersionTimestamp=" + newestTupleVersionTimestamp + ", newestTupleInsertedTimstamp="
 				+ newestTupleInsertedTimstamp + ", boundingBoxData=" + Arrays.toString(boundingBoxData)
-				+ ", dimensions=" + dimensions + "]";
+				+ ", dimensions=" + dimensions + ", samples=" + sampleData.length + "]";
 	}
 
 }
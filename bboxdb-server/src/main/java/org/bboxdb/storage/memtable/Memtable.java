@@ -19,12 +19,11 @@ package org.bboxdb.storage.memtable;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -34,7 +33,6 @@ import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.sstable.spatialindex.SpatialIndexBuilder;
-import org.bboxdb.storage.sstable.spatialindex.SpatialIndexBuilderFactory;
 import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
 import org.bboxdb.storage.tuplestore.ReadWriteTupleStore;
 import org.bboxdb.storage.util.TupleHelper;
@@ -55,14 +53,15 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	private final Tuple[] data;
 	
 	/**
-	 * The spatial index
+	 * The spatial index (supports reads during inserts)
 	 */
-	private final SpatialIndexBuilder spatialIndexBuilder;
+	private final MemtableSpatialIndex spatialIndexBuilder;
 	
 	/**
-	 * The next free position in the data array
+	 * The next free position in the data array (written after the tuple 
+	 * is stored, so readers see only complete entries)
 	 */
-	private int freePos;
+	private volatile int freePos;
 	
 	/**
 	 * Maximal number of entries keep in memory
@@ -114,6 +113,11 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 	 */
 	private final Map<String, Set<Integer>> keyPositions;
 	
+	/**
+	 * The statistics of the bounding boxes
+	 */
+	private final MemtableStatistics statistics;
+	
 	/**
 	 * The Logger
 	 */
@@ -131,7 +135,7 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		this.freePos = -1;
 		this.sizeInMemory = 0;
 		
-		this.spatialIndexBuilder = SpatialIndexBuilderFactory.getInstance();
+		this.spatialIndexBuilder = new MemtableSpatialIndex();
 		
 		this.createdTimestamp = System.currentTimeMillis();
 		this.oldestTupleTimestamp = -1;
@@ -139,7 +143,8 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		
 		this.usage = new AtomicInteger(0);
 		this.pendingDelete = false;
-		this.keyPositions = new HashMap<>();
+		this.keyPositions = new ConcurrentHashMap<>();
+		this.statistics = new MemtableStatistics();
 	}
 
 	@Override
@@ -175,7 +180,8 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		final SpatialIndexEntry indexEntry = new SpatialIndexEntry(tuple.getBoundingBox(), freePos);
 		spatialIndexBuilder.insert(indexEntry);
 		
-		keyPositions.computeIfAbsent(tuple.getKey(), (e) -> new HashSet<>()).add(freePos);
+		keyPositions.computeIfAbsent(tuple.getKey(), (e) -> ConcurrentHashMap.newKeySet()).add(freePos);
+		statistics.addBoundingBox(tuple.getBoundingBox());
 		
 		freePos++;
 		sizeInMemory = sizeInMemory + tuple.getSize();
@@ -260,7 +266,8 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		}
 		
 		this.freePos = 0;
-		this.sizeInMemory = 0;		
+		this.sizeInMemory = 0;
+		this.statistics.clear();
 	}
 	
 	/**
@@ -446,6 +453,14 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		return table;
 	}
 	
+	/**
+	 * Get the statistics of the bounding boxes
+	 * @return
+	 */
+	public MemtableStatistics getStatistics() {
+		return statistics;
+	}
+	
 	@Override
 	public long getNumberOfTuples() {
 		return freePos;
@@ -491,6 +506,28 @@ public class Memtable implements BBoxDBService, ReadWriteTupleStore {
 		};
 	}
 
+	@Override
+	public Iterator<Tuple> getAllTuplesByDistance(final Hyperrectangle queryBox) {
+		assert (usage.get() > 0);
+
+		final Iterator<SpatialIndexEntry> entryIterator = spatialIndexBuilder.getEntriesByDistance(queryBox);
+		
+		return new Iterator<Tuple>() {
+
+			@Override
+			public boolean hasNext() {
+				return entryIterator.hasNext();
+			}
+
+			@Override
+			public Tuple next() {
+				final SpatialIndexEntry entry = entryIterator.next();
+				final int pos = (int) entry.getValue();
+				return data[pos];
+			}
+		};
+	}
+
 	@Override
 	public boolean isPersistent() {
 		return false;
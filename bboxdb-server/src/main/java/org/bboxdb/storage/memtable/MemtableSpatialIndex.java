@@ -0,0 +1,405 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.memtable;
+
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexBuilder;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexBuilderFactory;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+
+/**
+ * A spatial index for the memtable that can be read while new entries are inserted. 
+ * 
+ * New entries are appended to an active chunk, which is scanned linearly by the 
+ * queries. A full chunk is sealed: a spatial index is built for the chunk and is never
+ * modified again. Sealed indices of the same size are merged (up to a maximal size), 
+ * so the amount of indices grows only slowly. 
+ * 
+ * All modifications publish a new immutable snapshot (copy on write), the readers 
+ * work on the snapshot without any lock. Only one writer is active at the same time.
+ */
+public class MemtableSpatialIndex implements SpatialIndexBuilder {
+	
+	/**
+	 * A sealed (immutable) index
+	 */
+	private static class SealedIndex {
+		
+		/**
+		 * The spatial index
+		 */
+		private final SpatialIndexBuilder index;
+		
+		/**
+		 * The entries of the index
+		 */
+		private final List<SpatialIndexEntry> entries;
+		
+		/**
+		 * The covering box of the entries
+		 */
+		private final Hyperrectangle coveringBox;
+		
+		public SealedIndex(final List<SpatialIndexEntry> entries) {
+			this.entries = entries;
+			this.index = SpatialIndexBuilderFactory.getInstance();
+			this.index.bulkInsert(entries);
+			
+			final List<Hyperrectangle> boxes = entries.stream()
+					.map(e -> e.getBoundingBox())
+					.collect(Collectors.toList());
+			
+			this.coveringBox = Hyperrectangle.getCoveringBox(boxes);
+		}
+	}
+	
+	/**
+	 * The chunk that receives the new entries
+	 */
+	private static class ActiveChunk {
+		
+		/**
+		 * The entries
+		 */
+		private final SpatialIndexEntry[] entries;
+		
+		/**
+		 * The amount of published entries
+		 */
+		private volatile int size;
+		
+		public ActiveChunk(final int chunkSize) {
+			this.entries = new SpatialIndexEntry[chunkSize];
+			this.size = 0;
+		}
+	}
+	
+	/**
+	 * A snapshot of the index
+	 */
+	private static class IndexSnapshot {
+		
+		/**
+		 * The sealed indices
+		 */
+		private final List<SealedIndex> sealedIndices;
+		
+		/**
+		 * The active chunk
+		 */
+		private final ActiveChunk activeChunk;
+		
+		public IndexSnapshot(final List<SealedIndex> sealedIndices, final ActiveChunk activeChunk) {
+			this.sealedIndices = sealedIndices;
+			this.activeChunk = activeChunk;
+		}
+	}
+	
+	/**
+	 * The current snapshot
+	 */
+	private volatile IndexSnapshot snapshot;
+	
+	/**
+	 * The amount of entries per chunk
+	 */
+	private final int chunkSize;
+	
+	/**
+	 * The max amount of entries of a merged index
+	 */
+	private final int maxMergedEntries;
+	
+	/**
+	 * The default chunk size
+	 */
+	public final static int DEFAULT_CHUNK_SIZE = 1024;
+	
+	/**
+	 * The default max amount of entries of a merged index
+	 */
+	public final static int DEFAULT_MAX_MERGED_ENTRIES = 16 * DEFAULT_CHUNK_SIZE;
+	
+	public MemtableSpatialIndex() {
+		this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_MERGED_ENTRIES);
+	}
+	
+	public MemtableSpatialIndex(final int chunkSize, final int maxMergedEntries) {
+		
+		if(chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size has to be > 0: " + chunkSize);
+		}
+		
+		this.chunkSize = chunkSize;
+		this.maxMergedEntries = maxMergedEntries;
+		this.snapshot = new IndexSnapshot(Collections.emptyList(), new ActiveChunk(chunkSize));
+	}
+
+	@Override
+	public boolean bulkInsert(final List<SpatialIndexEntry> elements) {
+		boolean result = true;
+
+		for(final SpatialIndexEntry entry : elements) {
+			final boolean insertResult = insert(entry);
+
+			if(! insertResult) {
+				result = false;
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public synchronized boolean insert(final SpatialIndexEntry entry) {
+		
+		if(entry.getBoundingBox() == null || entry.getBoundingBox() == Hyperrectangle.FULL_SPACE) {
+			return false;
+		}
+		
+		final IndexSnapshot currentSnapshot = snapshot;
+		final ActiveChunk activeChunk = currentSnapshot.activeChunk;
+		final int position = activeChunk.size;
+		
+		activeChunk.entries[position] = entry;
+		
+		// Publish the entry
+		activeChunk.size = position + 1;
+		
+		if(position + 1 == chunkSize) {
+			sealActiveChunk(currentSnapshot);
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Build an index for the active chunk and publish a new snapshot
+	 * @param currentSnapshot
+	 */
+	private void sealActiveChunk(final IndexSnapshot currentSnapshot) {
+		final List<SealedIndex> sealedIndices = new ArrayList<>(currentSnapshot.sealedIndices);
+		final List<SpatialIndexEntry> chunkEntries = Arrays.asList(currentSnapshot.activeChunk.entries);
+		sealedIndices.add(new SealedIndex(chunkEntries));
+		
+		// Merge the indices with the same size
+		while(sealedIndices.size() >= 2) {
+			final SealedIndex lastIndex = sealedIndices.get(sealedIndices.size() - 1);
+			final SealedIndex previousIndex = sealedIndices.get(sealedIndices.size() - 2);
+			final int mergedSize = lastIndex.entries.size() + previousIndex.entries.size();
+			
+			if(lastIndex.entries.size() != previousIndex.entries.size() || mergedSize > maxMergedEntries) {
+				break;
+			}
+			
+			final List<SpatialIndexEntry> mergedEntries = new ArrayList<>(mergedSize);
+			mergedEntries.addAll(previousIndex.entries);
+			mergedEntries.addAll(lastIndex.entries);
+			
+			sealedIndices.remove(sealedIndices.size() - 1);
+			sealedIndices.remove(sealedIndices.size() - 1);
+			sealedIndices.add(new SealedIndex(mergedEntries));
+		}
+		
+		snapshot = new IndexSnapshot(Collections.unmodifiableList(sealedIndices), 
+				new ActiveChunk(chunkSize));
+	}
+	
+	@Override
+	public void writeToFile(final RandomAccessFile randomAccessFile) throws StorageManagerException {
+		final SpatialIndexBuilder index = SpatialIndexBuilderFactory.getInstance();
+		index.bulkInsert(getAllEntries(snapshot));
+		index.writeToFile(randomAccessFile);
+	}
+	
+	/**
+	 * Get all entries of the snapshot
+	 * @param indexSnapshot
+	 * @return
+	 */
+	private List<SpatialIndexEntry> getAllEntries(final IndexSnapshot indexSnapshot) {
+		final List<SpatialIndexEntry> entries = new ArrayList<>();
+		
+		for(final SealedIndex sealedIndex : indexSnapshot.sealedIndices) {
+			entries.addAll(sealedIndex.entries);
+		}
+		
+		final ActiveChunk activeChunk = indexSnapshot.activeChunk;
+		final int size = activeChunk.size;
+		
+		for(int i = 0; i < size; i++) {
+			entries.add(activeChunk.entries[i]);
+		}
+		
+		return entries;
+	}
+
+	@Override
+	public List<? extends SpatialIndexEntry> getEntriesForRegion(final Hyperrectangle boundingBox) {
+		final IndexSnapshot currentSnapshot = snapshot;
+		final List<SpatialIndexEntry> result = new ArrayList<>();
+		
+		for(final SealedIndex sealedIndex : currentSnapshot.sealedIndices) {
+			if(sealedIndex.coveringBox.intersects(boundingBox)) {
+				result.addAll(sealedIndex.index.getEntriesForRegion(boundingBox));
+			}
+		}
+		
+		final ActiveChunk activeChunk = currentSnapshot.activeChunk;
+		final int size = activeChunk.size;
+		
+		for(int i = 0; i < size; i++) {
+			final SpatialIndexEntry entry = activeChunk.entries[i];
+			
+			if(entry.getBoundingBox().intersects(boundingBox)) {
+				result.add(entry);
+			}
+		}
+		
+		return result;
+	}
+
+	@Override
+	public Iterator<SpatialIndexEntry> getEntriesByDistance(final Hyperrectangle queryBox) {
+		final IndexSnapshot currentSnapshot = snapshot;
+		final List<Iterator<SpatialIndexEntry>> iterators = new ArrayList<>();
+		
+		for(final SealedIndex sealedIndex : currentSnapshot.sealedIndices) {
+			iterators.add(sealedIndex.index.getEntriesByDistance(queryBox));
+		}
+		
+		final ActiveChunk activeChunk = currentSnapshot.activeChunk;
+		final int size = activeChunk.size;
+		final List<SpatialIndexEntry> activeEntries = new ArrayList<>(size);
+		
+		for(int i = 0; i < size; i++) {
+			activeEntries.add(activeChunk.entries[i]);
+		}
+		
+		activeEntries.sort(Comparator.comparingDouble(
+				(SpatialIndexEntry e) -> queryBox.getMinDistance(e.getBoundingBox())));
+		iterators.add(activeEntries.iterator());
+		
+		return new MergingNearestEntryIterator(queryBox, iterators);
+	}
+	
+	/**
+	 * Get the amount of sealed indices
+	 * @return
+	 */
+	public int getNumberOfSealedIndices() {
+		return snapshot.sealedIndices.size();
+	}
+	
+	/**
+	 * Merge the distance ordered iterators of the indices
+	 */
+	private static class MergingNearestEntryIterator implements Iterator<SpatialIndexEntry> {
+		
+		/**
+		 * The next entry of each iterator
+		 */
+		private final PriorityQueue<IteratorHead> queue;
+		
+		/**
+		 * The query box
+		 */
+		private final Hyperrectangle queryBox;
+		
+		/**
+		 * The next entry of an iterator
+		 */
+		private static class IteratorHead {
+			
+			/**
+			 * The distance of the entry
+			 */
+			private final double distance;
+			
+			/**
+			 * The entry
+			 */
+			private final SpatialIndexEntry entry;
+			
+			/**
+			 * The iterator
+			 */
+			private final Iterator<SpatialIndexEntry> iterator;
+			
+			public IteratorHead(final double distance, final SpatialIndexEntry entry, 
+					final Iterator<SpatialIndexEntry> iterator) {
+				
+				this.distance = distance;
+				this.entry = entry;
+				this.iterator = iterator;
+			}
+		}
+		
+		public MergingNearestEntryIterator(final Hyperrectangle queryBox, 
+				final List<Iterator<SpatialIndexEntry>> iterators) {
+			
+			this.queryBox = queryBox;
+			this.queue = new PriorityQueue<IteratorHead>(Math.max(1, iterators.size()), 
+					Comparator.comparingDouble((IteratorHead h) -> h.distance));
+			
+			iterators.forEach(i -> addNextEntry(i));
+		}
+		
+		/**
+		 * Add the next entry of the iterator to the queue
+		 * @param iterator
+		 */
+		private void addNextEntry(final Iterator<SpatialIndexEntry> iterator) {
+			if(! iterator.hasNext()) {
+				return;
+			}
+			
+			final SpatialIndexEntry entry = iterator.next();
+			final double distance = queryBox.getMinDistance(entry.getBoundingBox());
+			queue.add(new IteratorHead(distance, entry, iterator));
+		}
+
+		@Override
+		public boolean hasNext() {
+			return ! queue.isEmpty();
+		}
+
+		@Override
+		public SpatialIndexEntry next() {
+			
+			if(queue.isEmpty()) {
+				throw new IllegalArgumentException("No more entries, do you forget to call hasNext()?");
+			}
+			
+			final IteratorHead head = queue.poll();
+			addNextEntry(head.iterator);
+			return head.entry;
+		}
+	}
+}
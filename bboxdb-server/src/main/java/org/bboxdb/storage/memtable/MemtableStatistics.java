@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.memtable;
+
+import java.util.Arrays;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+
+/**
+ * The statistics of the bounding boxes of a memtable (covering box and 
+ * average extent). The statistics are updated on each insert, so they 
+ * can be read without scanning the memtable.
+ */
+public class MemtableStatistics {
+	
+	/**
+	 * The low points of the covering box
+	 */
+	private double[] low;
+	
+	/**
+	 * The high points of the covering box
+	 */
+	private double[] high;
+	
+	/**
+	 * The sum of the extents per dimension
+	 */
+	private double[] extentSum;
+	
+	/**
+	 * The amount of added bounding boxes
+	 */
+	private long boxes;
+	
+	public MemtableStatistics() {
+		clear();
+	}
+	
+	/**
+	 * Add the bounding box of a tuple
+	 * @param boundingBox
+	 */
+	public synchronized void addBoundingBox(final Hyperrectangle boundingBox) {
+		
+		if(boundingBox == null || boundingBox.getDimension() == 0) {
+			return;
+		}
+		
+		final int dimension = boundingBox.getDimension();
+		
+		if(low.length < dimension) {
+			final int oldDimension = low.length;
+			low = Arrays.copyOf(low, dimension);
+			high = Arrays.copyOf(high, dimension);
+			extentSum = Arrays.copyOf(extentSum, dimension);
+			
+			Arrays.fill(low, oldDimension, dimension, Double.MAX_VALUE);
+			Arrays.fill(high, oldDimension, dimension, -Double.MAX_VALUE);
+		}
+		
+		for(int d = 0; d < dimension; d++) {
+			low[d] = Math.min(low[d], boundingBox.getCoordinateLow(d));
+			high[d] = Math.max(high[d], boundingBox.getCoordinateHigh(d));
+			extentSum[d] += boundingBox.getExtent(d);
+		}
+		
+		boxes++;
+	}
+	
+	/**
+	 * Reset the statistics
+	 */
+	public synchronized void clear() {
+		low = new double[0];
+		high = new double[0];
+		extentSum = new double[0];
+		boxes = 0;
+	}
+	
+	/**
+	 * Get the covering box of all bounding boxes (FULL_SPACE if no box is added)
+	 * @return
+	 */
+	public synchronized Hyperrectangle getCoveringBox() {
+		
+		if(boxes == 0) {
+			return Hyperrectangle.FULL_SPACE;
+		}
+		
+		final double[] values = new double[2 * low.length];
+		
+		for(int d = 0; d < low.length; d++) {
+			values[2 * d] = low[d];
+			values[2 * d + 1] = high[d];
+		}
+		
+		return new Hyperrectangle(values);
+	}
+	
+	/**
+	 * Get the sum of the extents per dimension
+	 * @return
+	 */
+	public synchronized double[] getExtentSum() {
+		return Arrays.copyOf(extentSum, extentSum.length);
+	}
+	
+	/**
+	 * Get the amount of added bounding boxes
+	 * @return
+	 */
+	public synchronized long getBoxes() {
+		return boxes;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "MemtableStatistics [coveringBox=" + getCoveringBox() + ", boxes=" + boxes + "]";
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.queryprocessor.operator.IndexedSpatialJoinOperator;
+import org.bboxdb.storage.queryprocessor.operator.Operator;
+import org.bboxdb.storage.queryprocessor.operator.PlaneSweepSpatialJoinOperator;
+import org.bboxdb.storage.queryprocessor.operator.SpatialIndexReadOperator;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SpatialJoinOperatorSelector {
+	
+	/**
+	 * The costs of one index lookup compared to reading one tuple. Each lookup 
+	 * acquires all tuple stores and traverses all spatial indices from the root.
+	 */
+	private final static long INDEX_LOOKUP_COSTS = 50;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(SpatialJoinOperatorSelector.class);
+
+	/**
+	 * Build the join operator for the stream operator and the tuple store. An index nested loop 
+	 * join is used when the stream is small compared to the tuple store, otherwise both inputs 
+	 * are read once and joined with a plane sweep.
+	 * 
+	 * @param streamOperator
+	 * @param streamTuples
+	 * @param tupleStoreManager
+	 * @return
+	 */
+	public static Operator buildJoinOperator(final Operator streamOperator, final long streamTuples, 
+			final TupleStoreManager tupleStoreManager) {
+		
+		return buildJoinOperator(streamOperator, streamTuples, getNumberOfTuples(tupleStoreManager), 
+				tupleStoreManager, Hyperrectangle.FULL_SPACE);
+	}
+	
+	/**
+	 * Build the join operator for the stream operator and the tuple store. The plane sweep 
+	 * join reads only the tuples of the tuple store that intersect the read box.
+	 * 
+	 * @param streamOperator
+	 * @param streamTuples
+	 * @param indexTuples
+	 * @param tupleStoreManager
+	 * @param readBox
+	 * @return
+	 */
+	public static Operator buildJoinOperator(final Operator streamOperator, final long streamTuples, 
+			final long indexTuples, final TupleStoreManager tupleStoreManager, final Hyperrectangle readBox) {
+		
+		if(isPlaneSweepJoinCheaper(streamTuples, indexTuples)) {
+			final SpatialIndexReadOperator indexReader = new SpatialIndexReadOperator(tupleStoreManager, readBox);
+			return new PlaneSweepSpatialJoinOperator(streamOperator, indexReader);
+		}
+		
+		final SpatialIndexReadOperator indexReader = new SpatialIndexReadOperator(tupleStoreManager);
+		return new IndexedSpatialJoinOperator(streamOperator, indexReader);
+	}
+	
+	/**
+	 * Is the plane sweep join cheaper than the index nested loop join
+	 * @param streamTuples
+	 * @param indexTuples
+	 * @return
+	 */
+	public static boolean isPlaneSweepJoinCheaper(final long streamTuples, final long indexTuples) {
+		return getPlaneSweepJoinCosts(streamTuples, indexTuples) 
+				< getIndexNestedLoopJoinCosts(streamTuples, indexTuples);
+	}
+	
+	/**
+	 * Get the costs of the cheapest join algorithm
+	 * @param streamTuples
+	 * @param indexTuples
+	 * @return
+	 */
+	public static long getJoinCosts(final long streamTuples, final long indexTuples) {
+		return Math.min(getPlaneSweepJoinCosts(streamTuples, indexTuples), 
+				getIndexNestedLoopJoinCosts(streamTuples, indexTuples));
+	}
+	
+	/**
+	 * Get the costs of the index nested loop join
+	 * @param streamTuples
+	 * @param indexTuples
+	 * @return
+	 */
+	private static long getIndexNestedLoopJoinCosts(final long streamTuples, final long indexTuples) {
+		return streamTuples * INDEX_LOOKUP_COSTS;
+	}
+	
+	/**
+	 * Get the costs of the plane sweep join
+	 * @param streamTuples
+	 * @param indexTuples
+	 * @return
+	 */
+	private static long getPlaneSweepJoinCosts(final long streamTuples, final long indexTuples) {
+		return streamTuples + indexTuples;
+	}
+	
+	/**
+	 * Get the number of tuples of the tuple store
+	 * @param tupleStoreManager
+	 * @return
+	 */
+	public static long getNumberOfTuples(final TupleStoreManager tupleStoreManager) {
+		try {
+			return tupleStoreManager.getNumberOfTuples();
+		} catch (StorageManagerException e) {
+			logger.warn("Unable to get the number of tuples for {}", tupleStoreManager.getTupleStoreName());
+			return 0;
+		}
+	}
+}
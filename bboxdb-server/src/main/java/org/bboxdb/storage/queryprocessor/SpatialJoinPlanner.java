@@ -0,0 +1,460 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.queryprocessor.operator.JoinedBoundingBoxSelectOperator;
+import org.bboxdb.storage.queryprocessor.operator.JoinedTupleReorderOperator;
+import org.bboxdb.storage.queryprocessor.operator.Operator;
+import org.bboxdb.storage.queryprocessor.operator.SpatialIndexReadOperator;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plan a n-way spatial join. The result sizes of the joins are estimated with the
+ * statistics of the tuple stores (tuple count, covering box and average tuple extent,
+ * assuming uniformly distributed data). The planner chooses the left-deep join order 
+ * with the lowest estimated costs; the join algorithm of each step is chosen by 
+ * the SpatialJoinOperatorSelector.
+ */
+public class SpatialJoinPlanner {
+	
+	/**
+	 * Up to this amount of tables, all join orders are evaluated. For
+	 * more tables, the join order is build greedy.
+	 */
+	private final static int MAX_TABLES_FOR_FULL_ENUMERATION = 6;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(SpatialJoinPlanner.class);
+	
+	/**
+	 * The estimated size and extent of a (intermediate) join input 
+	 */
+	private static class JoinEstimation {
+		
+		/**
+		 * The estimated amount of tuples
+		 */
+		private final double tuples;
+		
+		/**
+		 * The space covered by the tuples
+		 */
+		private final Hyperrectangle space;
+		
+		/**
+		 * The average extent of the tuples
+		 */
+		private final double[] extent;
+		
+		public JoinEstimation(final double tuples, final Hyperrectangle space, final double[] extent) {
+			this.tuples = tuples;
+			this.space = space;
+			this.extent = extent;
+		}
+	}
+	
+	/**
+	 * A join plan
+	 */
+	public static class JoinPlan {
+		
+		/**
+		 * The join order (positions of the requested tables)
+		 */
+		private final List<Integer> joinOrder;
+		
+		/**
+		 * The estimated amount of tuples of the stream in each join step
+		 */
+		private final List<Long> streamTuples;
+		
+		/**
+		 * The estimated amount of tuples read from the tuple store in each join step
+		 */
+		private final List<Long> indexTuples;
+		
+		/**
+		 * The estimated costs of the plan
+		 */
+		private final double costs;
+
+		public JoinPlan(final List<Integer> joinOrder, final List<Long> streamTuples, 
+				final List<Long> indexTuples, final double costs) {
+			
+			this.joinOrder = joinOrder;
+			this.streamTuples = streamTuples;
+			this.indexTuples = indexTuples;
+			this.costs = costs;
+		}
+		
+		/**
+		 * Get the join order
+		 * @return
+		 */
+		public List<Integer> getJoinOrder() {
+			return joinOrder;
+		}
+		
+		/**
+		 * Get the estimated costs
+		 * @return
+		 */
+		public double getCosts() {
+			return costs;
+		}
+
+		@Override
+		public String toString() {
+			return "JoinPlan [joinOrder=" + joinOrder + ", streamTuples=" + streamTuples 
+					+ ", indexTuples=" + indexTuples + ", costs=" + costs + "]";
+		}
+	}
+	
+	/**
+	 * Build the operator tree for the join of the tuple stores. The result contains 
+	 * all combinations of tuples whose bounding boxes intersect and whose first tuple
+	 * intersects the query box; the tuples are returned in the order of the given 
+	 * tuple stores.
+	 * 
+	 * @param tupleStoreManager
+	 * @param queryBox
+	 * @return
+	 */
+	public static Operator buildJoinOperatorTree(final List<TupleStoreManager> tupleStoreManager, 
+			final Hyperrectangle queryBox) {
+		
+		final List<TupleStoreStatistics> statistics = tupleStoreManager.stream()
+				.map(t -> TupleStoreStatistics.fromTupleStoreManager(t))
+				.collect(Collectors.toList());
+		
+		final JoinPlan joinPlan = getJoinPlan(statistics, queryBox);
+		final List<Integer> joinOrder = joinPlan.joinOrder;
+		
+		logger.debug("Using join plan {}", joinPlan);
+		
+		Operator operator = new SpatialIndexReadOperator(tupleStoreManager.get(joinOrder.get(0)), 
+				getReadBox(joinOrder.get(0), queryBox));
+		
+		for(int i = 1; i < joinOrder.size(); i++) {
+			operator = SpatialJoinOperatorSelector.buildJoinOperator(operator, 
+					joinPlan.streamTuples.get(i - 1), joinPlan.indexTuples.get(i - 1), 
+					tupleStoreManager.get(joinOrder.get(i)), getReadBox(joinOrder.get(i), queryBox));
+		}
+		
+		if(! isIdentity(joinOrder)) {
+			final int[] resultPositions = new int[joinOrder.size()];
+			
+			for(int i = 0; i < joinOrder.size(); i++) {
+				resultPositions[joinOrder.get(i)] = i;
+			}
+			
+			operator = new JoinedTupleReorderOperator(operator, resultPositions);
+		}
+		
+		// The first table is not read by the query box, when it does not drive the join
+		if(joinOrder.get(0) != 0 && queryBox.getDimension() != 0) {
+			operator = new JoinedBoundingBoxSelectOperator(queryBox, 0, operator);
+		}
+		
+		return operator;
+	}
+	
+	/**
+	 * Get the box for reading the requested table. Only the first table
+	 * is restricted by the query box.
+	 * 
+	 * @param table
+	 * @param queryBox
+	 * @return
+	 */
+	private static Hyperrectangle getReadBox(final int table, final Hyperrectangle queryBox) {
+		return table == 0 ? queryBox : Hyperrectangle.FULL_SPACE;
+	}
+	
+	/**
+	 * Is the join order the requested order
+	 * @param joinOrder
+	 * @return
+	 */
+	private static boolean isIdentity(final List<Integer> joinOrder) {
+		for(int i = 0; i < joinOrder.size(); i++) {
+			if(joinOrder.get(i) != i) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Get the cheapest join plan. On equal costs, the requested order is preferred.
+	 * 
+	 * @param statistics
+	 * @param queryBox
+	 * @return
+	 */
+	public static JoinPlan getJoinPlan(final List<TupleStoreStatistics> statistics, 
+			final Hyperrectangle queryBox) {
+		
+		if(statistics.size() < 2) {
+			throw new IllegalArgumentException("A join needs at least two tables");
+		}
+		
+		final List<JoinEstimation> inputs = new ArrayList<>();
+		
+		for(int i = 0; i < statistics.size(); i++) {
+			inputs.add(estimateWindowQuery(statistics.get(i), getReadBox(i, queryBox)));
+		}
+		
+		if(statistics.size() > MAX_TABLES_FOR_FULL_ENUMERATION) {
+			return getGreedyJoinPlan(inputs);
+		}
+		
+		final List<List<Integer>> joinOrders = new ArrayList<>();
+		buildPermutations(new ArrayList<>(), statistics.size(), joinOrders);
+		
+		JoinPlan bestPlan = null;
+		
+		for(final List<Integer> joinOrder : joinOrders) {
+			final JoinPlan joinPlan = evaluateJoinOrder(joinOrder, inputs);
+			
+			if(bestPlan == null || joinPlan.costs < bestPlan.costs) {
+				bestPlan = joinPlan;
+			}
+		}
+		
+		return bestPlan;
+	}
+	
+	/**
+	 * Build the join order greedy. Start with the smallest input and join the table 
+	 * that produces the smallest intermediate result next.
+	 * 
+	 * @param inputs
+	 * @return
+	 */
+	private static JoinPlan getGreedyJoinPlan(final List<JoinEstimation> inputs) {
+		final List<Integer> joinOrder = new ArrayList<>();
+		
+		int start = 0;
+		for(int i = 1; i < inputs.size(); i++) {
+			if(inputs.get(i).tuples < inputs.get(start).tuples) {
+				start = i;
+			}
+		}
+		
+		joinOrder.add(start);
+		JoinEstimation current = inputs.get(start);
+		
+		while(joinOrder.size() < inputs.size()) {
+			int bestTable = -1;
+			JoinEstimation bestResult = null;
+			
+			for(int i = 0; i < inputs.size(); i++) {
+				if(joinOrder.contains(i)) {
+					continue;
+				}
+				
+				final JoinEstimation result = estimateJoin(current, inputs.get(i));
+				
+				if(bestResult == null || result.tuples < bestResult.tuples) {
+					bestTable = i;
+					bestResult = result;
+				}
+			}
+			
+			joinOrder.add(bestTable);
+			current = bestResult;
+		}
+		
+		return evaluateJoinOrder(joinOrder, inputs);
+	}
+	
+	/**
+	 * Build all permutations of the numbers 0 to elements - 1 in lexicographic order
+	 * @param prefix
+	 * @param elements
+	 * @param result
+	 */
+	private static void buildPermutations(final List<Integer> prefix, final int elements, 
+			final List<List<Integer>> result) {
+		
+		if(prefix.size() == elements) {
+			result.add(new ArrayList<>(prefix));
+			return;
+		}
+		
+		for(int i = 0; i < elements; i++) {
+			if(prefix.contains(i)) {
+				continue;
+			}
+			
+			prefix.add(i);
+			buildPermutations(prefix, elements, result);
+			prefix.remove(prefix.size() - 1);
+		}
+	}
+	
+	/**
+	 * Estimate the costs of the join order. The costs are the read tuples, the 
+	 * costs of the join algorithms and the produced intermediate results.
+	 * 
+	 * @param joinOrder
+	 * @param inputs
+	 * @return
+	 */
+	private static JoinPlan evaluateJoinOrder(final List<Integer> joinOrder, 
+			final List<JoinEstimation> inputs) {
+		
+		final List<Long> streamTuples = new ArrayList<>();
+		final List<Long> indexTuples = new ArrayList<>();
+		
+		JoinEstimation current = inputs.get(joinOrder.get(0));
+		double costs = current.tuples;
+		
+		for(int i = 1; i < joinOrder.size(); i++) {
+			final JoinEstimation input = inputs.get(joinOrder.get(i));
+			final long stream = (long) Math.ceil(current.tuples);
+			final long index = (long) Math.ceil(input.tuples);
+			
+			current = estimateJoin(current, input);
+			
+			costs += SpatialJoinOperatorSelector.getJoinCosts(stream, index) + current.tuples;
+			streamTuples.add(stream);
+			indexTuples.add(index);
+		}
+		
+		return new JoinPlan(joinOrder, streamTuples, indexTuples, costs);
+	}
+	
+	/**
+	 * Estimate the tuples of the tuple store that intersect the query box
+	 * @param statistics
+	 * @param queryBox
+	 * @return
+	 */
+	private static JoinEstimation estimateWindowQuery(final TupleStoreStatistics statistics, 
+			final Hyperrectangle queryBox) {
+		
+		final Hyperrectangle coveringBox = statistics.getCoveringBox();
+		final int dimension = coveringBox.getDimension();
+		
+		final double[] extent = new double[dimension];
+		for(int d = 0; d < dimension; d++) {
+			extent[d] = statistics.getAverageExtent(d);
+		}
+		
+		if(dimension == 0 || queryBox.getDimension() != dimension) {
+			return new JoinEstimation(statistics.getTuples(), coveringBox, extent);
+		}
+		
+		if(! coveringBox.intersects(queryBox)) {
+			return new JoinEstimation(0, coveringBox, extent);
+		}
+		
+		final Hyperrectangle space = coveringBox.getIntersection(queryBox);
+		final double selectivity = getSelectivity(space, coveringBox, extent);
+		
+		return new JoinEstimation(statistics.getTuples() * selectivity, space, extent);
+	}
+	
+	/**
+	 * Estimate the result of the join of the two inputs. Two tuples with the average 
+	 * extents intersect in a dimension with the probability (extent1 + extent2) / space.
+	 * 
+	 * @param input1
+	 * @param input2
+	 * @return
+	 */
+	private static JoinEstimation estimateJoin(final JoinEstimation input1, final JoinEstimation input2) {
+		
+		final int dimension = input1.space.getDimension();
+		
+		// Unknown extent (e.g., empty input), no estimation possible
+		if(dimension == 0 || input2.space.getDimension() != dimension) {
+			final double tuples = Math.min(input1.tuples * input2.tuples, 
+					Math.max(input1.tuples, input2.tuples));
+			
+			final Hyperrectangle space = dimension == 0 ? input2.space : input1.space;
+			final double[] extent = dimension == 0 ? input2.extent : input1.extent;
+			return new JoinEstimation(tuples, space, extent);
+		}
+		
+		if(! input1.space.intersects(input2.space)) {
+			return new JoinEstimation(0, input1.space, input1.extent);
+		}
+		
+		final Hyperrectangle space = input1.space.getIntersection(input2.space);
+		
+		// The tuples of the inputs in the common space
+		final double tuples1 = input1.tuples * getSelectivity(space, input1.space, input1.extent);
+		final double tuples2 = input2.tuples * getSelectivity(space, input2.space, input2.extent);
+		
+		double joinSelectivity = 1.0;
+		final double[] extent = new double[dimension];
+		
+		for(int d = 0; d < dimension; d++) {
+			final double extentSum = input1.extent[d] + input2.extent[d];
+			final double spaceExtent = space.getExtent(d);
+			
+			if(spaceExtent > 0) {
+				joinSelectivity *= Math.min(1.0, extentSum / spaceExtent);
+			}
+			
+			// The intersection of two tuples is not larger than the smaller tuple
+			extent[d] = Math.min(input1.extent[d], input2.extent[d]);
+		}
+		
+		return new JoinEstimation(tuples1 * tuples2 * joinSelectivity, space, extent);
+	}
+	
+	/**
+	 * The fraction of the tuples in the input space that intersect the 
+	 * selected space
+	 * 
+	 * @param selectedSpace
+	 * @param inputSpace
+	 * @param extent
+	 * @return
+	 */
+	private static double getSelectivity(final Hyperrectangle selectedSpace, 
+			final Hyperrectangle inputSpace, final double[] extent) {
+		
+		double selectivity = 1.0;
+		
+		for(int d = 0; d < inputSpace.getDimension(); d++) {
+			final double inputExtent = inputSpace.getExtent(d) + extent[d];
+			
+			if(inputExtent > 0) {
+				final double selectedExtent = selectedSpace.getExtent(d) + extent[d];
+				selectivity *= Math.min(1.0, selectedExtent / inputExtent);
+			}
+		}
+		
+		return selectivity;
+	}
+}
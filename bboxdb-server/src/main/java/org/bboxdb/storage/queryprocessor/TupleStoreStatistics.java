@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.TupleStoreMetaData;
+import org.bboxdb.storage.memtable.Memtable;
+import org.bboxdb.storage.memtable.MemtableStatistics;
+import org.bboxdb.storage.sstable.reader.SSTableFacade;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The statistics of a tuple store, used to estimate the costs of a join. The 
+ * statistics of the SSTables are read from the metadata, the statistics of the
+ * memtables are maintained on insert.
+ */
+public class TupleStoreStatistics {
+	
+	/**
+	 * The amount of tuples
+	 */
+	private final long tuples;
+	
+	/**
+	 * The covering box of all tuples (FULL_SPACE if unknown)
+	 */
+	private final Hyperrectangle coveringBox;
+	
+	/**
+	 * The average extent of the tuple bounding boxes per dimension
+	 */
+	private final double[] averageExtent;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(TupleStoreStatistics.class);
+
+	public TupleStoreStatistics(final long tuples, final Hyperrectangle coveringBox, 
+			final double[] averageExtent) {
+		
+		this.tuples = tuples;
+		this.coveringBox = coveringBox;
+		this.averageExtent = averageExtent;
+	}
+	
+	/**
+	 * Collect the statistics of the tuple store
+	 * @param tupleStoreManager
+	 * @return
+	 */
+	public static TupleStoreStatistics fromTupleStoreManager(final TupleStoreManager tupleStoreManager) {
+		List<ReadOnlyTupleStore> storages = null;
+		
+		try {
+			storages = tupleStoreManager.aquireStorage();
+			
+			long tuples = 0;
+			Hyperrectangle coveringBox = Hyperrectangle.FULL_SPACE;
+			double[] extentSum = new double[0];
+			long extentSamples = 0;
+			
+			for(final ReadOnlyTupleStore storage : storages) {
+				tuples += storage.getNumberOfTuples();
+				
+				if(storage instanceof SSTableFacade) {
+					final TupleStoreMetaData metaData = ((SSTableFacade) storage).getSsTableMetadata();
+					
+					if(metaData.getBoundingBoxData().length > 0) {
+						final Hyperrectangle sstableBox = new Hyperrectangle(metaData.getBoundingBoxData());
+						coveringBox = Hyperrectangle.getCoveringBox(coveringBox, sstableBox);
+					}
+					
+					final double[] sampleData = metaData.getSampleData();
+					final int dimensions = coveringBox.getDimension();
+					
+					if(dimensions == 0 || sampleData.length == 0 
+							|| sampleData.length % (2 * dimensions) != 0) {
+						continue;
+					}
+					
+					extentSum = extendArray(extentSum, dimensions);
+					
+					for(int pos = 0; pos < sampleData.length; pos = pos + 2 * dimensions) {
+						for(int d = 0; d < dimensions; d++) {
+							extentSum[d] += sampleData[pos + 2 * d + 1] - sampleData[pos + 2 * d];
+						}
+						extentSamples++;
+					}
+				} else if(storage instanceof Memtable) {
+					final MemtableStatistics memtableStatistics = ((Memtable) storage).getStatistics();
+					
+					if(memtableStatistics.getBoxes() == 0) {
+						continue;
+					}
+					
+					coveringBox = Hyperrectangle.getCoveringBox(coveringBox, memtableStatistics.getCoveringBox());
+					
+					final double[] memtableExtentSum = memtableStatistics.getExtentSum();
+					extentSum = extendArray(extentSum, memtableExtentSum.length);
+					
+					for(int d = 0; d < memtableExtentSum.length; d++) {
+						extentSum[d] += memtableExtentSum[d];
+					}
+					extentSamples += memtableStatistics.getBoxes();
+				}
+			}
+			
+			final long samples = extentSamples;
+			final double[] averageExtent = Arrays.stream(extentSum)
+					.map(e -> e / samples)
+					.toArray();
+			
+			return new TupleStoreStatistics(tuples, coveringBox, averageExtent);
+		} catch (StorageManagerException e) {
+			logger.warn("Unable to read the statistics of {}", tupleStoreManager.getTupleStoreName());
+			return new TupleStoreStatistics(0, Hyperrectangle.FULL_SPACE, new double[0]);
+		} finally {
+			tupleStoreManager.releaseStorage(storages);
+		}
+	}
+	
+	/**
+	 * Extend the array to the given size
+	 * @param array
+	 * @param size
+	 * @return
+	 */
+	private static double[] extendArray(final double[] array, final int size) {
+		if(array.length >= size) {
+			return array;
+		}
+		
+		return Arrays.copyOf(array, size);
+	}
+	
+	/**
+	 * Get the amount of tuples
+	 * @return
+	 */
+	public long getTuples() {
+		return tuples;
+	}
+	
+	/**
+	 * Get the covering box
+	 * @return
+	 */
+	public Hyperrectangle getCoveringBox() {
+		return coveringBox;
+	}
+	
+	/**
+	 * Get the average extent of the tuples in the given dimension
+	 * @param dimension
+	 * @return
+	 */
+	public double getAverageExtent(final int dimension) {
+		if(dimension >= averageExtent.length) {
+			return 0;
+		}
+		
+		return averageExtent[dimension];
+	}
+
+	@Override
+	public String toString() {
+		return "TupleStoreStatistics [tuples=" + tuples + ", coveringBox=" + coveringBox 
+				+ ", averageExtent=" + Arrays.toString(averageExtent) + "]";
+	}
+}
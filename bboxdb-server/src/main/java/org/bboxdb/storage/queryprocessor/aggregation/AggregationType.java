@@ -0,0 +1,73 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.aggregation;
+
+public enum AggregationType {
+	
+	/**
+	 * Count the tuples
+	 */
+	COUNT((byte) 0x01),
+	
+	/**
+	 * Count the tuples per cell of a grid (parameter: the cell size)
+	 */
+	GRID_COUNT((byte) 0x02),
+	
+	/**
+	 * The bounding box of all tuples (min / max per dimension)
+	 */
+	BOUNDING_BOX((byte) 0x03),
+	
+	/**
+	 * Count the tuples per version time bucket (parameter: the bucket width in microseconds)
+	 */
+	TIME_HISTOGRAM((byte) 0x04);
+	
+	/**
+	 * The network representation of the type
+	 */
+	private final byte typeByte;
+	
+	private AggregationType(final byte typeByte) {
+		this.typeByte = typeByte;
+	}
+	
+	/**
+	 * Get the network representation of the type
+	 * @return
+	 */
+	public byte getTypeByte() {
+		return typeByte;
+	}
+	
+	/**
+	 * Get the type for the network representation
+	 * @param typeByte
+	 * @return
+	 */
+	public static AggregationType fromTypeByte(final byte typeByte) {
+		for(final AggregationType type : values()) {
+			if(type.getTypeByte() == typeByte) {
+				return type;
+			}
+		}
+		
+		throw new IllegalArgumentException("Unknown aggregation type: " + typeByte);
+	}
+}
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.aggregation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.bboxdb.commons.io.DataEncoderHelper;
+import org.bboxdb.commons.math.DoubleInterval;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.Tuple;
+
+/**
+ * Aggregates tuples into partial aggregates. The server aggregates the tuples
+ * of each region and sends the partial aggregates (encoded as tuples) to the
+ * client. The client merges the partial aggregates of all regions.
+ */
+public class Aggregator {
+	
+	/**
+	 * The type of the aggregation
+	 */
+	private final AggregationType aggregationType;
+	
+	/**
+	 * The query box
+	 */
+	private final Hyperrectangle queryBox;
+	
+	/**
+	 * The parameter of the aggregation
+	 */
+	private final double parameter;
+	
+	/**
+	 * The amount of tuples
+	 */
+	private long count;
+	
+	/**
+	 * The bounding box of all tuples
+	 */
+	private Hyperrectangle boundingBox;
+	
+	/**
+	 * The amount of tuples per cell
+	 */
+	private final Map<Hyperrectangle, Long> cellCounts;
+	
+	/**
+	 * The amount of tuples per time bucket
+	 */
+	private final SortedMap<Long, Long> histogram;
+	
+	/**
+	 * The key of the count aggregate
+	 */
+	public final static String KEY_COUNT = "count";
+	
+	/**
+	 * The key of the grid cell aggregates
+	 */
+	public final static String KEY_CELL = "cell";
+	
+	/**
+	 * The key of the bounding box aggregate
+	 */
+	public final static String KEY_BOUNDING_BOX = "bbox";
+	
+	/**
+	 * The key prefix of the time histogram aggregates
+	 */
+	public final static String KEY_PREFIX_TIME = "time_";
+	
+	/**
+	 * The max amount of cells of a grid count
+	 */
+	public final static long MAX_GRID_CELLS = 1000000;
+
+	public Aggregator(final AggregationType aggregationType, final Hyperrectangle queryBox, 
+			final double parameter) {
+		
+		this.aggregationType = aggregationType;
+		this.queryBox = queryBox;
+		this.parameter = parameter;
+		this.count = 0;
+		this.boundingBox = Hyperrectangle.FULL_SPACE;
+		this.cellCounts = new HashMap<>();
+		this.histogram = new TreeMap<>();
+		
+		if(aggregationType == AggregationType.GRID_COUNT && parameter <= 0) {
+			throw new IllegalArgumentException("The cell size has to be > 0");
+		}
+		
+		if(aggregationType == AggregationType.GRID_COUNT 
+				&& getAmountOfGridCells(queryBox, parameter) > MAX_GRID_CELLS) {
+			throw new IllegalArgumentException("The grid has more than " + MAX_GRID_CELLS 
+					+ " cells, please use a larger cell size");
+		}
+		
+		if(aggregationType == AggregationType.TIME_HISTOGRAM && parameter < 1) {
+			throw new IllegalArgumentException("The bucket width has to be >= 1");
+		}
+	}
+	
+	/**
+	 * Add a tuple to the aggregate
+	 * @param tuple
+	 */
+	public void addTuple(final Tuple tuple) {
+		final Hyperrectangle tupleBox = tuple.getBoundingBox();
+		
+		switch(aggregationType) {
+			case COUNT:
+				count++;
+				break;
+			case GRID_COUNT:
+				if(tupleBox == null || tupleBox.getDimension() != queryBox.getDimension()) {
+					return;
+				}
+				
+				addTupleToGrid(tupleBox);
+				break;
+			case BOUNDING_BOX:
+				if(tupleBox == null) {
+					return;
+				}
+				
+				boundingBox = Hyperrectangle.getCoveringBox(boundingBox, tupleBox);
+				break;
+			case TIME_HISTOGRAM:
+				final long bucketWidth = (long) parameter;
+				final long bucket = Math.floorDiv(tuple.getVersionTimestamp(), bucketWidth) * bucketWidth;
+				histogram.merge(bucket, 1L, Long::sum);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown aggregation type: " + aggregationType);
+		}
+	}
+	
+	/**
+	 * Add the tuple to all grid cells that are intersected by the tuple. The cell 
+	 * indices are calculated, so the cells of the grid are never materialized.
+	 * 
+	 * @param tupleBox
+	 */
+	private void addTupleToGrid(final Hyperrectangle tupleBox) {
+		final int dimensions = queryBox.getDimension();
+		final int[] firstCell = new int[dimensions];
+		final int[] lastCell = new int[dimensions];
+		
+		for(int d = 0; d < dimensions; d++) {
+			final double low = queryBox.getCoordinateLow(d);
+			final double high = queryBox.getCoordinateHigh(d);
+			
+			if(tupleBox.getCoordinateHigh(d) < low || tupleBox.getCoordinateLow(d) > high) {
+				return;
+			}
+			
+			final int cells = getCellsInDimension(queryBox, d, parameter);
+			final double tupleLow = Math.max(tupleBox.getCoordinateLow(d), low);
+			final double tupleHigh = Math.min(tupleBox.getCoordinateHigh(d), high);
+			
+			firstCell[d] = Math.min((int) Math.floor((tupleLow - low) / parameter), cells - 1);
+			lastCell[d] = Math.min((int) Math.floor((tupleHigh - low) / parameter), cells - 1);
+		}
+		
+		final int[] cellIndex = firstCell.clone();
+		
+		while(true) {
+			cellCounts.merge(getCell(cellIndex), 1L, Long::sum);
+			
+			// Advance to the next cell index
+			int d = 0;
+			for(; d < dimensions; d++) {
+				if(cellIndex[d] < lastCell[d]) {
+					cellIndex[d]++;
+					break;
+				}
+				
+				cellIndex[d] = firstCell[d];
+			}
+			
+			if(d == dimensions) {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Get the bounding box of the grid cell with the given index. The cells
+	 * include their begin point, only the last cell of a dimension includes 
+	 * also the end point.
+	 * 
+	 * @param cellIndex
+	 * @return
+	 */
+	private Hyperrectangle getCell(final int[] cellIndex) {
+		final List<DoubleInterval> intervals = new ArrayList<>(cellIndex.length);
+		
+		for(int d = 0; d < cellIndex.length; d++) {
+			final double low = queryBox.getCoordinateLow(d);
+			final double high = queryBox.getCoordinateHigh(d);
+			final boolean lastCell = (cellIndex[d] + 1 == getCellsInDimension(queryBox, d, parameter));
+			
+			final double begin = low + (cellIndex[d] * parameter);
+			final double end = Math.min(low + ((cellIndex[d] + 1) * parameter), high);
+			
+			intervals.add(new DoubleInterval(begin, end, true, lastCell));
+		}
+		
+		return new Hyperrectangle(intervals);
+	}
+	
+	/**
+	 * Get the amount of grid cells in the given dimension
+	 * @param queryBox
+	 * @param dimension
+	 * @param cellSize
+	 * @return
+	 */
+	private static int getCellsInDimension(final Hyperrectangle queryBox, final int dimension, 
+			final double cellSize) {
+		
+		final double length = queryBox.getIntervalForDimension(dimension).getLength();
+		return (int) Math.max(1, Math.ceil(length / cellSize));
+	}
+	
+	/**
+	 * Get the amount of cells of a grid with the given cell size
+	 * @param queryBox
+	 * @param cellSize
+	 * @return
+	 */
+	public static double getAmountOfGridCells(final Hyperrectangle queryBox, final double cellSize) {
+		double cells = 1;
+		
+		for(int d = 0; d < queryBox.getDimension(); d++) {
+			final double length = queryBox.getIntervalForDimension(d).getLength();
+			cells = cells * Math.max(1, Math.ceil(length / cellSize));
+		}
+		
+		return cells;
+	}
+	
+	/**
+	 * Merge a partial aggregate into this aggregate
+	 * @param partialAggregate
+	 */
+	public void addPartialAggregate(final Tuple partialAggregate) {
+		final String key = partialAggregate.getKey();
+		final Hyperrectangle box = partialAggregate.getBoundingBox();
+		
+		if(KEY_BOUNDING_BOX.equals(key)) {
+			boundingBox = Hyperrectangle.getCoveringBox(boundingBox, box);
+			return;
+		}
+		
+		final long value = DataEncoderHelper.readLongFromByte(partialAggregate.getDataBytes());
+		
+		if(KEY_COUNT.equals(key)) {
+			count = count + value;
+		} else if(KEY_CELL.equals(key)) {
+			cellCounts.merge(box, value, Long::sum);
+		} else if(key.startsWith(KEY_PREFIX_TIME)) {
+			final long bucket = Long.parseLong(key.substring(KEY_PREFIX_TIME.length()));
+			histogram.merge(bucket, value, Long::sum);
+		} else {
+			throw new IllegalArgumentException("Unknown partial aggregate: " + key);
+		}
+	}
+	
+	/**
+	 * Encode the aggregate as tuples
+	 * @return
+	 */
+	public List<Tuple> getPartialAggregates() {
+		final List<Tuple> result = new ArrayList<>();
+		
+		switch(aggregationType) {
+			case COUNT:
+				result.add(buildTuple(KEY_COUNT, queryBox, count));
+				break;
+			case GRID_COUNT:
+				for(final Entry<Hyperrectangle, Long> entry : cellCounts.entrySet()) {
+					result.add(buildTuple(KEY_CELL, entry.getKey(), entry.getValue()));
+				}
+				break;
+			case BOUNDING_BOX:
+				if(boundingBox != Hyperrectangle.FULL_SPACE) {
+					result.add(new Tuple(KEY_BOUNDING_BOX, boundingBox, "".getBytes()));
+				}
+				break;
+			case TIME_HISTOGRAM:
+				for(final Entry<Long, Long> entry : histogram.entrySet()) {
+					result.add(buildTuple(KEY_PREFIX_TIME + entry.getKey(), queryBox, entry.getValue()));
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown aggregation type: " + aggregationType);
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Build a tuple for a partial aggregate
+	 * @param key
+	 * @param box
+	 * @param value
+	 * @return
+	 */
+	private Tuple buildTuple(final String key, final Hyperrectangle box, final long value) {
+		return new Tuple(key, box, DataEncoderHelper.longToByteBuffer(value).array());
+	}
+	
+	/**
+	 * Get the amount of tuples
+	 * @return
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Get the bounding box of all tuples (FULL_SPACE if no tuple is aggregated)
+	 * @return
+	 */
+	public Hyperrectangle getBoundingBox() {
+		return boundingBox;
+	}
+	
+	/**
+	 * Get the amount of tuples per cell (empty cells are not contained)
+	 * @return
+	 */
+	public Map<Hyperrectangle, Long> getCellCounts() {
+		return Collections.unmodifiableMap(cellCounts);
+	}
+	
+	/**
+	 * Get the amount of tuples per time bucket (empty buckets are not contained)
+	 * @return
+	 */
+	public SortedMap<Long, Long> getHistogram() {
+		return Collections.unmodifiableSortedMap(histogram);
+	}
+	
+	/**
+	 * Get the aggregation type
+	 * @return
+	 */
+	public AggregationType getAggregationType() {
+		return aggregationType;
+	}
+
+	@Override
+	public String toString() {
+		return "Aggregator [aggregationType=" + aggregationType + ", queryBox=" + queryBox 
+				+ ", parameter=" + parameter + "]";
+	}
+}
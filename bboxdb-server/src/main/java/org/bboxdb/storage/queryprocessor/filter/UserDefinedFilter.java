@@ -0,0 +1,35 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.filter;
+
+import org.bboxdb.storage.entity.Tuple;
+
+public interface UserDefinedFilter {
+
+	/**
+	 * Does the tuple match the filter. The filter is executed on the server, 
+	 * before the tuple is send to the client. The regions of a query are 
+	 * processed in parallel with the same filter instance, so the implementation 
+	 * has to be thread-safe.
+	 * 
+	 * @param tuple
+	 * @param customData - the parameter of the filter, provided by the client
+	 * @return
+	 */
+	public boolean filterTuple(final Tuple tuple, final byte[] customData);
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.filter;
+
+import java.util.Arrays;
+
+public class UserDefinedFilterDefinition {
+	
+	/**
+	 * The class name of the filter
+	 */
+	private final String userDefinedFilterClass;
+	
+	/**
+	 * The parameter of the filter
+	 */
+	private final byte[] userDefinedFilterValue;
+	
+	/**
+	 * No filter
+	 */
+	public final static UserDefinedFilterDefinition NONE = new UserDefinedFilterDefinition("", new byte[0]);
+
+	public UserDefinedFilterDefinition(final String userDefinedFilterClass, 
+			final byte[] userDefinedFilterValue) {
+		
+		this.userDefinedFilterClass = userDefinedFilterClass;
+		this.userDefinedFilterValue = userDefinedFilterValue;
+	}
+	
+	public UserDefinedFilterDefinition(final String userDefinedFilterClass, 
+			final String userDefinedFilterValue) {
+		
+		this(userDefinedFilterClass, userDefinedFilterValue.getBytes());
+	}
+	
+	/**
+	 * Is a filter defined
+	 * @return
+	 */
+	public boolean isFilterDefined() {
+		return ! userDefinedFilterClass.isEmpty();
+	}
+
+	public String getUserDefinedFilterClass() {
+		return userDefinedFilterClass;
+	}
+
+	public byte[] getUserDefinedFilterValue() {
+		return userDefinedFilterValue;
+	}
+
+	@Override
+	public String toString() {
+		return "UserDefinedFilterDefinition [userDefinedFilterClass=" + userDefinedFilterClass
+				+ ", userDefinedFilterValue=" + new String(userDefinedFilterValue) + "]";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((userDefinedFilterClass == null) ? 0 : userDefinedFilterClass.hashCode());
+		result = prime * result + Arrays.hashCode(userDefinedFilterValue);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		UserDefinedFilterDefinition other = (UserDefinedFilterDefinition) obj;
+		if (userDefinedFilterClass == null) {
+			if (other.userDefinedFilterClass != null)
+				return false;
+		} else if (!userDefinedFilterClass.equals(other.userDefinedFilterClass))
+			return false;
+		if (!Arrays.equals(userDefinedFilterValue, other.userDefinedFilterValue))
+			return false;
+		return true;
+	}
+}
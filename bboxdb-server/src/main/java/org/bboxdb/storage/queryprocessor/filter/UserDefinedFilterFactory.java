@@ -0,0 +1,57 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class UserDefinedFilterFactory {
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(UserDefinedFilterFactory.class);
+
+	/**
+	 * Get an instance of the user defined filter. One instance is shared by the
+	 * tasks that process the regions of a query in parallel, so the filter has 
+	 * to be thread-safe.
+	 * 
+	 * @return
+	 */
+	public static UserDefinedFilter getInstance(final String filterClass) {
+		
+		// Instance the classname
+		try {
+			final ClassLoader classLoader = UserDefinedFilterFactory.class.getClassLoader();
+			
+			// Don't run the static initializer of classes that are not a filter
+			final Class<?> classObject = Class.forName(filterClass, false, classLoader);
+			
+			if(! UserDefinedFilter.class.isAssignableFrom(classObject)) {
+				throw new ClassNotFoundException(filterClass + " is not a instance of UserDefinedFilter");
+			}
+			
+			return (UserDefinedFilter) classObject.getDeclaredConstructor().newInstance();
+		} catch (Exception e) {
+			logger.warn("Unable to instance class: " + filterClass, e);
+			throw new IllegalArgumentException(e);
+		} 
+	}
+	
+}
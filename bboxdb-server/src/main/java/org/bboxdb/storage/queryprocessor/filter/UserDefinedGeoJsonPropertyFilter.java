@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.filter;
+
+import org.bboxdb.storage.entity.Tuple;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Filter GeoJSON features by a property. The parameter has the format 
+ * 'key:value' (the property has the value) or 'key' (the property exists).
+ */
+public class UserDefinedGeoJsonPropertyFilter implements UserDefinedFilter {
+	
+	/**
+	 * The JSON constant for properties
+	 */
+	private static final String JSON_PROPERTIES = "properties";
+	
+	/**
+	 * The separator of key and value
+	 */
+	private static final String SEPARATOR = ":";
+
+	@Override
+	public boolean filterTuple(final Tuple tuple, final byte[] customData) {
+		final String filter = new String(customData);
+		final int separatorPosition = filter.indexOf(SEPARATOR);
+		
+		final String key = separatorPosition == -1 ? filter : filter.substring(0, separatorPosition);
+		
+		try {
+			final JSONObject jsonObject = new JSONObject(new String(tuple.getDataBytes()));
+			final JSONObject properties = jsonObject.optJSONObject(JSON_PROPERTIES);
+			
+			if(properties == null || ! properties.has(key)) {
+				return false;
+			}
+			
+			if(separatorPosition == -1) {
+				return true;
+			}
+			
+			final String value = filter.substring(separatorPosition + 1);
+			
+			return value.equals(properties.get(key).toString());
+		} catch(JSONException e) {
+			// Not a GeoJSON feature
+			return false;
+		}
+	}
+}
@@ -0,0 +1,526 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.geometry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A two dimensional geometry parsed from a GeoJSON document. The geometry
+ * is decomposed into points, lines and polygons (outer ring and holes). Rings 
+ * that are not closed (e.g., OSM ways written as polygon by the GeoJSONTupleBuilder) 
+ * are handled as lines.
+ */
+public class GeoJsonGeometry {
+
+	/**
+	 * The JSON constant for type
+	 */
+	private static final String JSON_TYPE = "type";
+	
+	/**
+	 * The JSON constant for geometry
+	 */
+	private static final String JSON_GEOMETRY = "geometry";
+	
+	/**
+	 * The JSON constant for geometries
+	 */
+	private static final String JSON_GEOMETRIES = "geometries";
+	
+	/**
+	 * The JSON constant for coordinates
+	 */
+	private static final String JSON_COORDINATES = "coordinates";
+
+	/**
+	 * The points of the geometry
+	 */
+	private final List<double[]> points;
+	
+	/**
+	 * The lines of the geometry
+	 */
+	private final List<double[][]> lines;
+	
+	/**
+	 * The polygons of the geometry, the first ring is the outer ring 
+	 * and all other rings are holes
+	 */
+	private final List<List<double[][]>> polygons;
+	
+	/**
+	 * The segments of the lines and rings, calculated on first use
+	 */
+	private List<double[][]> segments;
+	
+	public GeoJsonGeometry() {
+		this.points = new ArrayList<>();
+		this.lines = new ArrayList<>();
+		this.polygons = new ArrayList<>();
+	}
+	
+	/**
+	 * Parse the geometry of a GeoJSON feature or a GeoJSON geometry 
+	 * @param geoJson
+	 * @return
+	 * @throws IllegalArgumentException
+	 */
+	public static GeoJsonGeometry fromGeoJson(final String geoJson) throws IllegalArgumentException {
+		final GeoJsonGeometry geometry = new GeoJsonGeometry();
+		
+		try {
+			final JSONObject jsonObject = new JSONObject(geoJson);
+			final JSONObject geometryObject = jsonObject.has(JSON_GEOMETRY) 
+					? jsonObject.getJSONObject(JSON_GEOMETRY) : jsonObject;
+			
+			geometry.parseGeometry(geometryObject);
+		} catch (JSONException e) {
+			throw new IllegalArgumentException("Unable to parse GeoJSON geometry", e);
+		}
+		
+		if(geometry.isEmpty()) {
+			throw new IllegalArgumentException("GeoJSON geometry is empty");
+		}
+		
+		return geometry;
+	}
+	
+	/**
+	 * Build the geometry of the first two dimensions of the hyperrectangle
+	 * @param hyperrectangle
+	 * @return
+	 */
+	public static GeoJsonGeometry fromHyperrectangle(final Hyperrectangle hyperrectangle) {
+		
+		if(hyperrectangle.getDimension() < 2) {
+			throw new IllegalArgumentException("Unable to convert box with dimension " 
+					+ hyperrectangle.getDimension() + " into a geometry");
+		}
+		
+		final double minX = hyperrectangle.getCoordinateLow(0);
+		final double maxX = hyperrectangle.getCoordinateHigh(0);
+		final double minY = hyperrectangle.getCoordinateLow(1);
+		final double maxY = hyperrectangle.getCoordinateHigh(1);
+		
+		final double[][] ring = new double[][] {
+			{minX, minY}, {maxX, minY}, {maxX, maxY}, {minX, maxY}, {minX, minY}
+		};
+		
+		final GeoJsonGeometry geometry = new GeoJsonGeometry();
+		geometry.polygons.add(Collections.singletonList(ring));
+		return geometry;
+	}
+	
+	/**
+	 * Parse a GeoJSON geometry object
+	 * @param geometryObject
+	 */
+	private void parseGeometry(final JSONObject geometryObject) {
+		final String type = geometryObject.getString(JSON_TYPE);
+		
+		if("GeometryCollection".equals(type)) {
+			final JSONArray geometries = geometryObject.getJSONArray(JSON_GEOMETRIES);
+			
+			for(int i = 0; i < geometries.length(); i++) {
+				parseGeometry(geometries.getJSONObject(i));
+			}
+			
+			return;
+		}
+		
+		final JSONArray coordinates = geometryObject.getJSONArray(JSON_COORDINATES);
+
+		switch(type) {
+		case "Point":
+			points.add(parsePoint(coordinates));
+			break;
+		case "MultiPoint":
+			for(int i = 0; i < coordinates.length(); i++) {
+				points.add(parsePoint(coordinates.getJSONArray(i)));
+			}
+			break;
+		case "LineString":
+			addLine(parsePointList(coordinates));
+			break;
+		case "MultiLineString":
+			for(int i = 0; i < coordinates.length(); i++) {
+				addLine(parsePointList(coordinates.getJSONArray(i)));
+			}
+			break;
+		case "Polygon":
+			addPolygon(coordinates);
+			break;
+		case "MultiPolygon":
+			for(int i = 0; i < coordinates.length(); i++) {
+				addPolygon(coordinates.getJSONArray(i));
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported GeoJSON geometry type: " + type);
+		}
+	}
+	
+	/**
+	 * Parse a point
+	 * @param coordinates
+	 * @return
+	 */
+	private static double[] parsePoint(final JSONArray coordinates) {
+		if(coordinates.length() < 2) {
+			throw new IllegalArgumentException("Point needs at least two coordinates: " + coordinates);
+		}
+		
+		return new double[] {coordinates.getDouble(0), coordinates.getDouble(1)};
+	}
+	
+	/**
+	 * Parse a list of points
+	 * @param coordinates
+	 * @return
+	 */
+	private static double[][] parsePointList(final JSONArray coordinates) {
+		final double[][] pointList = new double[coordinates.length()][];
+		
+		for(int i = 0; i < coordinates.length(); i++) {
+			pointList[i] = parsePoint(coordinates.getJSONArray(i));
+		}
+		
+		return pointList;
+	}
+	
+	/**
+	 * Add a line, lines with only one point are handled as point
+	 * @param line
+	 */
+	private void addLine(final double[][] line) {
+		if(line.length == 0) {
+			return;
+		}
+		
+		if(line.length == 1) {
+			points.add(line[0]);
+			return;
+		}
+		
+		lines.add(line);
+	}
+	
+	/**
+	 * Add a polygon. If the outer ring is not closed, all rings are handled as lines.
+	 * @param ringArray
+	 */
+	private void addPolygon(final JSONArray ringArray) {
+		final List<double[][]> rings = new ArrayList<>();
+		
+		for(int i = 0; i < ringArray.length(); i++) {
+			rings.add(parsePointList(ringArray.getJSONArray(i)));
+		}
+		
+		if(rings.isEmpty()) {
+			return;
+		}
+		
+		if(! isClosedRing(rings.get(0))) {
+			rings.forEach(r -> addLine(r));
+			return;
+		}
+		
+		final List<double[][]> polygon = new ArrayList<>();
+		
+		for(final double[][] ring : rings) {
+			if(isClosedRing(ring)) {
+				polygon.add(ring);
+			} else {
+				addLine(ring);
+			}
+		}
+		
+		polygons.add(polygon);
+	}
+	
+	/**
+	 * Is the given ring closed
+	 * @param ring
+	 * @return
+	 */
+	private static boolean isClosedRing(final double[][] ring) {
+		if(ring.length < 4) {
+			return false;
+		}
+		
+		final double[] first = ring[0];
+		final double[] last = ring[ring.length - 1];
+		
+		return first[0] == last[0] && first[1] == last[1];
+	}
+	
+	/**
+	 * Is the geometry empty
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return points.isEmpty() && lines.isEmpty() && polygons.isEmpty();
+	}
+	
+	/**
+	 * Does the geometry intersect the first two dimensions of the hyperrectangle. 
+	 * Boxes with less than two dimensions are not refined.
+	 * @param hyperrectangle
+	 * @return
+	 */
+	public boolean intersects(final Hyperrectangle hyperrectangle) {
+		if(hyperrectangle.getDimension() < 2) {
+			return true;
+		}
+		
+		return intersects(fromHyperrectangle(hyperrectangle));
+	}
+	
+	/**
+	 * Does the geometry intersect the other geometry (touching geometries intersect)
+	 * @param other
+	 * @return
+	 */
+	public boolean intersects(final GeoJsonGeometry other) {
+		
+		// The boundaries are crossing or touching
+		final List<double[][]> ownSegments = getSegments();
+		final List<double[][]> otherSegments = other.getSegments();
+		
+		for(final double[][] segment : ownSegments) {
+			for(final double[][] otherSegment : otherSegments) {
+				if(segmentsIntersect(segment[0], segment[1], otherSegment[0], otherSegment[1])) {
+					return true;
+				}
+			}
+		}
+		
+		// The boundaries are disjoint, so one component is either completely 
+		// contained in the other geometry or completely outside
+		for(final double[] point : getComponentPoints()) {
+			if(other.covers(point)) {
+				return true;
+			}
+		}
+		
+		for(final double[] point : other.getComponentPoints()) {
+			if(covers(point)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Get all segments of the lines and rings
+	 * @return
+	 */
+	private synchronized List<double[][]> getSegments() {
+		
+		if(segments != null) {
+			return segments;
+		}
+		
+		final List<double[][]> segmentList = new ArrayList<>();
+		
+		for(final double[][] line : lines) {
+			addSegments(line, segmentList);
+		}
+		
+		for(final List<double[][]> polygon : polygons) {
+			for(final double[][] ring : polygon) {
+				addSegments(ring, segmentList);
+			}
+		}
+		
+		segments = segmentList;
+		
+		return segments;
+	}
+
+	/**
+	 * Add the segments of the point list to the segment list
+	 * @param pointList
+	 * @param segments
+	 */
+	private static void addSegments(final double[][] pointList, final List<double[][]> segments) {
+		for(int i = 0; i < pointList.length - 1; i++) {
+			segments.add(new double[][] {pointList[i], pointList[i + 1]});
+		}
+	}
+	
+	/**
+	 * Get one point of each component of the geometry
+	 * @return
+	 */
+	private List<double[]> getComponentPoints() {
+		final List<double[]> componentPoints = new ArrayList<>(points);
+		
+		for(final double[][] line : lines) {
+			componentPoints.add(line[0]);
+		}
+		
+		for(final List<double[][]> polygon : polygons) {
+			for(final double[][] ring : polygon) {
+				componentPoints.add(ring[0]);
+			}
+		}
+		
+		return componentPoints;
+	}
+	
+	/**
+	 * Is the point covered by the geometry (interior or boundary)
+	 * @param point
+	 * @return
+	 */
+	private boolean covers(final double[] point) {
+		
+		for(final double[] ownPoint : points) {
+			if(ownPoint[0] == point[0] && ownPoint[1] == point[1]) {
+				return true;
+			}
+		}
+		
+		for(final double[][] segment : getSegments()) {
+			if(orientation(segment[0], segment[1], point) == 0 && onSegment(segment[0], segment[1], point)) {
+				return true;
+			}
+		}
+		
+		for(final List<double[][]> polygon : polygons) {
+			if(! isInRing(polygon.get(0), point)) {
+				continue;
+			}
+			
+			boolean inHole = false;
+			
+			for(int i = 1; i < polygon.size(); i++) {
+				if(isInRing(polygon.get(i), point)) {
+					inHole = true;
+					break;
+				}
+			}
+			
+			if(! inHole) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Is the point inside of the closed ring (ray casting)
+	 * @param ring
+	 * @param point
+	 * @return
+	 */
+	private static boolean isInRing(final double[][] ring, final double[] point) {
+		boolean inside = false;
+		
+		for(int i = 0, j = ring.length - 1; i < ring.length; j = i++) {
+			final double[] pi = ring[i];
+			final double[] pj = ring[j];
+			
+			if((pi[1] > point[1]) != (pj[1] > point[1])) {
+				final double crossX = (pj[0] - pi[0]) * (point[1] - pi[1]) / (pj[1] - pi[1]) + pi[0];
+				
+				if(point[0] < crossX) {
+					inside = ! inside;
+				}
+			}
+		}
+		
+		return inside;
+	}
+	
+	/**
+	 * Do the segments p1-p2 and q1-q2 intersect
+	 * @param p1
+	 * @param p2
+	 * @param q1
+	 * @param q2
+	 * @return
+	 */
+	private static boolean segmentsIntersect(final double[] p1, final double[] p2, 
+			final double[] q1, final double[] q2) {
+		
+		// Fast bounding box rejection
+		if(Math.max(p1[0], p2[0]) < Math.min(q1[0], q2[0]) 
+				|| Math.max(q1[0], q2[0]) < Math.min(p1[0], p2[0])
+				|| Math.max(p1[1], p2[1]) < Math.min(q1[1], q2[1])
+				|| Math.max(q1[1], q2[1]) < Math.min(p1[1], p2[1])) {
+			return false;
+		}
+		
+		final int o1 = orientation(p1, p2, q1);
+		final int o2 = orientation(p1, p2, q2);
+		final int o3 = orientation(q1, q2, p1);
+		final int o4 = orientation(q1, q2, p2);
+		
+		if(o1 != o2 && o3 != o4) {
+			return true;
+		}
+		
+		// Collinear cases
+		return (o1 == 0 && onSegment(p1, p2, q1))
+				|| (o2 == 0 && onSegment(p1, p2, q2))
+				|| (o3 == 0 && onSegment(q1, q2, p1))
+				|| (o4 == 0 && onSegment(q1, q2, p2));
+	}
+	
+	/**
+	 * The orientation of the ordered triplet (0 = collinear, 1 = clockwise, 
+	 * -1 = counterclockwise)
+	 * @param p
+	 * @param q
+	 * @param r
+	 * @return
+	 */
+	private static int orientation(final double[] p, final double[] q, final double[] r) {
+		final double value = (q[1] - p[1]) * (r[0] - q[0]) - (q[0] - p[0]) * (r[1] - q[1]);
+		return (int) Math.signum(value);
+	}
+	
+	/**
+	 * Is the collinear point r located on the segment p-q
+	 * @param p
+	 * @param q
+	 * @param r
+	 * @return
+	 */
+	private static boolean onSegment(final double[] p, final double[] q, final double[] r) {
+		return r[0] <= Math.max(p[0], q[0]) && r[0] >= Math.min(p[0], q[0])
+				&& r[1] <= Math.max(p[1], q[1]) && r[1] >= Math.min(p[1], q[1]);
+	}
+
+	@Override
+	public String toString() {
+		return "GeoJsonGeometry [points=" + points.size() + ", lines=" + lines.size() 
+			+ ", polygons=" + polygons.size() + "]";
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.geometry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bboxdb.storage.entity.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class GeometryCache {
+	
+	/**
+	 * The instance
+	 */
+	private static GeometryCache instance;
+	
+	/**
+	 * The max amount of cached geometries
+	 */
+	public final static int MAX_CACHED_GEOMETRIES = 10000;
+	
+	/**
+	 * The cached geometries (LRU), an empty value marks a tuple without a
+	 * parseable geometry
+	 */
+	protected final Map<String, Optional<GeoJsonGeometry>> cache;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(GeometryCache.class);
+
+	static {
+		instance = new GeometryCache();
+	}
+	
+	private GeometryCache() {
+		// private singleton constructor
+		cache = new LinkedHashMap<String, Optional<GeoJsonGeometry>>(16, 0.75f, true) {
+			
+			private static final long serialVersionUID = 4394617323461829436L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Optional<GeoJsonGeometry>> eldest) {
+				return size() > MAX_CACHED_GEOMETRIES;
+			}
+		};
+	}
+	
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+	
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static GeometryCache getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * Get the geometry of the tuple. The geometry is parsed on the first access.
+	 * @param tupleStoreName
+	 * @param tuple
+	 * @return the geometry or an empty optional, if the tuple does not contain a geometry
+	 */
+	public Optional<GeoJsonGeometry> getGeometry(final String tupleStoreName, final Tuple tuple) {
+		final String cacheKey = tupleStoreName + "/" + tuple.getKey() + "/" + tuple.getVersionTimestamp();
+		
+		synchronized (cache) {
+			final Optional<GeoJsonGeometry> cachedGeometry = cache.get(cacheKey);
+			
+			if(cachedGeometry != null) {
+				return cachedGeometry;
+			}
+		}
+		
+		// Parse the geometry outside of the lock
+		Optional<GeoJsonGeometry> geometry = Optional.empty();
+		
+		try {
+			geometry = Optional.of(GeoJsonGeometry.fromGeoJson(new String(tuple.getDataBytes())));
+		} catch (IllegalArgumentException e) {
+			logger.debug("Unable to parse geometry of tuple {} in {}", tuple.getKey(), tupleStoreName);
+		}
+		
+		synchronized (cache) {
+			cache.put(cacheKey, geometry);
+		}
+		
+		return geometry;
+	}
+	
+	/**
+	 * Get the amount of cached geometries
+	 * @return
+	 */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+	
+	/**
+	 * Clear the cache
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.queryprocessor.aggregation.Aggregator;
+
+/**
+ * Aggregates the tuples of the operator. Only the partial aggregates 
+ * (encoded as tuples) are returned.
+ */
+public class AggregationOperator implements Operator {
+
+	/**
+	 * The operator
+	 */
+	private final Operator operator;
+	
+	/**
+	 * The aggregator
+	 */
+	private final Aggregator aggregator;
+	
+	/**
+	 * The name of the tuple store of the result
+	 */
+	private final String tupleStoreName;
+	
+	public AggregationOperator(final Operator operator, final Aggregator aggregator, 
+			final String tupleStoreName) {
+		
+		this.operator = operator;
+		this.aggregator = aggregator;
+		this.tupleStoreName = tupleStoreName;
+	}
+
+	@Override
+	public Iterator<JoinedTuple> iterator() {
+		final Iterator<JoinedTuple> iterator = operator.iterator();
+		
+		while(iterator.hasNext()) {
+			final JoinedTuple joinedTuple = iterator.next();
+			aggregator.addTuple(joinedTuple.convertToSingleTupleIfPossible());
+		}
+		
+		return aggregator.getPartialAggregates()
+				.stream()
+				.map(t -> new JoinedTuple(t, tupleStoreName))
+				.iterator();
+	}
+
+	@Override
+	public void close() throws IOException {
+		operator.close();
+	}
+}
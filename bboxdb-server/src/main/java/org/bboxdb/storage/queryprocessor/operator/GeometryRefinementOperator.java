@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.queryprocessor.geometry.GeoJsonGeometry;
+import org.bboxdb.storage.queryprocessor.geometry.GeometryCache;
+
+/**
+ * The bounding box based operators produce candidates. This operator parses 
+ * the GeoJSON geometry of the candidates and removes the false positives. A single 
+ * tuple has to intersect the query box, the tuples of a join result have to 
+ * intersect pairwise. Tuples without a parseable two dimensional geometry are 
+ * not refined.
+ */
+public class GeometryRefinementOperator implements Operator {
+	
+	private final class GeometryRefinementIterator implements Iterator<JoinedTuple> {
+		
+		/**
+		 * The base iterator
+		 */
+		private final Iterator<JoinedTuple> baseIterator;
+		
+		/**
+		 * The next tuple
+		 */
+		private JoinedTuple nextTuple = null;
+
+		public GeometryRefinementIterator(final Iterator<JoinedTuple> baseIterator) {
+			this.baseIterator = baseIterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			
+			if(nextTuple != null) {
+				return true;
+			}
+			
+			while(baseIterator.hasNext()) {
+				final JoinedTuple tuple = baseIterator.next();
+				
+				if(isGeometryMatching(tuple)) {
+					nextTuple = tuple;
+					return true;
+				}
+			}
+			
+			return false;
+		}
+
+		@Override
+		public JoinedTuple next() {
+			
+			if(nextTuple == null) {
+				throw new IllegalArgumentException("Invalid state, did you really called hasNext()?");
+			}
+			
+			final JoinedTuple resultTuple = nextTuple;
+			nextTuple = null;
+			return resultTuple;
+		}
+	}
+
+	/**
+	 * The operator
+	 */
+	private final Operator operator;
+	
+	/**
+	 * The bounding box of the query
+	 */
+	private final Hyperrectangle queryBox;
+	
+	/**
+	 * The geometry cache
+	 */
+	private final GeometryCache geometryCache;
+	
+	public GeometryRefinementOperator(final Operator operator, final Hyperrectangle queryBox) {
+		this.operator = operator;
+		this.queryBox = queryBox;
+		this.geometryCache = GeometryCache.getInstance();
+	}
+	
+	/**
+	 * Is the exact geometry of the result matching
+	 * @param joinedTuple
+	 * @return
+	 */
+	private boolean isGeometryMatching(final JoinedTuple joinedTuple) {
+		final List<GeoJsonGeometry> geometries = new ArrayList<>();
+		
+		for(int i = 0; i < joinedTuple.getNumberOfTuples(); i++) {
+			final Optional<GeoJsonGeometry> geometry = geometryCache.getGeometry(
+					joinedTuple.getTupleStoreName(i), joinedTuple.getTuple(i));
+			
+			// Unable to refine, keep the bounding box based result
+			if(! geometry.isPresent()) {
+				return true;
+			}
+			
+			geometries.add(geometry.get());
+		}
+		
+		if(geometries.size() == 1) {
+			return queryBox == null || geometries.get(0).intersects(queryBox);
+		}
+		
+		for(int i = 0; i < geometries.size(); i++) {
+			for(int j = i + 1; j < geometries.size(); j++) {
+				if(! geometries.get(i).intersects(geometries.get(j))) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+
+	@Override
+	public Iterator<JoinedTuple> iterator() {
+		return new GeometryRefinementIterator(operator.iterator());
+	}
+
+	@Override
+	public void close() throws IOException {
+		operator.close();
+	}
+}
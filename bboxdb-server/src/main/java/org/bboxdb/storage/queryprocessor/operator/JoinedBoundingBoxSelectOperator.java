@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.JoinedTuple;
+
+/**
+ * Select the joined tuples whose tuple at the given position intersects 
+ * the given bounding box.
+ */
+public class JoinedBoundingBoxSelectOperator implements Operator {
+	
+	private final class JoinedBoundingBoxSelectIterator implements Iterator<JoinedTuple> {
+		
+		/**
+		 * The base iterator
+		 */
+		private final Iterator<JoinedTuple> baseIterator;
+		
+		/**
+		 * The next tuple
+		 */
+		private JoinedTuple nextTuple = null;
+
+		public JoinedBoundingBoxSelectIterator(final Iterator<JoinedTuple> baseIterator) {
+			this.baseIterator = baseIterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			
+			if(nextTuple != null) {
+				return true;
+			}
+			
+			while(baseIterator.hasNext()) {
+				final JoinedTuple tuple = baseIterator.next();
+				
+				if(tuple.getTuple(tuplePosition).getBoundingBox().intersects(boundingBox)) {
+					nextTuple = tuple;
+					return true;
+				}
+			}
+			
+			return false;
+		}
+
+		@Override
+		public JoinedTuple next() {
+			
+			if(nextTuple == null) {
+				throw new IllegalArgumentException("Invalid state, did you really called hasNext()?");
+			}
+			
+			final JoinedTuple resultTuple = nextTuple;
+			nextTuple = null;
+			return resultTuple;
+		}
+	}
+
+	/**
+	 * The bounding box for the query
+	 */
+	private final Hyperrectangle boundingBox;
+	
+	/**
+	 * The position of the tuple in the joined tuple
+	 */
+	private final int tuplePosition;
+	
+	/**
+	 * The operator
+	 */
+	private final Operator operator;
+	
+	public JoinedBoundingBoxSelectOperator(final Hyperrectangle boundingBox, final int tuplePosition, 
+			final Operator operator) {
+		
+		this.boundingBox = boundingBox;
+		this.tuplePosition = tuplePosition;
+		this.operator = operator;
+	}
+
+	@Override
+	public Iterator<JoinedTuple> iterator() {
+		return new JoinedBoundingBoxSelectIterator(operator.iterator());
+	}
+
+	@Override
+	public void close() throws IOException {
+		operator.close();
+	}
+}
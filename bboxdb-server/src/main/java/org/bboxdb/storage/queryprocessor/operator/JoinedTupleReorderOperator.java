@@ -0,0 +1,92 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.Tuple;
+
+/**
+ * Change the order of the tuples in the joined tuples. The join planner may 
+ * join the tables in a different order than requested; this operator restores 
+ * the requested order.
+ */
+public class JoinedTupleReorderOperator implements Operator {
+	
+	private final class JoinedTupleReorderIterator implements Iterator<JoinedTuple> {
+		
+		/**
+		 * The base iterator
+		 */
+		private final Iterator<JoinedTuple> baseIterator;
+
+		public JoinedTupleReorderIterator(final Iterator<JoinedTuple> baseIterator) {
+			this.baseIterator = baseIterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return baseIterator.hasNext();
+		}
+
+		@Override
+		public JoinedTuple next() {
+			final JoinedTuple joinedTuple = baseIterator.next();
+			
+			final List<Tuple> tuples = new ArrayList<>(resultPositions.length);
+			final List<String> tupleStoreNames = new ArrayList<>(resultPositions.length);
+			
+			for(final int position : resultPositions) {
+				tuples.add(joinedTuple.getTuple(position));
+				tupleStoreNames.add(joinedTuple.getTupleStoreName(position));
+			}
+			
+			return new JoinedTuple(tuples, tupleStoreNames);
+		}
+	}
+
+	/**
+	 * The operator
+	 */
+	private final Operator operator;
+	
+	/**
+	 * The position of the result tuples in the input (result tuple i is 
+	 * read from position resultPositions[i])
+	 */
+	private final int[] resultPositions;
+	
+	public JoinedTupleReorderOperator(final Operator operator, final int[] resultPositions) {
+		this.operator = operator;
+		this.resultPositions = resultPositions;
+	}
+
+	@Override
+	public Iterator<JoinedTuple> iterator() {
+		return new JoinedTupleReorderIterator(operator.iterator());
+	}
+
+	@Override
+	public void close() throws IOException {
+		operator.close();
+	}
+}
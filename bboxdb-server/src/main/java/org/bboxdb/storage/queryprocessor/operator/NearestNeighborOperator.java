@@ -0,0 +1,242 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.util.TupleHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Returns the k nearest tuples to the query box. The tuples of all tuple stores 
+ * are merged in the order of their distance. A tuple is only returned, when it 
+ * is the most recent version of the key. Outdated versions are skipped, the most 
+ * recent version is read from its own tuple store at its own distance.
+ */
+public class NearestNeighborOperator implements Operator {
+	
+	private final class NearestNeighborIterator implements Iterator<JoinedTuple> {
+		
+		/**
+		 * The next tuple of each tuple store, ordered by distance
+		 */
+		private PriorityQueue<Candidate> candidates = null;
+		
+		/**
+		 * The already returned tuples (key and version)
+		 */
+		private final Set<String> returnedTuples = new HashSet<>();
+		
+		/**
+		 * The next tuple
+		 */
+		private JoinedTuple nextTuple = null;
+		
+		@Override
+		public boolean hasNext() {
+			
+			if(nextTuple != null) {
+				return true;
+			}
+			
+			if(returnedTuples.size() >= maxTuples) {
+				return false;
+			}
+			
+			if(candidates == null) {
+				setupCandidates();
+			}
+			
+			final String tupleStoreName = tupleStoreManager.getTupleStoreName().getFullnameWithoutPrefix();
+			
+			while(! candidates.isEmpty()) {
+				final Candidate candidate = candidates.poll();
+				final Tuple tuple = candidate.tuple;
+				addNextCandidate(candidate.iterator);
+				
+				final String tupleId = tuple.getKey() + "_" + tuple.getVersionTimestamp();
+				
+				if(returnedTuples.contains(tupleId) || ! isMostRecentVersion(tuple)) {
+					continue;
+				}
+				
+				returnedTuples.add(tupleId);
+				nextTuple = new JoinedTuple(tuple, tupleStoreName);
+				return true;
+			}
+			
+			return false;
+		}
+
+		@Override
+		public JoinedTuple next() {
+			
+			if(nextTuple == null) {
+				throw new IllegalArgumentException("Invalid state, did you really called hasNext()?");
+			}
+			
+			final JoinedTuple resultTuple = nextTuple;
+			nextTuple = null;
+			return resultTuple;
+		}
+		
+		/**
+		 * Acquire the tuple stores and read the first tuple of each store
+		 */
+		private void setupCandidates() {
+			candidates = new PriorityQueue<>();
+			
+			try {
+				aquiredStorages.addAll(tupleStoreManager.aquireStorage());
+			} catch (StorageManagerException e) {
+				logger.error("Unable to aquire tables", e);
+				return;
+			}
+			
+			for(final ReadOnlyTupleStore tupleStore : aquiredStorages) {
+				addNextCandidate(tupleStore.getAllTuplesByDistance(queryBox));
+			}
+		}
+		
+		/**
+		 * Add the next tuple of the iterator to the candidates
+		 * @param iterator
+		 */
+		private void addNextCandidate(final Iterator<Tuple> iterator) {
+			while(iterator.hasNext()) {
+				final Tuple tuple = iterator.next();
+				
+				if(TupleHelper.isDeletedTuple(tuple) || tuple.getBoundingBox() == null) {
+					continue;
+				}
+				
+				final double distance = queryBox.getMinDistance(tuple.getBoundingBox());
+				candidates.add(new Candidate(distance, tuple, iterator));
+				return;
+			}
+		}
+		
+		/**
+		 * Is the tuple the most recent version of the key
+		 * @param tuple
+		 * @return
+		 */
+		private boolean isMostRecentVersion(final Tuple tuple) {
+			try {
+				final List<Tuple> versions = tupleStoreManager.getVersionsForTuple(tuple.getKey());
+				
+				return versions.stream()
+						.filter(t -> ! TupleHelper.isDeletedTuple(t))
+						.anyMatch(t -> t.getVersionTimestamp() == tuple.getVersionTimestamp());
+				
+			} catch (StorageManagerException e) {
+				logger.error("Unable to read versions for key {}", tuple.getKey(), e);
+				return false;
+			}
+		}
+	}
+	
+	private final static class Candidate implements Comparable<Candidate> {
+		
+		/**
+		 * The distance to the query box
+		 */
+		private final double distance;
+		
+		/**
+		 * The tuple
+		 */
+		private final Tuple tuple;
+		
+		/**
+		 * The iterator of the tuple store
+		 */
+		private final Iterator<Tuple> iterator;
+
+		public Candidate(final double distance, final Tuple tuple, final Iterator<Tuple> iterator) {
+			this.distance = distance;
+			this.tuple = tuple;
+			this.iterator = iterator;
+		}
+
+		@Override
+		public int compareTo(final Candidate otherCandidate) {
+			return Double.compare(distance, otherCandidate.distance);
+		}
+	}
+
+	/**
+	 * The tuple store manager
+	 */
+	private final TupleStoreManager tupleStoreManager;
+	
+	/**
+	 * The query box
+	 */
+	private final Hyperrectangle queryBox;
+	
+	/**
+	 * The max amount of returned tuples
+	 */
+	private final int maxTuples;
+	
+	/**
+	 * The aquired storages
+	 */
+	private final List<ReadOnlyTupleStore> aquiredStorages;
+	
+	/**
+	 * The Logger
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(NearestNeighborOperator.class);
+
+	public NearestNeighborOperator(final TupleStoreManager tupleStoreManager, 
+			final Hyperrectangle queryBox, final int maxTuples) {
+		
+		this.tupleStoreManager = tupleStoreManager;
+		this.queryBox = queryBox;
+		this.maxTuples = maxTuples;
+		this.aquiredStorages = new ArrayList<>();
+	}
+
+	@Override
+	public Iterator<JoinedTuple> iterator() {
+		return new NearestNeighborIterator();
+	}
+
+	/**
+	 * Release all aquired tables
+	 */
+	@Override
+	public void close() {
+		tupleStoreManager.releaseStorage(aquiredStorages);
+		aquiredStorages.clear();
+	}
+}
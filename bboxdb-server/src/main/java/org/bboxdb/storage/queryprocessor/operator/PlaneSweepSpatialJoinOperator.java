@@ -0,0 +1,290 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import org.bboxdb.commons.CloseableHelper;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.Tuple;
+
+/**
+ * Spatial join that reads both inputs once, sorts them by the lower 
+ * coordinate of the first dimension and performs a plane sweep. In contrast 
+ * to the IndexedSpatialJoinOperator, the index reader is only opened 
+ * once (with the covering box of all tuples of the stream source).
+ */
+public class PlaneSweepSpatialJoinOperator implements Operator {
+
+	private final class PlaneSweepIterator implements Iterator<JoinedTuple> {
+		
+		/**
+		 * The sorted tuples of the stream source
+		 */
+		private List<JoinedTuple> streamTuples = null;
+		
+		/**
+		 * The sorted tuples of the index reader
+		 */
+		private List<JoinedTuple> indexTuples = null;
+		
+		/**
+		 * The sweep position in the stream tuples
+		 */
+		private int streamPos = 0;
+		
+		/**
+		 * The sweep position in the index tuples
+		 */
+		private int indexPos = 0;
+		
+		/**
+		 * The already found join results
+		 */
+		private final Deque<JoinedTuple> results = new ArrayDeque<>();
+
+		@Override
+		public boolean hasNext() {
+			
+			if(streamTuples == null) {
+				readInputs();
+			}
+			
+			while(results.isEmpty()) {
+				if(streamPos >= streamTuples.size() || indexPos >= indexTuples.size()) {
+					return false;
+				}
+				
+				final JoinedTuple streamTuple = streamTuples.get(streamPos);
+				final JoinedTuple indexTuple = indexTuples.get(indexPos);
+				
+				if(getLow(streamTuple.getBoundingBox()) <= getLow(indexTuple.getBoundingBox())) {
+					sweepIndexTuples(streamTuple);
+					streamPos++;
+				} else {
+					sweepStreamTuples(indexTuple);
+					indexPos++;
+				}
+			}
+			
+			return true;
+		}
+
+		/**
+		 * Join the stream tuple with all index tuples that start before the 
+		 * stream tuple ends
+		 * @param streamTuple
+		 */
+		private void sweepIndexTuples(final JoinedTuple streamTuple) {
+			final Hyperrectangle streamBox = streamTuple.getBoundingBox();
+			final double high = getHigh(streamBox);
+			
+			for(int pos = indexPos; pos < indexTuples.size(); pos++) {
+				final JoinedTuple indexTuple = indexTuples.get(pos);
+				final Hyperrectangle indexBox = indexTuple.getBoundingBox();
+				
+				if(getLow(indexBox) > high) {
+					break;
+				}
+				
+				if(streamBox.intersects(indexBox)) {
+					results.add(buildJoinedTuple(streamTuple, indexTuple));
+				}
+			}
+		}
+		
+		/**
+		 * Join the index tuple with all stream tuples that start before the 
+		 * index tuple ends
+		 * @param indexTuple
+		 */
+		private void sweepStreamTuples(final JoinedTuple indexTuple) {
+			final Hyperrectangle indexBox = indexTuple.getBoundingBox();
+			final double high = getHigh(indexBox);
+			
+			for(int pos = streamPos; pos < streamTuples.size(); pos++) {
+				final JoinedTuple streamTuple = streamTuples.get(pos);
+				final Hyperrectangle streamBox = streamTuple.getBoundingBox();
+				
+				if(getLow(streamBox) > high) {
+					break;
+				}
+				
+				if(streamBox.intersects(indexBox)) {
+					results.add(buildJoinedTuple(streamTuple, indexTuple));
+				}
+			}
+		}
+
+		@Override
+		public JoinedTuple next() {
+			
+			if(results.isEmpty()) {
+				throw new IllegalArgumentException("Next tuple is null, do you forget to call hasNext()?");
+			}
+			
+			return results.poll();
+		}
+		
+		/**
+		 * Read and sort both inputs. The index reader only reads the tuples that can 
+		 * intersect one of the stream tuples.
+		 */
+		private void readInputs() {
+			streamTuples = new ArrayList<>();
+			Hyperrectangle coveringBox = null;
+			
+			while(tupleStreamSource.hasNext()) {
+				final JoinedTuple streamTuple = tupleStreamSource.next();
+				final Hyperrectangle boundingBox = streamTuple.getBoundingBox();
+				
+				if(boundingBox == null) {
+					continue;
+				}
+				
+				streamTuples.add(streamTuple);
+				
+				if(coveringBox == null || boundingBox.getDimension() == 0) {
+					coveringBox = boundingBox;
+				} else if(coveringBox.getDimension() != 0) {
+					coveringBox = Hyperrectangle.getCoveringBox(coveringBox, boundingBox);
+				}
+			}
+			
+			indexTuples = new ArrayList<>();
+			
+			if(coveringBox == null) {
+				return;
+			}
+			
+			indexReader.setBoundingBox(coveringBox);
+			final Iterator<JoinedTuple> indexIterator = indexReader.iterator();
+			
+			while(indexIterator.hasNext()) {
+				final JoinedTuple indexTuple = indexIterator.next();
+				
+				if(indexTuple.getBoundingBox() != null) {
+					indexTuples.add(indexTuple);
+				}
+			}
+			
+			final Comparator<JoinedTuple> lowComparator 
+				= Comparator.comparingDouble(t -> getLow(t.getBoundingBox()));
+			
+			streamTuples.sort(lowComparator);
+			indexTuples.sort(lowComparator);
+		}
+	}
+
+	/**
+	 * The first query processor
+	 */
+	private final Iterator<JoinedTuple> tupleStreamSource;
+	
+	/**
+	 * The tuple stream operator
+	 */
+	private final Operator tupleStreamOperator;
+	
+	/**
+	 * The index reader
+	 */
+	private final SpatialIndexReadOperator indexReader;
+	
+	/**
+	 * The sweep dimension
+	 */
+	private final static int SWEEP_DIMENSION = 0;
+
+	public PlaneSweepSpatialJoinOperator(final Operator tupleStreamOperator, 
+			final SpatialIndexReadOperator indexReader) {
+
+		this.tupleStreamOperator = tupleStreamOperator;
+		this.tupleStreamSource = tupleStreamOperator.iterator();
+		this.indexReader = indexReader;
+	}
+	
+	/**
+	 * Build the joined tuple
+	 * @param streamTuple
+	 * @param indexTuple
+	 * @return
+	 */
+	private static JoinedTuple buildJoinedTuple(final JoinedTuple streamTuple, 
+			final JoinedTuple indexTuple) {
+		
+		final List<String> tupleStoreNames = streamTuple.getTupleStoreNames();
+		final List<Tuple> tuples = streamTuple.getTuples();
+		
+		tupleStoreNames.addAll(indexTuple.getTupleStoreNames());
+		tuples.addAll(indexTuple.getTuples());
+		
+		return new JoinedTuple(tuples, tupleStoreNames);
+	}
+	
+	/**
+	 * Get the low coordinate of the sweep dimension, a box without 
+	 * dimension covers the whole space
+	 * @param boundingBox
+	 * @return
+	 */
+	private static double getLow(final Hyperrectangle boundingBox) {
+		if(boundingBox.getDimension() == 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		
+		return boundingBox.getCoordinateLow(SWEEP_DIMENSION);
+	}
+	
+	/**
+	 * Get the high coordinate of the sweep dimension, a box without 
+	 * dimension covers the whole space
+	 * @param boundingBox
+	 * @return
+	 */
+	private static double getHigh(final Hyperrectangle boundingBox) {
+		if(boundingBox.getDimension() == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		
+		return boundingBox.getCoordinateHigh(SWEEP_DIMENSION);
+	}
+
+	/**
+	 * Close all iterators
+	 */
+	@Override
+	public void close() {
+		CloseableHelper.closeWithoutException(tupleStreamOperator);
+		CloseableHelper.closeWithoutException(indexReader);
+	}
+	
+	/**
+	 * Get the query processing result
+	 * @return
+	 */
+	public Iterator<JoinedTuple> iterator() {
+		return new PlaneSweepIterator();	
+	}
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.operator;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.JoinedTuple;
+
+/**
+ * Tuples with an extended bounding box are stored in every region they intersect. This 
+ * operator emits a result only in the region that contains the reference point 
+ * (the lowest point of the intersection of the result box and the query box). So, 
+ * every result is only delivered by one region.
+ */
+public class ReferencePointFilterOperator implements Operator {
+	
+	private final class ReferencePointFilterIterator implements Iterator<JoinedTuple> {
+		
+		/**
+		 * The base iterator
+		 */
+		private final Iterator<JoinedTuple> baseIterator;
+		
+		/**
+		 * The next tuple
+		 */
+		private JoinedTuple nextTuple = null;
+
+		public ReferencePointFilterIterator(final Iterator<JoinedTuple> baseIterator) {
+			this.baseIterator = baseIterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			
+			if(nextTuple != null) {
+				return true;
+			}
+			
+			while(baseIterator.hasNext()) {
+				final JoinedTuple tuple = baseIterator.next();
+				
+				if(isReferencePointInRegion(tuple.getBoundingBox(), queryBox, regionBox)) {
+					nextTuple = tuple;
+					return true;
+				}
+			}
+			
+			return false;
+		}
+
+		@Override
+		public JoinedTuple next() {
+			
+			if(nextTuple == null) {
+				throw new IllegalArgumentException("Invalid state, did you really called hasNext()?");
+			}
+			
+			final JoinedTuple resultTuple = nextTuple;
+			nextTuple = null;
+			return resultTuple;
+		}
+	}
+
+	/**
+	 * The operator
+	 */
+	private final Operator operator;
+	
+	/**
+	 * The bounding box of the region
+	 */
+	private final Hyperrectangle regionBox;
+	
+	/**
+	 * The bounding box of the query
+	 */
+	private final Hyperrectangle queryBox;
+	
+	public ReferencePointFilterOperator(final Operator operator, final Hyperrectangle regionBox, 
+			final Hyperrectangle queryBox) {
+		
+		this.operator = operator;
+		this.regionBox = regionBox;
+		this.queryBox = queryBox;
+	}
+	
+	/**
+	 * Is the reference point of the result contained in the region. When no reference 
+	 * point can be determined (e.g., the result has no bounding box), the result 
+	 * is always emitted.
+	 * 
+	 * @param resultBox
+	 * @param queryBox
+	 * @param regionBox
+	 * @return
+	 */
+	public static boolean isReferencePointInRegion(final Hyperrectangle resultBox, 
+			final Hyperrectangle queryBox, final Hyperrectangle regionBox) {
+		
+		if(resultBox == null || resultBox.getDimension() == 0) {
+			return true;
+		}
+		
+		final int dimension = resultBox.getDimension();
+		
+		if(regionBox == null || regionBox.getDimension() != dimension) {
+			return true;
+		}
+		
+		final boolean useQueryBox = queryBox != null && queryBox.getDimension() == dimension;
+		
+		for(int d = 0; d < dimension; d++) {
+			double referencePoint = resultBox.getCoordinateLow(d);
+			
+			if(useQueryBox) {
+				referencePoint = Math.max(referencePoint, queryBox.getCoordinateLow(d));
+			}
+			
+			if(! regionBox.isCoveringPointInDimension(referencePoint, d)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+
+	@Override
+	public Iterator<JoinedTuple> iterator() {
+		return new ReferencePointFilterIterator(operator.iterator());
+	}
+
+	@Override
+	public void close() throws IOException {
+		operator.close();
+	}
+}
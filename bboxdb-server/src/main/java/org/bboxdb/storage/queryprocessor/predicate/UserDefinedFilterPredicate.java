@@ -0,0 +1,49 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.queryprocessor.predicate;
+
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilter;
+
+public class UserDefinedFilterPredicate implements Predicate {
+
+	/**
+	 * The user defined filter
+	 */
+	protected final UserDefinedFilter filter;
+	
+	/**
+	 * The parameter of the filter
+	 */
+	protected final byte[] customData;
+	
+	public UserDefinedFilterPredicate(final UserDefinedFilter filter, final byte[] customData) {
+		this.filter = filter;
+		this.customData = customData;
+	}
+
+	@Override
+	public boolean matches(final Tuple tuple) {
+		return filter.filterTuple(tuple, customData);
+	}
+
+	@Override
+	public String toString() {
+		return "UserDefinedFilterPredicate [filter=" + filter.getClass().getName() + "]";
+	}
+}
@@ -17,6 +17,11 @@
  *******************************************************************************/
 package org.bboxdb.storage.sstable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreMetaData;
@@ -48,6 +53,26 @@ public class SSTableMetadataBuilder {
 	 */
 	protected Hyperrectangle boundingBox;
 	
+	/**
+	 * The reservoir with the bounding box samples
+	 */
+	protected final List<Hyperrectangle> samples = new ArrayList<>();
+	
+	/**
+	 * The amount of boxes that were offered to the reservoir
+	 */
+	protected long sampleCandidates = 0;
+	
+	/**
+	 * The random for the reservoir sampling
+	 */
+	private final Random random = new Random();
+	
+	/**
+	 * The max amount of bounding box samples
+	 */
+	public final static int MAX_SAMPLES = 250;
+	
 	/**
 	 * Update the metadata 
 	 */
@@ -66,6 +91,35 @@ public class SSTableMetadataBuilder {
 		newestTupleVersionTimstamp = Math.max(newestTupleVersionTimstamp, tuple.getVersionTimestamp());
 		oldestTupleVersionTimestamp = Math.min(oldestTupleVersionTimestamp, tuple.getVersionTimestamp());
 		newestTupleInsertedTimstamp = Math.max(newestTupleInsertedTimstamp, tuple.getReceivedTimestamp());
+		
+		addSample(tuple.getBoundingBox());
+	}
+	
+	/**
+	 * Add the bounding box to the reservoir sample. Every box is contained 
+	 * in the sample with the same probability (algorithm R).
+	 * 
+	 * @param tupleBoundingBox
+	 */
+	private void addSample(final Hyperrectangle tupleBoundingBox) {
+		
+		// Ignore tuples with an empty box (e.g. deleted tuples)
+		if(tupleBoundingBox == null || tupleBoundingBox.equals(Hyperrectangle.FULL_SPACE)) {
+			return;
+		}
+		
+		sampleCandidates++;
+		
+		if(samples.size() < MAX_SAMPLES) {
+			samples.add(tupleBoundingBox);
+			return;
+		}
+		
+		final long position = (long) (random.nextDouble() * sampleCandidates);
+		
+		if(position < MAX_SAMPLES) {
+			samples.set((int) position, tupleBoundingBox);
+		}
 	}
 	
 	/**
@@ -79,7 +133,12 @@ public class SSTableMetadataBuilder {
 			boundingBoxArray = boundingBox.toDoubleArray();
 		}
 		
+		final double[] sampleArray = samples.stream()
+				.flatMapToDouble(s -> Arrays.stream(s.toDoubleArray()))
+				.toArray();
+		
 		return new TupleStoreMetaData(tuples, oldestTupleVersionTimestamp, 
-				newestTupleVersionTimstamp, newestTupleInsertedTimstamp, boundingBoxArray);
+				newestTupleVersionTimstamp, newestTupleInsertedTimstamp, boundingBoxArray, 
+				sampleArray);
 	}
 }
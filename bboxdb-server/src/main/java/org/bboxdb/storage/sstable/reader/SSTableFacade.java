@@ -478,6 +478,39 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 		};
 	}
 
+	@Override
+	public Iterator<Tuple> getAllTuplesByDistance(final Hyperrectangle queryBox) {
+		assert (usage.get() > 0);
+
+		final Iterator<SpatialIndexEntry> entryIterator;
+		
+		try {
+			entryIterator = spatialIndex.getEntriesByDistance(queryBox);
+		} catch (StorageManagerException e) {
+			throw new RuntimeException(e);
+		}
+		
+		return new Iterator<Tuple>() {
+
+			@Override
+			public boolean hasNext() {
+				return entryIterator.hasNext();
+			}
+
+			@Override
+			public Tuple next() {
+				final SpatialIndexEntry entry = entryIterator.next();
+				final int tuplePosition = entry.getValue();
+				
+				try {
+					return ssTableReader.getTupleAtPosition(tuplePosition);
+				} catch (StorageManagerException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+	}
+
 	@Override
 	public boolean isPersistent() {
 		return true;
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.sstable.spatialindex;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+
+/**
+ * Best first search on a tree based spatial index. The entries are returned 
+ * in the order of their distance to the query box. The nodes of the tree are 
+ * only expanded when they are closer than the next returned entry.
+ *
+ * @param <N> - the node type of the tree
+ */
+public abstract class AbstractNearestEntryIterator<N> implements Iterator<SpatialIndexEntry> {
+	
+	/**
+	 * The query box
+	 */
+	protected final Hyperrectangle queryBox;
+	
+	/**
+	 * The unprocessed nodes and entries, ordered by the distance
+	 */
+	private final PriorityQueue<QueueElement> queue;
+	
+	public AbstractNearestEntryIterator(final Hyperrectangle queryBox, final N rootNode) {
+		this.queryBox = queryBox;
+		this.queue = new PriorityQueue<>();
+		
+		if(rootNode != null) {
+			queue.add(new QueueElement(getDistance(getBoundingBox(rootNode)), rootNode, null));
+		}
+	}
+	
+	@Override
+	public boolean hasNext() {
+		
+		while(! queue.isEmpty()) {
+			final QueueElement element = queue.peek();
+			
+			if(element.entry != null) {
+				return true;
+			}
+			
+			queue.poll();
+			expandNode(element.node);
+		}
+		
+		return false;
+	}
+
+	@Override
+	public SpatialIndexEntry next() {
+		
+		if(! hasNext()) {
+			throw new IllegalArgumentException("No more entries, do you forget to call hasNext()?");
+		}
+		
+		return queue.poll().entry;
+	}
+	
+	/**
+	 * Add the entries and the child nodes of the node to the queue
+	 * @param node
+	 */
+	private void expandNode(final N node) {
+		for(final SpatialIndexEntry entry : getIndexEntries(node)) {
+			queue.add(new QueueElement(getDistance(entry.getBoundingBox()), null, entry));
+		}
+		
+		for(final N childNode : getChildNodes(node)) {
+			queue.add(new QueueElement(getDistance(getBoundingBox(childNode)), childNode, null));
+		}
+	}
+	
+	/**
+	 * Get the distance between the box and the query box
+	 * @param boundingBox
+	 * @return
+	 */
+	private double getDistance(final Hyperrectangle boundingBox) {
+		if(boundingBox == null) {
+			return 0;
+		}
+		
+		return queryBox.getMinDistance(boundingBox);
+	}
+	
+	/**
+	 * Get the bounding box of the node
+	 * @param node
+	 * @return
+	 */
+	protected abstract Hyperrectangle getBoundingBox(final N node);
+	
+	/**
+	 * Get the index entries of the node
+	 * @param node
+	 * @return
+	 */
+	protected abstract List<SpatialIndexEntry> getIndexEntries(final N node);
+	
+	/**
+	 * Get the child nodes of the node
+	 * @param node
+	 * @return
+	 */
+	protected abstract List<N> getChildNodes(final N node);
+	
+	private final class QueueElement implements Comparable<QueueElement> {
+		
+		/**
+		 * The distance to the query box
+		 */
+		private final double distance;
+		
+		/**
+		 * The node (or null)
+		 */
+		private final N node;
+		
+		/**
+		 * The entry (or null)
+		 */
+		private final SpatialIndexEntry entry;
+
+		public QueueElement(final double distance, final N node, final SpatialIndexEntry entry) {
+			this.distance = distance;
+			this.node = node;
+			this.entry = entry;
+		}
+
+		@Override
+		public int compareTo(final QueueElement otherElement) {
+			final int result = Double.compare(distance, otherElement.distance);
+			
+			if(result != 0) {
+				return result;
+			}
+			
+			// Return entries before nodes with the same distance
+			if(entry != null && otherElement.entry == null) {
+				return -1;
+			} else if(entry == null && otherElement.entry != null) {
+				return 1;
+			}
+			
+			return 0;
+		}
+	}
+}
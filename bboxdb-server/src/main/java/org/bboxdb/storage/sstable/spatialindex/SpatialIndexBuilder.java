@@ -18,6 +18,7 @@
 package org.bboxdb.storage.sstable.spatialindex;
 
 import java.io.RandomAccessFile;
+import java.util.Iterator;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -56,5 +57,12 @@ public interface SpatialIndexBuilder {
 	 * @return
 	 */
 	public List<? extends SpatialIndexEntry> getEntriesForRegion(final Hyperrectangle boundingBox);
+	
+	/**
+	 * Get the entries in the order of their distance to the query box
+	 * @param queryBox
+	 * @return
+	 */
+	public Iterator<SpatialIndexEntry> getEntriesByDistance(final Hyperrectangle queryBox);
 
 }
@@ -19,6 +19,7 @@ package org.bboxdb.storage.sstable.spatialindex;
 
 import java.io.Closeable;
 import java.io.RandomAccessFile;
+import java.util.Iterator;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -44,4 +45,11 @@ public interface SpatialIndexReader extends Closeable {
 	 * @return
 	 */
 	public List<SpatialIndexEntry> getEntriesForRegion(final Hyperrectangle boundingBox) throws StorageManagerException;
+	
+	/**
+	 * Get the entries in the order of their distance to the query box
+	 * @param queryBox
+	 * @return
+	 */
+	public Iterator<SpatialIndexEntry> getEntriesByDistance(final Hyperrectangle queryBox) throws StorageManagerException;
 }
@@ -20,6 +20,7 @@ package org.bboxdb.storage.sstable.spatialindex.rtree;
 import java.io.RandomAccessFile;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 import org.bboxdb.commons.Pair;
@@ -230,6 +231,11 @@ public class RTreeBuilder implements SpatialIndexBuilder {
 	public List<? extends SpatialIndexEntry> getEntriesForRegion(final Hyperrectangle boundingBox) {
 		return rootNode.getEntriesForRegion(boundingBox);
 	}
+	
+	@Override
+	public Iterator<SpatialIndexEntry> getEntriesByDistance(final Hyperrectangle queryBox) {
+		return new RTreeNearestEntryIterator(queryBox, rootNode);
+	}
 
 	/**
 	 * Distribute the leaf data
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.AbstractMap;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Queue;
@@ -168,6 +169,11 @@ public class RTreeMemoryReader extends AbstractRTreeReader {
 		return rootNode.getEntriesForRegion(boundingBox);
 	}
 	
+	@Override
+	public Iterator<SpatialIndexEntry> getEntriesByDistance(final Hyperrectangle queryBox) {
+		return new RTreeNearestEntryIterator(queryBox, rootNode);
+	}
+	
 
 	@Override
 	public void close() {
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.sstable.spatialindex.rtree;
+
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.sstable.spatialindex.AbstractNearestEntryIterator;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+
+public class RTreeNearestEntryIterator extends AbstractNearestEntryIterator<RTreeDirectoryNode> {
+
+	public RTreeNearestEntryIterator(final Hyperrectangle queryBox, final RTreeDirectoryNode rootNode) {
+		super(queryBox, rootNode);
+	}
+
+	@Override
+	protected Hyperrectangle getBoundingBox(final RTreeDirectoryNode node) {
+		return node.getBoundingBox();
+	}
+
+	@Override
+	protected List<SpatialIndexEntry> getIndexEntries(final RTreeDirectoryNode node) {
+		return node.getIndexEntries();
+	}
+
+	@Override
+	protected List<RTreeDirectoryNode> getChildNodes(final RTreeDirectoryNode node) {
+		return node.getDirectoryNodeChilds();
+	}
+}
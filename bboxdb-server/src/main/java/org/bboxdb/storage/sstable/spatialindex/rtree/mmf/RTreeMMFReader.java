@@ -22,6 +22,7 @@ import java.io.RandomAccessFile;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
@@ -32,6 +33,7 @@ import org.bboxdb.commons.io.UnsafeMemoryHelper;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.Const;
 import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.sstable.spatialindex.AbstractNearestEntryIterator;
 import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
 import org.bboxdb.storage.sstable.spatialindex.rtree.AbstractRTreeReader;
 import org.slf4j.Logger;
@@ -131,5 +133,57 @@ public class RTreeMMFReader extends AbstractRTreeReader {
 			throw new StorageManagerException(e);
 		}
 	}
+	
+	@Override
+	public Iterator<SpatialIndexEntry> getEntriesByDistance(final Hyperrectangle queryBox) 
+			throws StorageManagerException {
+		
+		try {
+			final DirectoryNode rootNode = readDirectoryNode(firstNodePos);
+			
+			return new AbstractNearestEntryIterator<DirectoryNode>(queryBox, rootNode) {
+
+				@Override
+				protected Hyperrectangle getBoundingBox(final DirectoryNode node) {
+					return node.getBoundingBox();
+				}
+
+				@Override
+				protected List<SpatialIndexEntry> getIndexEntries(final DirectoryNode node) {
+					return node.getIndexEntries();
+				}
+
+				@Override
+				protected List<DirectoryNode> getChildNodes(final DirectoryNode node) {
+					final List<DirectoryNode> childNodes = new ArrayList<>();
+					
+					try {
+						for(final int position : node.getChildNodes()) {
+							childNodes.add(readDirectoryNode(position));
+						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+					
+					return childNodes;
+				}
+			};
+		} catch (IOException e) {
+			throw new StorageManagerException(e);
+		}
+	}
+	
+	/**
+	 * Read the directory node at the given position
+	 * @param position
+	 * @return
+	 * @throws IOException
+	 */
+	private synchronized DirectoryNode readDirectoryNode(final int position) throws IOException {
+		memory.position(position);
+		final DirectoryNode directoryNode = new DirectoryNode();
+		directoryNode.initFromByteBuffer(memory, maxNodeSize);
+		return directoryNode;
+	}
 
 }
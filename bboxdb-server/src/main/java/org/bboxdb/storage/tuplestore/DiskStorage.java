@@ -228,6 +228,22 @@ public class DiskStorage implements BBoxDBService {
 		return memtable;
 	}
 	
+	/**
+	 * Get the number of memtables waiting to be flushed
+	 * @return
+	 */
+	public int getFlushQueueSize() {
+		return memtablesToFlush.size();
+	}
+	
+	/**
+	 * Get the size of the memtables waiting to be flushed
+	 * @return
+	 */
+	public long getFlushQueueBytes() {
+		return memtablesToFlush.stream().mapToLong(m -> m.getMemtable().getSize()).sum();
+	}
+	
 	/**
 	 * Get the basedir of this storage
 	 * @return
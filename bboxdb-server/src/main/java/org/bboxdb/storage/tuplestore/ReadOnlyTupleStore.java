@@ -55,6 +55,13 @@ public interface ReadOnlyTupleStore extends Iterable<Tuple>, AcquirableResource
 	 */
 	public Iterator<Tuple> getAllTuplesInBoundingBox(final Hyperrectangle boundingBox);
 	
+	/**
+	 * Get all tuples in the order of their distance to the query box
+	 * @param queryBox
+	 * @return
+	 */
+	public Iterator<Tuple> getAllTuplesByDistance(final Hyperrectangle queryBox);
+	
 	/**
 	 * Get the number of tuples in the storage
 	 * @return
@@ -20,7 +20,9 @@ package org.bboxdb.storage.tuplestore.manager;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.memtable.Memtable;
@@ -51,6 +53,21 @@ public class TupleStoreInstanceManager {
 	 */
 	private final List<SSTableFacade> sstableFacades;
 	
+	/**
+	 * The size of the sstables at the time they were added
+	 */
+	private final Map<SSTableFacade, Long> sstableSizes;
+	
+	/**
+	 * The total size of all sstables
+	 */
+	private long sstableSize;
+	
+	/**
+	 * The total amount of tuples in all sstables
+	 */
+	private long sstableTuples;
+	
 	/**
 	 * The state (read only / read write) of the manager
 	 */
@@ -64,6 +81,7 @@ public class TupleStoreInstanceManager {
 	
 	public TupleStoreInstanceManager() {		
 		this.sstableFacades = new ArrayList<>();
+		this.sstableSizes = new IdentityHashMap<>();
 		this.unflushedMemtables = new ArrayList<>();
 		this.sstableManagerState = TupleStoreManagerState.READ_WRITE;
 	}
@@ -103,6 +121,7 @@ public class TupleStoreInstanceManager {
 		// written to disk
 		if(sstableFacade != null) {
 			sstableFacades.add(sstableFacade);
+			addToCounter(sstableFacade);
 		}
 		
 		final boolean removeResult = unflushedMemtables.remove(memtable);
@@ -134,6 +153,9 @@ public class TupleStoreInstanceManager {
 		
 		assert (removeResult == true) : "Unable to remove old facades in replaceCompactedSStables: " 
 			+ oldFacades;
+		
+		newFacedes.forEach(f -> addToCounter(f));
+		oldFacades.forEach(f -> removeFromCounter(f));
 	}
 	
 	/**
@@ -144,6 +166,83 @@ public class TupleStoreInstanceManager {
 		assert(newSStable != null) : "New sstable is null";
 		
 		sstableFacades.add(newSStable);
+		addToCounter(newSStable);
+	}
+	
+	/**
+	 * Add the size and the tuples of the sstable to the counter
+	 * @param facade
+	 */
+	private void addToCounter(final SSTableFacade facade) {
+		final long size = facade.getSize();
+		sstableSizes.put(facade, size);
+		sstableSize += size;
+		sstableTuples += getTuplesFromMetadata(facade);
+	}
+	
+	/**
+	 * Remove the size and the tuples of the sstable from the counter
+	 * @param facade
+	 */
+	private void removeFromCounter(final SSTableFacade facade) {
+		final Long size = sstableSizes.remove(facade);
+		
+		if(size == null) {
+			return;
+		}
+		
+		sstableSize -= size;
+		sstableTuples -= getTuplesFromMetadata(facade);
+	}
+	
+	/**
+	 * Get the amount of tuples from the metadata of the sstable
+	 * @param facade
+	 * @return
+	 */
+	private long getTuplesFromMetadata(final SSTableFacade facade) {
+		if(facade.getSsTableMetadata() == null) {
+			return 0;
+		}
+		
+		return facade.getSsTableMetadata().getTuples();
+	}
+	
+	/**
+	 * Get the size of all storages. The size of the sstables is maintained
+	 * incrementally, so no storage needs to be acquired.
+	 * @return
+	 */
+	public synchronized long getSize() {
+		long size = sstableSize;
+		
+		if(memtable != null) {
+			size += memtable.getSize();
+		}
+		
+		for(final Memtable unflushedMemtable : unflushedMemtables) {
+			size += unflushedMemtable.getSize();
+		}
+		
+		return size;
+	}
+	
+	/**
+	 * Get the amount of tuples in all storages
+	 * @return
+	 */
+	public synchronized long getNumberOfTuples() {
+		long tuples = sstableTuples;
+		
+		if(memtable != null) {
+			tuples += memtable.getNumberOfTuples();
+		}
+		
+		for(final Memtable unflushedMemtable : unflushedMemtables) {
+			tuples += unflushedMemtable.getNumberOfTuples();
+		}
+		
+		return tuples;
 	}
 	
 	/**
@@ -169,6 +268,9 @@ public class TupleStoreInstanceManager {
 	public synchronized void clear() {
 		memtable = null;
 		sstableFacades.clear();
+		sstableSizes.clear();
+		sstableSize = 0;
+		sstableTuples = 0;
 		unflushedMemtables.clear();
 		notifyAll();
 	}
@@ -30,6 +30,7 @@ import org.bboxdb.commons.RejectedException;
 import org.bboxdb.commons.service.ServiceState;
 import org.bboxdb.commons.service.ServiceState.State;
 import org.bboxdb.distribution.DistributionGroupMetadataHelper;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
 import org.bboxdb.distribution.zookeeper.DistributionGroupAdapter;
 import org.bboxdb.distribution.zookeeper.NodeMutationHelper;
 import org.bboxdb.distribution.zookeeper.ZookeeperClient;
@@ -749,6 +750,8 @@ public class TupleStoreManager implements BBoxDBService {
 			throw new RejectedException("Storage manager is in read only state: " + tupleStoreName);
 		}
 
+		final long startTime = System.nanoTime();
+
 		try {
 			// Ensure that only one memtable is newly created
 			synchronized (this) {
@@ -762,6 +765,7 @@ public class TupleStoreManager implements BBoxDBService {
 			// Notify callbacks
 			insertCallbacks.forEach(c -> c.accept(tuple));
 
+			RegionRequestStatistics.recordWrite(tupleStoreName, System.nanoTime() - startTime);
 		} catch (StorageManagerException e) {
 			serviceState.dispatchToFailed(e);
 			throw e;
@@ -872,20 +876,7 @@ public class TupleStoreManager implements BBoxDBService {
 	 * @throws StorageManagerException
 	 */
 	public long getSize() throws StorageManagerException {
-		List<ReadOnlyTupleStore> storages = null;
-
-		try {
-			storages = aquireStorage();
-
-			return storages.stream()
-					.mapToLong(s -> s.getSize())
-					.sum();
-
-		} finally {
-			if(storages != null) {
-				releaseStorage(storages);
-			}
-		}
+		return tupleStoreInstances.getSize();
 	}
 
 	/**
@@ -894,20 +885,7 @@ public class TupleStoreManager implements BBoxDBService {
 	 * @throws StorageManagerException
 	 */
 	public long getNumberOfTuples() throws StorageManagerException {
-		List<ReadOnlyTupleStore> storages = null;
-
-		try {
-			storages = aquireStorage();
-
-			return storages.stream()
-					.mapToLong(s -> s.getNumberOfTuples())
-					.sum();
-
-		} finally {
-			if(storages != null) {
-				releaseStorage(storages);
-			}
-		}
+		return tupleStoreInstances.getNumberOfTuples();
 	}
 
 	/**
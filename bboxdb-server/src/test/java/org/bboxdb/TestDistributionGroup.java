@@ -17,9 +17,16 @@
  *******************************************************************************/
 package org.bboxdb;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.bboxdb.commons.math.DoubleInterval;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.DistributionGroupConfigurationCache;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
 import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionHelper;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
 import org.junit.Assert;
@@ -118,4 +125,95 @@ public class TestDistributionGroup {
 		Assert.assertEquals(config1.hashCode(), config2.hashCode());
 	}
 	
+	/**
+	 * Test the bounding box pruned region lookup
+	 */
+	@Test(timeout=60000)
+	public void testPrunedRegionLookup() {
+		final DistributionRegion level0 = createDistributionGroup(2);
+		final double inf = Double.POSITIVE_INFINITY;
+		
+		final DistributionRegion left = new DistributionRegion("foo", level0, 
+				new Hyperrectangle(-inf, 0d, -inf, inf), 1);
+		final DistributionRegion right = new DistributionRegion("foo", level0, 
+				new Hyperrectangle(0d, inf, -inf, inf), 2);
+		level0.addChildren(0, left);
+		level0.addChildren(1, right);
+		
+		final DistributionRegion rightBottom = new DistributionRegion("foo", right, 
+				new Hyperrectangle(0d, inf, -inf, 0d), 3);
+		final DistributionRegion rightTop = new DistributionRegion("foo", right, 
+				new Hyperrectangle(0d, inf, 0d, inf), 4);
+		right.addChildren(0, rightBottom);
+		right.addChildren(1, rightTop);
+		
+		final List<Hyperrectangle> queries = Arrays.asList(
+				new Hyperrectangle(-10d, -5d, -10d, 10d),
+				new Hyperrectangle(5d, 10d, 5d, 10d),
+				new Hyperrectangle(-5d, 5d, -5d, 5d),
+				new Hyperrectangle(5d, 10d, -10d, -5d),
+				Hyperrectangle.FULL_SPACE);
+		
+		for(final Hyperrectangle query : queries) {
+			final List<DistributionRegion> expected = level0.getThisAndChildRegions(
+					(r) -> r.getConveringBox().intersects(query));
+			
+			final List<DistributionRegion> result 
+				= level0.getThisAndChildRegions(query, (r) -> true);
+			
+			Assert.assertEquals(new HashSet<>(expected), new HashSet<>(result));
+			Assert.assertEquals(expected.size(), result.size());
+		}
+		
+		final List<DistributionRegion> leftOnly = level0.getThisAndChildRegions(
+				new Hyperrectangle(-10d, -5d, -10d, 10d), (r) -> r.isLeafRegion());
+		Assert.assertEquals(Arrays.asList(left), leftOnly);
+	}
+	
+	/**
+	 * Test the removal of the destination regions of a running split or merge
+	 */
+	@Test(timeout=60000)
+	public void testRemoveRedistributionDestinations() {
+		final DistributionRegion level0 = createDistributionGroup(2);
+		final double min = DoubleInterval.MIN_VALUE;
+		final double max = DoubleInterval.MAX_VALUE;
+		
+		final DistributionRegion left = new DistributionRegion("foo", level0, 
+				new Hyperrectangle(min, 0d, min, max), 1);
+		final DistributionRegion right = new DistributionRegion("foo", level0, 
+				new Hyperrectangle(0d, max, min, max), 2);
+		final DistributionRegion rightBottom = new DistributionRegion("foo", right, 
+				new Hyperrectangle(0d, max, min, 0d), 3);
+		final DistributionRegion rightTop = new DistributionRegion("foo", right, 
+				new Hyperrectangle(0d, max, 0d, max), 4);
+		
+		// Split of the right region, the left region is the destination of an other operation
+		right.setState(DistributionRegionState.SPLITTING);
+		rightBottom.setState(DistributionRegionState.REDISTRIBUTION_ACTIVE);
+		rightTop.setState(DistributionRegionState.REDISTRIBUTION_ACTIVE);
+		left.setState(DistributionRegionState.REDISTRIBUTION_ACTIVE);
+		
+		final List<DistributionRegion> splitResult = DistributionRegionHelper
+				.removeRedistributionDestinations(Arrays.asList(left, right, rightBottom, rightTop));
+		Assert.assertEquals(Arrays.asList(left, right), splitResult);
+		
+		// Merge of the left and the right region
+		level0.setState(DistributionRegionState.REDISTRIBUTION_ACTIVE);
+		left.setState(DistributionRegionState.MERGING);
+		right.setState(DistributionRegionState.MERGING);
+		
+		final List<DistributionRegion> mergeResult = DistributionRegionHelper
+				.removeRedistributionDestinations(Arrays.asList(level0, left, right));
+		Assert.assertEquals(Arrays.asList(left, right), mergeResult);
+		
+		// No redistribution
+		level0.setState(DistributionRegionState.SPLIT);
+		left.setState(DistributionRegionState.ACTIVE);
+		right.setState(DistributionRegionState.ACTIVE);
+		
+		final List<DistributionRegion> activeResult = DistributionRegionHelper
+				.removeRedistributionDestinations(Arrays.asList(left, right));
+		Assert.assertEquals(Arrays.asList(left, right), activeResult);
+	}
 }
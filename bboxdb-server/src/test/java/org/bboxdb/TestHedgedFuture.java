@@ -0,0 +1,206 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.network.client.future.FutureRetryPolicy;
+import org.bboxdb.network.client.future.NetworkOperationFuture;
+import org.bboxdb.network.client.future.NetworkOperationFutureHedgedImpl;
+import org.bboxdb.network.client.future.OperationFutureImpl;
+import org.bboxdb.network.client.tools.ReplicaLatencyStatistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestHedgedFuture {
+
+	/**
+	 * Only the first replicate is contacted, when it answers fast
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testFirstReplicateSuccess() throws InterruptedException {
+		final NetworkOperationFuture future1 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future2 = Mockito.mock(NetworkOperationFuture.class);
+
+		final NetworkOperationFutureHedgedImpl hedgedFuture = new NetworkOperationFutureHedgedImpl(
+				Arrays.asList(future1, future2));
+		
+		hedgedFuture.execute();
+		Assert.assertFalse(hedgedFuture.isDone());
+		
+		hedgedFuture.handleSuccessCallback(future1);
+		Assert.assertTrue(hedgedFuture.isDone());
+		Assert.assertFalse(hedgedFuture.isFailed());
+		
+		// Wait longer than the hedge delay
+		Thread.sleep(ReplicaLatencyStatistics.DEFAULT_HEDGE_DELAY_MS * 3);
+		
+		Mockito.verify(future1, Mockito.times(1)).execute();
+		Mockito.verify(future2, Mockito.never()).execute();
+	}
+	
+	/**
+	 * The second replicate is contacted, when the first one is slow
+	 */
+	@Test(timeout=60000)
+	public void testHedgedRequest() {
+		final NetworkOperationFuture future1 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future2 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future3 = Mockito.mock(NetworkOperationFuture.class);
+
+		final NetworkOperationFutureHedgedImpl hedgedFuture = new NetworkOperationFutureHedgedImpl(
+				Arrays.asList(future1, future2, future3));
+		
+		hedgedFuture.execute();
+		
+		Mockito.verify(future2, Mockito.timeout(10000)).execute();
+		
+		hedgedFuture.handleSuccessCallback(future2);
+		Assert.assertTrue(hedgedFuture.isDone());
+		
+		// The first answer wins
+		hedgedFuture.handleSuccessCallback(future1);
+		Assert.assertEquals(future2.getRequestId(), hedgedFuture.getRequestId());
+		
+		// Only one hedged request is send
+		Mockito.verify(future3, Mockito.never()).execute();
+	}
+	
+	/**
+	 * The next replicate is contacted on errors
+	 */
+	@Test(timeout=60000)
+	public void testFailover() {
+		final NetworkOperationFuture future1 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future2 = Mockito.mock(NetworkOperationFuture.class);
+
+		final NetworkOperationFutureHedgedImpl hedgedFuture = new NetworkOperationFutureHedgedImpl(
+				Arrays.asList(future1, future2));
+		
+		hedgedFuture.setErrorCallback((f) -> false);
+		hedgedFuture.execute();
+		
+		Assert.assertTrue(hedgedFuture.handleErrorCallback(future1));
+		Mockito.verify(future2, Mockito.timeout(10000)).execute();
+		
+		// All replicates are failed
+		Assert.assertFalse(hedgedFuture.handleErrorCallback(future2));
+	}
+	
+	/**
+	 * A blocking send of a replicate does not delay the hedged requests of other futures
+	 * @throws InterruptedException 
+	 */
+	@Test(timeout=60000)
+	public void testBlockingSend() throws InterruptedException {
+		final CountDownLatch sendLatch = new CountDownLatch(1);
+		
+		final NetworkOperationFuture future1 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future2 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future3 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future4 = Mockito.mock(NetworkOperationFuture.class);
+		
+		// The send of the second replicate blocks (e.g., too many in flight calls)
+		Mockito.doAnswer(i -> { sendLatch.await(); return null; }).when(future2).execute();
+		
+		final NetworkOperationFutureHedgedImpl hedgedFuture1 = new NetworkOperationFutureHedgedImpl(
+				Arrays.asList(future1, future2));
+		
+		hedgedFuture1.setErrorCallback((f) -> false);
+		hedgedFuture1.execute();
+		Assert.assertTrue(hedgedFuture1.handleErrorCallback(future1));
+		Mockito.verify(future2, Mockito.timeout(10000)).execute();
+		
+		final NetworkOperationFutureHedgedImpl hedgedFuture2 = new NetworkOperationFutureHedgedImpl(
+				Arrays.asList(future3, future4));
+		
+		hedgedFuture2.execute();
+		Mockito.verify(future4, Mockito.timeout(10000)).execute();
+		
+		sendLatch.countDown();
+	}
+	
+	/**
+	 * The operation future retries the hedged future, when all replicates are failed
+	 */
+	@Test(timeout=60000)
+	public void testRetryAfterAllReplicatesFailed() {
+		final NetworkOperationFuture future1 = Mockito.mock(NetworkOperationFuture.class);
+		final NetworkOperationFuture future2 = Mockito.mock(NetworkOperationFuture.class);
+
+		final NetworkOperationFutureHedgedImpl hedgedFuture = new NetworkOperationFutureHedgedImpl(
+				Arrays.asList(future1, future2));
+		
+		final OperationFutureImpl<Object> operationFuture = new OperationFutureImpl<>(
+				() -> Arrays.asList(hedgedFuture), FutureRetryPolicy.RETRY_POLICY_ONE_FUTURE);
+		
+		Assert.assertTrue(hedgedFuture.handleErrorCallback(future1));
+		Mockito.verify(future2, Mockito.timeout(10000)).execute();
+		
+		// All replicates are failed, the retry is handled by the operation future
+		Assert.assertTrue(hedgedFuture.handleErrorCallback(future2));
+		Assert.assertNull(hedgedFuture.getTransmittedPackage());
+		Assert.assertNull(hedgedFuture.getConnection());
+		
+		Mockito.verify(future1, Mockito.timeout(10000).times(2)).execute();
+		Assert.assertFalse(operationFuture.isDone());
+		
+		hedgedFuture.handleSuccessCallback(future1);
+		Assert.assertTrue(operationFuture.isDone());
+		Assert.assertFalse(operationFuture.isFailed());
+	}
+	
+	/**
+	 * Test the latency statistics
+	 */
+	@Test(timeout=60000)
+	public void testLatencyStatistics() {
+		final ReplicaLatencyStatistics statistics = ReplicaLatencyStatistics.getInstance();
+		final InetSocketAddress address1 = new InetSocketAddress("127.0.0.1", 10000);
+		final InetSocketAddress address2 = new InetSocketAddress("127.0.0.2", 10000);
+		
+		statistics.clear();
+		
+		Assert.assertEquals(0, statistics.getExpectedLatency(address1), 0.001);
+		Assert.assertEquals(ReplicaLatencyStatistics.DEFAULT_HEDGE_DELAY_MS, 
+				statistics.getHedgeDelay(address1));
+		
+		for(int i = 1; i <= 100; i++) {
+			statistics.addLatency(address1, i);
+			statistics.addLatency(address2, 2 * i);
+		}
+		
+		// The last 64 samples (37 - 100) are used
+		Assert.assertEquals(68.5, statistics.getExpectedLatency(address1), 0.001);
+		Assert.assertTrue(statistics.getExpectedLatency(address1) < statistics.getExpectedLatency(address2));
+		Assert.assertEquals(97, statistics.getHedgeDelay(address1));
+		
+		for(int i = 0; i < 10; i++) {
+			statistics.addLatency(address1, TimeUnit.MINUTES.toMillis(1));
+		}
+		
+		Assert.assertEquals(ReplicaLatencyStatistics.MAX_HEDGE_DELAY_MS, statistics.getHedgeDelay(address1));
+		
+		statistics.clear();
+	}
+}
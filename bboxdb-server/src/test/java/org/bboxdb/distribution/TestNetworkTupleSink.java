@@ -0,0 +1,207 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.partitioner.regionsplit.tuplesink.NetworkTupleSink;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.BBoxDBClient;
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.EmptyResultFuture;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestNetworkTupleSink {
+	
+	/**
+	 * The tablename
+	 */
+	private static final TupleStoreName TABLENAME = new TupleStoreName("region_mytable");
+	
+	/**
+	 * The connection of the sink
+	 */
+	private BBoxDBConnection connection;
+	
+	/**
+	 * The client of the connection
+	 */
+	private BBoxDBClient client;
+	
+	/**
+	 * The created insert futures
+	 */
+	private List<EmptyResultFuture> insertFutures;
+	
+	/**
+	 * The inserts per key
+	 */
+	private Map<String, Integer> insertsPerKey;
+	
+	/**
+	 * The amount of failures of every insert
+	 */
+	private int failuresPerInsert;
+	
+	/**
+	 * The key of the next tuple
+	 */
+	private int nextKey;
+	
+	@Before
+	public void before() throws BBoxDBException {
+		connection = Mockito.mock(BBoxDBConnection.class);
+		client = Mockito.mock(BBoxDBClient.class);
+		insertFutures = new ArrayList<>();
+		insertsPerKey = new HashMap<>();
+		failuresPerInsert = 0;
+		nextKey = 0;
+		
+		Mockito.when(connection.getBboxDBClient()).thenReturn(client);
+		Mockito.when(connection.getConnectionName()).thenReturn("testconnection");
+		
+		Mockito.when(client.insertTuple(Mockito.anyString(), Mockito.any(Tuple.class))).thenAnswer(i -> {
+			final Tuple tuple = i.getArgument(1);
+			
+			final int executions = insertsPerKey.getOrDefault(tuple.getKey(), 0);
+			insertsPerKey.put(tuple.getKey(), executions + 1);
+			
+			final EmptyResultFuture future = Mockito.mock(EmptyResultFuture.class);
+			Mockito.when(future.isFailed()).thenReturn(executions < failuresPerInsert);
+			Mockito.when(future.getAllMessages()).thenReturn("Insert failed");
+			insertFutures.add(future);
+			
+			return future;
+		});
+	}
+	
+	/**
+	 * The oldest insert is only awaited when the window is full
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testFullWindow() throws Exception {
+		final NetworkTupleSink tupleSink = new NetworkTupleSink(TABLENAME, connection);
+		
+		sinkTuples(tupleSink, NetworkTupleSink.MAX_PENDING_INSERTS);
+		Assert.assertEquals(NetworkTupleSink.MAX_PENDING_INSERTS, insertFutures.size());
+		
+		for(final EmptyResultFuture future : insertFutures) {
+			(Mockito.verify(future, Mockito.never())).waitForCompletion();
+		}
+		
+		// The window is full, the oldest insert is awaited
+		sinkTuples(tupleSink, 1);
+		(Mockito.verify(insertFutures.get(0), Mockito.times(1))).waitForCompletion();
+		(Mockito.verify(insertFutures.get(1), Mockito.never())).waitForCompletion();
+		
+		tupleSink.flush();
+		
+		for(final EmptyResultFuture future : insertFutures) {
+			(Mockito.verify(future, Mockito.times(1))).waitForCompletion();
+		}
+		
+		Assert.assertEquals(NetworkTupleSink.MAX_PENDING_INSERTS + 1, tupleSink.getSinkedTuples());
+		Assert.assertEquals(0, tupleSink.getRetriedTuples());
+	}
+	
+	/**
+	 * The last batch of the inserts is not full and send on flush
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testPartialFinalBatch() throws Exception {
+		final NetworkTupleSink tupleSink = new NetworkTupleSink(TABLENAME, connection);
+		
+		sinkTuples(tupleSink, NetworkTupleSink.BATCH_SIZE + 10);
+		(Mockito.verify(connection, Mockito.times(1))).flushPendingCompressionPackages();
+		
+		tupleSink.flush();
+		(Mockito.verify(connection, Mockito.times(2))).flushPendingCompressionPackages();
+		
+		Assert.assertEquals(NetworkTupleSink.BATCH_SIZE + 10, insertFutures.size());
+
+		for(final EmptyResultFuture future : insertFutures) {
+			(Mockito.verify(future, Mockito.times(1))).waitForCompletion();
+		}
+	}
+	
+	/**
+	 * A failed insert is send again
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testRetry() throws Exception {
+		failuresPerInsert = NetworkTupleSink.MAX_RETRIES;
+		final NetworkTupleSink tupleSink = new NetworkTupleSink(TABLENAME, connection);
+		
+		sinkTuples(tupleSink, 10);
+		tupleSink.flush();
+		
+		Assert.assertEquals(10 * (NetworkTupleSink.MAX_RETRIES + 1), insertFutures.size());
+		Assert.assertEquals(10 * NetworkTupleSink.MAX_RETRIES, tupleSink.getRetriedTuples());
+	}
+	
+	/**
+	 * The insert fails more often than retries are allowed
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testRetryExhausted() throws Exception {
+		failuresPerInsert = NetworkTupleSink.MAX_RETRIES + 1;
+		final NetworkTupleSink tupleSink = new NetworkTupleSink(TABLENAME, connection);
+		
+		sinkTuples(tupleSink, 1);
+		
+		try {
+			tupleSink.flush();
+			Assert.fail("Exception expected");
+		} catch(StorageManagerException e) {
+			// Expected
+		}
+		
+		Assert.assertEquals(NetworkTupleSink.MAX_RETRIES + 1, insertFutures.size());
+		Assert.assertEquals(NetworkTupleSink.MAX_RETRIES, tupleSink.getRetriedTuples());
+	}
+	
+	/**
+	 * Sink the given amount of tuples
+	 * @param tupleSink
+	 * @param tuples
+	 * @throws StorageManagerException
+	 */
+	private void sinkTuples(final NetworkTupleSink tupleSink, final int tuples) 
+			throws StorageManagerException {
+		
+		for(int i = 0; i < tuples; i++) {
+			final Tuple tuple = new Tuple(Integer.toString(nextKey++), 
+					Hyperrectangle.FULL_SPACE, "abc".getBytes());
+			tupleSink.sinkTuple(tuple);
+		}
+	}
+}
@@ -282,4 +282,50 @@ public class TestRegionIdMapper {
 		
 		regionIdMapper.waitUntilMappingDisappears(3, 5, TimeUnit.SECONDS);
 	}
+	
+	/**
+	 * Test the lookup with enough mappings to build a spatial index
+	 */
+	@Test(timeout=60000)
+	public void testIndexedMapping() {
+		final DistributionRegionIdMapper regionIdMapper = new DistributionRegionIdMapper(DISTRIBUTION_REGION_NAME);
+		
+		for(int x = 0; x < 10; x++) {
+			for(int y = 0; y < 10; y++) {
+				regionIdMapper.addMapping(x * 10 + y, new Hyperrectangle((double) x, (double) x + 1, 
+						(double) y, (double) y + 1));
+			}
+		}
+		
+		Assert.assertEquals(1, regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(3.5d, 3.6d, 4.5d, 4.6d)).size());
+		Assert.assertTrue(regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(3.5d, 3.6d, 4.5d, 4.6d)).contains(34L));
+		Assert.assertEquals(4, regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(3.5d, 4.5d, 4.5d, 5.5d)).size());
+		Assert.assertEquals(100, regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(-1d, 11d, -1d, 11d)).size());
+		Assert.assertEquals(100, regionIdMapper.getRegionIdsForRegion(
+				Hyperrectangle.FULL_SPACE).size());
+		Assert.assertEquals(0, regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(20d, 21d, 20d, 21d)).size());
+		
+		// Changes are visible for the next lookup
+		regionIdMapper.removeMapping(34);
+		Assert.assertEquals(0, regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(3.5d, 3.6d, 4.5d, 4.6d)).size());
+		
+		regionIdMapper.addMapping(200, new Hyperrectangle(20d, 21d, 20d, 21d));
+		Assert.assertEquals(1, regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(20d, 21d, 20d, 21d)).size());
+		
+		// Unbounded regions 
+		regionIdMapper.addMapping(300, new Hyperrectangle(30d, Double.POSITIVE_INFINITY, 30d, 31d));
+		Assert.assertEquals(1, regionIdMapper.getRegionIdsForRegion(
+				new Hyperrectangle(1000d, 1001d, 30d, 31d)).size());
+		
+		regionIdMapper.clear();
+		Assert.assertEquals(0, regionIdMapper.getRegionIdsForRegion(
+				Hyperrectangle.FULL_SPACE).size());
+	}
 }
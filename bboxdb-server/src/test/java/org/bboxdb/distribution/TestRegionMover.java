@@ -0,0 +1,302 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bboxdb.commons.RejectedException;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
+import org.bboxdb.distribution.rebalance.RegionMove;
+import org.bboxdb.distribution.rebalance.RegionMover;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.zookeeper.DistributionRegionAdapter;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.BBoxDBClient;
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.future.EmptyResultFuture;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestRegionMover {
+	
+	/**
+	 * The tablename
+	 */
+	private static final TupleStoreName TABLENAME = new TupleStoreName("testgroup1_move_1");
+	
+	/**
+	 * The source of the move
+	 */
+	private static final BBoxDBInstance SOURCE = new BBoxDBInstance("localhost:50500");
+	
+	/**
+	 * The target of the move
+	 */
+	private static final BBoxDBInstance TARGET = new BBoxDBInstance("localhost:50501");
+	
+	/**
+	 * The storage registry
+	 */
+	private static TupleStoreManagerRegistry storageRegistry;
+	
+	/**
+	 * The moved region
+	 */
+	private DistributionRegion region;
+	
+	/**
+	 * The region adapter
+	 */
+	private DistributionRegionAdapter regionAdapter;
+	
+	/**
+	 * The connection to the target
+	 */
+	private BBoxDBConnection connection;
+	
+	/**
+	 * The changes of the region systems
+	 */
+	private List<String> systemChanges;
+	
+	/**
+	 * The tuples received by the target
+	 */
+	private AtomicInteger receivedTuples;
+	
+	/**
+	 * The tuples received by the target when it becomes readable
+	 */
+	private AtomicInteger receivedTuplesWhenReadable;
+	
+	/**
+	 * Fail the inserts on the target
+	 */
+	private boolean failInserts;
+	
+	@BeforeClass
+	public static void beforeClass() throws InterruptedException, BBoxDBException {
+		storageRegistry = new TupleStoreManagerRegistry();
+		storageRegistry.init();
+	}
+	
+	@AfterClass
+	public static void afterClass() {
+		if(storageRegistry != null) {
+			storageRegistry.shutdown();
+			storageRegistry = null;
+		}
+	}
+	
+	@Before
+	public void before() throws Exception {
+		storageRegistry.deleteTable(TABLENAME);
+		
+		region = new DistributionRegion(TABLENAME.getDistributionGroup(), 
+				DistributionRegion.ROOT_NODE_ROOT_POINTER, new Hyperrectangle(0.0, 10.0, 0.0, 10.0), 1);
+		region.addSystem(SOURCE);
+		
+		systemChanges = new ArrayList<>();
+		receivedTuples = new AtomicInteger(0);
+		receivedTuplesWhenReadable = new AtomicInteger(-1);
+		failInserts = false;
+		
+		regionAdapter = Mockito.mock(DistributionRegionAdapter.class);
+		
+		Mockito.when(regionAdapter.getZookeeperPathForDistributionRegion(region)).thenReturn("/region");
+		Mockito.when(regionAdapter.getStateForDistributionRegion(region))
+			.thenReturn(DistributionRegionState.ACTIVE);
+		
+		Mockito.doAnswer(i -> {
+			final BBoxDBInstance system = i.getArgument(1);
+			systemChanges.add("add " + system.getStringValue());
+			region.addSystem(system);
+			return null;
+		}).when(regionAdapter).addSystemToDistributionRegion(Mockito.anyString(), 
+				Mockito.any(BBoxDBInstance.class));
+		
+		Mockito.doAnswer(i -> {
+			final BBoxDBInstance system = i.getArgument(1);
+			systemChanges.add("delete " + system.getStringValue());
+			final List<BBoxDBInstance> systems = region.getSystems();
+			systems.remove(system);
+			region.setSystems(systems);
+			return true;
+		}).when(regionAdapter).deleteSystemFromDistributionRegion(Mockito.any(DistributionRegion.class), 
+				Mockito.any(BBoxDBInstance.class));
+		
+		Mockito.doAnswer(i -> {
+			final BBoxDBInstance system = i.getArgument(1);
+			systemChanges.add("writeonly " + system.getStringValue());
+			region.setWriteOnlySystems(Arrays.asList(system));
+			return null;
+		}).when(regionAdapter).addWriteOnlySystemToDistributionRegion(Mockito.anyString(), 
+				Mockito.any(BBoxDBInstance.class));
+		
+		Mockito.doAnswer(i -> {
+			final BBoxDBInstance system = i.getArgument(1);
+			systemChanges.add("readable " + system.getStringValue());
+			receivedTuplesWhenReadable.compareAndSet(-1, receivedTuples.get());
+			region.setWriteOnlySystems(new ArrayList<>());
+			return true;
+		}).when(regionAdapter).deleteWriteOnlySystemFromDistributionRegion(
+				Mockito.any(DistributionRegion.class), Mockito.any(BBoxDBInstance.class));
+		
+		connection = Mockito.mock(BBoxDBConnection.class);
+		final BBoxDBClient client = Mockito.mock(BBoxDBClient.class);
+		Mockito.when(connection.getBboxDBClient()).thenReturn(client);
+		Mockito.when(connection.getConnectionName()).thenReturn("testconnection");
+		
+		Mockito.when(client.insertTuple(Mockito.anyString(), Mockito.any(Tuple.class))).thenAnswer(i -> {
+			final EmptyResultFuture future = Mockito.mock(EmptyResultFuture.class);
+			Mockito.when(future.isFailed()).thenReturn(failInserts);
+			Mockito.when(future.getAllMessages()).thenReturn("Insert failed");
+			
+			if(! failInserts) {
+				receivedTuples.incrementAndGet();
+			}
+			
+			return future;
+		});
+		
+		storageRegistry.createTable(TABLENAME, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLENAME);
+		
+		// Persistent and in memory data
+		insertTuples(storageManager, 0, 100);
+		storageManager.flush();
+		insertTuples(storageManager, 100, 150);
+	}
+	
+	/**
+	 * The target becomes readable only after all data is send
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testMovePhases() throws Exception {
+		final RegionMover regionMover = createRegionMover();
+		
+		// The target is write only until the cut-over
+		Assert.assertTrue(regionMover.moveRegion(new RegionMove(region, SOURCE, TARGET)));
+
+		Assert.assertEquals(Arrays.asList("writeonly " + TARGET.getStringValue(), 
+				"add " + TARGET.getStringValue(), "readable " + TARGET.getStringValue(), 
+				"delete " + SOURCE.getStringValue()), systemChanges);
+		
+		Assert.assertEquals(150, receivedTuplesWhenReadable.get());
+		Assert.assertEquals(Arrays.asList(TARGET), region.getReadSystems());
+		
+		(Mockito.verify(regionAdapter, Mockito.times(1))).deleteRegionStatistics(region, SOURCE);
+		Assert.assertFalse(storageRegistry.isStorageManagerKnown(TABLENAME));
+	}
+	
+	/**
+	 * The target is removed when sending the data fails
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testRollbackBeforeCutOver() throws Exception {
+		failInserts = true;
+		final RegionMover regionMover = createRegionMover();
+		
+		Assert.assertFalse(regionMover.moveRegion(new RegionMove(region, SOURCE, TARGET)));
+		
+		Assert.assertEquals(Arrays.asList("writeonly " + TARGET.getStringValue(), 
+				"add " + TARGET.getStringValue(), "delete " + TARGET.getStringValue(), 
+				"readable " + TARGET.getStringValue()), systemChanges);
+		
+		Assert.assertEquals(Arrays.asList(SOURCE), region.getSystems());
+		Assert.assertTrue(storageRegistry.isStorageManagerKnown(TABLENAME));
+	}
+	
+	/**
+	 * The source is added again and the target is removed, when the move fails 
+	 * after the cut-over
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testRollbackAfterCutOver() throws Exception {
+		Mockito.doThrow(new ZookeeperException("Unable to delete statistics"))
+			.when(regionAdapter).deleteRegionStatistics(region, SOURCE);
+		
+		final RegionMover regionMover = createRegionMover();
+		
+		Assert.assertFalse(regionMover.moveRegion(new RegionMove(region, SOURCE, TARGET)));
+		
+		Assert.assertEquals(Arrays.asList("writeonly " + TARGET.getStringValue(), 
+				"add " + TARGET.getStringValue(), "readable " + TARGET.getStringValue(), 
+				"delete " + SOURCE.getStringValue(), "add " + SOURCE.getStringValue(),
+				"delete " + TARGET.getStringValue(), "readable " + TARGET.getStringValue()), 
+				systemChanges);
+		
+		Assert.assertEquals(Arrays.asList(SOURCE), region.getSystems());
+		Assert.assertTrue(storageRegistry.isStorageManagerKnown(TABLENAME));
+	}
+	
+	/**
+	 * Create a region mover that sends the data to the mocked connection
+	 * @return
+	 */
+	private RegionMover createRegionMover() {
+		return new RegionMover(storageRegistry, 0, regionAdapter) {
+			
+			@Override
+			protected BBoxDBConnection getConnectionForInstance(final BBoxDBInstance target) {
+				return connection;
+			}
+			
+			@Override
+			protected void waitUntilMappingDisappears(final DistributionRegion region) {
+				// No space partitioner in this test
+			}
+		};
+	}
+	
+	/**
+	 * Insert the tuples with the given keys
+	 * @param storageManager
+	 * @param from
+	 * @param to
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	private void insertTuples(final TupleStoreManager storageManager, final int from, final int to) 
+			throws StorageManagerException, RejectedException {
+		
+		for(int i = from; i < to; i++) {
+			storageManager.put(new Tuple(Integer.toString(i), new Hyperrectangle(1.0, 2.0, 1.0, 2.0), 
+					"abc".getBytes()));
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.BBoxDBInstanceState;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
+import org.bboxdb.distribution.rebalance.RegionMove;
+import org.bboxdb.distribution.rebalance.RegionRebalancePlanner;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRegionRebalancePlanner {
+	
+	/**
+	 * The systems of the tests
+	 */
+	private final BBoxDBInstance system1 = new BBoxDBInstance("node1:123", "0.1", BBoxDBInstanceState.READY);
+	private final BBoxDBInstance system2 = new BBoxDBInstance("node2:123", "0.1", BBoxDBInstanceState.READY);
+	private final BBoxDBInstance system3 = new BBoxDBInstance("node3:123", "0.1", BBoxDBInstanceState.READY);
+	
+	/**
+	 * Create the given amount of active regions on the systems
+	 * @param regions
+	 * @param systems
+	 * @return
+	 */
+	private List<DistributionRegion> createRegions(final int regions, final BBoxDBInstance... systems) {
+		final List<DistributionRegion> result = new ArrayList<>();
+		
+		for(int i = 0; i < regions; i++) {
+			final DistributionRegion region = new DistributionRegion("testgroup", null, 
+					Hyperrectangle.FULL_SPACE, i);
+			
+			// Only the address is known for the systems of a region
+			Arrays.stream(systems).forEach(s -> region.addSystem(new BBoxDBInstance(s.getStringValue())));
+			region.setState(DistributionRegionState.ACTIVE);
+			result.add(region);
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Move the smallest region to an empty system
+	 */
+	@Test(timeout=60000)
+	public void testMoveToEmptySystem() {
+		final List<DistributionRegion> regions = createRegions(6, system1);
+		final List<BBoxDBInstance> systems = Arrays.asList(system1, system2, system3);
+		
+		final Optional<RegionMove> move = RegionRebalancePlanner.planMove(system1, regions, 
+				systems, r -> 10 - r.getRegionId());
+		
+		Assert.assertTrue(move.isPresent());
+		Assert.assertEquals(5, move.get().getRegion().getRegionId());
+		Assert.assertEquals(system1, move.get().getSource());
+		Assert.assertNotEquals(system1, move.get().getTarget());
+		
+		// Only the local replicas are moved
+		Assert.assertFalse(RegionRebalancePlanner.planMove(system2, regions, 
+				systems, r -> 0).isPresent());
+	}
+	
+	/**
+	 * The target is not already a system of the region
+	 */
+	@Test(timeout=60000)
+	public void testMoveReplica() {
+		final List<DistributionRegion> regions = createRegions(4, system1, system2);
+		final List<BBoxDBInstance> systems = Arrays.asList(system1, system2, system3);
+		
+		final Optional<RegionMove> move = RegionRebalancePlanner.planMove(system1, regions, 
+				systems, r -> 0);
+		
+		Assert.assertTrue(move.isPresent());
+		Assert.assertEquals(system3, move.get().getTarget());
+		
+		// Non ready systems are no targets
+		system3.setState(BBoxDBInstanceState.FAILED);
+		Assert.assertFalse(RegionRebalancePlanner.planMove(system1, regions, 
+				systems, r -> 0).isPresent());
+	}
+	
+	/**
+	 * Balanced systems and small differences are not rebalanced
+	 */
+	@Test(timeout=60000)
+	public void testNoMove() {
+		final List<DistributionRegion> regions = new ArrayList<>();
+		regions.addAll(createRegions(3, system1));
+		regions.addAll(createRegions(2, system2));
+		regions.addAll(createRegions(2, system3));
+		
+		final List<BBoxDBInstance> systems = Arrays.asList(system1, system2, system3);
+		
+		Assert.assertFalse(RegionRebalancePlanner.planMove(system1, regions, 
+				systems, r -> 0).isPresent());
+		
+		// Split regions are not counted
+		regions.addAll(createRegions(3, system1));
+		regions.addAll(createRegions(2, system1));
+		regions.subList(7, 12).forEach(r -> r.setState(DistributionRegionState.SPLIT));
+		
+		Assert.assertFalse(RegionRebalancePlanner.planMove(system1, regions, 
+				systems, r -> 0).isPresent());
+		
+		// Empty system list
+		Assert.assertFalse(RegionRebalancePlanner.planMove(system1, regions, 
+				new ArrayList<>(), r -> 0).isPresent());
+	}
+}
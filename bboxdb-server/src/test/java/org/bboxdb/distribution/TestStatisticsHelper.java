@@ -17,7 +17,14 @@
  *******************************************************************************/
 package org.bboxdb.distribution;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.bboxdb.distribution.partitioner.regionsplit.StatisticsHelper;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics;
+import org.bboxdb.distribution.statistics.RegionRequestStatistics.RequestRate;
+import org.bboxdb.storage.entity.TupleStoreName;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -55,4 +62,91 @@ public class TestStatisticsHelper {
 		Assert.assertEquals(0, StatisticsHelper.getAverageStatistics(TABLENAME), DELTA);
 		Assert.assertFalse(StatisticsHelper.isEnoughHistoryDataAvailable(TABLENAME));
 	}
+	
+	@Test(timeout=60000)
+	public void testRequestStatistics() throws InterruptedException {
+		RegionRequestStatistics.clear();
+		
+		final TupleStoreName tupleStoreName = new TupleStoreName("testgroup_table_2");
+		final TupleStoreName otherRegion = new TupleStoreName("testgroup_table_3");
+		
+		final RequestRate emptyRate = RegionRequestStatistics.getAndResetRequestRate("testgroup", 2);
+		Assert.assertEquals(0, emptyRate.getReadsPerSecond());
+		Assert.assertEquals(0, emptyRate.getWritesPerSecond());
+		Assert.assertEquals(0, emptyRate.getLatencyMicros());
+		
+		for(int i = 0; i < 10; i++) {
+			RegionRequestStatistics.recordRead(tupleStoreName, TimeUnit.MICROSECONDS.toNanos(10));
+			RegionRequestStatistics.recordWrite(tupleStoreName, TimeUnit.MICROSECONDS.toNanos(30));
+			RegionRequestStatistics.recordWrite(otherRegion, TimeUnit.MICROSECONDS.toNanos(30));
+		}
+		
+		final RequestRate requestRate = RegionRequestStatistics.getAndResetRequestRate("testgroup", 2);
+		Assert.assertTrue(requestRate.getReadsPerSecond() > 0);
+		Assert.assertEquals(requestRate.getReadsPerSecond(), requestRate.getWritesPerSecond());
+		Assert.assertEquals(20, requestRate.getLatencyMicros());
+		
+		// Counter is reset
+		Thread.sleep(10);
+		final RequestRate resetRate = RegionRequestStatistics.getAndResetRequestRate("testgroup", 2);
+		Assert.assertEquals(0, resetRate.getReadsPerSecond());
+		Assert.assertEquals(0, resetRate.getWritesPerSecond());
+		
+		RegionRequestStatistics.clear();
+	}
+	
+	@Test(timeout=60000)
+	public void testRequestStatisticsConcurrentReset() throws InterruptedException {
+		RegionRequestStatistics.clear();
+		RegionRequestStatistics.getAndResetNodeRequestRate();
+		
+		final TupleStoreName tupleStoreName = new TupleStoreName("testgroup_table_4");
+		final int threads = 4;
+		final int requestsPerThread = 100000;
+		
+		final List<Thread> writers = new ArrayList<>();
+		
+		for(int i = 0; i < threads; i++) {
+			final Thread writer = new Thread(() -> {
+				for(int j = 0; j < requestsPerThread; j++) {
+					RegionRequestStatistics.recordRead(tupleStoreName, 1);
+					RegionRequestStatistics.recordWrite(tupleStoreName, 1);
+				}
+			});
+			
+			writers.add(writer);
+			writer.start();
+		}
+		
+		long readRequests = 0;
+		long writeRequests = 0;
+		long nodeRequests = 0;
+		
+		while(writers.stream().anyMatch(t -> t.isAlive())) {
+			final RequestRate rate = RegionRequestStatistics.getAndResetRequestRate("testgroup", 4);
+			readRequests += rate.getReadRequests();
+			writeRequests += rate.getWriteRequests();
+			
+			final RequestRate nodeRate = RegionRequestStatistics.getAndResetNodeRequestRate();
+			nodeRequests += nodeRate.getReadRequests() + nodeRate.getWriteRequests();
+		}
+		
+		for(final Thread writer : writers) {
+			writer.join();
+		}
+		
+		final RequestRate rate = RegionRequestStatistics.getAndResetRequestRate("testgroup", 4);
+		readRequests += rate.getReadRequests();
+		writeRequests += rate.getWriteRequests();
+		
+		final RequestRate nodeRate = RegionRequestStatistics.getAndResetNodeRequestRate();
+		nodeRequests += nodeRate.getReadRequests() + nodeRate.getWriteRequests();
+
+		// No increment is lost during the resets
+		Assert.assertEquals(threads * requestsPerThread, readRequests);
+		Assert.assertEquals(threads * requestsPerThread, writeRequests);
+		Assert.assertEquals(2 * threads * requestsPerThread, nodeRequests);
+		
+		RegionRequestStatistics.clear();
+	}
 }
@@ -152,6 +152,9 @@ public class TestTupleSink {
 		
 		tupleRedistributor.redistributeTuple(tuple1);
 		(Mockito.verify(tupleSink1, Mockito.times(2))).sinkTuple(Mockito.any(Tuple.class));
+		
+		tupleRedistributor.flush();
+		(Mockito.verify(tupleSink1, Mockito.times(1))).flush();
 
 		System.out.println(tupleRedistributor.getStatistics());
 	}
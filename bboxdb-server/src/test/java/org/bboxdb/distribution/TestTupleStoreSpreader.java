@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.partitioner.regionsplit.TupleStoreSpreader;
+import org.bboxdb.distribution.partitioner.regionsplit.tuplesink.AbstractTupleSink;
+import org.bboxdb.distribution.partitioner.regionsplit.tuplesink.TupleRedistributor;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.compact.SSTableServiceRunnable;
+import org.bboxdb.storage.tuplestore.DiskStorage;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestTupleStoreSpreader {
+	
+	/**
+	 * The tablename
+	 */
+	private static final TupleStoreName TABLENAME = new TupleStoreName("testgroup1_spread");
+	
+	/**
+	 * The storage registry
+	 */
+	private static TupleStoreManagerRegistry storageRegistry;
+	
+	@BeforeClass
+	public static void beforeClass() throws InterruptedException, BBoxDBException {
+		storageRegistry = new TupleStoreManagerRegistry();
+		storageRegistry.init();
+	}
+	
+	@AfterClass
+	public static void afterClass() {
+		if(storageRegistry != null) {
+			storageRegistry.shutdown();
+			storageRegistry = null;
+		}
+	}
+	
+	@Before
+	public void before() throws StorageManagerException {
+		storageRegistry.deleteTable(TABLENAME);
+	}
+	
+	/**
+	 * Spread the data in two phases with compactions between the phases, 
+	 * the compacted data must not be spread again
+	 * 
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testSpreadWithCompactionBetweenPhases() throws Exception {
+		storageRegistry.createTable(TABLENAME, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLENAME);
+
+		// Two persistent tuple stores
+		insertTuples(storageManager, 0, 100);
+		storageManager.flush();
+		insertTuples(storageManager, 100, 200);
+		storageManager.flush();
+		
+		final AbstractTupleSink tupleSink = Mockito.mock(AbstractTupleSink.class);
+		final TupleStoreSpreader spreader = new TupleStoreSpreader(storageManager, 
+				createTupleRedistributor(tupleSink));
+		
+		// Phase 1
+		spreader.spreadTupleStores(true);
+		Assert.assertEquals(200, spreader.getSpreadTuples());
+		Assert.assertEquals(0, spreader.getSkippedTuples());
+		
+		// Merge the spread tuple stores and a new tuple store
+		final List<DiskStorage> storages = storageRegistry.getAllStorages();
+		final SSTableServiceRunnable compactorRunnable = new SSTableServiceRunnable(storages.get(0));
+		compactorRunnable.forceMajorCompact(storageManager);
+		insertTuples(storageManager, 200, 250);
+		storageManager.flush();
+		compactorRunnable.forceMajorCompact(storageManager);
+		
+		// In memory data
+		insertTuples(storageManager, 250, 260);
+		storageManager.setToReadOnly();
+		
+		// Phase 2
+		spreader.spreadTupleStores(false);
+		Assert.assertEquals(260, spreader.getSpreadTuples());
+		Assert.assertEquals(200, spreader.getSkippedTuples());
+		(Mockito.verify(tupleSink, Mockito.times(260))).sinkTuple(Mockito.any(Tuple.class));
+		
+		// Already spread stores are not read again
+		spreader.spreadTupleStores(false);
+		Assert.assertEquals(260, spreader.getSpreadTuples());
+		Assert.assertEquals(200, spreader.getSkippedTuples());
+		
+		spreader.close();
+		storageManager.setToReadWrite();
+	}
+	
+	/**
+	 * Insert the tuples with the given keys
+	 * @param storageManager
+	 * @param from
+	 * @param to
+	 * @throws Exception
+	 */
+	private void insertTuples(final TupleStoreManager storageManager, final int from, final int to) 
+			throws Exception {
+		
+		for(int i = from; i < to; i++) {
+			storageManager.put(new Tuple(Integer.toString(i), new Hyperrectangle(1.0, 2.0, 1.0, 2.0), 
+					"abc".getBytes()));
+		}
+	}
+	
+	/**
+	 * Create a tuple redistributor that writes all tuples into the sink
+	 * @param tupleSink
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	private TupleRedistributor createTupleRedistributor(final AbstractTupleSink tupleSink) 
+			throws StorageManagerException {
+		
+		final DistributionRegion distributionRegion = new DistributionRegion(
+				TABLENAME.getDistributionGroup(), DistributionRegion.ROOT_NODE_ROOT_POINTER, 
+				new Hyperrectangle(0.0, 10.0, 0.0, 10.0), 1);
+		
+		final TupleRedistributor tupleRedistributor = new TupleRedistributor(storageRegistry, TABLENAME);
+		tupleRedistributor.registerRegion(distributionRegion, Arrays.asList(tupleSink));
+
+		return tupleRedistributor;
+	}
+}
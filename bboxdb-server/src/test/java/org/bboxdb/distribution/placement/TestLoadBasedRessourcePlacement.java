@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.distribution.placement;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.membership.BBoxDBInstanceState;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+public class TestLoadBasedRessourcePlacement extends TestRandomRessourcePlacement {
+	
+	/**
+	 * System Utilization
+	 */
+	final Multiset<BBoxDBInstance> utilization = HashMultiset.create();
+	
+	/**
+	 * Get the placement strategy for the test
+	 * @return
+	 */
+	@Override
+	public LoadBasedPlacementStrategy getPlacementStrategy() {
+		
+		return new LoadBasedPlacementStrategy() {
+			@Override
+			protected Multiset<BBoxDBInstance> calculateSystemUsage() {
+				return utilization;
+			}
+			
+			@Override
+			protected void refreshNodeLoad(final List<BBoxDBInstance> systems) {
+				// Use the load of the test instances
+			}
+		};
+	}
+	
+	@Before
+	public void before() {
+		utilization.clear();
+		LoadBasedPlacementStrategy.clearPendingLoad();
+	}
+	
+	/**
+	 * Create a new instance with the given load
+	 * @param name
+	 * @param cpuCores
+	 * @param requestRate
+	 * @param cpuLoad
+	 * @return
+	 */
+	private BBoxDBInstance createInstance(final String name, final int cpuCores, 
+			final double requestRate, final double cpuLoad) {
+		
+		final BBoxDBInstance instance = new BBoxDBInstance(name, "0.1", BBoxDBInstanceState.READY);
+		instance.setCpuCores(cpuCores);
+		instance.setRequestRate(requestRate);
+		instance.setCpuLoad(cpuLoad);
+		instance.setDiskQueueDepth(0);
+		instance.setMemtablePressure(0);
+		return instance;
+	}
+
+	/**
+	 * The system with the lowest load should be used
+	 * @throws ResourceAllocationException
+	 */
+	@Test(timeout=60000)
+	public void testLoadPlacement() throws ResourceAllocationException {
+		final ResourcePlacementStrategy resourcePlacementStrategy = getPlacementStrategy();
+		final List<BBoxDBInstance> systems = new ArrayList<>();
+		
+		final BBoxDBInstance instance1 = createInstance("node1:123", 4, 1000, 0.5);
+		final BBoxDBInstance instance2 = createInstance("node2:123", 4, 100, 0.1);
+		systems.add(instance1);
+		systems.add(instance2);
+		
+		utilization.setCount(instance1, 1);
+		utilization.setCount(instance2, 1);
+		
+		Assert.assertEquals(instance2, resourcePlacementStrategy.getInstancesForNewRessource(systems));
+		
+		// The disk of instance 2 can not keep up
+		instance2.setDiskQueueDepth(40);
+		instance2.setMemtablePressure(0.8);
+		Assert.assertEquals(instance1, resourcePlacementStrategy.getInstancesForNewRessource(systems));
+	}
+	
+	/**
+	 * Hot regions should be spread over the systems and placed on big systems
+	 * @throws ResourceAllocationException
+	 */
+	@Test(timeout=60000)
+	public void testExpectedLoadPlacement() throws ResourceAllocationException {
+		final ResourcePlacementStrategy resourcePlacementStrategy = getPlacementStrategy();
+		final List<BBoxDBInstance> systems = new ArrayList<>();
+		
+		final BBoxDBInstance instance1 = createInstance("node1:123", 4, 0, 0);
+		final BBoxDBInstance instance2 = createInstance("node2:123", 4, 0, 0);
+		systems.add(instance1);
+		systems.add(instance2);
+		
+		utilization.setCount(instance1, 1);
+		utilization.setCount(instance2, 1);
+		
+		final HashSet<BBoxDBInstance> blacklist = new HashSet<>();
+		
+		// The load of the first region is accounted until new metrics are published
+		final BBoxDBInstance hotInstance1 
+			= resourcePlacementStrategy.getInstancesForNewRessource(systems, blacklist, 1000);
+		final BBoxDBInstance hotInstance2 
+			= resourcePlacementStrategy.getInstancesForNewRessource(systems, blacklist, 1000);
+		Assert.assertNotEquals(hotInstance1, hotInstance2);
+		
+		// Heterogeneous systems
+		LoadBasedPlacementStrategy.clearPendingLoad();
+		instance1.setCpuCores(1);
+		instance1.setRequestRate(100);
+		instance2.setCpuCores(16);
+		instance2.setRequestRate(400);
+		Assert.assertEquals(instance2, 
+				resourcePlacementStrategy.getInstancesForNewRessource(systems, blacklist, 1000));
+	}
+	
+	/**
+	 * Systems without published metrics should be avoided
+	 * @throws ResourceAllocationException
+	 */
+	@Test(timeout=60000)
+	public void testUnknownLoadPlacement() throws ResourceAllocationException {
+		final ResourcePlacementStrategy resourcePlacementStrategy = getPlacementStrategy();
+		final List<BBoxDBInstance> systems = new ArrayList<>();
+		
+		final BBoxDBInstance instance1 = new BBoxDBInstance("node1:123", "0.1", BBoxDBInstanceState.READY);
+		instance1.setCpuCores(4);
+		final BBoxDBInstance instance2 = createInstance("node2:123", 4, 100, 0.5);
+		systems.add(instance1);
+		systems.add(instance2);
+		
+		utilization.setCount(instance1, 1);
+		utilization.setCount(instance2, 1);
+		
+		Assert.assertEquals(instance2, resourcePlacementStrategy.getInstancesForNewRessource(systems));
+	}
+}
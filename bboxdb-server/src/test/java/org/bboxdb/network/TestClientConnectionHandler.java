@@ -0,0 +1,117 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.capabilities.PeerCapabilities;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.response.CompressionEnvelopeResponse;
+import org.bboxdb.network.packages.response.TuplePageResponse;
+import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+public class TestClientConnectionHandler {
+
+	/**
+	 * Write a tuple page through the queued compression path and reuse the 
+	 * tuple list before the pending packages are flushed
+	 * 
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	@Test(timeout=60000)
+	public void testCompressedTuplePageListReuse() throws IOException, PackageEncodeException {
+		final ByteArrayOutputStream socketOutput = new ByteArrayOutputStream();
+		final ClientConnectionHandler handler = createConnectionHandler(socketOutput);
+		
+		try {
+			final PeerCapabilities capabilities = new PeerCapabilities();
+			capabilities.setGZipCompression();
+			capabilities.setTuplePageEncoding();
+			handler.setConnectionCapabilities(capabilities);
+			handler.setConnectionStateToOpen();
+			
+			final Tuple tuple1 = new Tuple("1", Hyperrectangle.FULL_SPACE, "value1".getBytes());
+			final Tuple tuple2 = new Tuple("2", Hyperrectangle.FULL_SPACE, "value2".getBytes());
+			final Tuple tuple3 = new Tuple("3", Hyperrectangle.FULL_SPACE, "value3".getBytes());
+	
+			final List<JoinedTuple> pendingTuples = new ArrayList<>();
+			pendingTuples.add(new JoinedTuple(tuple1, "table1"));
+			pendingTuples.add(new JoinedTuple(tuple2, "table1"));
+			
+			// The package is queued, the list is reused like in the stream query
+			handler.writeResultTuples((short) 12, pendingTuples);
+			pendingTuples.clear();
+			pendingTuples.add(new JoinedTuple(tuple3, "table1"));
+			
+			handler.flushPendingCompressionPackages();
+			
+			final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(socketOutput.toByteArray());
+			final InputStream uncompressedByteStream = CompressionEnvelopeResponse.decodePackage(bb);
+			final byte[] uncompressedBytes = ByteStreams.toByteArray(uncompressedByteStream);
+			final ByteBuffer uncompressedByteBuffer = NetworkPackageDecoder.encapsulateBytes(uncompressedBytes);
+			
+			final TuplePageResponse pageResponse = TuplePageResponse.decodePackage(uncompressedByteBuffer);
+			Assert.assertEquals(12, pageResponse.getSequenceNumber());
+			
+			final List<JoinedTuple> decodedTuples = pageResponse.getJoinedTuples();
+			Assert.assertEquals(2, decodedTuples.size());
+			Assert.assertEquals(tuple1, decodedTuples.get(0).getTuple(0));
+			Assert.assertEquals(tuple2, decodedTuples.get(1).getTuple(0));
+		} finally {
+			handler.getConnectionState().dispatchToStopping();
+		}
+	}
+	
+	/**
+	 * Create a connection handler that writes into the given stream
+	 * @param socketOutput
+	 * @return
+	 */
+	private ClientConnectionHandler createConnectionHandler(final OutputStream socketOutput) {
+		
+		final Socket socket = new Socket() {
+			@Override
+			public OutputStream getOutputStream() {
+				return socketOutput;
+			}
+			
+			@Override
+			public InputStream getInputStream() {
+				return new ByteArrayInputStream(new byte[0]);
+			}
+		};
+		
+		return new ClientConnectionHandler(null, socket, null);
+	}
+}
@@ -17,7 +17,10 @@
  *******************************************************************************/
 package org.bboxdb.network;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.bboxdb.BBoxDBMain;
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -29,7 +32,9 @@ import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.client.BBoxDB;
 import org.bboxdb.network.client.BBoxDBCluster;
 import org.bboxdb.network.client.future.EmptyResultFuture;
+import org.bboxdb.network.client.future.TupleListFuture;
 import org.bboxdb.network.client.tools.IndexedTupleUpdateHelper;
+import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.junit.AfterClass;
@@ -198,4 +203,98 @@ public class TestIndexedTupleUpdate {
 		
 		disconnect(cluster);
 	}
+	
+	@Test
+	public void testQueryAndDeleteByIndex() throws InterruptedException, BBoxDBException {
+		
+		final BBoxDBCluster cluster = connectToServer();
+		final IndexedTupleUpdateHelper indexedTupleUpdateHelper = new IndexedTupleUpdateHelper(cluster);
+
+		// Key is not indexed
+		final TupleListFuture queryFuture1 = indexedTupleUpdateHelper.queryKey(TABLENAME, "abc");
+		queryFuture1.waitForCompletion();
+		Assert.assertFalse(queryFuture1.isFailed());
+		Assert.assertTrue(getTuples(queryFuture1).isEmpty());
+		
+		final Tuple tuple1 = new Tuple("abc", new Hyperrectangle(4d, 5d, 4d, 5d), "value1".getBytes());
+		final EmptyResultFuture update1Future = indexedTupleUpdateHelper.handleTupleUpdate(TABLENAME, tuple1);
+		update1Future.waitForCompletion();
+		Assert.assertFalse(update1Future.isFailed());
+		indexedTupleUpdateHelper.waitForCompletion();
+
+		final Tuple tuple2 = new Tuple("abc", new Hyperrectangle(7d, 9d, 4d, 50d), "value2".getBytes());
+		final EmptyResultFuture update2Future = indexedTupleUpdateHelper.handleTupleUpdate(TABLENAME, tuple2);
+		update2Future.waitForCompletion();
+		Assert.assertFalse(update2Future.isFailed());
+		indexedTupleUpdateHelper.waitForCompletion();
+		
+		final TupleListFuture queryFuture2 = indexedTupleUpdateHelper.queryKey(TABLENAME, "abc");
+		queryFuture2.waitForCompletion();
+		Assert.assertFalse(queryFuture2.isFailed());
+		final List<Tuple> result2 = getTuples(queryFuture2);
+		Assert.assertEquals(1, result2.size());
+		Assert.assertEquals(tuple2, result2.get(0));
+		
+		final EmptyResultFuture deleteFuture = indexedTupleUpdateHelper.deleteTuple(TABLENAME, "abc");
+		deleteFuture.waitForCompletion();
+		Assert.assertFalse(deleteFuture.isFailed());
+		indexedTupleUpdateHelper.waitForCompletion();
+		
+		final TupleListFuture queryFuture3 = indexedTupleUpdateHelper.queryKey(TABLENAME, "abc");
+		queryFuture3.waitForCompletion();
+		Assert.assertFalse(queryFuture3.isFailed());
+		Assert.assertTrue(getTuples(queryFuture3).isEmpty());
+		
+		// The index entry is already deleted
+		final EmptyResultFuture deleteFuture2 = indexedTupleUpdateHelper.deleteTuple(TABLENAME, "abc");
+		deleteFuture2.waitForCompletion();
+		Assert.assertFalse(deleteFuture2.isFailed());
+		indexedTupleUpdateHelper.waitForCompletion();
+
+		// Insert the deleted key again
+		final Tuple tuple4 = new Tuple("abc", new Hyperrectangle(1d, 2d, 1d, 2d), "value4".getBytes());
+		final EmptyResultFuture update3Future = indexedTupleUpdateHelper.handleTupleUpdate(TABLENAME, tuple4);
+		update3Future.waitForCompletion();
+		Assert.assertFalse(update3Future.isFailed());
+		indexedTupleUpdateHelper.waitForCompletion();
+
+		final TupleListFuture queryFuture5 = indexedTupleUpdateHelper.queryKey(TABLENAME, "abc");
+		queryFuture5.waitForCompletion();
+		Assert.assertFalse(queryFuture5.isFailed());
+		final List<Tuple> result5 = getTuples(queryFuture5);
+		Assert.assertEquals(1, result5.size());
+		Assert.assertEquals(tuple4, result5.get(0));
+
+		// The key is not indexed, the tuple is deleted in all regions
+		final Tuple tuple3 = new Tuple("def", new Hyperrectangle(4d, 5d, 4d, 5d), "value3".getBytes());
+		final EmptyResultFuture insertFuture = cluster.insertTuple(TABLENAME, tuple3);
+		insertFuture.waitForCompletion();
+		Assert.assertFalse(insertFuture.isFailed());
+		
+		final EmptyResultFuture deleteFuture3 = indexedTupleUpdateHelper.deleteTuple(TABLENAME, "def");
+		deleteFuture3.waitForCompletion();
+		Assert.assertFalse(deleteFuture3.isFailed());
+		indexedTupleUpdateHelper.waitForCompletion();
+		
+		final TupleListFuture queryFuture4 = indexedTupleUpdateHelper.queryKey(TABLENAME, "def");
+		queryFuture4.waitForCompletion();
+		Assert.assertFalse(queryFuture4.isFailed());
+		Assert.assertTrue(getTuples(queryFuture4).isEmpty());
+		
+		disconnect(cluster);
+	}
+	
+	/**
+	 * Get the non deleted tuples of the future
+	 * @param future
+	 * @return
+	 */
+	private List<Tuple> getTuples(final TupleListFuture future) {
+		final List<Tuple> result = new ArrayList<>();
+		future.iterator().forEachRemaining(result::add);
+		
+		return result.stream()
+				.filter(t -> ! (t instanceof DeletedTuple))
+				.collect(Collectors.toList());
+	}
 }
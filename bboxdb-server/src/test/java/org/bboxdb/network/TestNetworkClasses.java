@@ -31,7 +31,10 @@ import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.capabilities.PeerCapabilities;
 import org.bboxdb.network.client.SequenceNumberGenerator;
+import org.bboxdb.network.compression.CompressionCodec;
+import org.bboxdb.network.compression.CompressionCodecFactory;
 import org.bboxdb.network.packages.NetworkPackage;
+import org.bboxdb.network.packages.NetworkRequestPackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.CancelRequest;
 import org.bboxdb.network.packages.request.CompressionEnvelopeRequest;
@@ -45,12 +48,14 @@ import org.bboxdb.network.packages.request.InsertTupleRequest;
 import org.bboxdb.network.packages.request.KeepAliveRequest;
 import org.bboxdb.network.packages.request.LockTupleRequest;
 import org.bboxdb.network.packages.request.NextPageRequest;
+import org.bboxdb.network.packages.request.QueryAggregationRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleContinuousRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleRequest;
 import org.bboxdb.network.packages.request.QueryHyperrectangleTimeRequest;
 import org.bboxdb.network.packages.request.QueryInsertTimeRequest;
 import org.bboxdb.network.packages.request.QueryJoinRequest;
 import org.bboxdb.network.packages.request.QueryKeyRequest;
+import org.bboxdb.network.packages.request.QueryNearestRequest;
 import org.bboxdb.network.packages.request.QueryVersionTimeRequest;
 import org.bboxdb.network.packages.response.CompressionEnvelopeResponse;
 import org.bboxdb.network.packages.response.HelloResponse;
@@ -58,8 +63,10 @@ import org.bboxdb.network.packages.response.JoinedTupleResponse;
 import org.bboxdb.network.packages.response.ListTablesResponse;
 import org.bboxdb.network.packages.response.SuccessResponse;
 import org.bboxdb.network.packages.response.TupleLockedResponse;
+import org.bboxdb.network.packages.response.TuplePageResponse;
 import org.bboxdb.network.packages.response.TupleResponse;
 import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.routing.RoutingHeaderParser;
 import org.bboxdb.network.routing.RoutingHop;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
@@ -69,6 +76,9 @@ import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.aggregation.AggregationType;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterDefinition;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedGeoJsonPropertyFilter;
 import org.bboxdb.storage.util.TupleHelper;
 import org.junit.Assert;
 import org.junit.Test;
@@ -261,6 +271,81 @@ public class TestNetworkClasses {
 		Assert.assertTrue(joinedResponse.toString().length() > 10);
 	}
 	
+	/**
+	 * Test the decoding and the encoding of a tuple page
+	 * @throws PackageEncodeException 
+	 * @throws IOException 
+	 */
+	@Test(timeout=60000)
+	public void encodeAndDecodeTuplePage() throws IOException, PackageEncodeException {
+		final Tuple tuple1 = new Tuple("key1", new Hyperrectangle(1.3244343224, 232.232333343, 34324.343, 343243.0), "abc".getBytes(), 12);
+		final Tuple tuple2 = new Tuple("key2", new Hyperrectangle(-1.5, -1.5, 7.0, 7.0), "def".getBytes(), 4);
+		final Tuple tuple3 = new Tuple("key3", Hyperrectangle.FULL_SPACE, "".getBytes(), Long.MAX_VALUE);
+		final Tuple tuple4 = new DeletedTuple("key4", 5);
+		final Tuple tuple5 = new Tuple("key5", new Hyperrectangle(1.0, 2.0), "geh".getBytes(), 17);
+
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		
+		final List<JoinedTuple> joinedTuples = Arrays.asList(
+				new JoinedTuple(tuple1, "table1"),
+				new JoinedTuple(tuple2, "table1"),
+				new JoinedTuple(Arrays.asList(tuple3, tuple4), Arrays.asList("table2", "table1")),
+				new JoinedTuple(tuple4, "table3"),
+				new JoinedTuple(tuple5, "table2"));
+
+		final TuplePageResponse pageResponse = new TuplePageResponse(sequenceNumber, joinedTuples);
+
+		final byte[] encodedVersion = networkPackageToByte(pageResponse);
+		Assert.assertNotNull(encodedVersion);
+		
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+		final TuplePageResponse decodedPackage = TuplePageResponse.decodePackage(bb);
+		Assert.assertEquals(sequenceNumber, decodedPackage.getSequenceNumber());
+		
+		final List<JoinedTuple> decodedTuples = decodedPackage.getJoinedTuples();
+		Assert.assertEquals(joinedTuples.size(), decodedTuples.size());
+		
+		for(int i = 0; i < joinedTuples.size(); i++) {
+			final JoinedTuple expected = joinedTuples.get(i);
+			final JoinedTuple decoded = decodedTuples.get(i);
+			Assert.assertEquals(expected.getNumberOfTuples(), decoded.getNumberOfTuples());
+			
+			for(int tuple = 0; tuple < expected.getNumberOfTuples(); tuple++) {
+				Assert.assertEquals(expected.getTuple(tuple), decoded.getTuple(tuple));
+				Assert.assertEquals(expected.getTupleStoreName(tuple), decoded.getTupleStoreName(tuple));
+			}
+		}
+		
+		Assert.assertTrue(TupleHelper.isDeletedTuple(decodedTuples.get(3).getTuple(0)));
+		Assert.assertTrue(pageResponse.toString().length() > 10);
+	}
+	
+	/**
+	 * The tuple page encoding should be smaller than the single tuple encoding
+	 * @throws PackageEncodeException 
+	 * @throws IOException 
+	 */
+	@Test(timeout=60000)
+	public void testTuplePageSize() throws IOException, PackageEncodeException {
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final List<JoinedTuple> joinedTuples = new ArrayList<>();
+		long singleTupleSize = 0;
+		
+		for(int i = 0; i < 100; i++) {
+			final Tuple tuple = new Tuple(Integer.toString(i), new Hyperrectangle((double) i, (double) i, 2.0, 2.0), 
+					"".getBytes(), 1000000 + i);
+			joinedTuples.add(new JoinedTuple(tuple, "testgroup_pointtable"));
+			
+			final TupleResponse tupleResponse = new TupleResponse(sequenceNumber, "testgroup_pointtable", tuple);
+			singleTupleSize = singleTupleSize + networkPackageToByte(tupleResponse).length;
+		}
+		
+		final TuplePageResponse pageResponse = new TuplePageResponse(sequenceNumber, joinedTuples);
+		final long pageSize = networkPackageToByte(pageResponse).length;
+		
+		Assert.assertTrue(pageSize * 3 < singleTupleSize);
+	}
+	
 	/**
 	 * The the encoding and decoding of an insert tuple package
 	 * @throws IOException 
@@ -535,6 +620,56 @@ public class TestNetworkClasses {
 		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
 	}
 	
+	/**
+	 * Test decode bounding box query in the layout of protocol version 1
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeBoundingBoxQueryVersion1() throws IOException, PackageEncodeException {
+		final byte[] tableBytes = "table1".getBytes();
+		final byte[] bboxBytes = new Hyperrectangle(10d, 20d).toByteArray();
+		final byte[] routingHeaderBytes = RoutingHeaderParser.encodeHeader(ROUTING_HEADER_ROUTED);
+		
+		final ByteBuffer body = ByteBuffer.allocate(12 + tableBytes.length + bboxBytes.length);
+		body.order(Const.APPLICATION_BYTE_ORDER);
+		body.put(NetworkConst.REQUEST_QUERY_BBOX);
+		body.put((byte) 1); // Paging enabled
+		body.putShort((short) 10);
+		body.putShort((short) tableBytes.length);
+		body.putShort((short) 0); // 2 unused bytes
+		body.putInt(bboxBytes.length);
+		body.put(tableBytes);
+		body.put(bboxBytes);
+		
+		final ByteBuffer header = ByteBuffer.allocate(12);
+		header.order(Const.APPLICATION_BYTE_ORDER);
+		header.putShort((short) 4);
+		header.putShort(NetworkConst.REQUEST_TYPE_QUERY);
+		header.putLong(body.capacity());
+		
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		bos.write(header.array());
+		bos.write(routingHeaderBytes);
+		bos.write(body.array());
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(bos.toByteArray());
+		Assert.assertTrue(NetworkPackageDecoder.validateRequestPackageHeader(bb, NetworkConst.REQUEST_TYPE_QUERY));
+
+		final QueryHyperrectangleRequest decodedPackage = QueryHyperrectangleRequest.decodeTuple(bb);
+		Assert.assertEquals(new Hyperrectangle(10d, 20d), decodedPackage.getBoundingBox());
+		Assert.assertEquals(new TupleStoreName("table1"), decodedPackage.getTable());
+		Assert.assertTrue(decodedPackage.isPagingEnabled());
+		Assert.assertFalse(decodedPackage.isGeometryRefinement());
+		Assert.assertEquals(10, decodedPackage.getTuplesPerPage());
+		Assert.assertFalse(decodedPackage.getUserDefinedFilter().isFilterDefined());
+		
+		// A request without a filter is encoded in the same layout
+		final QueryHyperrectangleRequest queryRequest = new QueryHyperrectangleRequest((short) 4, 
+				ROUTING_HEADER_ROUTED, "table1", new Hyperrectangle(10d, 20d), true, (short) 10);
+		Assert.assertArrayEquals(bos.toByteArray(), networkPackageToByte(queryRequest));
+	}
+	
 	/**
 	 * Test decode bounding box query
 	 * @throws IOException 
@@ -685,6 +820,132 @@ public class TestNetworkClasses {
 		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
 	}
 	
+	/**
+	 * Test decode join query with geometry refinement
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeJoinQueryWithRefinement() throws IOException, PackageEncodeException {
+		final List<TupleStoreName> tables = Arrays.asList(new TupleStoreName("3dgroup_table1"),
+				new TupleStoreName("3dgroup_table2"));
+		
+		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d, 10d, 20d);
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final QueryJoinRequest queryRequest = new QueryJoinRequest(sequenceNumber, ROUTING_HEADER_ROUTED, 
+				tables, boundingBox, true, true, (short) 10);
+		byte[] encodedPackage = networkPackageToByte(queryRequest);
+		Assert.assertNotNull(encodedPackage);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		boolean result = NetworkPackageDecoder.validateRequestPackageHeader(bb, NetworkConst.REQUEST_TYPE_QUERY);
+		Assert.assertTrue(result);
+
+		final QueryJoinRequest decodedPackage = QueryJoinRequest.decodeTuple(bb);
+		Assert.assertTrue(decodedPackage.isGeometryRefinement());
+		Assert.assertTrue(decodedPackage.isPagingEnabled());
+		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
+	}
+	
+	/**
+	 * Test decode bounding box query with user defined filter
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeBoundingBoxQueryWithFilter() throws IOException, PackageEncodeException {
+		final String table = "table1";
+		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final UserDefinedFilterDefinition filter = new UserDefinedFilterDefinition(
+				UserDefinedGeoJsonPropertyFilter.class.getName(), "name:abc");
+
+		final QueryHyperrectangleRequest queryRequest = new QueryHyperrectangleRequest(sequenceNumber, 
+				ROUTING_HEADER_ROUTED, table, boundingBox, filter, false, (short) 10);
+		byte[] encodedPackage = networkPackageToByte(queryRequest);
+		Assert.assertNotNull(encodedPackage);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		boolean result = NetworkPackageDecoder.validateRequestPackageHeader(bb, NetworkConst.REQUEST_TYPE_QUERY);
+		Assert.assertTrue(result);
+
+		final QueryHyperrectangleRequest decodedPackage = QueryHyperrectangleRequest.decodeTuple(bb);
+		Assert.assertEquals(queryRequest.getBoundingBox(), decodedPackage.getBoundingBox());
+		Assert.assertEquals(filter, decodedPackage.getUserDefinedFilter());
+		Assert.assertTrue(decodedPackage.getUserDefinedFilter().isFilterDefined());
+		Assert.assertFalse(decodedPackage.isGeometryRefinement());
+		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
+		
+		final QueryHyperrectangleRequest queryRequest2 = new QueryHyperrectangleRequest(sequenceNumber, 
+				ROUTING_HEADER_ROUTED, table, boundingBox, filter, true, false, (short) 10);
+		
+		final ByteBuffer bb2 = NetworkPackageDecoder.encapsulateBytes(networkPackageToByte(queryRequest2));
+		Assert.assertTrue(NetworkPackageDecoder.validateRequestPackageHeader(bb2, NetworkConst.REQUEST_TYPE_QUERY));
+		
+		final QueryHyperrectangleRequest decodedPackage2 = QueryHyperrectangleRequest.decodeTuple(bb2);
+		Assert.assertTrue(decodedPackage2.isGeometryRefinement());
+		Assert.assertFalse(decodedPackage2.isPagingEnabled());
+		Assert.assertEquals(queryRequest2.toString(), decodedPackage2.toString());
+	}
+	
+	/**
+	 * Test decode aggregation query
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeAggregationQuery() throws IOException, PackageEncodeException {
+		final String table = "table1";
+		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d, 10d, 20d);
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final QueryAggregationRequest queryRequest = new QueryAggregationRequest(sequenceNumber, 
+				ROUTING_HEADER_ROUTED, table, boundingBox, AggregationType.GRID_COUNT, 2.5);
+		byte[] encodedPackage = networkPackageToByte(queryRequest);
+		Assert.assertNotNull(encodedPackage);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		boolean result = NetworkPackageDecoder.validateRequestPackageHeader(bb, NetworkConst.REQUEST_TYPE_QUERY);
+		Assert.assertTrue(result);
+
+		final QueryAggregationRequest decodedPackage = QueryAggregationRequest.decodeTuple(bb);
+		Assert.assertEquals(queryRequest.getBoundingBox(), decodedPackage.getBoundingBox());
+		Assert.assertEquals(queryRequest.getTable(), decodedPackage.getTable());
+		Assert.assertEquals(AggregationType.GRID_COUNT, decodedPackage.getAggregationType());
+		Assert.assertEquals(2.5, decodedPackage.getParameter(), 0.0001);
+		Assert.assertEquals(NetworkConst.REQUEST_QUERY_AGGREGATION, NetworkPackageDecoder.getQueryTypeFromRequest(bb));
+	
+		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
+	}	
+	/**
+	 * Test decode nearest neighbor query
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeNearestQuery() throws IOException, PackageEncodeException {
+		final String table = "table1";
+		final Hyperrectangle point = new Hyperrectangle(10d, 10d, 20d, 20d);
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final QueryNearestRequest queryRequest = new QueryNearestRequest(sequenceNumber, ROUTING_HEADER_ROUTED, table, point, 5);
+		byte[] encodedPackage = networkPackageToByte(queryRequest);
+		Assert.assertNotNull(encodedPackage);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		boolean result = NetworkPackageDecoder.validateRequestPackageHeader(bb, NetworkConst.REQUEST_TYPE_QUERY);
+		Assert.assertTrue(result);
+
+		final QueryNearestRequest decodedPackage = QueryNearestRequest.decodeTuple(bb);
+		Assert.assertEquals(queryRequest.getBoundingBox(), decodedPackage.getBoundingBox());
+		Assert.assertEquals(queryRequest.getTable(), decodedPackage.getTable());
+		Assert.assertEquals(5, decodedPackage.getMaxTuples());
+		Assert.assertEquals(NetworkConst.REQUEST_QUERY_NEAREST, NetworkPackageDecoder.getQueryTypeFromRequest(bb));
+	
+		Assert.assertEquals(queryRequest.toString(), decodedPackage.toString());
+	}
+	
 	/**
 	 * The the encoding and decoding of disconnect package
 	 * @throws IOException 
@@ -814,6 +1075,63 @@ public class TestNetworkClasses {
 		Assert.assertEquals(helloPackage.toString(), decodedPackage.toString());
 	}
 	
+	/**
+	 * The the encoding and decoding of the in flight calls in the handshake
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void encodeAndDecodeHeloInFlightCalls() throws IOException, PackageEncodeException {
+		final PeerCapabilities peerCapabilities = new PeerCapabilities();
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final HelloRequest helloRequest = new HelloRequest(sequenceNumber, 2, peerCapabilities, 5000);
+		final ByteBuffer bb1 = NetworkPackageDecoder.encapsulateBytes(networkPackageToByte(helloRequest));
+		final HelloRequest decodedRequest = HelloRequest.decodeRequest(bb1);
+		Assert.assertEquals(helloRequest, decodedRequest);
+		Assert.assertEquals(5000, decodedRequest.getMaxInFlightCalls());
+		
+		final HelloResponse helloResponse = new HelloResponse(sequenceNumber, 2, peerCapabilities, 4096);
+		final ByteBuffer bb2 = NetworkPackageDecoder.encapsulateBytes(networkPackageToByte(helloResponse));
+		final HelloResponse decodedResponse = HelloResponse.decodePackage(bb2);
+		Assert.assertEquals(helloResponse, decodedResponse);
+		Assert.assertEquals(4096, decodedResponse.getMaxInFlightCalls());
+		
+		final HelloResponse defaultResponse = new HelloResponse(sequenceNumber, 2, peerCapabilities);
+		Assert.assertEquals(NetworkConst.DEFAULT_MAX_IN_FLIGHT_CALLS, defaultResponse.getMaxInFlightCalls());
+	}
+	
+	/**
+	 * The in flight calls are not encoded for peers with protocol version 1
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void encodeAndDecodeHeloVersion1() throws IOException, PackageEncodeException {
+		final PeerCapabilities peerCapabilities = new PeerCapabilities();
+		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final HelloRequest helloRequest1 = new HelloRequest(sequenceNumber, 1, peerCapabilities, 5000);
+		final HelloRequest helloRequest2 = new HelloRequest(sequenceNumber, 2, peerCapabilities, 5000);
+		final byte[] encodedRequest1 = networkPackageToByte(helloRequest1);
+		Assert.assertEquals(networkPackageToByte(helloRequest2).length - 4, encodedRequest1.length);
+		
+		final HelloRequest decodedRequest = HelloRequest.decodeRequest(
+				NetworkPackageDecoder.encapsulateBytes(encodedRequest1));
+		Assert.assertEquals(1, decodedRequest.getProtocolVersion());
+		Assert.assertEquals(NetworkConst.DEFAULT_MAX_IN_FLIGHT_CALLS, decodedRequest.getMaxInFlightCalls());
+		
+		final HelloResponse helloResponse1 = new HelloResponse(sequenceNumber, 1, peerCapabilities, 4096);
+		final HelloResponse helloResponse2 = new HelloResponse(sequenceNumber, 2, peerCapabilities, 4096);
+		final byte[] encodedResponse1 = networkPackageToByte(helloResponse1);
+		Assert.assertEquals(networkPackageToByte(helloResponse2).length - 4, encodedResponse1.length);
+
+		final HelloResponse decodedResponse = HelloResponse.decodePackage(
+				NetworkPackageDecoder.encapsulateBytes(encodedResponse1));
+		Assert.assertEquals(1, decodedResponse.getProtocolVersion());
+		Assert.assertEquals(NetworkConst.DEFAULT_MAX_IN_FLIGHT_CALLS, decodedResponse.getMaxInFlightCalls());
+	}
+	
 	
 	/**
 	 * Decode an encoded package
@@ -1186,6 +1504,144 @@ public class TestNetworkClasses {
 		Assert.assertEquals(helloPackage.toString(), decodedPackage.toString());
 	}
 	
+	/**
+	 * Test the lz4 and the zstandard compression of request packages
+	 * @throws IOException
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testCompressionRequestFastCodecs() throws IOException, PackageEncodeException {
+		testCompressionRequest(NetworkConst.COMPRESSION_TYPE_LZ4);
+		testCompressionRequest(NetworkConst.COMPRESSION_TYPE_ZSTD);
+		
+		// Codec buffers are reused, test again
+		testCompressionRequest(NetworkConst.COMPRESSION_TYPE_LZ4);
+		testCompressionRequest(NetworkConst.COMPRESSION_TYPE_ZSTD);
+	}
+	
+	/**
+	 * Test the lz4 and the zstandard compression of response packages
+	 * @throws IOException
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testCompressionResponseFastCodecs() throws IOException, PackageEncodeException {
+		testCompressionResponse(NetworkConst.COMPRESSION_TYPE_LZ4);
+		testCompressionResponse(NetworkConst.COMPRESSION_TYPE_ZSTD);
+		testCompressionResponse(NetworkConst.COMPRESSION_TYPE_GZIP);
+	}
+	
+	/**
+	 * Test a compressed block with an invalid uncompressed length
+	 * @throws IOException
+	 */
+	@Test(timeout=60000)
+	public void testCompressionInvalidLength() throws IOException, PackageEncodeException {
+		final List<Byte> compressionTypes = Arrays.asList(NetworkConst.COMPRESSION_TYPE_LZ4, 
+				NetworkConst.COMPRESSION_TYPE_ZSTD);
+		
+		for(final byte compressionType : compressionTypes) {
+			final CompressionCodec codec = CompressionCodecFactory.getCodec(compressionType);
+			final byte[] data = "abcdefghijklmnopqrstuvwxyz".getBytes();
+			final ByteBuffer compressed = codec.compress(data, data.length);
+			final byte[] compressedBytes = Arrays.copyOf(compressed.array(), compressed.limit());
+			
+			for(final int length : Arrays.asList(-1, Integer.MAX_VALUE, 
+					NetworkConst.MAX_UNCOMPRESSED_PACKAGE_SIZE + 1)) {
+				
+				final ByteBuffer prefix = ByteBuffer.wrap(compressedBytes, 0, 4);
+				prefix.order(Const.APPLICATION_BYTE_ORDER);
+				prefix.putInt(length);
+				
+				try {
+					codec.uncompress(compressedBytes, 0, compressedBytes.length);
+					Assert.fail("Invalid length accepted: " + length);
+				} catch(IOException e) {
+					// Expected
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Test unknown compression type
+	 * @throws PackageEncodeException 
+	 * @throws IOException 
+	 */
+	@Test(expected=PackageEncodeException.class)
+	public void testCompressionUnknownType() throws PackageEncodeException, IOException {
+		final TupleResponse singleTupleResponse = new TupleResponse((short) 4, "table1", 
+				new Tuple("abc", Hyperrectangle.FULL_SPACE, "databytes".getBytes()));
+
+		final CompressionEnvelopeResponse compressionEnvelopeResponse 
+			= new CompressionEnvelopeResponse((byte) 99, Arrays.asList(singleTupleResponse));
+		
+		networkPackageToByte(compressionEnvelopeResponse);
+	}
+
+	/**
+	 * Encode and decode multiple insert packages with the given compression type
+	 * @param compressionType
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void testCompressionRequest(final byte compressionType) 
+			throws IOException, PackageEncodeException {
+		
+		final List<NetworkRequestPackage> packages = new ArrayList<>();
+		
+		for(int i = 0; i < 100; i++) {
+			final Tuple tuple = new Tuple("key" + i, Hyperrectangle.FULL_SPACE, "abcabcabcabc".getBytes(), 12);
+			final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+			packages.add(new InsertTupleRequest(sequenceNumber, ROUTING_HEADER_ROUTED, 
+					new TupleStoreName("test"), tuple));
+		}
+		
+		final CompressionEnvelopeRequest compressionPackage 
+			= new CompressionEnvelopeRequest(compressionType, packages);
+		
+		final byte[] encodedVersion = networkPackageToByte(compressionPackage);
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+		final InputStream uncompressedByteStream = CompressionEnvelopeRequest.decodePackage(bb);
+		
+		// The uncompressed stream contains the encoded packages
+		final ByteArrayOutputStream expectedBytes = new ByteArrayOutputStream();
+		for(final NetworkRequestPackage networkPackage : packages) {
+			networkPackage.writeToOutputStream(expectedBytes);
+		}
+		
+		final byte[] uncompressedBytes = ByteStreams.toByteArray(uncompressedByteStream);
+		Assert.assertArrayEquals(expectedBytes.toByteArray(), uncompressedBytes);
+		
+		Assert.assertTrue(encodedVersion.length < uncompressedBytes.length);
+	}
+	
+	/**
+	 * Encode and decode a tuple response with the given compression type
+	 * @param compressionType
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void testCompressionResponse(final byte compressionType) 
+			throws IOException, PackageEncodeException {
+		
+		final Tuple tuple = new Tuple("abc", Hyperrectangle.FULL_SPACE, "databytes".getBytes());
+		final TupleResponse singleTupleResponse = new TupleResponse((short) 4, "table1", tuple);
+		
+		final CompressionEnvelopeResponse compressionEnvelopeResponse 
+			= new CompressionEnvelopeResponse(compressionType, Arrays.asList(singleTupleResponse));
+		
+		final byte[] encodedPackage = networkPackageToByte(compressionEnvelopeResponse);
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final InputStream uncompressedByteStream = CompressionEnvelopeResponse.decodePackage(bb);
+		final byte[] uncompressedBytes = ByteStreams.toByteArray(uncompressedByteStream);
+		final ByteBuffer uncompressedByteBuffer = NetworkPackageDecoder.encapsulateBytes(uncompressedBytes);
+
+		final TupleResponse responseDecoded = TupleResponse.decodePackage(uncompressedByteBuffer);
+		Assert.assertEquals(singleTupleResponse.getTable(), responseDecoded.getTable());
+		Assert.assertEquals(singleTupleResponse.getTuple(), responseDecoded.getTuple());
+	}
+	
 	/**
 	 * The the encoding and decoding of a keep alive package
 	 * @throws IOException 
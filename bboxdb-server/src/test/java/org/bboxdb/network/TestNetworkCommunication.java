@@ -18,6 +18,8 @@
 package org.bboxdb.network;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -611,10 +613,71 @@ public class TestNetworkCommunication {
 		final List<Tuple> resultList5 = Lists.newArrayList(future5.iterator());
 		Assert.assertEquals(5, resultList5.size());
 
+		// With paging (tuples per page 1) and without page streaming
+		System.out.println("Pages = 1, credits = 1");
+		bboxDBClient.setMaxPageCredits(1);
+		final TupleListFuture future6 = bboxDBClient.queryRectangle(table, new Hyperrectangle(-10d, 10d, -10d, 10d));
+		future6.waitForCompletion();
+		final List<Tuple> resultList6 = Lists.newArrayList(future6.iterator());
+		Assert.assertEquals(5, resultList6.size());
+		bboxDBClient.setMaxPageCredits(8);
+
 		System.out.println("=== End testPaging");
 		disconnect(bboxDBClient);
 	}
 
+	/**
+	 * Test the streaming of pages with multiple outstanding page credits
+	 * @throws InterruptedException
+	 * @throws BBoxDBException
+	 */
+	@Test(timeout=60000)
+	public void testPagingStreaming() throws InterruptedException, BBoxDBException {
+		System.out.println("=== Running testPagingStreaming");
+		final String table = DISTRIBUTION_GROUP + "_relation9998";
+		final int numberOfTuples = 500;
+
+		final BBoxDBConnection bboxdbConnection = connectToServer();
+		final BBoxDBClient bboxDBClient = bboxdbConnection.getBboxDBClient();
+
+		// Create table
+		final EmptyResultFuture resultCreateTable = bboxDBClient.createTable(table, new TupleStoreConfiguration());
+		resultCreateTable.waitForCompletion();
+		Assert.assertFalse(resultCreateTable.isFailed());
+		
+		final List<EmptyResultFuture> insertFutures = new ArrayList<>();
+		
+		for(int i = 0; i < numberOfTuples; i++) {
+			final Tuple tuple = new Tuple(Integer.toString(i), new Hyperrectangle(0d, 1d, 0d, 1d), "abc".getBytes());
+			insertFutures.add(bboxDBClient.insertTuple(table, tuple));
+		}
+		
+		for(final EmptyResultFuture insertFuture : insertFutures) {
+			insertFuture.waitForCompletion();
+			Assert.assertFalse(insertFuture.isFailed());
+		}
+
+		bboxDBClient.setPagingEnabled(true);
+		bboxDBClient.setTuplesPerPage((short) 7);
+		
+		for(final int credits : Arrays.asList(1, 2, 8, 32)) {
+			System.out.println("Pages = 7, credits = " + credits);
+			bboxDBClient.setMaxPageCredits(credits);
+			final TupleListFuture future = bboxDBClient.queryRectangle(table, new Hyperrectangle(-10d, 10d, -10d, 10d));
+			future.waitForCompletion();
+			final List<Tuple> resultList = Lists.newArrayList(future.iterator());
+			Assert.assertEquals(numberOfTuples, resultList.size());
+			
+			final long distinctKeys = resultList.stream().map(Tuple::getKey).distinct().count();
+			Assert.assertEquals(numberOfTuples, distinctKeys);
+		}
+		
+		bboxDBClient.setMaxPageCredits(8);
+
+		System.out.println("=== End testPagingStreaming");
+		disconnect(bboxDBClient);
+	}
+
 	/**
 	 * Insert a tuple and request it via key
 	 * @throws ExecutionException
@@ -740,7 +803,9 @@ public class TestNetworkCommunication {
 			Assert.assertTrue(bboxDBClient.getClientCapabilities().hasGZipCompression());
 		} else {
 			bboxDBClient.getClientCapabilities().clearGZipCompression();
-			Assert.assertFalse(bboxDBClient.getClientCapabilities().hasGZipCompression());
+			bboxDBClient.getClientCapabilities().clearLZ4Compression();
+			bboxDBClient.getClientCapabilities().clearZstdCompression();
+			Assert.assertFalse(bboxDBClient.getClientCapabilities().hasCompression());
 		}
 
 		Assert.assertFalse(bboxDBClient.isConnected());
@@ -751,7 +816,7 @@ public class TestNetworkCommunication {
 		if(compressPackages()) {
 			Assert.assertTrue(bboxDBClient.getConnectionCapabilities().hasGZipCompression());
 		} else {
-			Assert.assertFalse(bboxDBClient.getConnectionCapabilities().hasGZipCompression());
+			Assert.assertFalse(bboxDBClient.getConnectionCapabilities().hasCompression());
 		}
 
 		return bboxDBClient;
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import org.bboxdb.network.client.future.PageCreditWindow;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPageCreditWindow {
+
+	/**
+	 * Test the growth of the window
+	 */
+	@Test(timeout=60000)
+	public void testWindowGrowth() {
+		final PageCreditWindow window = new PageCreditWindow(8);
+		Assert.assertEquals(1, window.getWindowSize());
+		
+		window.pageConsumed(true, false);
+		Assert.assertEquals(2, window.getWindowSize());
+		
+		window.pageConsumed(true, false);
+		Assert.assertEquals(4, window.getWindowSize());
+
+		// Page was available and the consumer was fast enough
+		window.pageConsumed(false, false);
+		Assert.assertEquals(4, window.getWindowSize());
+		
+		window.pageConsumed(true, false);
+		window.pageConsumed(true, false);
+		Assert.assertEquals(8, window.getWindowSize());
+		Assert.assertEquals(8, window.getMaxCredits());
+	}
+	
+	/**
+	 * Test the shrinking of the window
+	 */
+	@Test(timeout=60000)
+	public void testWindowShrink() {
+		final PageCreditWindow window = new PageCreditWindow(4);
+		window.pageConsumed(true, false);
+		window.pageConsumed(true, false);
+		Assert.assertEquals(4, window.getWindowSize());
+		
+		window.pageConsumed(true, true);
+		Assert.assertEquals(3, window.getWindowSize());
+		
+		for(int i = 0; i < 10; i++) {
+			window.pageConsumed(false, true);
+		}
+		
+		Assert.assertEquals(1, window.getWindowSize());
+	}
+	
+	/**
+	 * Test the window without streaming
+	 */
+	@Test(timeout=60000)
+	public void testNoStreaming() {
+		final PageCreditWindow window = new PageCreditWindow(1);
+		window.pageConsumed(true, false);
+		Assert.assertEquals(1, window.getWindowSize());
+	}
+	
+	/**
+	 * Test invalid max credits
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidCredits() {
+		new PageCreditWindow(0);
+	}
+}
@@ -63,6 +63,49 @@ public class TestPeerCapabilities {
 		peerCapabilities.clearGZipCompression();
 	}
 	
+	/**
+	 * Test the compression negotiation
+	 */
+	@Test(timeout=60000)
+	public void testPreferredCompression() {
+		final PeerCapabilities peerCapabilities = new PeerCapabilities();
+		Assert.assertFalse(peerCapabilities.hasCompression());
+		
+		peerCapabilities.setGZipCompression();
+		Assert.assertTrue(peerCapabilities.hasCompression());
+		Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_GZIP, peerCapabilities.getPreferredCompressionType());
+		
+		peerCapabilities.setZstdCompression();
+		Assert.assertTrue(peerCapabilities.hasZstdCompression());
+		Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_ZSTD, peerCapabilities.getPreferredCompressionType());
+
+		peerCapabilities.setLZ4Compression();
+		Assert.assertTrue(peerCapabilities.hasLZ4Compression());
+		Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_LZ4, peerCapabilities.getPreferredCompressionType());
+		
+		final PeerCapabilities peerCapabilities2 = new PeerCapabilities(peerCapabilities.toByteArray());
+		Assert.assertEquals(peerCapabilities, peerCapabilities2);
+		
+		peerCapabilities.clearLZ4Compression();
+		peerCapabilities.clearZstdCompression();
+		peerCapabilities.clearGZipCompression();
+		Assert.assertFalse(peerCapabilities.hasCompression());
+	}
+	
+	/**
+	 * Test the tuple page encoding flag
+	 */
+	@Test(timeout=60000)
+	public void testTuplePageEncoding() {
+		final PeerCapabilities peerCapabilities = new PeerCapabilities();
+		Assert.assertFalse(peerCapabilities.hasTuplePageEncoding());
+		peerCapabilities.setTuplePageEncoding();
+		Assert.assertTrue(peerCapabilities.hasTuplePageEncoding());
+		Assert.assertFalse(peerCapabilities.hasCompression());
+		peerCapabilities.clearTuplePageEncoding();
+		Assert.assertFalse(peerCapabilities.hasTuplePageEncoding());
+	}
+	
 	/**
 	 * Test creation with empty bytes
 	 */
@@ -70,4 +113,30 @@ public class TestPeerCapabilities {
 	public void testPeerCapabilitiesConstruct() {
 		new PeerCapabilities(new byte[20]);
 	}
+	
+	/**
+	 * Only the capabilities of both peers are used
+	 */
+	@Test(timeout=60000)
+	public void testIntersectCapabilities() {
+		final PeerCapabilities peerCapabilities1 = new PeerCapabilities();
+		peerCapabilities1.setGZipCompression();
+		peerCapabilities1.setLZ4Compression();
+		peerCapabilities1.setTuplePageEncoding();
+		
+		final PeerCapabilities peerCapabilities2 = new PeerCapabilities();
+		peerCapabilities2.setGZipCompression();
+		peerCapabilities2.setZstdCompression();
+		peerCapabilities2.freeze();
+		
+		final PeerCapabilities intersection = peerCapabilities1.intersect(peerCapabilities2);
+		Assert.assertTrue(intersection.hasGZipCompression());
+		Assert.assertFalse(intersection.hasLZ4Compression());
+		Assert.assertFalse(intersection.hasZstdCompression());
+		Assert.assertFalse(intersection.hasTuplePageEncoding());
+		Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_GZIP, intersection.getPreferredCompressionType());
+		
+		// The input is not changed
+		Assert.assertTrue(peerCapabilities1.hasLZ4Compression());
+	}
 }
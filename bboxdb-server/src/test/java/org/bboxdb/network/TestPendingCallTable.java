@@ -0,0 +1,100 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.util.List;
+
+import org.bboxdb.network.client.BBoxDBConnection;
+import org.bboxdb.network.client.PendingCallTable;
+import org.bboxdb.network.client.future.NetworkOperationFutureImpl;
+import org.bboxdb.network.packages.request.KeepAliveRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPendingCallTable {
+
+	/**
+	 * Test the put, get and remove operations
+	 */
+	@Test(timeout=60000)
+	public void testPutGetRemove() {
+		final PendingCallTable<String> table = new PendingCallTable<>();
+		Assert.assertTrue(table.isEmpty());
+		
+		Assert.assertTrue(table.put((short) 1, "abc"));
+		Assert.assertTrue(table.put((short) -1, "def"));
+		Assert.assertTrue(table.put(Short.MAX_VALUE, "geh"));
+		Assert.assertTrue(table.put(Short.MIN_VALUE, "ijk"));
+		Assert.assertEquals(4, table.size());
+		
+		// Slot is in use
+		Assert.assertFalse(table.put((short) 1, "xyz"));
+		Assert.assertEquals(4, table.size());
+		
+		Assert.assertEquals("abc", table.get((short) 1));
+		Assert.assertEquals("def", table.get((short) -1));
+		Assert.assertEquals("geh", table.get(Short.MAX_VALUE));
+		Assert.assertEquals("ijk", table.get(Short.MIN_VALUE));
+		Assert.assertNull(table.get((short) 2));
+		
+		Assert.assertEquals("abc", table.remove((short) 1));
+		Assert.assertNull(table.remove((short) 1));
+		Assert.assertNull(table.get((short) 1));
+		Assert.assertEquals(3, table.size());
+		Assert.assertTrue(table.toString().length() > 10);
+	}
+	
+	/**
+	 * Test the remove all operation
+	 */
+	@Test(timeout=60000)
+	public void testRemoveAll() {
+		final PendingCallTable<Integer> table = new PendingCallTable<>();
+		
+		for(int i = 0; i < 1000; i++) {
+			Assert.assertTrue(table.put((short) (i * 17), i));
+		}
+		
+		Assert.assertEquals(1000, table.size());
+		final List<Integer> removed = table.removeAll();
+		Assert.assertEquals(1000, removed.size());
+		Assert.assertTrue(table.isEmpty());
+		Assert.assertNull(table.get((short) 17));
+	}
+	
+	/**
+	 * Register a call for a sequence number that is still in use
+	 */
+	@Test(timeout=60000)
+	public void testRegisterUsedSequenceNumber() {
+		final BBoxDBConnection connection = new BBoxDBConnection();
+		final KeepAliveRequest request = new KeepAliveRequest((short) 5);
+		
+		final NetworkOperationFutureImpl future1 = new NetworkOperationFutureImpl(connection, () -> request);
+		final NetworkOperationFutureImpl future2 = new NetworkOperationFutureImpl(connection, () -> request);
+
+		Assert.assertTrue(connection.registerPackageCallback(request, future1));
+		Assert.assertFalse(future1.isDone());
+		
+		// The connection is not open, so the slot is never released
+		Assert.assertFalse(connection.registerPackageCallback(request, future2));
+		Assert.assertTrue(future2.isDone());
+		Assert.assertTrue(future2.isFailed());
+		Assert.assertFalse(future1.isDone());
+	}
+}
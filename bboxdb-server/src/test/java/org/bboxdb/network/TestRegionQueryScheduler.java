@@ -0,0 +1,335 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.server.RegionQueryScheduler;
+import org.bboxdb.network.server.RegionQueryTask;
+import org.bboxdb.network.server.RegionQueryTask.ResultBatch;
+import org.bboxdb.storage.entity.JoinedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.operator.Operator;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestRegionQueryScheduler {
+	
+	/**
+	 * The executor for the region tasks
+	 */
+	private ExecutorService executor;
+	
+	/**
+	 * The storage registry
+	 */
+	private TupleStoreManagerRegistry storageRegistry;
+	
+	/**
+	 * The amount of closed operators
+	 */
+	private AtomicInteger closedOperators;
+	
+	/**
+	 * The batch size of the tasks
+	 */
+	private final static int BATCH_SIZE = 100;
+	
+	@Before
+	public void before() {
+		executor = Executors.newFixedThreadPool(4);
+		storageRegistry = Mockito.mock(TupleStoreManagerRegistry.class);
+		Mockito.when(storageRegistry.isStorageManagerKnown(Mockito.any(TupleStoreName.class))).thenReturn(true);
+		closedOperators = new AtomicInteger(0);
+	}
+	
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Read multiple regions, the tuples of each region are received in order
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testMultiRegionOrdering() throws InterruptedException {
+		final RegionQueryScheduler scheduler = new RegionQueryScheduler(executor, 2);
+		
+		for(int region = 0; region < 5; region++) {
+			addTask(scheduler, "region" + region, 1234, -1, 0);
+		}
+		
+		Assert.assertFalse(scheduler.isDone());
+		
+		final Map<String, List<Integer>> result = readAllBatches(scheduler);
+		Assert.assertTrue(scheduler.isDone());
+		Assert.assertEquals(5, result.size());
+		
+		for(final List<Integer> values : result.values()) {
+			Assert.assertEquals(1234, values.size());
+			
+			for(int i = 0; i < values.size(); i++) {
+				Assert.assertEquals(i, (int) values.get(i));
+			}
+		}
+		
+		Assert.assertEquals(5, closedOperators.get());
+		Assert.assertNull(scheduler.takeNextBatch());
+	}
+	
+	/**
+	 * A failing region ends with a last batch, the other regions are read
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testRegionError() throws InterruptedException {
+		final RegionQueryScheduler scheduler = new RegionQueryScheduler(executor, 2);
+		
+		addTask(scheduler, "region1", 500, -1, 0);
+		addTask(scheduler, "region2", 500, 250, 0);
+		addTask(scheduler, "region3", 500, -1, 0);
+		
+		final Map<String, List<Integer>> result = readAllBatches(scheduler);
+		Assert.assertTrue(scheduler.isDone());
+		Assert.assertEquals(500, result.get("region1").size());
+		Assert.assertEquals(500, result.get("region3").size());
+		
+		// The batch with the exception is lost
+		Assert.assertEquals(200, result.get("region2").size());
+		Assert.assertEquals(3, closedOperators.get());
+	}
+	
+	/**
+	 * Close the scheduler while a consumer is waiting for the next batch
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testCancelWaitingConsumer() throws InterruptedException {
+		final RegionQueryScheduler scheduler = new RegionQueryScheduler(executor, 1);
+		
+		// Every batch of the region needs some time
+		addTask(scheduler, "region1", 5000, -1, 200);
+		addTask(scheduler, "region2", 5000, -1, 0);
+		
+		final AtomicReference<ResultBatch> consumedBatch = new AtomicReference<>();
+		final AtomicInteger consumedBatches = new AtomicInteger(0);
+		
+		final Thread consumer = new Thread(() -> {
+			try {
+				ResultBatch batch;
+				while((batch = scheduler.takeNextBatch()) != null) {
+					consumedBatches.incrementAndGet();
+					consumedBatch.set(batch);
+					scheduler.finishBatch(batch);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		
+		consumer.start();
+		Thread.sleep(500);
+		
+		scheduler.close();
+		consumer.join();
+		
+		Assert.assertTrue(scheduler.isClosed());
+		Assert.assertTrue(scheduler.isDone());
+		Assert.assertTrue(consumedBatches.get() < 5000 / BATCH_SIZE);
+		Assert.assertEquals("region1", consumedBatch.get().next().getTuple(0).getKey().split("-")[0]);
+		Assert.assertEquals(1, closedOperators.get());
+		
+		// Finishing a batch after close don't start the next region
+		scheduler.finishBatch(consumedBatch.get());
+		Assert.assertNull(scheduler.takeNextBatch());
+		Assert.assertEquals(1, closedOperators.get());
+	}
+	
+	/**
+	 * Close the scheduler while the consumer sends a batch
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testCancelActiveBatch() throws InterruptedException {
+		final RegionQueryScheduler scheduler = new RegionQueryScheduler(executor, 2);
+		
+		addTask(scheduler, "region1", 1000, -1, 0);
+		addTask(scheduler, "region2", 1000, -1, 0);
+		addTask(scheduler, "region3", 1000, -1, 0);
+		
+		// The first batch of both running regions, the operators are open
+		final ResultBatch batch = scheduler.takeNextBatch();
+		Assert.assertNotNull(batch);
+		Assert.assertFalse(batch.isLastBatch());
+		Assert.assertNotNull(scheduler.takeNextBatch());
+		Assert.assertEquals(0, closedOperators.get());
+		
+		scheduler.close();
+		scheduler.close();
+		
+		// The consumed batch is still readable
+		int tuples = 0;
+		while(batch.hasNext()) {
+			batch.next();
+			tuples++;
+		}
+		
+		Assert.assertEquals(BATCH_SIZE, tuples);
+		scheduler.finishBatch(batch);
+		
+		Assert.assertTrue(scheduler.isDone());
+		Assert.assertNull(scheduler.takeNextBatch());
+		Assert.assertEquals(2, closedOperators.get());
+		
+		// New tasks are ignored after close
+		addTask(scheduler, "region4", 1000, -1, 0);
+		Assert.assertTrue(scheduler.isDone());
+		Assert.assertNull(scheduler.takeNextBatch());
+	}
+	
+	/**
+	 * Read all batches of the scheduler
+	 * @param scheduler
+	 * @return the values per region
+	 * @throws InterruptedException
+	 */
+	private Map<String, List<Integer>> readAllBatches(final RegionQueryScheduler scheduler) 
+			throws InterruptedException {
+		
+		final Map<String, List<Integer>> result = new HashMap<>();
+		
+		ResultBatch batch;
+		while((batch = scheduler.takeNextBatch()) != null) {
+			while(batch.hasNext()) {
+				final String[] key = batch.next().getTuple(0).getKey().split("-");
+				result.computeIfAbsent(key[0], (k) -> new ArrayList<>()).add(Integer.parseInt(key[1]));
+			}
+			
+			scheduler.finishBatch(batch);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Add a region task that produces the given amount of tuples
+	 * @param scheduler
+	 * @param region
+	 * @param tuples
+	 * @param failPosition - the position of the exception or -1
+	 * @param delayPerBatch - the delay in ms at the begin of each batch
+	 */
+	private void addTask(final RegionQueryScheduler scheduler, final String region, final int tuples,
+			final int failPosition, final long delayPerBatch) {
+		
+		final List<TupleStoreName> localTables = new ArrayList<>();
+		localTables.add(new TupleStoreName("testgroup_" + region + "_1"));
+		
+		final RegionQueryTask task = new RegionQueryTask((storageManagers) -> 
+			new TestOperator(region, tuples, failPosition, delayPerBatch), storageRegistry, 
+				localTables, scheduler.getResultQueue(), BATCH_SIZE);
+		
+		scheduler.addTask(task);
+	}
+	
+	class TestOperator implements Operator {
+		
+		/**
+		 * The region
+		 */
+		private final String region;
+		
+		/**
+		 * The amount of tuples
+		 */
+		private final int tuples;
+		
+		/**
+		 * The position of the exception
+		 */
+		private final int failPosition;
+		
+		/**
+		 * The delay per batch
+		 */
+		private final long delayPerBatch;
+		
+		public TestOperator(final String region, final int tuples, final int failPosition, 
+				final long delayPerBatch) {
+			this.region = region;
+			this.tuples = tuples;
+			this.failPosition = failPosition;
+			this.delayPerBatch = delayPerBatch;
+		}
+
+		@Override
+		public Iterator<JoinedTuple> iterator() {
+			return new Iterator<JoinedTuple>() {
+				
+				private int position = 0;
+
+				@Override
+				public boolean hasNext() {
+					return position < tuples;
+				}
+
+				@Override
+				public JoinedTuple next() {
+					if(position == failPosition) {
+						throw new IllegalStateException("Failed at " + position);
+					}
+					
+					if(delayPerBatch > 0 && position % BATCH_SIZE == 0) {
+						try {
+							Thread.sleep(delayPerBatch);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+					
+					final Tuple tuple = new Tuple(region + "-" + position, 
+							Hyperrectangle.FULL_SPACE, "value".getBytes());
+					
+					position++;
+					
+					return new JoinedTuple(tuple, region);
+				}
+			};
+		}
+
+		@Override
+		public void close() {
+			closedOperators.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.client.future.TupleReadRepair;
+import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTupleReadRepair {
+
+	/**
+	 * Test the calculation of the missing tuples
+	 */
+	@Test(timeout=60000)
+	public void testMissingTuples() {
+		final Tuple tuple1 = new Tuple("key1", new Hyperrectangle(1.0, 2.0), "abc".getBytes(), 1);
+		final Tuple tuple2 = new Tuple("key2", new Hyperrectangle(1.0, 2.0), "abc".getBytes(), 2);
+		final Tuple tuple3 = new Tuple("key3", new Hyperrectangle(1.0, 2.0), "abc".getBytes(), 3);
+		final Tuple tuple2Old = new Tuple("key2", new Hyperrectangle(1.0, 2.0), "xyz".getBytes(), 1);
+		final Tuple tuple4 = new DeletedTuple("key4", 5);
+		
+		final List<Tuple> resolvedTuples = Arrays.asList(tuple1, tuple2, tuple3, tuple4);
+		
+		Assert.assertTrue(TupleReadRepair.getMissingTuples(resolvedTuples, resolvedTuples).isEmpty());
+		
+		Assert.assertEquals(resolvedTuples, 
+				TupleReadRepair.getMissingTuples(resolvedTuples, new ArrayList<>()));
+		
+		// Outdated version of tuple 2
+		final List<Tuple> missingTuples = TupleReadRepair.getMissingTuples(resolvedTuples, 
+				Arrays.asList(tuple4, tuple3, tuple2Old));
+		
+		Assert.assertEquals(Arrays.asList(tuple1, tuple2), missingTuples);
+	}
+	
+	/**
+	 * Test the read repair without replicas
+	 */
+	@Test(timeout=60000)
+	public void testReadRepairWithoutReplicas() {
+		final Tuple tuple1 = new Tuple("key1", new Hyperrectangle(1.0, 2.0), "abc".getBytes(), 1);
+		final TupleReadRepair readRepair = new TupleReadRepair("testgroup_table1", Arrays.asList(tuple1));
+		readRepair.run();
+	}
+}
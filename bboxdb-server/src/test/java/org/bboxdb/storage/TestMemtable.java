@@ -29,6 +29,7 @@ import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.memtable.Memtable;
+import org.bboxdb.storage.memtable.MemtableStatistics;
 import org.bboxdb.storage.queryprocessor.predicate.NewerAsVersionTimePredicate;
 import org.bboxdb.storage.queryprocessor.predicate.Predicate;
 import org.bboxdb.storage.queryprocessor.predicate.PredicateTupleFilterIterator;
@@ -399,6 +400,28 @@ public class TestMemtable {
 		Assert.assertEquals(500, memtable.getNewestTupleVersionTimestamp());
 	}
 	
+	/**
+	 * Test the bounding box statistics
+	 * @throws StorageManagerException
+	 */
+	@Test(timeout=60000)
+	public void testStatistics() throws StorageManagerException {
+		final MemtableStatistics statistics = memtable.getStatistics();
+		Assert.assertEquals(0, statistics.getBoxes());
+		Assert.assertEquals(Hyperrectangle.FULL_SPACE, statistics.getCoveringBox());
+		
+		memtable.put(new Tuple("1", new Hyperrectangle(1.0, 2.0, 1.0, 5.0), "abc".getBytes()));
+		memtable.put(new Tuple("2", new Hyperrectangle(4.0, 7.0, 0.0, 1.0), "def".getBytes()));
+		memtable.put(new DeletedTuple("3", 500));
+		
+		Assert.assertEquals(2, statistics.getBoxes());
+		Assert.assertEquals(new Hyperrectangle(1.0, 7.0, 0.0, 5.0), statistics.getCoveringBox());
+		Assert.assertArrayEquals(new double[] {4.0, 5.0}, statistics.getExtentSum(), 0.0001);
+		
+		memtable.clear();
+		Assert.assertEquals(0, statistics.getBoxes());
+	}
+	
 	/**
 	 * Test the newest tuple insert timestamp
 	 * @throws StorageManagerException 
@@ -18,22 +18,43 @@
 package org.bboxdb.storage;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.bboxdb.commons.CloseableHelper;
 import org.bboxdb.commons.RejectedException;
+import org.bboxdb.commons.math.DoubleInterval;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.future.NearestTupleListFuture;
 import org.bboxdb.storage.entity.JoinedTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.queryprocessor.SpatialJoinOperatorSelector;
+import org.bboxdb.storage.queryprocessor.SpatialJoinPlanner;
+import org.bboxdb.storage.queryprocessor.SpatialJoinPlanner.JoinPlan;
+import org.bboxdb.storage.queryprocessor.TupleStoreStatistics;
+import org.bboxdb.storage.queryprocessor.aggregation.AggregationType;
+import org.bboxdb.storage.queryprocessor.aggregation.Aggregator;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilter;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedFilterFactory;
+import org.bboxdb.storage.queryprocessor.filter.UserDefinedGeoJsonPropertyFilter;
+import org.bboxdb.storage.queryprocessor.geometry.GeoJsonGeometry;
+import org.bboxdb.storage.queryprocessor.operator.AggregationOperator;
 import org.bboxdb.storage.queryprocessor.operator.BoundingBoxSelectOperator;
 import org.bboxdb.storage.queryprocessor.operator.FullTablescanOperator;
+import org.bboxdb.storage.queryprocessor.operator.GeometryRefinementOperator;
 import org.bboxdb.storage.queryprocessor.operator.IndexedSpatialJoinOperator;
+import org.bboxdb.storage.queryprocessor.operator.NearestNeighborOperator;
 import org.bboxdb.storage.queryprocessor.operator.Operator;
+import org.bboxdb.storage.queryprocessor.operator.PlaneSweepSpatialJoinOperator;
+import org.bboxdb.storage.queryprocessor.operator.ReferencePointFilterOperator;
 import org.bboxdb.storage.queryprocessor.operator.SpatialIndexReadOperator;
+import org.bboxdb.storage.queryprocessor.operator.UserDefinedFilterOperator;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 import org.junit.AfterClass;
@@ -455,4 +476,699 @@ public class TestQueryProcessing {
 		Assert.assertEquals(2, resultList.get(0).getBoundingBox().getDimension());
 		Assert.assertEquals(new Hyperrectangle(4.0d, 5.0d, 4.0d, 5.0d), resultList.get(0).getBoundingBox());
 	}
+	
+	/** 
+	 * Plane sweep join
+	 * @throws StorageManagerException
+	 * @throws RejectedException 
+	 */
+	@Test(timeout=60000)
+	public void testPlaneSweepJoin1() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		
+		storageRegistry.deleteTable(TABLE_2);
+		storageRegistry.createTable(TABLE_2, new TupleStoreConfiguration());
+		
+		final TupleStoreManager storageManager1 = storageRegistry.getTupleStoreManager(TABLE_1);
+		final TupleStoreManager storageManager2 = storageRegistry.getTupleStoreManager(TABLE_2);
+
+		final Tuple tuple1 = new Tuple("1a", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple2 = new Tuple("2a", new Hyperrectangle(4.0, 5.0, 4.0, 5.0), "value2".getBytes());
+		final Tuple tuple3 = new Tuple("3a", new Hyperrectangle(1.0, 2.0, 8.0, 9.0), "value3".getBytes());
+		
+		final Tuple tuple4 = new Tuple("1b", new Hyperrectangle(1.5, 2.5, 1.5, 2.5), "value4".getBytes());
+		final Tuple tuple5 = new Tuple("2b", new Hyperrectangle(2.5, 5.5, 2.5, 5.5), "value5".getBytes());
+
+		// Table1
+		storageManager1.put(tuple1);
+		storageManager1.put(tuple2);
+		storageManager1.put(tuple3);
+		
+		// Table2
+		storageManager2.put(tuple4);
+		storageManager2.put(tuple5);
+		
+		final SpatialIndexReadOperator operator1 = new SpatialIndexReadOperator(storageManager1, Hyperrectangle.FULL_SPACE);
+		final SpatialIndexReadOperator operator2 = new SpatialIndexReadOperator(storageManager2, Hyperrectangle.FULL_SPACE);
+		
+		final PlaneSweepSpatialJoinOperator joinQueryProcessor = new PlaneSweepSpatialJoinOperator(operator1, 
+				operator2);
+		
+		final Iterator<JoinedTuple> iterator = joinQueryProcessor.iterator();
+	
+		final List<JoinedTuple> resultList = Lists.newArrayList(iterator);
+		joinQueryProcessor.close();
+
+		Assert.assertEquals(2, resultList.size());
+		
+		for(final JoinedTuple joinedTuple : resultList) {
+			Assert.assertEquals(2, joinedTuple.getNumberOfTuples());
+			Assert.assertEquals(TABLE_1.getFullnameWithoutPrefix(), joinedTuple.getTupleStoreName(0));
+			Assert.assertEquals(TABLE_2.getFullnameWithoutPrefix(), joinedTuple.getTupleStoreName(1));
+		}
+		
+		final List<Hyperrectangle> resultBoxes = resultList.stream()
+				.map(t -> t.getBoundingBox())
+				.collect(Collectors.toList());
+		
+		Assert.assertTrue(resultBoxes.contains(new Hyperrectangle(1.5d, 2.0d, 1.5d, 2.0d)));
+		Assert.assertTrue(resultBoxes.contains(new Hyperrectangle(4.0d, 5.0d, 4.0d, 5.0d)));
+	}
+	
+	/** 
+	 * Plane sweep join on three tables
+	 * @throws StorageManagerException
+	 * @throws RejectedException 
+	 */
+	@Test(timeout=60000)
+	public void testPlaneSweepDoubleJoin() throws StorageManagerException, RejectedException {
+		
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		
+		storageRegistry.deleteTable(TABLE_2);
+		storageRegistry.createTable(TABLE_2, new TupleStoreConfiguration());
+		
+		storageRegistry.deleteTable(TABLE_3);
+		storageRegistry.createTable(TABLE_3, new TupleStoreConfiguration());
+		
+		final TupleStoreManager storageManager1 = storageRegistry.getTupleStoreManager(TABLE_1);
+		final TupleStoreManager storageManager2 = storageRegistry.getTupleStoreManager(TABLE_2);
+		final TupleStoreManager storageManager3 = storageRegistry.getTupleStoreManager(TABLE_3);
+
+		final Tuple tuple1 = new Tuple("1a", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple2 = new Tuple("2a", new Hyperrectangle(4.0, 5.0, 4.0, 5.0), "value2".getBytes());
+		
+		final Tuple tuple3 = new Tuple("1b", new Hyperrectangle(1.5, 2.5, 1.5, 2.5), "value3".getBytes());
+		final Tuple tuple4 = new Tuple("2b", new Hyperrectangle(2.5, 5.5, 2.5, 5.5), "value4".getBytes());
+
+		final Tuple tuple5 = new Tuple("1c", new Hyperrectangle(2.5, 5.5, 2.5, 5.5), "value4".getBytes());
+
+		// Table1
+		storageManager1.put(tuple1);
+		storageManager1.put(tuple2);
+		
+		// Table2
+		storageManager2.put(tuple3);
+		storageManager2.put(tuple4);
+		
+		// Table3
+		storageManager3.put(tuple5);
+		
+		final SpatialIndexReadOperator operator1 = new SpatialIndexReadOperator(storageManager1, Hyperrectangle.FULL_SPACE);
+		final SpatialIndexReadOperator operator2 = new SpatialIndexReadOperator(storageManager2, Hyperrectangle.FULL_SPACE);
+		final SpatialIndexReadOperator operator3 = new SpatialIndexReadOperator(storageManager3, Hyperrectangle.FULL_SPACE);
+
+		final PlaneSweepSpatialJoinOperator joinQueryProcessor1 = new PlaneSweepSpatialJoinOperator(operator1, 
+				operator2);
+		
+		final PlaneSweepSpatialJoinOperator joinQueryProcessor2 = new PlaneSweepSpatialJoinOperator(joinQueryProcessor1, 
+				operator3);
+		
+		final Iterator<JoinedTuple> iterator = joinQueryProcessor2.iterator();
+		
+		final List<JoinedTuple> resultList = Lists.newArrayList(iterator);
+			
+		joinQueryProcessor2.close();
+		
+		Assert.assertEquals(1, resultList.size());
+		Assert.assertEquals(3, resultList.get(0).getNumberOfTuples());
+		Assert.assertEquals(new Hyperrectangle(4.0d, 5.0d, 4.0d, 5.0d), resultList.get(0).getBoundingBox());
+	}
+	
+	/**
+	 * Test the join operator selection
+	 */
+	@Test(timeout=60000)
+	public void testJoinOperatorSelection() {
+		Assert.assertFalse(SpatialJoinOperatorSelector.isPlaneSweepJoinCheaper(10, 1000000));
+		Assert.assertTrue(SpatialJoinOperatorSelector.isPlaneSweepJoinCheaper(100000, 1000000));
+		Assert.assertTrue(SpatialJoinOperatorSelector.isPlaneSweepJoinCheaper(1000000, 1000000));
+	}
+	
+	/**
+	 * Test the reference point duplicate elimination
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testReferencePointFilter() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+		
+		// Tuple 1 spans both regions
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(1.0, 8.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(6.0, 7.0, 1.0, 2.0), "value2".getBytes());
+		
+		storageManager.put(tuple1);
+		storageManager.put(tuple2);
+		
+		final Hyperrectangle spaceBox = new Hyperrectangle(0.0, 10.0, 0.0, 10.0);
+		final Hyperrectangle leftRegion = spaceBox.splitAndGetLeft(5.0, 0, true);
+		final Hyperrectangle rightRegion = spaceBox.splitAndGetRight(5.0, 0, false);
+		
+		// The reference point of tuple 1 is in the left region
+		final Hyperrectangle queryBox1 = new Hyperrectangle(0.0, 10.0, 0.0, 10.0);
+		Assert.assertEquals(1, getReferencePointResult(storageManager, leftRegion, queryBox1).size());
+		Assert.assertEquals(1, getReferencePointResult(storageManager, rightRegion, queryBox1).size());
+
+		// The reference point of tuple 1 is moved into the right region by the query box
+		final Hyperrectangle queryBox2 = new Hyperrectangle(5.5, 10.0, 0.0, 10.0);
+		Assert.assertEquals(0, getReferencePointResult(storageManager, leftRegion, queryBox2).size());
+		Assert.assertEquals(2, getReferencePointResult(storageManager, rightRegion, queryBox2).size());
+		
+		// The split point belongs to the left region
+		Assert.assertTrue(ReferencePointFilterOperator.isReferencePointInRegion(
+				new Hyperrectangle(5.0, 6.0, 1.0, 2.0), Hyperrectangle.FULL_SPACE, leftRegion));
+		Assert.assertFalse(ReferencePointFilterOperator.isReferencePointInRegion(
+				new Hyperrectangle(5.0, 6.0, 1.0, 2.0), Hyperrectangle.FULL_SPACE, rightRegion));
+	}
+
+	/**
+	 * Test the nearest neighbor operator - across memtable and sstables, with outdated versions
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testNearestNeighbor() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+		
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(4.0, 5.0, 4.0, 5.0), "value2".getBytes());
+		final Tuple tuple3 = new Tuple("3", new Hyperrectangle(8.0, 9.0, 8.0, 9.0), "value3".getBytes());
+		
+		storageManager.put(tuple1);
+		storageManager.put(tuple2);
+		storageManager.flush();
+		
+		storageManager.put(tuple3);
+		
+		// Tuple 1 is moved away, the old version is outdated
+		final Tuple tuple4 = new Tuple("1", new Hyperrectangle(20.0, 21.0, 20.0, 21.0), "value4".getBytes());
+		storageManager.put(tuple4);
+		
+		final Hyperrectangle point = new Hyperrectangle(0.0, 0.0, 0.0, 0.0);
+		
+		final List<Tuple> result1 = getNearestNeighborResult(storageManager, point, 2);
+		Assert.assertEquals(Lists.newArrayList(tuple2, tuple3), result1);
+		
+		final List<Tuple> result2 = getNearestNeighborResult(storageManager, point, 10);
+		Assert.assertEquals(Lists.newArrayList(tuple2, tuple3, tuple4), result2);
+		
+		final Hyperrectangle point2 = new Hyperrectangle(30.0, 30.0, 30.0, 30.0);
+		final List<Tuple> result3 = getNearestNeighborResult(storageManager, point2, 1);
+		Assert.assertEquals(Lists.newArrayList(tuple4), result3);
+	}
+	
+	/**
+	 * Test the nearest neighbor query with a tuple that is stored in two regions
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testNearestNeighborSpanningRegions() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.deleteTable(TABLE_2);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		storageRegistry.createTable(TABLE_2, new TupleStoreConfiguration());
+		final TupleStoreManager leftStorageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+		final TupleStoreManager rightStorageManager = storageRegistry.getTupleStoreManager(TABLE_2);
+		
+		final Hyperrectangle spaceBox = new Hyperrectangle(0.0, 10.0, 0.0, 10.0);
+		final Hyperrectangle leftRegion = spaceBox.splitAndGetLeft(5.0, 0, true);
+		final Hyperrectangle rightRegion = spaceBox.splitAndGetRight(5.0, 0, false);
+
+		// Tuple 1 spans both regions, the reference point is in the left region
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(4.0, 6.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(0.0, 1.0, 1.0, 2.0), "value2".getBytes());
+		final Tuple tuple3 = new Tuple("3", new Hyperrectangle(7.0, 8.0, 1.0, 2.0), "value3".getBytes());
+		final Tuple tuple4 = new Tuple("4", new Hyperrectangle(9.5, 10.0, 1.0, 2.0), "value4".getBytes());
+		
+		leftStorageManager.put(tuple1);
+		leftStorageManager.put(tuple2);
+		rightStorageManager.put(tuple1);
+		rightStorageManager.put(tuple3);
+		rightStorageManager.put(tuple4);
+		
+		Assert.assertTrue(ReferencePointFilterOperator.isReferencePointInRegion(
+				tuple1.getBoundingBox(), Hyperrectangle.FULL_SPACE, leftRegion));
+		
+		final Hyperrectangle point = new Hyperrectangle(7.5, 7.5, 1.5, 1.5);
+		
+		// The reference point filter drops tuple 1 from the right region, the region 
+		// returns less than k tuples
+		final ReferencePointFilterOperator filterOperator = new ReferencePointFilterOperator(
+				new NearestNeighborOperator(rightStorageManager, point, 2), rightRegion, 
+				Hyperrectangle.FULL_SPACE);
+		
+		final List<JoinedTuple> filteredResult = Lists.newArrayList(filterOperator.iterator());
+		CloseableHelper.closeWithoutException(filterOperator);
+		Assert.assertEquals(1, filteredResult.size());
+		
+		// Without the filter, every region returns the complete top-k
+		final List<Tuple> rightResult = getNearestNeighborResult(rightStorageManager, point, 2);
+		Assert.assertEquals(Lists.newArrayList(tuple3, tuple1), rightResult);
+		
+		final List<Tuple> leftResult = getNearestNeighborResult(leftStorageManager, point, 2);
+		Assert.assertEquals(Lists.newArrayList(tuple1, tuple2), leftResult);
+		
+		// The client removes the duplicate of tuple 1
+		final NearestTupleListFuture future = new NearestTupleListFuture(() -> new ArrayList<>(), 
+				point, 3);
+		
+		final List<Tuple> allResults = new ArrayList<>(rightResult);
+		allResults.addAll(leftResult);
+		Assert.assertEquals(Lists.newArrayList(tuple3, tuple1, tuple2), future.getNearestTuples(allResults));
+		
+		// The right region alone answers the query, if the left region is pruned
+		Assert.assertEquals(Lists.newArrayList(tuple3, tuple1), 
+				new NearestTupleListFuture(() -> new ArrayList<>(), point, 2).getNearestTuples(rightResult));
+	}
+	
+	/**
+	 * Test the aggregation operator and the merge of the partial aggregates
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testAggregation() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+		
+		storageManager.put(new Tuple("1", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes(), 10));
+		storageManager.put(new Tuple("2", new Hyperrectangle(6.0, 7.0, 1.0, 2.0), "value2".getBytes(), 20));
+		storageManager.put(new Tuple("3", new Hyperrectangle(6.0, 7.0, 6.0, 7.0), "value3".getBytes(), 25));
+		storageManager.put(new Tuple("4", new Hyperrectangle(20.0, 21.0, 20.0, 21.0), "value4".getBytes(), 30));
+		
+		final Hyperrectangle queryBox = new Hyperrectangle(0.0, 10.0, 0.0, 10.0);
+		
+		final Aggregator count = getAggregationResult(storageManager, queryBox, AggregationType.COUNT, 0);
+		Assert.assertEquals(3, count.getCount());
+		
+		final Aggregator boundingBox = getAggregationResult(storageManager, queryBox, AggregationType.BOUNDING_BOX, 0);
+		Assert.assertEquals(new Hyperrectangle(1.0, 7.0, 1.0, 7.0), boundingBox.getBoundingBox());
+		
+		final Aggregator grid = getAggregationResult(storageManager, queryBox, AggregationType.GRID_COUNT, 5.0);
+		Assert.assertEquals(3, grid.getCellCounts().size());
+		Assert.assertEquals(3, grid.getCellCounts().values().stream().mapToLong(l -> l).sum());
+		
+		// A tuple that spans four cells and a point on the upper border of the grid
+		final Aggregator spanningGrid = new Aggregator(AggregationType.GRID_COUNT, queryBox, 5.0);
+		spanningGrid.addTuple(new Tuple("5", new Hyperrectangle(4.0, 6.0, 4.0, 6.0), "value5".getBytes()));
+		spanningGrid.addTuple(new Tuple("6", new Hyperrectangle(10.0, 10.0, 10.0, 10.0), "value6".getBytes()));
+		Assert.assertEquals(4, spanningGrid.getCellCounts().size());
+		Assert.assertEquals(1, (long) spanningGrid.getCellCounts().get(new Hyperrectangle(Arrays.asList(
+				new DoubleInterval(0.0, 5.0, true, false), new DoubleInterval(0.0, 5.0, true, false)))));
+		Assert.assertEquals(2, (long) spanningGrid.getCellCounts().get(new Hyperrectangle(Arrays.asList(
+				new DoubleInterval(5.0, 10.0, true, true), new DoubleInterval(5.0, 10.0, true, true)))));
+		
+		// Too many cells
+		try {
+			new Aggregator(AggregationType.GRID_COUNT, queryBox, 0.001);
+			Assert.fail("Exception expected");
+		} catch(IllegalArgumentException e) {
+			// Expected
+		}
+		
+		final Aggregator histogram = getAggregationResult(storageManager, queryBox, AggregationType.TIME_HISTOGRAM, 10);
+		Assert.assertEquals(2, histogram.getHistogram().size());
+		Assert.assertEquals(1, (long) histogram.getHistogram().get(10L));
+		Assert.assertEquals(2, (long) histogram.getHistogram().get(20L));
+		
+		// Merge two partial aggregates
+		final Aggregator mergedCount = new Aggregator(AggregationType.COUNT, queryBox, 0);
+		count.getPartialAggregates().forEach(t -> mergedCount.addPartialAggregate(t));
+		count.getPartialAggregates().forEach(t -> mergedCount.addPartialAggregate(t));
+		Assert.assertEquals(6, mergedCount.getCount());
+	}
+	
+	/**
+	 * Test the user defined filter operator
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testUserDefinedFilter() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+		
+		final String feature1 = "{\"geometry\":{\"coordinates\":[1,1],\"type\":\"Point\"},"
+				+ "\"id\":1,\"type\":\"Feature\",\"properties\":{\"name\":\"abc\"}}";
+		final String feature2 = "{\"geometry\":{\"coordinates\":[2,2],\"type\":\"Point\"},"
+				+ "\"id\":2,\"type\":\"Feature\",\"properties\":{\"name\":\"def\"}}";
+		
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(1.0, 1.0, 1.0, 1.0), feature1.getBytes());
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(2.0, 2.0, 2.0, 2.0), feature2.getBytes());
+		final Tuple tuple3 = new Tuple("3", new Hyperrectangle(3.0, 3.0, 3.0, 3.0), "abc".getBytes());
+		
+		storageManager.put(tuple1);
+		storageManager.put(tuple2);
+		storageManager.put(tuple3);
+		
+		final UserDefinedFilter filter = UserDefinedFilterFactory.getInstance(
+				UserDefinedGeoJsonPropertyFilter.class.getName());
+		
+		final Hyperrectangle queryBox = new Hyperrectangle(0.0, 10.0, 0.0, 10.0);
+		
+		final Operator queryPlan1 = new UserDefinedFilterOperator(filter, "name:abc".getBytes(), 
+				new SpatialIndexReadOperator(storageManager, queryBox));
+		
+		final List<Tuple> result1 = Lists.newArrayList(queryPlan1.iterator()).stream()
+				.map(t -> t.convertToSingleTupleIfPossible()).collect(Collectors.toList());
+		CloseableHelper.closeWithoutException(queryPlan1);
+		
+		Assert.assertEquals(Lists.newArrayList(tuple1), result1);
+		
+		final Operator queryPlan2 = new UserDefinedFilterOperator(filter, "name".getBytes(), 
+				new SpatialIndexReadOperator(storageManager, queryBox));
+		
+		final List<JoinedTuple> result2 = Lists.newArrayList(queryPlan2.iterator());
+		CloseableHelper.closeWithoutException(queryPlan2);
+		
+		Assert.assertEquals(2, result2.size());
+	}
+	
+	/**
+	 * Test the creation of an unknown user defined filter
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testUnknownUserDefinedFilter() {
+		UserDefinedFilterFactory.getInstance("org.bboxdb.unknown.Filter");
+	}
+	
+	/**
+	 * Test the creation of a user defined filter that does not implement the interface
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testWrongUserDefinedFilter() {
+		UserDefinedFilterFactory.getInstance(String.class.getName());
+	}
+	
+	/**
+	 * Test the join order of the join planner
+	 */
+	@Test(timeout=60000)
+	public void testJoinPlan() {
+		final Hyperrectangle space = new Hyperrectangle(0.0, 1000.0, 0.0, 1000.0);
+		final double[] extent = {1.0, 1.0};
+		
+		final TupleStoreStatistics bigTable = new TupleStoreStatistics(1000000, space, extent);
+		final TupleStoreStatistics smallTable = new TupleStoreStatistics(10, space, extent);
+		final TupleStoreStatistics mediumTable = new TupleStoreStatistics(1000, space, extent);
+		
+		final JoinPlan joinPlan1 = SpatialJoinPlanner.getJoinPlan(
+				Arrays.asList(bigTable, smallTable, mediumTable), Hyperrectangle.FULL_SPACE);
+		
+		Assert.assertEquals(Arrays.asList(1, 2, 0), joinPlan1.getJoinOrder());
+		
+		// The query box restricts the first table to a few tuples
+		final JoinPlan joinPlan2 = SpatialJoinPlanner.getJoinPlan(
+				Arrays.asList(bigTable, mediumTable), new Hyperrectangle(0.0, 1.0, 0.0, 1.0));
+		
+		Assert.assertEquals(Arrays.asList(0, 1), joinPlan2.getJoinOrder());
+		
+		// Equal costs, keep the requested order
+		final TupleStoreStatistics emptyTable = new TupleStoreStatistics(0, 
+				Hyperrectangle.FULL_SPACE, new double[0]);
+		
+		final JoinPlan joinPlan3 = SpatialJoinPlanner.getJoinPlan(
+				Arrays.asList(emptyTable, emptyTable), Hyperrectangle.FULL_SPACE);
+		
+		Assert.assertEquals(Arrays.asList(0, 1), joinPlan3.getJoinOrder());
+	}
+	
+	/**
+	 * Test a planned join with three tables
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testPlannedDoubleJoin() throws StorageManagerException, RejectedException {
+		final TupleStoreManager storageManager1 = storageRegistry.getTupleStoreManager(TABLE_1);
+		final TupleStoreManager storageManager2 = storageRegistry.getTupleStoreManager(TABLE_2);
+		final TupleStoreManager storageManager3 = storageRegistry.getTupleStoreManager(TABLE_3);
+		
+		storageManager1.put(new Tuple("1a", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes()));
+		storageManager1.put(new Tuple("2a", new Hyperrectangle(4.0, 5.0, 4.0, 5.0), "value2".getBytes()));
+		
+		// Make table 1 the biggest table
+		for(int i = 0; i < 200; i++) {
+			final double pos = 100.0 + i;
+			storageManager1.put(new Tuple("x" + i, new Hyperrectangle(pos, pos + 1, pos, pos + 1), 
+					"value".getBytes()));
+		}
+		
+		storageManager2.put(new Tuple("1b", new Hyperrectangle(1.5, 2.5, 1.5, 2.5), "value3".getBytes()));
+		storageManager2.put(new Tuple("2b", new Hyperrectangle(2.5, 5.5, 2.5, 5.5), "value4".getBytes()));
+		storageManager3.put(new Tuple("1c", new Hyperrectangle(2.5, 5.5, 2.5, 5.5), "value4".getBytes()));
+		
+		final List<TupleStoreManager> storageManager = Arrays.asList(storageManager1, 
+				storageManager2, storageManager3);
+		
+		final List<TupleStoreStatistics> statistics = storageManager.stream()
+				.map(s -> TupleStoreStatistics.fromTupleStoreManager(s))
+				.collect(Collectors.toList());
+		
+		Assert.assertEquals(202, statistics.get(0).getTuples());
+		Assert.assertEquals(new Hyperrectangle(2.5, 5.5, 2.5, 5.5), statistics.get(2).getCoveringBox());
+		Assert.assertNotEquals(0, SpatialJoinPlanner.getJoinPlan(statistics, 
+				Hyperrectangle.FULL_SPACE).getJoinOrder().get(0).intValue());
+		
+		final Operator operator1 = SpatialJoinPlanner.buildJoinOperatorTree(storageManager, 
+				Hyperrectangle.FULL_SPACE);
+		
+		final List<JoinedTuple> resultList1 = Lists.newArrayList(operator1.iterator());
+		CloseableHelper.closeWithoutException(operator1);
+		
+		Assert.assertEquals(1, resultList1.size());
+		Assert.assertEquals(new Hyperrectangle(4.0d, 5.0d, 4.0d, 5.0d), resultList1.get(0).getBoundingBox());
+		Assert.assertEquals("2a", resultList1.get(0).getTuple(0).getKey());
+		Assert.assertEquals("2b", resultList1.get(0).getTuple(1).getKey());
+		Assert.assertEquals("1c", resultList1.get(0).getTuple(2).getKey());
+		
+		// The tuples have to intersect each other
+		final Operator operator2 = SpatialJoinPlanner.buildJoinOperatorTree(storageManager, 
+				new Hyperrectangle(1.6, 1.9, 1.6, 1.9));
+		
+		final List<JoinedTuple> resultList2 = Lists.newArrayList(operator2.iterator());
+		CloseableHelper.closeWithoutException(operator2);
+		
+		Assert.assertTrue(resultList2.isEmpty());
+		
+		// Only the tuple of the first table has to intersect the query box
+		storageManager1.put(new Tuple("3a", new Hyperrectangle(5.0, 8.0, 5.0, 8.0), "value5".getBytes()));
+		
+		final Operator operator3 = SpatialJoinPlanner.buildJoinOperatorTree(storageManager, 
+				new Hyperrectangle(7.0, 8.0, 7.0, 8.0));
+		
+		final List<JoinedTuple> resultList3 = Lists.newArrayList(operator3.iterator());
+		CloseableHelper.closeWithoutException(operator3);
+		
+		Assert.assertEquals(1, resultList3.size());
+		Assert.assertEquals("3a", resultList3.get(0).getTuple(0).getKey());
+		
+		// The query box is applied to the first table, even if an other table drives the join
+		final Operator operator4 = SpatialJoinPlanner.buildJoinOperatorTree(
+				Arrays.asList(storageManager1, storageManager3), new Hyperrectangle(150.0, 300.0, 150.0, 300.0));
+		
+		final List<JoinedTuple> resultList4 = Lists.newArrayList(operator4.iterator());
+		CloseableHelper.closeWithoutException(operator4);
+		
+		Assert.assertTrue(resultList4.isEmpty());
+	}
+	
+	/**
+	 * Test the geometry refinement of a range query
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testGeometryRefinement() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+		
+		final String feature1 = "{\"geometry\":{\"coordinates\":[[0,0],[10,10]],\"type\":\"LineString\"},"
+				+ "\"id\":1,\"type\":\"Feature\",\"properties\":{}}";
+		
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(0.0, 10.0, 0.0, 10.0), feature1.getBytes());
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(8.0, 8.0, 0.0, 0.0), "abc".getBytes());
+		
+		storageManager.put(tuple1);
+		storageManager.put(tuple2);
+		
+		// The bounding box of the line intersects the query, but not the line
+		final Hyperrectangle queryBox1 = new Hyperrectangle(7.0, 9.0, 0.0, 1.0);
+		final Operator queryPlan1 = new GeometryRefinementOperator(
+				new SpatialIndexReadOperator(storageManager, queryBox1), queryBox1);
+		
+		final List<Tuple> result1 = Lists.newArrayList(queryPlan1.iterator()).stream()
+				.map(t -> t.convertToSingleTupleIfPossible()).collect(Collectors.toList());
+		CloseableHelper.closeWithoutException(queryPlan1);
+		
+		// Tuples without a geometry are not refined
+		Assert.assertEquals(Lists.newArrayList(tuple2), result1);
+		
+		final Hyperrectangle queryBox2 = new Hyperrectangle(4.0, 6.0, 4.0, 6.0);
+		final Operator queryPlan2 = new GeometryRefinementOperator(
+				new SpatialIndexReadOperator(storageManager, queryBox2), queryBox2);
+		
+		final List<Tuple> result2 = Lists.newArrayList(queryPlan2.iterator()).stream()
+				.map(t -> t.convertToSingleTupleIfPossible()).collect(Collectors.toList());
+		CloseableHelper.closeWithoutException(queryPlan2);
+		
+		Assert.assertEquals(Lists.newArrayList(tuple1), result2);
+	}
+	
+	/**
+	 * Test the geometry refinement of a join
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 */
+	@Test(timeout=60000)
+	public void testGeometryRefinementJoin() throws StorageManagerException, RejectedException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		
+		storageRegistry.deleteTable(TABLE_2);
+		storageRegistry.createTable(TABLE_2, new TupleStoreConfiguration());
+		
+		final TupleStoreManager storageManager1 = storageRegistry.getTupleStoreManager(TABLE_1);
+		final TupleStoreManager storageManager2 = storageRegistry.getTupleStoreManager(TABLE_2);
+		
+		final String line1 = "{\"type\":\"LineString\",\"coordinates\":[[0,0],[10,10]]}";
+		final String line2 = "{\"type\":\"LineString\",\"coordinates\":[[0,10],[10,0]]}";
+		final String line3 = "{\"type\":\"LineString\",\"coordinates\":[[6,0],[10,4]]}";
+		
+		storageManager1.put(new Tuple("1", new Hyperrectangle(0.0, 10.0, 0.0, 10.0), line1.getBytes()));
+		storageManager2.put(new Tuple("2", new Hyperrectangle(0.0, 10.0, 0.0, 10.0), line2.getBytes()));
+		storageManager2.put(new Tuple("3", new Hyperrectangle(6.0, 10.0, 0.0, 4.0), line3.getBytes()));
+		
+		final SpatialIndexReadOperator operator1 = new SpatialIndexReadOperator(storageManager1, Hyperrectangle.FULL_SPACE);
+		final SpatialIndexReadOperator operator2 = new SpatialIndexReadOperator(storageManager2, Hyperrectangle.FULL_SPACE);
+		
+		final IndexedSpatialJoinOperator joinOperator = new IndexedSpatialJoinOperator(operator1, operator2);
+		final Operator queryPlan = new GeometryRefinementOperator(joinOperator, Hyperrectangle.FULL_SPACE);
+		
+		final List<JoinedTuple> resultList = Lists.newArrayList(queryPlan.iterator());
+		CloseableHelper.closeWithoutException(queryPlan);
+		
+		Assert.assertEquals(1, resultList.size());
+		Assert.assertEquals("1", resultList.get(0).getTuple(0).getKey());
+		Assert.assertEquals("2", resultList.get(0).getTuple(1).getKey());
+	}
+	
+	/**
+	 * Test the intersection of GeoJSON geometries
+	 */
+	@Test(timeout=60000)
+	public void testGeoJsonGeometry() {
+		final String polygonWithHole = "{\"type\":\"Polygon\",\"coordinates\":["
+				+ "[[0,0],[10,0],[10,10],[0,10],[0,0]],[[4,4],[6,4],[6,6],[4,6],[4,4]]]}";
+		
+		final GeoJsonGeometry geometry1 = GeoJsonGeometry.fromGeoJson(polygonWithHole);
+		Assert.assertTrue(geometry1.intersects(new Hyperrectangle(1.0, 2.0, 1.0, 2.0)));
+		Assert.assertTrue(geometry1.intersects(new Hyperrectangle(-1.0, 0.0, -1.0, 0.0)));
+		Assert.assertTrue(geometry1.intersects(new Hyperrectangle(-5.0, 15.0, -5.0, 15.0)));
+		Assert.assertFalse(geometry1.intersects(new Hyperrectangle(4.5, 5.5, 4.5, 5.5)));
+		Assert.assertFalse(geometry1.intersects(new Hyperrectangle(11.0, 12.0, 1.0, 2.0)));
+		
+		// Not closed ways are written as polygon and handled as line
+		final String way = "{\"geometry\":{\"type\":\"Polygon\",\"coordinates\":"
+				+ "[[[0,0],[10,0],[10,10]]]},\"type\":\"Feature\"}";
+		
+		final GeoJsonGeometry geometry2 = GeoJsonGeometry.fromGeoJson(way);
+		Assert.assertTrue(geometry2.intersects(new Hyperrectangle(9.0, 11.0, 4.0, 5.0)));
+		Assert.assertFalse(geometry2.intersects(new Hyperrectangle(6.0, 7.0, 2.0, 3.0)));
+		
+		final GeoJsonGeometry point = GeoJsonGeometry.fromGeoJson(
+				"{\"type\":\"Point\",\"coordinates\":[5,5]}");
+		
+		Assert.assertFalse(geometry1.intersects(point));
+		Assert.assertTrue(point.intersects(new Hyperrectangle(5.0, 5.0, 5.0, 5.0)));
+		Assert.assertTrue(geometry2.intersects(GeoJsonGeometry.fromGeoJson(
+				"{\"type\":\"Point\",\"coordinates\":[10,5]}")));
+	}
+	
+	/**
+	 * Test the parsing of an invalid GeoJSON geometry
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidGeoJsonGeometry() {
+		GeoJsonGeometry.fromGeoJson("{\"type\":\"Point\",\"coordinates\":[]}");
+	}
+	
+	/**
+	 * Aggregate the table and merge the partial aggregates
+	 * @param storageManager
+	 * @param queryBox
+	 * @param aggregationType
+	 * @param parameter
+	 * @return
+	 */
+	private Aggregator getAggregationResult(final TupleStoreManager storageManager, 
+			final Hyperrectangle queryBox, final AggregationType aggregationType, final double parameter) {
+		
+		final SpatialIndexReadOperator readOperator = new SpatialIndexReadOperator(storageManager, queryBox);
+		final AggregationOperator operator = new AggregationOperator(readOperator, 
+				new Aggregator(aggregationType, queryBox, parameter), TABLE_1.getFullname());
+		
+		final Aggregator result = new Aggregator(aggregationType, queryBox, parameter);
+		
+		operator.iterator().forEachRemaining(t -> result.addPartialAggregate(
+				t.convertToSingleTupleIfPossible()));
+		
+		CloseableHelper.closeWithoutException(operator);
+		
+		return result;
+	}
+
+	/**
+	 * Read the nearest tuples
+	 * @param storageManager
+	 * @param point
+	 * @param maxTuples
+	 * @return
+	 */
+	private List<Tuple> getNearestNeighborResult(final TupleStoreManager storageManager, 
+			final Hyperrectangle point, final int maxTuples) {
+		
+		final NearestNeighborOperator operator = new NearestNeighborOperator(storageManager, 
+				point, maxTuples);
+		
+		final List<Tuple> resultList = Lists.newArrayList(operator.iterator())
+				.stream()
+				.map(t -> t.convertToSingleTupleIfPossible())
+				.collect(Collectors.toList());
+		
+		CloseableHelper.closeWithoutException(operator);
+		
+		return resultList;
+	}
+
+	/**
+	 * Read the table with the reference point filter
+	 * @param storageManager
+	 * @param regionBox
+	 * @param queryBox
+	 * @return
+	 */
+	private List<JoinedTuple> getReferencePointResult(final TupleStoreManager storageManager, 
+			final Hyperrectangle regionBox, final Hyperrectangle queryBox) {
+		
+		final SpatialIndexReadOperator operator = new SpatialIndexReadOperator(storageManager, queryBox);
+		final ReferencePointFilterOperator filterOperator = new ReferencePointFilterOperator(operator, 
+				regionBox, queryBox);
+		
+		final List<JoinedTuple> resultList = Lists.newArrayList(filterOperator.iterator());
+		CloseableHelper.closeWithoutException(filterOperator);
+		
+		return resultList;
+	}
 }
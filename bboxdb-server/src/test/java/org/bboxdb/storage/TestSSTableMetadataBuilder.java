@@ -310,6 +310,31 @@ public class TestSSTableMetadataBuilder {
 		tmpFile.delete();
 	}
 
+	/**
+	 * Test the reservoir sample of the bounding boxes
+	 */
+	@Test(timeout=60000)
+	public void testBoundingBoxSamples() {
+		final SSTableMetadataBuilder ssTableIndexBuilder = new SSTableMetadataBuilder();
+		Assert.assertEquals(0, ssTableIndexBuilder.getMetaData().getSampleData().length);
+
+		// Deleted tuples are not sampled
+		ssTableIndexBuilder.addTuple(new DeletedTuple("0", 22));
+		Assert.assertEquals(0, ssTableIndexBuilder.getMetaData().getSampleData().length);
+		
+		addTwoTuples(ssTableIndexBuilder);
+		Assert.assertArrayEquals(new double[] {1d, 2d, 1d, 2d, 1d, 1.1d, 1d, 5d}, 
+				ssTableIndexBuilder.getMetaData().getSampleData(), 0.001d);
+		
+		for(int i = 0; i < 10 * SSTableMetadataBuilder.MAX_SAMPLES; i++) {
+			final Hyperrectangle boundingBox = new Hyperrectangle((double) i, i + 1d, 1d, 2d);
+			ssTableIndexBuilder.addTuple(new Tuple(Integer.toString(i), boundingBox, "".getBytes()));
+		}
+		
+		final TupleStoreMetaData metaData = ssTableIndexBuilder.getMetaData();
+		Assert.assertEquals(SSTableMetadataBuilder.MAX_SAMPLES * 4, metaData.getSampleData().length);
+	}
+
 	/**
 	 * Add two tuples to the index builder
 	 * @param ssTableIndexBuilder
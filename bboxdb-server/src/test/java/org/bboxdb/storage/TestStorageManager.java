@@ -233,6 +233,26 @@ public class TestStorageManager {
 		Assert.assertTrue(readTuples2.get(0) instanceof DeletedTuple);
 	}
 	
+	@Test(timeout=60000)
+	public void testSizeAndTuplesAfterFlush() throws StorageManagerException, RejectedException {
+		final int MAX_TUPLES = 1000;
+		
+		Assert.assertEquals(0, storageManager.getNumberOfTuples());
+		
+		for(int i = 0; i < MAX_TUPLES; i++) {
+			final Tuple createdTuple = new Tuple(Integer.toString(i), Hyperrectangle.FULL_SPACE, Integer.toString(i).getBytes());
+			storageManager.put(createdTuple);
+		}
+		
+		Assert.assertEquals(MAX_TUPLES, storageManager.getNumberOfTuples());
+		Assert.assertTrue(storageManager.getSize() > 0);
+		
+		storageManager.flush();
+		
+		Assert.assertEquals(MAX_TUPLES, storageManager.getNumberOfTuples());
+		Assert.assertTrue(storageManager.getSize() > 0);
+	}
+	
 	/**
 	 * Test the mass deletion of tuples
 	 * @throws StorageManagerException
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2018 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.rtree;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.memtable.MemtableSpatialIndex;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMemtableSpatialIndex {
+
+	/**
+	 * Test to query the index
+	 */
+	@Test(timeout=60000)
+	public void testBoxQuery2d() {
+		final List<SpatialIndexEntry> tupleList = RTreeTestHelper.generateRandomTupleList(2);
+		
+		final MemtableSpatialIndex index = new MemtableSpatialIndex(64, 256);
+		index.bulkInsert(tupleList);
+		
+		Assert.assertTrue(index.getNumberOfSealedIndices() > 0);
+		RTreeTestHelper.queryIndex(tupleList, index);
+	}
+	
+	/**
+	 * Test to query the index
+	 */
+	@Test(timeout=60000)
+	public void testBoxQuery3d() {
+		final List<SpatialIndexEntry> tupleList = RTreeTestHelper.generateRandomTupleList(3);
+		
+		final MemtableSpatialIndex index = new MemtableSpatialIndex();
+		index.bulkInsert(tupleList);
+		RTreeTestHelper.queryIndex(tupleList, index);
+	}
+	
+	/**
+	 * Test the query on an empty index
+	 */
+	@Test(timeout=60000)
+	public void testQueryOnEmptyIndex() {
+		final MemtableSpatialIndex index = new MemtableSpatialIndex();
+		final List<? extends SpatialIndexEntry> result = index.getEntriesForRegion(new Hyperrectangle(1d, 1d, 2d, 2d));
+		Assert.assertTrue(result.isEmpty());
+		Assert.assertFalse(index.getEntriesByDistance(new Hyperrectangle(1d, 1d, 2d, 2d)).hasNext());
+	}
+	
+	/**
+	 * Entries without a bounding box are not indexed
+	 */
+	@Test(timeout=60000)
+	public void testInsertFullSpace() {
+		final MemtableSpatialIndex index = new MemtableSpatialIndex();
+		Assert.assertFalse(index.insert(new SpatialIndexEntry(Hyperrectangle.FULL_SPACE, 1)));
+		Assert.assertTrue(index.insert(new SpatialIndexEntry(new Hyperrectangle(1d, 2d, 1d, 2d), 2)));
+		Assert.assertEquals(1, index.getEntriesForRegion(new Hyperrectangle(0d, 5d, 0d, 5d)).size());
+	}
+	
+	/**
+	 * Test the distance ordered iteration
+	 */
+	@Test(timeout=60000)
+	public void testEntriesByDistance() {
+		final List<SpatialIndexEntry> tupleList = RTreeTestHelper.generateRandomTupleList(2);
+		
+		final MemtableSpatialIndex index = new MemtableSpatialIndex(100, 400);
+		index.bulkInsert(tupleList);
+		
+		final Hyperrectangle queryBox = new Hyperrectangle(1500d, 1500d, 1500d, 1500d);
+		final Iterator<SpatialIndexEntry> iterator = index.getEntriesByDistance(queryBox);
+		
+		double lastDistance = 0;
+		int entries = 0;
+		
+		while(iterator.hasNext()) {
+			final double distance = queryBox.getMinDistance(iterator.next().getBoundingBox());
+			Assert.assertTrue(distance >= lastDistance);
+			lastDistance = distance;
+			entries++;
+		}
+		
+		Assert.assertEquals(tupleList.size(), entries);
+	}
+	
+	/**
+	 * Query the index while entries are inserted
+	 * @throws InterruptedException 
+	 */
+	@Test(timeout=60000)
+	public void testQueryDuringInsert() throws InterruptedException {
+		final List<SpatialIndexEntry> tupleList = RTreeTestHelper.generateRandomTupleList(2);
+		final MemtableSpatialIndex index = new MemtableSpatialIndex(32, 512);
+		
+		final AtomicBoolean insertDone = new AtomicBoolean(false);
+		final AtomicReference<Throwable> readerError = new AtomicReference<>();
+		final Hyperrectangle queryBox = new Hyperrectangle(0d, 500d, 0d, 500d);
+		
+		final List<Thread> readers = new ArrayList<>();
+		
+		for(int i = 0; i < 4; i++) {
+			final Thread reader = new Thread(() -> {
+				try {
+					int lastResultSize = 0;
+					
+					while(! insertDone.get()) {
+						final List<? extends SpatialIndexEntry> result = index.getEntriesForRegion(queryBox);
+						
+						for(final SpatialIndexEntry entry : result) {
+							Assert.assertTrue(entry.getBoundingBox().intersects(queryBox));
+						}
+						
+						// Inserted entries are not lost
+						Assert.assertTrue(result.size() >= lastResultSize);
+						lastResultSize = result.size();
+					}
+				} catch(Throwable e) {
+					readerError.set(e);
+				}
+			});
+			
+			readers.add(reader);
+			reader.start();
+		}
+		
+		for(final SpatialIndexEntry entry : tupleList) {
+			index.insert(entry);
+		}
+		
+		insertDone.set(true);
+		
+		for(final Thread reader : readers) {
+			reader.join();
+		}
+		
+		Assert.assertNull(readerError.get());
+		RTreeTestHelper.queryIndex(tupleList, index);
+	}
+}